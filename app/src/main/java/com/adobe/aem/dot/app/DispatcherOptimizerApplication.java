@@ -16,7 +16,9 @@
 
 package com.adobe.aem.dot.app;
 
+import com.adobe.aem.dot.app.service.BatchAnalysisService;
 import com.adobe.aem.dot.app.service.ConfigurationOptimizerService;
+import com.adobe.aem.dot.app.service.ResidentAnalysisService;
 import com.adobe.aem.dot.common.ConfigurationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -35,10 +37,16 @@ public class DispatcherOptimizerApplication implements ApplicationRunner {
   private final Logger logger = LoggerFactory.getLogger(DispatcherOptimizerApplication.class);
 
   private final ConfigurationOptimizerService configurationOptimizerService;
+  private final BatchAnalysisService batchAnalysisService;
+  private final ResidentAnalysisService residentAnalysisService;
 
   @Autowired
-  public DispatcherOptimizerApplication(ConfigurationOptimizerService configurationOptimizerService) {
+  public DispatcherOptimizerApplication(ConfigurationOptimizerService configurationOptimizerService,
+                                        BatchAnalysisService batchAnalysisService,
+                                        ResidentAnalysisService residentAnalysisService) {
     this.configurationOptimizerService = configurationOptimizerService;
+    this.batchAnalysisService = batchAnalysisService;
+    this.residentAnalysisService = residentAnalysisService;
   }
 
   public static void main(String[] args) {
@@ -48,6 +56,15 @@ public class DispatcherOptimizerApplication implements ApplicationRunner {
   @Override
   public void run(ApplicationArguments args) throws Exception {
     try {
+      if (residentAnalysisService.isEnabled()) {
+        // The server keeps the application running until it is shut down.
+        residentAnalysisService.start();
+        return;
+      }
+      if (batchAnalysisService.isEnabled()) {
+        batchAnalysisService.run();
+        return;
+      }
       configurationOptimizerService.run();
     } catch (ConfigurationException e) {
       logger.error("General error running dispatcherConfigService.", e);
@@ -0,0 +1,223 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.adobe.aem.dot.app.metrics;
+
+import com.adobe.aem.dot.common.analyzer.Violation;
+import com.adobe.aem.dot.common.parser.ParseStatistics;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Measurement;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.Getter;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Micrometer meters of the parse, analyze and report phases of the optimizer, kept in a local registry.  The meters
+ * are exported to METRICS_FILE_NAME, so the runs of a scheduled job can be compared as configurations grow.
+ * <p>
+ * The meters are aggregate-only: they add up every analysis the app runs, and are not tagged by repository.  In a
+ * batch analysis, they cover all the repositories of the manifest, and the include depth is the deepest of any of
+ * them.  The batch summary has the figures of each repository.
+ */
+@Component
+public class OptimizerMetrics {
+  public static final String DISPATCHER = "dispatcher";
+  public static final String HTTPD = "httpd";
+
+  static final String PARSE_DURATION = "dot.parse.duration";
+  static final String PARSE_LINES = "dot.parse.lines";
+  static final String PARSE_INCLUDES = "dot.parse.includes";
+  static final String PARSE_INCLUDE_DEPTH = "dot.parse.include.depth";
+  static final String ANALYSIS_DURATION = "dot.analysis.duration";
+  static final String VIOLATIONS = "dot.violations";
+  static final String REPORT_WRITE_DURATION = "dot.report.write.duration";
+
+  @Getter
+  private final MeterRegistry registry;
+
+  // The file the meters are exported to, relative to the destination of the reports, or null to not export them.
+  @Getter
+  private final String metricsFileName;
+
+  // Meters are registered once per tag, the first time they are needed, instead of on every record.
+  private final Map<String, ConfigurationMeters> configurationMeters = new ConcurrentHashMap<>();
+  private final Map<String, Counter> violationCounters = new ConcurrentHashMap<>();
+  private final Timer reportWriteTimer;
+
+  @Autowired
+  public OptimizerMetrics(@Value("${METRICS_FILE_NAME:}") String metricsFileName) {
+    this(metricsFileName, new SimpleMeterRegistry());
+  }
+
+  public OptimizerMetrics(String metricsFileName, MeterRegistry registry) {
+    this.metricsFileName = StringUtils.trimToNull(metricsFileName);
+    this.registry = registry;
+    this.reportWriteTimer = Timer.builder(REPORT_WRITE_DURATION)
+            .description("Duration of generating and writing a report")
+            .register(this.registry);
+  }
+
+  /**
+   * Record the parse of a configuration.
+   * @param configuration The configuration type, DISPATCHER or HTTPD
+   * @param durationNanos The duration of the parse
+   * @param statistics The files and lines read by the parse, or null if no configuration file was read
+   */
+  public void recordParse(String configuration, long durationNanos, ParseStatistics statistics) {
+    ConfigurationMeters meters = getConfigurationMeters(configuration);
+    meters.parseDuration.record(durationNanos, TimeUnit.NANOSECONDS);
+    if (statistics == null) {
+      return;
+    }
+
+    meters.lines.increment(statistics.getLineCount());
+    meters.includes.increment(statistics.getIncludedFileCount());
+    meters.includeDepth.accumulateAndGet(statistics.getMaximumIncludeDepth(), Math::max);
+  }
+
+  /**
+   * Record the evaluation of the rules against a configuration.
+   * @param configuration The configuration type, DISPATCHER or HTTPD
+   * @param durationNanos The duration of the evaluation
+   */
+  public void recordAnalysis(String configuration, long durationNanos) {
+    getConfigurationMeters(configuration).analysisDuration.record(durationNanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Count the violations of an analysis by their severity.
+   * @param violations The violations
+   */
+  public void recordViolations(List<Violation> violations) {
+    Map<String, Integer> counts = new HashMap<>();
+    for (Violation violation : violations) {
+      counts.merge(String.valueOf(violation.getAnalyzerRule().getSeverity()), 1, Integer::sum);
+    }
+    for (Map.Entry<String, Integer> count : counts.entrySet()) {
+      this.violationCounters.computeIfAbsent(count.getKey(), severity -> Counter.builder(VIOLATIONS)
+              .description("Violations found, by severity")
+              .tag("severity", severity)
+              .register(this.registry))
+              .increment(count.getValue());
+    }
+  }
+
+  /**
+   * Record the writing of a report.
+   * @param durationNanos The duration of generating and writing the report
+   */
+  public void recordReportWrite(long durationNanos) {
+    this.reportWriteTimer.record(durationNanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Render the current value of each meter as a JSON document, ordered by meter name and tags.
+   * @return The metrics report
+   * @throws IOException if the meters cannot be rendered
+   */
+  public String generateMetricsReport() throws IOException {
+    List<Meter> meters = new ArrayList<>(this.registry.getMeters());
+    meters.sort(Comparator.comparing((Meter meter) -> meter.getId().getName())
+            .thenComparing(meter -> meter.getId().getTags().toString()));
+
+    List<Map<String, Object>> entries = new ArrayList<>();
+    for (Meter meter : meters) {
+      Map<String, Object> entry = new LinkedHashMap<>();
+      entry.put("name", meter.getId().getName());
+      entry.put("type", meter.getId().getType().toString());
+      if (meter.getId().getBaseUnit() != null) {
+        entry.put("baseUnit", meter.getId().getBaseUnit());
+      }
+      Map<String, String> tags = new LinkedHashMap<>();
+      for (Tag tag : meter.getId().getTags()) {
+        tags.put(tag.getKey(), tag.getValue());
+      }
+      entry.put("tags", tags);
+      Map<String, Double> measurements = new LinkedHashMap<>();
+      for (Measurement measurement : meter.measure()) {
+        measurements.put(measurement.getStatistic().toString(), measurement.getValue());
+      }
+      entry.put("measurements", measurements);
+      entries.add(entry);
+    }
+
+    Map<String, Object> report = new LinkedHashMap<>();
+    report.put("meters", entries);
+    ObjectMapper mapper = new ObjectMapper();
+    mapper.enable(SerializationFeature.INDENT_OUTPUT);
+    return mapper.writeValueAsString(report);
+  }
+
+  private ConfigurationMeters getConfigurationMeters(String configuration) {
+    return this.configurationMeters.computeIfAbsent(configuration,
+            key -> new ConfigurationMeters(key, this.registry));
+  }
+
+  /**
+   * The meters of one configuration type.
+   */
+  private static final class ConfigurationMeters {
+    private final Timer parseDuration;
+    private final Counter lines;
+    private final Counter includes;
+    private final AtomicLong includeDepth = new AtomicLong();
+    private final Timer analysisDuration;
+
+    private ConfigurationMeters(String configuration, MeterRegistry registry) {
+      this.parseDuration = Timer.builder(PARSE_DURATION)
+              .description("Duration of reading and parsing a configuration")
+              .tag("configuration", configuration)
+              .register(registry);
+      this.lines = Counter.builder(PARSE_LINES)
+              .description("Lines read from configuration files")
+              .tag("configuration", configuration)
+              .register(registry);
+      this.includes = Counter.builder(PARSE_INCLUDES)
+              .description("Configuration files read because they were included")
+              .tag("configuration", configuration)
+              .register(registry);
+      Gauge.builder(PARSE_INCLUDE_DEPTH, this.includeDepth, AtomicLong::get)
+              .description("Deepest level of included configuration files of any parse")
+              .tag("configuration", configuration)
+              .register(registry);
+      this.analysisDuration = Timer.builder(ANALYSIS_DURATION)
+              .description("Duration of evaluating the rules against a configuration")
+              .tag("configuration", configuration)
+              .register(registry);
+    }
+  }
+}
@@ -0,0 +1,183 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.adobe.aem.dot.app.service;
+
+import com.adobe.aem.dot.app.writers.ReportWriter;
+import com.adobe.aem.dot.common.ConfigurationException;
+import com.adobe.aem.dot.common.analyzer.Violation;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Analyzes the repositories listed in a manifest in one run, instead of one repository per start of the app.  The
+ * repositories are analyzed on a pool of BATCH_PARALLELISM threads, sharing the rules loaded by the
+ * <code>ConfigurationOptimizerService</code>.  Each repository's report is written to a folder named after the
+ * repository, and a summary of all of them to <code>summary.json</code>.  The metrics exported to METRICS_FILE_NAME
+ * are aggregate-only: they add up all the repositories, which the summary tells apart.
+ */
+@Component
+public class BatchAnalysisService {
+  static final String SUMMARY_FILE_NAME = "summary.json";
+
+  private final ConfigurationOptimizerService optimizerService;
+  private final ReportWriter writer;
+  private final String manifestPath;
+  private final int parallelism;
+  private final String reportFileName;
+
+  private final Logger logger = LoggerFactory.getLogger(BatchAnalysisService.class);
+
+  @Autowired
+  public BatchAnalysisService(@Value("${BATCH_MANIFEST_PATH:}") String manifestPath,
+                              @Value("${BATCH_PARALLELISM:4}") int parallelism,
+                              @Value("${REPORT_FILE_NAME}") String reportFileName,
+                              ConfigurationOptimizerService optimizerService,
+                              ReportWriter writer) {
+    this.manifestPath = StringUtils.trimToNull(manifestPath);
+    this.parallelism = Math.max(parallelism, 1);
+    this.reportFileName = reportFileName;
+    this.optimizerService = optimizerService;
+    this.writer = writer;
+  }
+
+  /**
+   * @return true if a manifest of repositories to analyze was provided
+   */
+  public boolean isEnabled() {
+    return this.manifestPath != null;
+  }
+
+  /**
+   * Analyze the repositories of the manifest, and write their reports and the summary.
+   * @return The summary
+   * @throws IOException when the manifest cannot be read, or the summary cannot be written
+   */
+  public BatchSummary run() throws IOException {
+    long start = System.currentTimeMillis();
+    List<String> repositories = readManifest(new File(this.manifestPath));
+    List<String> reportFolders = getReportFolders(repositories);
+    logger.info("Begin: Batch analysis.  Repositories={} Parallelism={}", repositories.size(), this.parallelism);
+
+    List<Callable<BatchSummary.RepositoryResult>> tasks = new ArrayList<>();
+    for (int index = 0; index < repositories.size(); index++) {
+      String repository = repositories.get(index);
+      String reportPath = reportFolders.get(index) + File.separator + this.reportFileName;
+      tasks.add(() -> analyze(repository, reportPath));
+    }
+
+    List<BatchSummary.RepositoryResult> results = new ArrayList<>();
+    ForkJoinPool pool = new ForkJoinPool(this.parallelism);
+    try {
+      for (Future<BatchSummary.RepositoryResult> result : pool.invokeAll(tasks)) {
+        results.add(result.get());
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted during the batch analysis.", ex);
+    } catch (ExecutionException ex) {
+      // Each analysis handles its own failures, so only an Error can end up here.
+      throw new IllegalStateException(ex.getCause());
+    } finally {
+      pool.shutdownNow();
+    }
+
+    BatchSummary summary = new BatchSummary(results, System.currentTimeMillis() - start);
+    ObjectMapper mapper = new ObjectMapper();
+    mapper.enable(SerializationFeature.INDENT_OUTPUT);
+    this.writer.writeReport(mapper.writeValueAsString(summary), SUMMARY_FILE_NAME);
+    // The costs of all the repositories' analyses are added up.
+    this.optimizerService.writeTimingReport();
+    this.optimizerService.writeMetricsReport();
+
+    logger.info("End: Batch analysis.  Repositories={} Failed={} Violations={} Duration={}ms",
+            summary.getRepositoryCount(), summary.getFailedCount(), summary.getViolationCount(),
+            summary.getDurationMillis());
+    return summary;
+  }
+
+  private BatchSummary.RepositoryResult analyze(String repository, String reportPath) {
+    long start = System.currentTimeMillis();
+    try {
+      List<Violation> violations = this.optimizerService.analyze(repository);
+      long writeStart = System.nanoTime();
+      this.optimizerService.writeReports(violations, reportPath);
+      this.optimizerService.getMetrics().recordReportWrite(System.nanoTime() - writeStart);
+      return new BatchSummary.RepositoryResult(repository, reportPath, violations,
+              System.currentTimeMillis() - start);
+    } catch (ConfigurationException | IOException | RuntimeException ex) {
+      logger.error("Repository could not be analyzed.  Repository=\"{}\"", repository, ex);
+      return new BatchSummary.RepositoryResult(repository, ex.toString(), System.currentTimeMillis() - start);
+    }
+  }
+
+  /**
+   * Read the repositories from the manifest: one local path per line.  Blank lines and lines starting with # are
+   * skipped, and relative paths are resolved from the folder of the manifest.
+   */
+  static List<String> readManifest(File manifest) throws IOException {
+    File baseFolder = manifest.getAbsoluteFile().getParentFile();
+    List<String> repositories = new ArrayList<>();
+    for (String line : Files.readAllLines(manifest.toPath(), StandardCharsets.UTF_8)) {
+      String path = line.trim();
+      if (path.isEmpty() || path.startsWith("#")) {
+        continue;
+      }
+      File repository = new File(path);
+      if (!repository.isAbsolute()) {
+        repository = new File(baseFolder, path);
+      }
+      repositories.add(ConfigurationOptimizerService.cleanPath(repository.toPath().normalize().toString()));
+    }
+    return repositories;
+  }
+
+  /**
+   * Name the report folder of each repository after the repository's folder, adding a number where names repeat.
+   */
+  static List<String> getReportFolders(List<String> repositories) {
+    List<String> folders = new ArrayList<>();
+    Set<String> used = new HashSet<>();
+    for (String repository : repositories) {
+      String name = StringUtils.defaultIfEmpty(new File(repository).getName(), "repository");
+      String folder = name;
+      for (int suffix = 2; !used.add(folder); suffix++) {
+        folder = name + "-" + suffix;
+      }
+      folders.add(folder);
+    }
+    return folders;
+  }
+}
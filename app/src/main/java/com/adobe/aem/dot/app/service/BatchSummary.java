@@ -0,0 +1,77 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.adobe.aem.dot.app.service;
+
+import com.adobe.aem.dot.common.analyzer.Severity;
+import com.adobe.aem.dot.common.analyzer.Violation;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The outcome of a batch analysis: a result per repository, in the order of the manifest, and the totals.
+ */
+@Getter
+public class BatchSummary {
+  private final int repositoryCount;
+  private final int failedCount;
+  private final int violationCount;
+  private final long durationMillis;
+  private final List<RepositoryResult> repositories;
+
+  BatchSummary(List<RepositoryResult> repositories, long durationMillis) {
+    this.repositories = repositories;
+    this.durationMillis = durationMillis;
+    this.repositoryCount = repositories.size();
+    this.failedCount = (int) repositories.stream().filter(result -> result.getError() != null).count();
+    this.violationCount = repositories.stream().mapToInt(RepositoryResult::getViolationCount).sum();
+  }
+
+  /**
+   * The outcome of analyzing one repository of a batch.
+   */
+  @Getter
+  public static class RepositoryResult {
+    private final String repository;
+    private final String report;
+    private final int violationCount;
+    private final Map<Severity, Integer> severityCounts = new TreeMap<>();
+    private final long durationMillis;
+    private final String error;
+
+    RepositoryResult(String repository, String report, List<Violation> violations, long durationMillis) {
+      this.repository = repository;
+      this.report = report;
+      this.violationCount = violations.size();
+      for (Violation violation : violations) {
+        this.severityCounts.merge(violation.getAnalyzerRule().getSeverity(), 1, Integer::sum);
+      }
+      this.durationMillis = durationMillis;
+      this.error = null;
+    }
+
+    RepositoryResult(String repository, String error, long durationMillis) {
+      this.repository = repository;
+      this.report = null;
+      this.violationCount = 0;
+      this.durationMillis = durationMillis;
+      this.error = error;
+    }
+  }
+}
@@ -16,15 +16,18 @@
 
 package com.adobe.aem.dot.app.service;
 
+import com.adobe.aem.dot.app.metrics.OptimizerMetrics;
 import com.adobe.aem.dot.app.writers.ReportWriter;
 import com.adobe.aem.dot.common.ConfigurationException;
+import com.adobe.aem.dot.common.ConfigurationFileCache;
+import com.adobe.aem.dot.common.analyzer.CostRecorder;
 import com.adobe.aem.dot.common.analyzer.Violation;
 import com.adobe.aem.dot.common.analyzer.ViolationVerbosity;
 import com.adobe.aem.dot.common.analyzer.rules.AnalyzerRuleList;
 import com.adobe.aem.dot.common.analyzer.rules.AnalyzerRuleListFactory;
 import com.adobe.aem.dot.common.parser.ConfigurationParseResults;
-import com.adobe.aem.dot.common.reporter.CSVReporter;
-import com.adobe.aem.dot.common.reporter.ViolationReporter;
+import com.adobe.aem.dot.common.reporter.ReportFormat;
+import com.adobe.aem.dot.common.reporter.ReportPipeline;
 import com.adobe.aem.dot.dispatcher.core.DispatcherConfigurationFactory;
 import com.adobe.aem.dot.dispatcher.core.DispatcherConstants;
 import com.adobe.aem.dot.dispatcher.core.analyzer.DispatcherAnalyzer;
@@ -45,7 +48,9 @@ import org.springframework.stereotype.Component;
 import java.io.File;
 import java.io.IOException;
 import java.io.StringWriter;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -57,13 +62,18 @@ public class ConfigurationOptimizerService {
 
   private final HttpdAnalyzer httpdAnalyzer;
   private final DispatcherAnalyzer dispatcherAnalyzer;
-  private final ViolationReporter reporter;
+  private String reportFileName;
+  private ReportFormat reportFormat = ReportFormat.CSV;
+  private List<ReportFormat> reportFormats = Collections.emptyList();
   private final ReportWriter writer;
 
   private final String repoURL;
   private String anyDir;
   private String httpdConfDir;
   private final ViolationVerbosity verbosity;
+  private String timingReportFileName;
+  private CostRecorder costRecorder = CostRecorder.DISABLED;
+  private OptimizerMetrics metrics = new OptimizerMetrics(null);
 
   private final Logger logger = LoggerFactory.getLogger(ConfigurationOptimizerService.class);
 
@@ -92,7 +102,6 @@ public class ConfigurationOptimizerService {
       this.httpdConfDir = cleanPath(httpdConfDir);
     }
 
-    this.reporter = new CSVReporter();
     this.writer = writer;
 
     final AnalyzerRuleList analyzerRuleList = AnalyzerRuleListFactory.getAnalyzerRuleList(rulesDir);
@@ -101,6 +110,58 @@ public class ConfigurationOptimizerService {
     this.verbosity = verbosity;
   }
 
+  /**
+   * Pick the format of the report from the extension of its file name: csv, html, sarif or jsonl.  Reports are written
+   * as CSV when the extension is not known.
+   * @param reportFileName The file name of the report
+   */
+  @Autowired
+  public void setReportFileName(@Value("${REPORT_FILE_NAME:}") String reportFileName) {
+    this.reportFileName = StringUtils.trimToNull(reportFileName);
+    this.reportFormat = ReportFormat.forFileName(reportFileName);
+  }
+
+  public ReportFormat getReportFormat() {
+    return this.reportFormat;
+  }
+
+  /**
+   * Write the violations in other formats as well, in the same pass over them.  Each report is named after the report
+   * file name, with the extension of its format.
+   * @param reportFormats A comma separated list of the formats of the reports, such as <code>csv,html,sarif</code>, or
+   *                      empty to only write the report in the format picked by the report file name
+   */
+  @Autowired
+  public void setReportFormats(@Value("${REPORT_FORMATS:}") String reportFormats) {
+    this.reportFormats = ReportFormat.forExtensions(reportFormats);
+  }
+
+  /**
+   * Record the cost of the parse phases, rules and checks of the analyses, and write them as a JSON timing report.
+   * The main CSV and HTML reports then include the costs as well.
+   * @param timingReportFileName The file name of the timing report, or empty to not record the costs
+   */
+  @Autowired
+  public void setTimingReportFileName(@Value("${TIMING_REPORT_FILE_NAME:}") String timingReportFileName) {
+    this.timingReportFileName = StringUtils.trimToNull(timingReportFileName);
+    this.costRecorder = this.timingReportFileName != null ? new CostRecorder() : CostRecorder.DISABLED;
+    this.dispatcherAnalyzer.setCostRecorder(this.costRecorder);
+    this.httpdAnalyzer.setCostRecorder(this.costRecorder);
+  }
+
+  /**
+   * Record the meters of the parse, analyze and report phases in the provided metrics.
+   * @param metrics The metrics of the application
+   */
+  @Autowired
+  public void setMetrics(OptimizerMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+  public OptimizerMetrics getMetrics() {
+    return this.metrics;
+  }
+
   /**
    * Read, analyze, and report on optimizations for the provided config.
    * @throws ConfigurationException May throw ConfigurationException
@@ -115,16 +176,107 @@ public class ConfigurationOptimizerService {
 
     logger.trace("Begin DispatcherConfigService");
 
+    List<Violation> violationCollector = this.analyze(this.repoURL);
+
+    // Generate reports in the chosen formats (JSON, CSV, etc.), writing them out as they are generated
+    long start = System.nanoTime();
+    writeReports(violationCollector, null);
+    this.metrics.recordReportWrite(System.nanoTime() - start);
+    writeTimingReport();
+    writeMetricsReport();
+
+    logger.trace("End DispatcherConfigService");
+  }
+
+  /**
+   * Write the reports of the violations, in a single pass over them.  The report in the format of the report file name
+   * is written to the report path, and the reports in the other formats of REPORT_FORMATS next to it.  The main report
+   * includes the recorded costs.  The reports of a batch do not, since the costs add up all of its repositories.
+   * @param violations The violations to report
+   * @param reportPath The path of the report, relative to the destination of the reports, or null for the main report
+   * @throws IOException when a report cannot be written
+   */
+  public void writeReports(List<Violation> violations, String reportPath) throws IOException {
+    CostRecorder reportedCosts = reportPath == null ? this.costRecorder : null;
+    // Closing the pipeline closes the reports already opened, if opening another one or writing them fails.
+    try (ReportPipeline pipeline = new ReportPipeline()) {
+      pipeline.addSink(this.reportFormat.name(), this.reportFormat.createReporter(reportedCosts),
+              writer.openReport(reportPath));
+      for (ReportFormat format : this.reportFormats) {
+        if (format != this.reportFormat) {
+          String path = reportPath != null ? reportPath : this.reportFileName;
+          if (path == null) {
+            logger.warn("The report file name is not set, so the report cannot be written.  Format=\"{}\"", format);
+            continue;
+          }
+          pipeline.addSink(format.name(), format.createReporter(reportedCosts),
+                  writer.openReport(format.getFileName(path)));
+        }
+      }
+      pipeline.write(violations.iterator());
+    }
+  }
+
+  /**
+   * Write the costs recorded by the analyses so far, if TIMING_REPORT_FILE_NAME is set.
+   * @throws IOException May throw IOException
+   */
+  public void writeTimingReport() throws IOException {
+    if (this.timingReportFileName != null) {
+      writer.writeReport(this.costRecorder.generateTimingReport(), this.timingReportFileName);
+    }
+  }
+
+  /**
+   * Write the meters recorded so far, if METRICS_FILE_NAME is set.
+   * @throws IOException May throw IOException
+   */
+  public void writeMetricsReport() throws IOException {
+    if (this.metrics.getMetricsFileName() != null) {
+      writer.writeReport(this.metrics.generateMetricsReport(), this.metrics.getMetricsFileName());
+    }
+  }
+
+  /**
+   * Read and analyze the Dispatcher and Apache Httpd configurations of a repository.  The configurations are expected
+   * at the same paths in every repository.  The rules are shared by all the analyses, which may run on several
+   * threads.
+   * @param repoURL Local path to the repository
+   * @return The violations found, reduced as configured by REPORT_VERBOSITY
+   * @throws ConfigurationException May throw ConfigurationException
+   */
+  public List<Violation> analyze(String repoURL) throws ConfigurationException {
+    return analyze(repoURL, null);
+  }
+
+  /**
+   * Read and analyze the Dispatcher and Apache Httpd configurations of a repository, skipping included files outside
+   * of a folder.  Used for repositories which are not trusted, such as uploaded ones.
+   * @param repoURL Local path to the repository
+   * @param confinedRoot The canonical path of the folder included files must be within, or null to include any file
+   * @return The violations found, reduced as configured by REPORT_VERBOSITY
+   * @throws ConfigurationException May throw ConfigurationException
+   */
+  public List<Violation> analyze(String repoURL, Path confinedRoot) throws ConfigurationException {
     List<Violation> violationCollector = new ArrayList<>();
+    // Both configurations are read through one cache, so the repository is indexed once per analysis.
+    ConfigurationFileCache fileCache = new ConfigurationFileCache();
+    fileCache.setConfinedRoot(confinedRoot);
     DispatcherConfigurationFactory factory = new DispatcherConfigurationFactory();
-    ConfigurationParseResults<DispatcherConfiguration> results = factory.parseConfiguration(this.repoURL, this.anyDir);
+    factory.setCostRecorder(this.costRecorder);
+    long start = System.nanoTime();
+    ConfigurationParseResults<DispatcherConfiguration> results = factory.parseConfiguration(repoURL, this.anyDir,
+            fileCache);
+    this.metrics.recordParse(OptimizerMetrics.DISPATCHER, System.nanoTime() - start, factory.getParseStatistics());
     if (results != null) {
       violationCollector.addAll(results.getViolations(this.verbosity));
 
       // Analyze the dispatcher configuration for violations
       DispatcherConfiguration dispatcherConfiguration = results.getConfiguration();
       if (dispatcherConfiguration != null) {
+        start = System.nanoTime();
         violationCollector.addAll(this.dispatcherAnalyzer.getViolations(dispatcherConfiguration, this.verbosity));
+        this.metrics.recordAnalysis(OptimizerMetrics.DISPATCHER, System.nanoTime() - start);
       } else {
         logger.warn("Dispatcher configuration failed to parse correctly.");  // Probably already logged as error.
       }
@@ -132,27 +284,27 @@ public class ConfigurationOptimizerService {
 
     // Analyze the Apache Httpd configuration for violations
     HttpdConfigurationFactory httpdConfigFactory = new HttpdConfigurationFactory();
-    ConfigurationParseResults<HttpdConfiguration> httpdResults = httpdConfigFactory.getHttpdConfiguration(this.repoURL,
-            this.httpdConfDir);
+    httpdConfigFactory.setCostRecorder(this.costRecorder);
+    start = System.nanoTime();
+    ConfigurationParseResults<HttpdConfiguration> httpdResults = httpdConfigFactory.getHttpdConfiguration(repoURL,
+            this.httpdConfDir, fileCache);
+    this.metrics.recordParse(OptimizerMetrics.HTTPD, System.nanoTime() - start,
+            httpdConfigFactory.getParseStatistics());
     if (httpdResults != null) {
       violationCollector.addAll(httpdResults.getViolations(this.verbosity));
 
       HttpdConfiguration httpdConfiguration = httpdResults.getConfiguration();
       if (httpdConfiguration != null) {
+        start = System.nanoTime();
         violationCollector.addAll(this.httpdAnalyzer.getViolations(httpdConfiguration, this.verbosity));
+        this.metrics.recordAnalysis(OptimizerMetrics.HTTPD, System.nanoTime() - start);
       }
     } else {
       logger.warn("Httpd configuration failed to parse correctly.");  // Probably already logged as error.
     }
 
-    // Generate a report in a chosen format (JSON, CSV, etc.)
-    String report = this.reporter.generateViolationReport(violationCollector);
-    logger.debug("Analysis result: \n{}", report);
-
-    // Output the report
-    writer.writeReport(report);
-
-    logger.trace("End DispatcherConfigService");
+    this.metrics.recordViolations(violationCollector);
+    return violationCollector;
   }
 
   public String getEffectiveConfiguration(DispatcherConfiguration config) throws IOException {
@@ -163,7 +315,7 @@ public class ConfigurationOptimizerService {
     return writer.toString();
   }
 
-  private static String cleanPath(String path) {
+  static String cleanPath(String path) {
     String cleaned = path;
     if (StringUtils.isNotEmpty(path)) {
       cleaned = cleaned.trim();
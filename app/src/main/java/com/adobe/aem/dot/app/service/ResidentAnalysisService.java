@@ -0,0 +1,466 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.adobe.aem.dot.app.service;
+
+import com.adobe.aem.dot.common.ConfigurationException;
+import com.adobe.aem.dot.common.analyzer.Violation;
+import com.adobe.aem.dot.common.reporter.ReportFormat;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Service which keeps the analyzers, with their compiled rules, in memory and answers analysis requests over HTTP, so
+ * that each analysis does not pay for the start of the application.  The server listens on the loopback address only.
+ * Requests must name the loopback host in their Host header, so web pages cannot reach the server by rebinding a
+ * domain name to the loopback address.  Analysis requests must carry the SERVICE_TOKEN as a bearer token.
+ * <ul>
+ *   <li><code>POST /analyze?repository=PATH</code> analyzes the repository at a local path, which must be within one
+ *   of the SERVICE_REPOSITORY_ROOTS.</li>
+ *   <li><code>POST /analyze</code> with a zip body analyzes the repository in the zip, laid out like a repository:
+ *   the dispatcher module is expected at the configured DISPATCHER_ANY_CONFIG_PATH and HTTPD_CONF_CONFIG_PATH.
+ *   Included files outside of the uploaded repository are skipped.</li>
+ *   <li><code>GET /health</code> answers OK once the server is up.</li>
+ * </ul>
+ * The report is returned in the format of the optional <code>format</code> parameter (csv, html, sarif or jsonl), or
+ * the format of REPORT_FILE_NAME.  Analyses run concurrently, up to SERVICE_PARALLELISM at a time.  The costs and
+ * meters recorded for TIMING_REPORT_FILE_NAME and METRICS_FILE_NAME add up all the analyses, and are written when the
+ * service stops.
+ */
+@Component
+public class ResidentAnalysisService {
+  static final String ANALYZE_PATH = "/analyze";
+  static final String HEALTH_PATH = "/health";
+  static final List<String> LOOPBACK_HOSTS = Arrays.asList("localhost", "127.0.0.1", "[::1]");
+  private static final String BEARER = "Bearer ";
+
+  private final ConfigurationOptimizerService optimizerService;
+  private final int port;
+  private final int parallelism;
+  private final long maximumUploadBytes;
+  private final int maximumUploadEntries;
+  private final byte[] token;
+  private final List<Path> repositoryRoots = new ArrayList<>();
+
+  private HttpServer server;
+  private ForkJoinPool pool;
+
+  private final Logger logger = LoggerFactory.getLogger(ResidentAnalysisService.class);
+
+  @Autowired
+  public ResidentAnalysisService(@Value("${SERVICE_PORT:}") String port,
+                                 @Value("${SERVICE_PARALLELISM:4}") int parallelism,
+                                 @Value("${SERVICE_MAXIMUM_UPLOAD_BYTES:104857600}") long maximumUploadBytes,
+                                 @Value("${SERVICE_MAXIMUM_UPLOAD_ENTRIES:10000}") int maximumUploadEntries,
+                                 @Value("${SERVICE_TOKEN:}") String token,
+                                 @Value("${SERVICE_REPOSITORY_ROOTS:}") String repositoryRoots,
+                                 ConfigurationOptimizerService optimizerService) throws IOException {
+    String trimmedPort = StringUtils.trimToNull(port);
+    this.port = trimmedPort == null ? -1 : Integer.parseInt(trimmedPort);
+    this.parallelism = Math.max(parallelism, 1);
+    this.maximumUploadBytes = maximumUploadBytes;
+    this.maximumUploadEntries = maximumUploadEntries;
+    String trimmedToken = StringUtils.trimToNull(token);
+    this.token = trimmedToken == null ? null : trimmedToken.getBytes(StandardCharsets.UTF_8);
+    for (String root : StringUtils.split(StringUtils.defaultString(repositoryRoots), ',')) {
+      if (StringUtils.isNotBlank(root)) {
+        this.repositoryRoots.add(new File(root.trim()).getCanonicalFile().toPath());
+      }
+    }
+    this.optimizerService = optimizerService;
+  }
+
+  /**
+   * @return true if a port to listen on was provided
+   */
+  public boolean isEnabled() {
+    return this.port >= 0;
+  }
+
+  /**
+   * Start listening for analysis requests.  The server runs until <code>stop</code> is called, when the application
+   * shuts down.
+   * @throws IOException when the server cannot listen on the port
+   * @throws IllegalStateException when no SERVICE_TOKEN is set
+   */
+  public synchronized void start() throws IOException {
+    if (this.server != null) {
+      return;
+    }
+    if (this.token == null) {
+      throw new IllegalStateException("Set SERVICE_TOKEN to run the analysis service.");
+    }
+    this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), this.port), 0);
+    this.pool = new ForkJoinPool(this.parallelism);
+    this.server.setExecutor(this.pool);
+    this.server.createContext(ANALYZE_PATH, this::handleAnalyze);
+    this.server.createContext(HEALTH_PATH, this::handleHealth);
+    this.server.start();
+    logger.info("Analysis service started.  Address=\"{}\" Parallelism={}", getAddress(), this.parallelism);
+  }
+
+  /**
+   * @return The address the server listens on, or null if it is not started
+   */
+  public synchronized InetSocketAddress getAddress() {
+    return this.server != null ? this.server.getAddress() : null;
+  }
+
+  /**
+   * Stop the server, and write the timing and metrics reports of the analyses it answered.
+   */
+  @PreDestroy
+  public synchronized void stop() {
+    if (this.server == null) {
+      return;
+    }
+    // Let the analyses in progress finish.
+    this.server.stop(1);
+    this.pool.shutdownNow();
+    this.server = null;
+    this.pool = null;
+    try {
+      this.optimizerService.writeTimingReport();
+      this.optimizerService.writeMetricsReport();
+    } catch (IOException ex) {
+      logger.error("Timing or metrics report could not be written.", ex);
+    }
+    logger.info("Analysis service stopped.");
+  }
+
+  private void handleHealth(HttpExchange exchange) throws IOException {
+    try {
+      if (!isLoopbackHost(exchange)) {
+        sendText(exchange, 403, "Use localhost or 127.0.0.1 as the host.");
+        return;
+      }
+      if (!"GET".equals(exchange.getRequestMethod())) {
+        sendText(exchange, 405, "Use GET.");
+        return;
+      }
+      sendText(exchange, 200, "OK");
+    } finally {
+      exchange.close();
+    }
+  }
+
+  private void handleAnalyze(HttpExchange exchange) throws IOException {
+    long start = System.currentTimeMillis();
+    File uploadFolder = null;
+    Path confinedRoot = null;
+    boolean reporting = false;
+    try {
+      if (!isLoopbackHost(exchange)) {
+        sendText(exchange, 403, "Use localhost or 127.0.0.1 as the host.");
+        return;
+      }
+      if (!hasToken(exchange)) {
+        exchange.getResponseHeaders().set("WWW-Authenticate", "Bearer");
+        sendText(exchange, 401, "Provide the service token as a bearer token.");
+        return;
+      }
+      if (!"POST".equals(exchange.getRequestMethod())) {
+        sendText(exchange, 405, "Use POST.");
+        return;
+      }
+      Map<String, String> parameters = getParameters(exchange.getRequestURI().getRawQuery());
+
+      ReportFormat format = this.optimizerService.getReportFormat();
+      String formatName = StringUtils.trimToNull(parameters.get("format"));
+      if (formatName != null) {
+        List<ReportFormat> formats = ReportFormat.forExtensions(formatName);
+        if (formats.size() != 1) {
+          sendText(exchange, 400, "Provide a single report format.");
+          return;
+        }
+        format = formats.get(0);
+      }
+
+      String repository = StringUtils.trimToNull(parameters.get("repository"));
+      if (repository == null) {
+        if (getContentLength(exchange) > this.maximumUploadBytes) {
+          sendText(exchange, 413, "The zip is larger than " + this.maximumUploadBytes + " bytes.");
+          return;
+        }
+        uploadFolder = Files.createTempDirectory("dot-analysis").toFile();
+        // Chunked bodies have no Content-Length, so the body is counted as it is read as well.
+        extractZip(new LimitedInputStream(exchange.getRequestBody(), this.maximumUploadBytes), uploadFolder);
+        repository = uploadFolder.getPath();
+        confinedRoot = uploadFolder.getCanonicalFile().toPath();
+      } else if (!isWithinRepositoryRoots(new File(repository))) {
+        sendText(exchange, 403, "The repository is not within the SERVICE_REPOSITORY_ROOTS.");
+        return;
+      } else if (!new File(repository).isDirectory()) {
+        sendText(exchange, 400, "The repository is not a folder.  Repository=" + repository);
+        return;
+      }
+
+      List<Violation> violations = this.optimizerService.analyze(ConfigurationOptimizerService.cleanPath(repository),
+              confinedRoot);
+
+      long writeStart = System.nanoTime();
+      exchange.getResponseHeaders().set("Content-Type", getContentType(format));
+      exchange.sendResponseHeaders(200, 0);
+      reporting = true;
+      try (Writer writer = new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(),
+              StandardCharsets.UTF_8))) {
+        format.createReporter().writeViolationReport(violations.iterator(), writer);
+      }
+      this.optimizerService.getMetrics().recordReportWrite(System.nanoTime() - writeStart);
+      logger.info("Analyzed repository.  Repository=\"{}\" Violations={} Duration={}ms",
+              uploadFolder != null ? "(upload)" : repository, violations.size(), System.currentTimeMillis() - start);
+    } catch (UploadTooLargeException ex) {
+      sendText(exchange, 413, ex.getMessage());
+    } catch (IllegalArgumentException ex) {
+      if (reporting) {
+        logger.error("Report could not be written.", ex);
+      } else {
+        sendText(exchange, 400, ex.getMessage());
+      }
+    } catch (ConfigurationException | IOException | RuntimeException ex) {
+      logger.error("Repository could not be analyzed.", ex);
+      // Once the report is started, the status cannot change anymore.  The details are left to the log.
+      if (!reporting) {
+        sendText(exchange, 500, "The repository could not be analyzed.  See the service log for details.");
+      }
+    } finally {
+      exchange.close();
+      if (uploadFolder != null) {
+        FileUtils.deleteQuietly(uploadFolder);
+      }
+    }
+  }
+
+  /**
+   * Extract a zip to a folder.  Entries leading out of the folder, zips larger than SERVICE_MAXIMUM_UPLOAD_BYTES once
+   * extracted, and zips with more than SERVICE_MAXIMUM_UPLOAD_ENTRIES entries, folders and empty files included, are
+   * refused.  The extracted bytes and entries are counted as they are extracted, so extracting stops as soon as a
+   * limit is passed.
+   */
+  void extractZip(InputStream body, File folder) throws IOException {
+    Path root = folder.getCanonicalFile().toPath();
+    long extractedBytes = 0;
+    int entries = 0;
+    try (ZipInputStream zip = new ZipInputStream(body)) {
+      ZipEntry entry;
+      while ((entry = zip.getNextEntry()) != null) {
+        if (++entries > this.maximumUploadEntries) {
+          throw new UploadTooLargeException("The zip has more than " + this.maximumUploadEntries + " entries.");
+        }
+        Path target = root.resolve(entry.getName()).normalize();
+        if (!target.startsWith(root)) {
+          throw new IllegalArgumentException("The zip entry leads out of the repository.  Entry=" + entry.getName());
+        }
+        if (entry.isDirectory()) {
+          Files.createDirectories(target);
+          continue;
+        }
+        Files.createDirectories(target.getParent());
+        extractedBytes = copy(zip, target, extractedBytes);
+      }
+    }
+    if (entries == 0) {
+      throw new IllegalArgumentException("Provide a repository parameter, or a zip of the repository as the body.");
+    }
+  }
+
+  /**
+   * Copy a zip entry to a file, stopping once the extracted bytes pass SERVICE_MAXIMUM_UPLOAD_BYTES.
+   * @return The bytes extracted so far, including this entry
+   */
+  private long copy(InputStream entry, Path target, long extractedBytes) throws IOException {
+    byte[] buffer = new byte[8192];
+    try (OutputStream output = Files.newOutputStream(target)) {
+      int read;
+      while ((read = entry.read(buffer)) != -1) {
+        extractedBytes += read;
+        if (extractedBytes > this.maximumUploadBytes) {
+          throw new UploadTooLargeException("The zip is larger than " + this.maximumUploadBytes + " bytes.");
+        }
+        output.write(buffer, 0, read);
+      }
+    }
+    return extractedBytes;
+  }
+
+  /**
+   * @return true if the Host header names the loopback address, with or without a port.
+   */
+  static boolean isLoopbackHost(HttpExchange exchange) {
+    String host = StringUtils.trimToEmpty(exchange.getRequestHeaders().getFirst("Host")).toLowerCase(Locale.ROOT);
+    int colon = host.lastIndexOf(':');
+    if (colon > host.lastIndexOf(']')) {
+      host = host.substring(0, colon);
+    }
+    return LOOPBACK_HOSTS.contains(host);
+  }
+
+  private boolean hasToken(HttpExchange exchange) {
+    String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+    if (authorization == null || !authorization.startsWith(BEARER)) {
+      return false;
+    }
+    byte[] provided = authorization.substring(BEARER.length()).trim().getBytes(StandardCharsets.UTF_8);
+    // Compare in constant time, so the token cannot be guessed from the response times.
+    return MessageDigest.isEqual(this.token, provided);
+  }
+
+  private boolean isWithinRepositoryRoots(File repository) throws IOException {
+    Path path = repository.getCanonicalFile().toPath();
+    for (Path root : this.repositoryRoots) {
+      if (path.startsWith(root)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return The length of the request body, or -1 if it is not known in advance
+   */
+  private static long getContentLength(HttpExchange exchange) {
+    String contentLength = exchange.getRequestHeaders().getFirst("Content-Length");
+    try {
+      return contentLength == null ? -1 : Long.parseLong(contentLength.trim());
+    } catch (NumberFormatException ex) {
+      throw new IllegalArgumentException("The Content-Length is not a number.");
+    }
+  }
+
+  static Map<String, String> getParameters(String query) throws UnsupportedEncodingException {
+    Map<String, String> parameters = new HashMap<>();
+    if (StringUtils.isEmpty(query)) {
+      return parameters;
+    }
+    for (String parameter : query.split("&")) {
+      int equals = parameter.indexOf('=');
+      String name = equals < 0 ? parameter : parameter.substring(0, equals);
+      String value = equals < 0 ? "" : parameter.substring(equals + 1);
+      parameters.put(URLDecoder.decode(name, "UTF-8"), URLDecoder.decode(value, "UTF-8"));
+    }
+    return parameters;
+  }
+
+  static String getContentType(ReportFormat format) {
+    switch (format) {
+      case HTML:
+        return "text/html; charset=UTF-8";
+      case SARIF:
+        return "application/sarif+json; charset=UTF-8";
+      case JSONL:
+        return "application/x-ndjson; charset=UTF-8";
+      case CSV:
+      default:
+        return "text/csv; charset=UTF-8";
+    }
+  }
+
+  private static void sendText(HttpExchange exchange, int status, String text) throws IOException {
+    byte[] body = text.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=UTF-8");
+    exchange.sendResponseHeaders(status, body.length);
+    try (OutputStream output = exchange.getResponseBody()) {
+      output.write(body);
+    }
+  }
+
+  /**
+   * Request body which refuses to be read past SERVICE_MAXIMUM_UPLOAD_BYTES, whether or not a Content-Length was sent.
+   */
+  static final class LimitedInputStream extends FilterInputStream {
+    private final long maximumBytes;
+    private long readBytes = 0;
+
+    LimitedInputStream(InputStream input, long maximumBytes) {
+      super(input);
+      this.maximumBytes = maximumBytes;
+    }
+
+    @Override
+    public int read() throws IOException {
+      int read = super.read();
+      if (read != -1) {
+        count(1);
+      }
+      return read;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+      int read = super.read(buffer, offset, length);
+      if (read > 0) {
+        count(read);
+      }
+      return read;
+    }
+
+    @Override
+    public long skip(long length) throws IOException {
+      long skipped = super.skip(length);
+      count(skipped);
+      return skipped;
+    }
+
+    private void count(long bytes) {
+      readBytes += bytes;
+      if (readBytes > maximumBytes) {
+        throw new UploadTooLargeException("The zip is larger than " + maximumBytes + " bytes.");
+      }
+    }
+  }
+
+  /**
+   * Thrown when an uploaded zip is larger than SERVICE_MAXIMUM_UPLOAD_BYTES or SERVICE_MAXIMUM_UPLOAD_ENTRIES.
+   */
+  static final class UploadTooLargeException extends IllegalArgumentException {
+    UploadTooLargeException(String message) {
+      super(message);
+    }
+  }
+}
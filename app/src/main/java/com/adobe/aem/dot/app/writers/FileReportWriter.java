@@ -25,35 +25,65 @@ import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
 
 @Component
 public class FileReportWriter implements ReportWriter {
 
   private Logger logger = LoggerFactory.getLogger(FileReportWriter.class);
 
-  private String pathToReportDestination;
+  private final String artifactDestinationPath;
+  private final String pathToReportDestination;
 
   public FileReportWriter(
           @Value("${ARTIFACTS_DESTINATION_PATH}") String artifactDestinationPath,
           @Value("${REPORT_FILE_NAME}") String reportFileName
   ) {
     boolean pathEndsWithSlash = artifactDestinationPath.endsWith(File.separator);
-    this.pathToReportDestination = artifactDestinationPath + (pathEndsWithSlash ? "" : File.separator) + reportFileName;
+    this.artifactDestinationPath = artifactDestinationPath + (pathEndsWithSlash ? "" : File.separator);
+    this.pathToReportDestination = this.artifactDestinationPath + reportFileName;
   }
 
   @Override
   public void writeReport(String report) throws IOException {
-    logger.info("Begin: Writing report.  Destination=\"{}\"", this.pathToReportDestination);
+    write(report, this.pathToReportDestination);
+  }
 
-    // Create directories, if needed
-    File reportFile = new File(this.pathToReportDestination);
-    reportFile.getParentFile().mkdirs();
+  @Override
+  public void writeReport(String report, String reportPath) throws IOException {
+    write(report, this.artifactDestinationPath + reportPath);
+  }
+
+  @Override
+  public Writer openReport(String reportPath) throws IOException {
+    String destination = reportPath == null ? this.pathToReportDestination :
+            this.artifactDestinationPath + reportPath;
+    logger.info("Begin: Writing report.  Destination=\"{}\"", destination);
+
+    return new BufferedWriter(new FileWriter(createParentFolders(destination))) {
+      @Override
+      public void close() throws IOException {
+        super.close();
+        logger.info("End: Wrote report.  Destination=\"{}\"", destination);
+      }
+    };
+  }
+
+  private void write(String report, String destination) throws IOException {
+    logger.info("Begin: Writing report.  Destination=\"{}\"", destination);
 
     // Write report
-    try (BufferedWriter writer = new BufferedWriter(new FileWriter(this.pathToReportDestination))) {
+    try (BufferedWriter writer = new BufferedWriter(new FileWriter(createParentFolders(destination)))) {
       writer.write(report);
     }
 
-    logger.info("End: Wrote report.  Destination=\"{}\"", this.pathToReportDestination);
+    logger.info("End: Wrote report.  Destination=\"{}\"", destination);
+  }
+
+  private File createParentFolders(String destination) {
+    // Create directories, if needed
+    File reportFile = new File(destination);
+    reportFile.getParentFile().mkdirs();
+    return reportFile;
   }
 }
@@ -17,7 +17,43 @@
 package com.adobe.aem.dot.app.writers;
 
 import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
 
 public interface ReportWriter {
   void writeReport(String report) throws IOException;
+
+  /**
+   * Write a report of its own, such as one of the reports of a batch analysis.
+   * @param report The report
+   * @param reportPath The path of the report, relative to the destination of the reports
+   * @throws IOException when the report cannot be written
+   */
+  void writeReport(String report, String reportPath) throws IOException;
+
+  /**
+   * Open the report for writing it as it is generated.  The report is complete once the writer is closed.  By default,
+   * the report is collected in memory and passed to <code>writeReport</code> when the writer is closed.
+   * @param reportPath The path of the report, relative to the destination of the reports, or null for the main report
+   * @return The writer of the report
+   * @throws IOException when the report cannot be opened
+   */
+  default Writer openReport(String reportPath) throws IOException {
+    return new StringWriter() {
+      private boolean closed;
+
+      @Override
+      public void close() throws IOException {
+        if (closed) {
+          return;
+        }
+        closed = true;
+        if (reportPath == null) {
+          writeReport(toString());
+        } else {
+          writeReport(toString(), reportPath);
+        }
+      }
+    };
+  }
 }
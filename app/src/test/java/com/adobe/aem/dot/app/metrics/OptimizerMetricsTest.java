@@ -0,0 +1,126 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.adobe.aem.dot.app.metrics;
+
+import com.adobe.aem.dot.app.service.ConfigurationOptimizerService;
+import com.adobe.aem.dot.app.writers.ReportWriter;
+import com.adobe.aem.dot.common.ConfigurationException;
+import com.adobe.aem.dot.common.analyzer.AnalyzerRule;
+import com.adobe.aem.dot.common.analyzer.Severity;
+import com.adobe.aem.dot.common.analyzer.Violation;
+import com.adobe.aem.dot.common.analyzer.ViolationVerbosity;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OptimizerMetricsTest {
+
+  @Test
+  void recordsEachPhase() throws ConfigurationException, IOException {
+    String testProject = new File(System.getProperty("user.dir"),
+            "../test-projects/test-project-all-rules-fail").getCanonicalPath();
+    Map<String, String> reports = new HashMap<>();
+    ReportWriter writer = new ReportWriter() {
+      @Override
+      public void writeReport(String report) {
+        reports.put("", report);
+      }
+
+      @Override
+      public void writeReport(String report, String reportPath) {
+        reports.put(reportPath, report);
+      }
+    };
+    MeterRegistry registry = new SimpleMeterRegistry();
+    OptimizerMetrics metrics = new OptimizerMetrics(" metrics.json ", registry);
+    ConfigurationOptimizerService service = new ConfigurationOptimizerService(testProject,
+            "dispatcher/src/conf.dispatcher.d", "", "dispatcher/src/conf", ViolationVerbosity.FULL, writer);
+    service.setMetrics(metrics);
+
+    List<Violation> violations = service.analyze(testProject);
+    service.analyze(testProject);
+
+    for (String configuration : new String[] { OptimizerMetrics.DISPATCHER, OptimizerMetrics.HTTPD }) {
+      assertEquals(2, registry.get(OptimizerMetrics.PARSE_DURATION).tag("configuration", configuration).timer()
+              .count());
+      assertEquals(2, registry.get(OptimizerMetrics.ANALYSIS_DURATION).tag("configuration", configuration).timer()
+              .count());
+      assertTrue(registry.get(OptimizerMetrics.PARSE_INCLUDES).tag("configuration", configuration).counter()
+              .count() > 0);
+      assertTrue(registry.get(OptimizerMetrics.PARSE_LINES).tag("configuration", configuration).counter()
+              .count() > 0);
+      assertTrue(registry.get(OptimizerMetrics.PARSE_INCLUDE_DEPTH).tag("configuration", configuration).gauge()
+              .value() > 1);
+    }
+    double violationCount = registry.get(OptimizerMetrics.VIOLATIONS).counters().stream()
+            .mapToDouble(counter -> counter.count())
+            .sum();
+    assertEquals(2 * violations.size(), violationCount, 0.1);
+
+    metrics.recordReportWrite(TimeUnit.MILLISECONDS.toNanos(5));
+    service.writeMetricsReport();
+    JsonNode report = new ObjectMapper().readTree(reports.get("metrics.json"));
+    JsonNode first = report.get("meters").get(0);
+    assertEquals(OptimizerMetrics.ANALYSIS_DURATION, first.get("name").asText());
+    assertEquals("TIMER", first.get("type").asText());
+    assertEquals(OptimizerMetrics.DISPATCHER, first.get("tags").get("configuration").asText());
+    assertEquals(2, first.get("measurements").get("COUNT").asInt());
+  }
+
+  @Test
+  void registersMetersOnce() {
+    MeterRegistry registry = new SimpleMeterRegistry();
+    OptimizerMetrics metrics = new OptimizerMetrics("", registry);
+    AnalyzerRule major = new AnalyzerRule();
+    major.setSeverity(Severity.MAJOR);
+    AnalyzerRule minor = new AnalyzerRule();
+    minor.setSeverity(Severity.MINOR);
+    List<Violation> violations = Arrays.asList(new Violation(major, "first", null),
+            new Violation(major, "second", null), new Violation(minor, "third", null));
+
+    metrics.recordViolations(violations);
+    metrics.recordAnalysis(OptimizerMetrics.DISPATCHER, 1);
+    int meterCount = registry.getMeters().size();
+    metrics.recordViolations(violations);
+    metrics.recordAnalysis(OptimizerMetrics.DISPATCHER, 1);
+
+    assertEquals(meterCount, registry.getMeters().size());
+    assertEquals(4, registry.get(OptimizerMetrics.VIOLATIONS).tag("severity", "MAJOR").counter().count(), 0.1);
+    assertEquals(2, registry.get(OptimizerMetrics.VIOLATIONS).tag("severity", "MINOR").counter().count(), 0.1);
+    assertEquals(2, registry.get(OptimizerMetrics.ANALYSIS_DURATION).tag("configuration", OptimizerMetrics.DISPATCHER)
+            .timer().count());
+  }
+
+  @Test
+  void notExportedWithoutFileName() {
+    assertNull(new OptimizerMetrics("").getMetricsFileName());
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.adobe.aem.dot.app.service;
+
+import com.adobe.aem.dot.app.writers.ReportWriter;
+import com.adobe.aem.dot.common.analyzer.ViolationVerbosity;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchAnalysisServiceTest {
+
+  @Test
+  void analyzesEveryRepository(@TempDir Path tempDir) throws IOException {
+    String testProjects = new File(System.getProperty("user.dir"), "../test-projects").getCanonicalPath();
+    Path manifest = tempDir.resolve("manifest.txt");
+    Files.write(manifest, Arrays.asList(
+            "# Repositories to analyze",
+            testProjects + "/test-project-all-rules-fail",
+            "",
+            testProjects + "/test-project-all-rules-pass/",
+            testProjects + "/test-project-all-rules-fail"), StandardCharsets.UTF_8);
+
+    MemoryReportWriter writer = new MemoryReportWriter();
+    ConfigurationOptimizerService optimizerService = new ConfigurationOptimizerService(testProjects,
+            "dispatcher/src/conf.dispatcher.d", "", "dispatcher/src/conf", ViolationVerbosity.MINIMIZED, writer);
+    optimizerService.setTimingReportFileName("timing.json");
+    BatchAnalysisService batchService = new BatchAnalysisService(manifest.toString(), 2, "results.csv",
+            optimizerService, writer);
+    assertTrue(batchService.isEnabled());
+
+    BatchSummary summary = batchService.run();
+    assertEquals(3, summary.getRepositoryCount());
+    assertEquals(0, summary.getFailedCount());
+
+    List<BatchSummary.RepositoryResult> results = summary.getRepositories();
+    String failReport = "test-project-all-rules-fail" + File.separator + "results.csv";
+    assertEquals(failReport, results.get(0).getReport());
+    assertEquals("test-project-all-rules-pass" + File.separator + "results.csv", results.get(1).getReport());
+    assertEquals("test-project-all-rules-fail-2" + File.separator + "results.csv", results.get(2).getReport());
+    assertNull(results.get(0).getError());
+    assertTrue(results.get(0).getViolationCount() > results.get(1).getViolationCount());
+    assertEquals(results.get(0).getViolationCount(), results.get(2).getViolationCount());
+    assertFalse(results.get(0).getSeverityCounts().isEmpty());
+
+    assertEquals(writer.reports.get(failReport), writer.reports.get(results.get(2).getReport()),
+            "Expect the same repository to give the same report");
+
+    JsonNode json = new ObjectMapper().readTree(writer.reports.get(BatchAnalysisService.SUMMARY_FILE_NAME));
+    assertEquals(3, json.get("repositoryCount").asInt());
+    assertEquals(summary.getViolationCount(), json.get("violationCount").asInt());
+    assertNotNull(json.get("repositories").get(0).get("severityCounts"));
+
+    JsonNode timing = new ObjectMapper().readTree(writer.reports.get("timing.json"));
+    for (JsonNode phase : timing.get("phases")) {
+      if (phase.get("name").asText().equals("Dispatcher include resolution")) {
+        assertEquals(3, phase.get("invocations").asInt(), "Expect the costs of all the analyses");
+      }
+    }
+    assertTrue(timing.get("rules").size() > 0);
+    assertTrue(timing.get("checks").size() > 0);
+  }
+
+  @Test
+  void disabledWithoutManifest() throws IOException {
+    MemoryReportWriter writer = new MemoryReportWriter();
+    ConfigurationOptimizerService optimizerService = new ConfigurationOptimizerService("/tmp", "", "", "",
+            ViolationVerbosity.MINIMIZED, writer);
+    assertFalse(new BatchAnalysisService(" ", 2, "results.csv", optimizerService, writer).isEnabled());
+  }
+
+  @Test
+  void reportFolders() {
+    assertEquals(Arrays.asList("repo", "other", "repo-2", "repo-3"), BatchAnalysisService.getReportFolders(
+            Arrays.asList("/a/repo", "/b/other", "/c/repo", "/d/repo")));
+  }
+
+  private static class MemoryReportWriter implements ReportWriter {
+    private final Map<String, String> reports = new ConcurrentHashMap<>();
+
+    @Override
+    public void writeReport(String report) {
+      reports.put("", report);
+    }
+
+    @Override
+    public void writeReport(String report, String reportPath) {
+      reports.put(reportPath, report);
+    }
+  }
+}
@@ -0,0 +1,337 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.adobe.aem.dot.app.service;
+
+import com.adobe.aem.dot.app.metrics.OptimizerMetrics;
+import com.adobe.aem.dot.app.writers.ReportWriter;
+import com.adobe.aem.dot.common.ConfigurationException;
+import com.adobe.aem.dot.common.analyzer.Violation;
+import com.adobe.aem.dot.common.analyzer.ViolationVerbosity;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.Socket;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResidentAnalysisServiceTest {
+  private static final String CSV_HEADER =
+          "File Location,Line Number,Issue,Type,Severity,Effort,Rule,Tags,Documentation";
+  private static final String TOKEN = "secret";
+
+  private String testProjects;
+  private String testProject;
+  private ConfigurationOptimizerService optimizerService;
+  private ResidentAnalysisService service;
+  private final List<String> writtenReports = new ArrayList<>();
+
+  @BeforeEach
+  void startService() throws IOException {
+    testProjects = new File(System.getProperty("user.dir"), "../test-projects").getCanonicalPath();
+    testProject = testProjects + File.separator + "test-project-all-rules-fail";
+    ReportWriter writer = new ReportWriter() {
+      @Override
+      public void writeReport(String report) {
+      }
+
+      @Override
+      public void writeReport(String report, String reportPath) {
+        writtenReports.add(reportPath);
+      }
+    };
+    optimizerService = new ConfigurationOptimizerService(testProjects,
+            "dispatcher/src/conf.dispatcher.d", "", "dispatcher/src/conf", ViolationVerbosity.MINIMIZED, writer);
+    service = new ResidentAnalysisService("0", 2, 10_000_000, 100, TOKEN, testProjects, optimizerService);
+    assertTrue(service.isEnabled());
+    service.start();
+  }
+
+  @AfterEach
+  void stopService() {
+    service.stop();
+  }
+
+  @Test
+  void analyzesLocalRepository() throws IOException {
+    HttpURLConnection connection = post("/analyze?repository=" + URLEncoder.encode(testProject, "UTF-8"), null);
+    assertEquals(200, connection.getResponseCode());
+    assertTrue(connection.getContentType().startsWith("text/csv"));
+    String report = read(connection.getInputStream());
+    assertTrue(report.startsWith(CSV_HEADER));
+    assertTrue(report.split(System.lineSeparator()).length > 1, "Expect violations in the report");
+
+    // The same repository gives the same report, once the service is warm.
+    connection = post("/analyze?repository=" + URLEncoder.encode(testProject, "UTF-8"), null);
+    assertEquals(report, read(connection.getInputStream()));
+  }
+
+  @Test
+  void analyzesUploadedRepository() throws IOException {
+    String expected = read(post("/analyze?format=sarif&repository=" + URLEncoder.encode(testProject, "UTF-8"),
+            null).getInputStream());
+
+    HttpURLConnection connection = post("/analyze?format=sarif", zip(new File(testProject).toPath()));
+    assertEquals(200, connection.getResponseCode());
+    assertTrue(connection.getContentType().startsWith("application/sarif+json"));
+    String report = read(connection.getInputStream());
+    assertTrue(report.contains("\"version\":\"2.1.0\""));
+    // The file names are relative to the extracted repository, so only the number of results is compared.
+    assertEquals(expected.split("\"ruleId\"").length, report.split("\"ruleId\"").length);
+  }
+
+  @Test
+  void refusesBadRequests() throws IOException {
+    assertEquals(400, post("/analyze?repository=" + URLEncoder.encode(testProject + "-missing", "UTF-8"),
+            null).getResponseCode());
+    assertEquals(400, post("/analyze?format=pdf&repository=" + URLEncoder.encode(testProject, "UTF-8"),
+            null).getResponseCode());
+    assertEquals(400, post("/analyze", new byte[] { 1, 2, 3 }).getResponseCode());
+    assertEquals(400, post("/analyze", zipEntry("../outside.any")).getResponseCode());
+
+    HttpURLConnection health = open("/health");
+    assertEquals(200, health.getResponseCode());
+    assertEquals("OK", read(health.getInputStream()));
+    assertEquals(405, open("/analyze").getResponseCode());
+  }
+
+  @Test
+  void refusesUnauthorizedRequests() throws IOException {
+    HttpURLConnection connection = open("/analyze?repository=" + URLEncoder.encode(testProject, "UTF-8"));
+    connection.setRequestProperty("Authorization", "Bearer wrong");
+    connection.setRequestMethod("POST");
+    assertEquals(401, connection.getResponseCode());
+
+    // Repositories outside the configured roots are not analyzed.
+    String outside = new File(testProjects).getParent();
+    assertEquals(403, post("/analyze?repository=" + URLEncoder.encode(outside, "UTF-8"), null).getResponseCode());
+    String escaping = testProjects + File.separator + ".." + File.separator + "core";
+    assertEquals(403, post("/analyze?repository=" + URLEncoder.encode(escaping, "UTF-8"), null).getResponseCode());
+
+    // A page on another host, resolved to the loopback address, is refused.
+    try (Socket socket = new Socket("localhost", service.getAddress().getPort())) {
+      OutputStream output = socket.getOutputStream();
+      output.write(("GET /health HTTP/1.1\r\nHost: attacker.example:" + service.getAddress().getPort()
+              + "\r\nConnection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+      output.flush();
+      assertTrue(read(socket.getInputStream()).startsWith("HTTP/1.1 403"));
+    }
+  }
+
+  @Test
+  void refusesLargeUploads() throws IOException {
+    ResidentAnalysisService small = new ResidentAnalysisService("0", 1, 1_000, 20, TOKEN, "", optimizerService);
+    small.start();
+    try {
+      // The Content-Length is refused before the body is read.
+      assertEquals(413, post(small, "/analyze", new byte[2_000]).getResponseCode());
+      // A small zip which extracts to more than the limit is refused while it is extracted.
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+        zip.putNextEntry(new ZipEntry("large.any"));
+        zip.write(new byte[100_000]);
+        zip.closeEntry();
+      }
+      assertTrue(bytes.size() < 1_000);
+      assertEquals(413, post(small, "/analyze", bytes.toByteArray()).getResponseCode());
+      // A chunked body has no Content-Length, and is refused once more than the limit is read.
+      byte[] emptyEntries = zipEmptyEntries(15);
+      assertTrue(emptyEntries.length > 1_000);
+      HttpURLConnection chunked = open(small, "/analyze");
+      chunked.setRequestMethod("POST");
+      chunked.setDoOutput(true);
+      chunked.setChunkedStreamingMode(256);
+      try (OutputStream output = chunked.getOutputStream()) {
+        output.write(emptyEntries);
+      }
+      assertEquals(413, chunked.getResponseCode());
+      // Without configured roots, no local repository is analyzed.
+      assertEquals(403, post(small, "/analyze?repository=" + URLEncoder.encode(testProject, "UTF-8"),
+              null).getResponseCode());
+    } finally {
+      small.stop();
+    }
+  }
+
+  @Test
+  void refusesZipsWithManyEntries() throws IOException {
+    // Empty files and folders extract to no bytes, but count as entries.
+    assertEquals(413, post("/analyze", zipEmptyEntries(101)).getResponseCode());
+  }
+
+  @Test
+  void skipsIncludesOutsideUploadedRepository() throws IOException, ConfigurationException {
+    // The farm of the test project is included from outside of the uploaded repository, both by an absolute path and
+    // by a relative path leading out of it.
+    File outside = new File(testProject, "dispatcher/src/conf.dispatcher.d/available_farms/000_skylab_farm.any");
+    String escape = StringUtils.repeat("../", outside.getCanonicalPath().split("/").length + 10)
+            + outside.getCanonicalPath().substring(1);
+    Map<String, String> entries = new LinkedHashMap<>();
+    entries.put("dispatcher/src/conf.dispatcher.d/farms/", null);
+    entries.put("dispatcher/src/conf.dispatcher.d/dispatcher.any", "/farms {\n  $include \"/farms/" + escape
+            + "\"\n  $include \"farms/" + escape + "\"\n}\n");
+    byte[] upload = zip(entries);
+
+    // Analyzed in place, the includes reach the farm.
+    Path extracted = Files.createTempDirectory("dot-analysis-test");
+    try {
+      service.extractZip(new ByteArrayInputStream(upload), extracted.toFile());
+      assertTrue(optimizerService.analyze(extracted.toString()).stream()
+              .anyMatch(violation -> isFrom(violation, outside)));
+      assertTrue(optimizerService.analyze(extracted.toString(), extracted.toFile().getCanonicalFile().toPath())
+              .stream().noneMatch(violation -> isFrom(violation, outside)));
+    } finally {
+      FileUtils.deleteQuietly(extracted.toFile());
+    }
+
+    HttpURLConnection connection = post("/analyze", upload);
+    assertEquals(200, connection.getResponseCode());
+    assertFalse(read(connection.getInputStream()).contains(outside.getName()));
+  }
+
+  @Test
+  void writesTimingAndMetricsWhenStopped() throws IOException {
+    optimizerService.setTimingReportFileName("timing.json");
+    optimizerService.setMetrics(new OptimizerMetrics("metrics.json"));
+    HttpURLConnection connection = post("/analyze?repository=" + URLEncoder.encode(testProject, "UTF-8"), null);
+    assertEquals(200, connection.getResponseCode());
+    read(connection.getInputStream());
+    assertTrue(writtenReports.isEmpty());
+
+    service.stop();
+    assertEquals(Arrays.asList("timing.json", "metrics.json"), writtenReports);
+  }
+
+  @Test
+  void disabledWithoutPort() throws IOException {
+    assertFalse(new ResidentAnalysisService(" ", 2, 0, 0, "", "", null).isEnabled());
+  }
+
+  @Test
+  void requiresToken() throws IOException {
+    ResidentAnalysisService noToken = new ResidentAnalysisService("0", 1, 0, 0, " ", "", null);
+    assertThrows(IllegalStateException.class, noToken::start);
+  }
+
+  private static boolean isFrom(Violation violation, File file) {
+    return violation.getConfigurationSource() != null
+            && StringUtils.endsWith(violation.getConfigurationSource().getFileName(), file.getName());
+  }
+
+  private HttpURLConnection open(String path) throws IOException {
+    return open(service, path);
+  }
+
+  private static HttpURLConnection open(ResidentAnalysisService service, String path) throws IOException {
+    URL url = new URL("http://localhost:" + service.getAddress().getPort() + path);
+    HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+    connection.setRequestProperty("Authorization", "Bearer " + TOKEN);
+    return connection;
+  }
+
+  private HttpURLConnection post(String path, byte[] body) throws IOException {
+    return post(service, path, body);
+  }
+
+  private static HttpURLConnection post(ResidentAnalysisService service, String path, byte[] body)
+          throws IOException {
+    HttpURLConnection connection = open(service, path);
+    connection.setRequestMethod("POST");
+    connection.setDoOutput(true);
+    try (OutputStream output = connection.getOutputStream()) {
+      if (body != null) {
+        output.write(body);
+      }
+    }
+    return connection;
+  }
+
+  private static String read(InputStream input) throws IOException {
+    try (InputStream stream = input) {
+      return IOUtils.toString(stream, StandardCharsets.UTF_8);
+    }
+  }
+
+  private static byte[] zip(Path root) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ZipOutputStream zip = new ZipOutputStream(bytes); Stream<Path> files = Files.walk(root)) {
+      for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+        zip.putNextEntry(new ZipEntry(root.relativize(file).toString().replace(File.separatorChar, '/')));
+        Files.copy(file, zip);
+        zip.closeEntry();
+      }
+    }
+    return bytes.toByteArray();
+  }
+
+  private static byte[] zip(Map<String, String> entries) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+      for (Map.Entry<String, String> entry : entries.entrySet()) {
+        zip.putNextEntry(new ZipEntry(entry.getKey()));
+        if (entry.getValue() != null) {
+          zip.write(entry.getValue().getBytes(StandardCharsets.UTF_8));
+        }
+        zip.closeEntry();
+      }
+    }
+    return bytes.toByteArray();
+  }
+
+  private static byte[] zipEmptyEntries(int count) throws IOException {
+    Map<String, String> entries = new LinkedHashMap<>();
+    for (int index = 0; index < count; index++) {
+      entries.put(String.format("empty/%060d.any", index), "");
+    }
+    return zip(entries);
+  }
+
+  private static byte[] zipEntry(String name) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+      zip.putNextEntry(new ZipEntry(name));
+      zip.write("/farms { }".getBytes(StandardCharsets.UTF_8));
+      zip.closeEntry();
+    }
+    return bytes.toByteArray();
+  }
+}
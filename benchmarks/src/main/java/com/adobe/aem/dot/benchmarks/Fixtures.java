@@ -0,0 +1,151 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.adobe.aem.dot.benchmarks;
+
+import com.adobe.aem.dot.common.ConfigurationFileLoader;
+import com.adobe.aem.dot.common.ConfigurationLine;
+import com.adobe.aem.dot.common.ConfigurationSource;
+import com.adobe.aem.dot.common.analyzer.AnalyzerRule;
+import com.adobe.aem.dot.common.analyzer.Violation;
+import com.adobe.aem.dot.common.analyzer.rules.AnalyzerRuleList;
+import com.adobe.aem.dot.common.analyzer.rules.AnalyzerRuleListFactory;
+import com.adobe.aem.dot.dispatcher.core.DispatcherConstants;
+import com.adobe.aem.dot.dispatcher.core.parser.ConfigurationSyntaxException;
+import com.adobe.aem.dot.dispatcher.core.resolver.IncludeResolver;
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Inputs shared by the benchmarks: the configurations of the <code>test-projects</code>, and generated inputs.
+ */
+public final class Fixtures {
+  /**
+   * The system property holding the path to the <code>test-projects</code> folder.  By default, the folder is searched
+   * for from the working directory up.
+   */
+  public static final String TEST_PROJECTS_PROP = "dot.benchmarks.test-projects";
+
+  public static final String DISPATCHER_FOLDER = "dispatcher/src/conf.dispatcher.d";
+  public static final String HTTPD_FOLDER = "dispatcher/src/conf";
+
+  private Fixtures() {
+  }
+
+  /**
+   * @param project The name of a folder in <code>test-projects</code>
+   * @return The folder of the project.
+   */
+  public static File getTestProject(String project) {
+    String testProjects = System.getProperty(TEST_PROJECTS_PROP);
+    if (testProjects != null) {
+      return new File(testProjects, project);
+    }
+
+    File folder = new File(System.getProperty("user.dir")).getAbsoluteFile();
+    while (folder != null) {
+      File candidate = FileUtils.getFile(folder, "test-projects", project);
+      if (candidate.isDirectory()) {
+        return candidate;
+      }
+      folder = folder.getParentFile();
+    }
+    throw new IllegalStateException("Unable to find the test-projects folder.  Set the " + TEST_PROJECTS_PROP +
+            " system property to its path.");
+  }
+
+  /**
+   * @param repository The folder of a repository
+   * @return The folder holding the repository's dispatcher.any.
+   */
+  public static File getDispatcherFolder(File repository) {
+    return FileUtils.getFile(repository, DISPATCHER_FOLDER);
+  }
+
+  /**
+   * @param repository The folder of a repository
+   * @return The repository's httpd.conf.
+   */
+  public static File getHttpdConf(File repository) {
+    return FileUtils.getFile(repository, HTTPD_FOLDER, "httpd.conf");
+  }
+
+  /**
+   * @param repository The folder of a repository
+   * @return The unresolved lines of the repository's dispatcher.any.
+   */
+  public static List<String> readDispatcherAny(File repository) {
+    try {
+      return ConfigurationFileLoader.readLines(new File(getDispatcherFolder(repository),
+              DispatcherConstants.DISPATCHER_ANY));
+    } catch (IOException ex) {
+      throw new IllegalStateException("Unable to read dispatcher.any of " + repository, ex);
+    }
+  }
+
+  /**
+   * @param repository The folder of a repository
+   * @return The lines of the repository's Dispatcher configuration, with its includes resolved.
+   */
+  public static List<ConfigurationLine> resolveDispatcherConfiguration(File repository) {
+    try {
+      return new IncludeResolver(readDispatcherAny(repository), getDispatcherFolder(repository).getPath(),
+              repository.getPath()).resolve();
+    } catch (ConfigurationSyntaxException | IOException ex) {
+      throw new IllegalStateException("Unable to resolve the includes of " + repository, ex);
+    }
+  }
+
+  /**
+   * @return The core rules, compiled.
+   */
+  public static AnalyzerRuleList getCoreRules() {
+    try {
+      return AnalyzerRuleListFactory.getAnalyzerRuleList();
+    } catch (IOException ex) {
+      throw new IllegalStateException("Unable to load the core rules.", ex);
+    }
+  }
+
+  /**
+   * Generate violations of the core rules, spread over a number of files.  The same seed gives the same violations.
+   * @param count The number of violations
+   * @param seed The seed of the generator
+   * @return The violations
+   */
+  public static List<Violation> generateViolations(int count, long seed) {
+    AnalyzerRuleList ruleList = getCoreRules();
+    List<AnalyzerRule> rules = new ArrayList<>(ruleList.getEnabledSingleFarmRules());
+    rules.addAll(ruleList.getEnabledMultiFarmRules());
+    rules.addAll(ruleList.getHttpdEnabledRules());
+
+    Random random = new Random(seed);
+    int fileCount = Math.max(1, count / 100);
+    List<Violation> violations = new ArrayList<>(count);
+    for (int index = 0; index < count; index++) {
+      AnalyzerRule rule = rules.get(random.nextInt(rules.size()));
+      ConfigurationSource source = new ConfigurationSource("conf.dispatcher.d/farms/farm" +
+              random.nextInt(fileCount) + ".any", 1 + random.nextInt(500));
+      violations.add(new Violation(rule, "Farm \"farm" + index + "\" has its " + rule.getElement() +
+              " misconfigured.", source));
+    }
+    return violations;
+  }
+}
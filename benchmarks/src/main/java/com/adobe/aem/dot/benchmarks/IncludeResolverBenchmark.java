@@ -0,0 +1,84 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.adobe.aem.dot.benchmarks;
+
+import com.adobe.aem.dot.common.ConfigurationLine;
+import com.adobe.aem.dot.common.FileResolver;
+import com.adobe.aem.dot.common.FileResolverCache;
+import com.adobe.aem.dot.dispatcher.core.parser.ConfigurationSyntaxException;
+import com.adobe.aem.dot.dispatcher.core.resolver.IncludeResolver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolving the includes of a test project's dispatcher.any, and resolving glob include paths against its files.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IncludeResolverBenchmark {
+
+  @Param({"test-project-all-rules-fail", "test-project-all-rules-pass"})
+  public String project;
+
+  @Param({"enabled_farms/*.any", "*/skylab_*_*.any", "vhosts/layer-?.any"})
+  public String glob;
+
+  private File repository;
+  private String dispatcherFolder;
+  private List<String> dispatcherAny;
+  private FileResolver cachedResolver;
+
+  @Setup
+  public void setup() {
+    repository = Fixtures.getTestProject(project);
+    dispatcherFolder = Fixtures.getDispatcherFolder(repository).getPath();
+    dispatcherAny = Fixtures.readDispatcherAny(repository);
+    cachedResolver = new FileResolver(dispatcherFolder, false, new FileResolverCache());
+  }
+
+  @Benchmark
+  public List<ConfigurationLine> resolveIncludes() throws ConfigurationSyntaxException, IOException {
+    return new IncludeResolver(dispatcherAny, dispatcherFolder, repository.getPath()).resolve();
+  }
+
+  @Benchmark
+  public List<File> resolveGlob() {
+    return new FileResolver(dispatcherFolder, false).resolveFiles(glob);
+  }
+
+  @Benchmark
+  public List<File> resolveGlobCached() {
+    return cachedResolver.resolveFiles(glob);
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.adobe.aem.dot.benchmarks;
+
+import com.adobe.aem.dot.common.analyzer.Violation;
+import com.adobe.aem.dot.common.reporter.CSVReporter;
+import com.adobe.aem.dot.common.reporter.HTMLReporter;
+import com.adobe.aem.dot.common.reporter.ReportFormat;
+import com.adobe.aem.dot.common.reporter.ReportPipeline;
+import com.adobe.aem.dot.common.reporter.ViolationReporter;
+import org.apache.commons.io.output.NullWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendering generated violations as CSV and HTML reports, in memory and streamed to a writer which discards them, and
+ * as reports in every format, one after the other or in a single pass.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ReporterBenchmark {
+
+  @Param({"10", "10000", "1000000"})
+  public int violationCount;
+
+  private List<Violation> violations;
+
+  @Setup
+  public void setup() {
+    violations = Fixtures.generateViolations(violationCount, 42);
+  }
+
+  @Benchmark
+  public String csv() throws IOException {
+    return generate(new CSVReporter());
+  }
+
+  @Benchmark
+  public String html() throws IOException {
+    return generate(new HTMLReporter());
+  }
+
+  @Benchmark
+  public void csvStreamed() throws IOException {
+    new CSVReporter().writeViolationReport(violations.iterator(), NullWriter.NULL_WRITER);
+  }
+
+  @Benchmark
+  public void htmlStreamed() throws IOException {
+    new HTMLReporter().writeViolationReport(violations.iterator(), NullWriter.NULL_WRITER);
+  }
+
+  @Benchmark
+  public void allFormatsSequential() throws IOException {
+    for (ReportFormat format : ReportFormat.values()) {
+      format.createReporter().writeViolationReport(violations.iterator(), NullWriter.NULL_WRITER);
+    }
+  }
+
+  @Benchmark
+  public void allFormatsPipelined() throws IOException {
+    ReportPipeline pipeline = new ReportPipeline();
+    for (ReportFormat format : ReportFormat.values()) {
+      pipeline.addSink(format.name(), format.createReporter(), NullWriter.NULL_WRITER);
+    }
+    pipeline.write(violations.iterator());
+  }
+
+  private String generate(ViolationReporter reporter) throws IOException {
+    return reporter.generateViolationReport(violations);
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.adobe.aem.dot.benchmarks;
+
+import com.adobe.aem.dot.common.ConfigurationException;
+import com.adobe.aem.dot.common.analyzer.AnalyzerRule;
+import com.adobe.aem.dot.common.analyzer.Violation;
+import com.adobe.aem.dot.common.analyzer.ViolationVerbosity;
+import com.adobe.aem.dot.common.analyzer.rules.AnalyzerRuleList;
+import com.adobe.aem.dot.dispatcher.core.DispatcherConfigurationFactory;
+import com.adobe.aem.dot.dispatcher.core.analyzer.DispatcherAnalyzer;
+import com.adobe.aem.dot.dispatcher.core.analyzer.RuleProcessor;
+import com.adobe.aem.dot.dispatcher.core.model.DispatcherConfiguration;
+import com.adobe.aem.dot.httpd.core.HttpdConfigurationFactory;
+import com.adobe.aem.dot.httpd.core.analyzer.HttpdRuleProcessor;
+import com.adobe.aem.dot.httpd.core.model.HttpdConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluating the core rules against the parsed configurations of a test project.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RuleProcessorBenchmark {
+
+  @Param({"test-project-all-rules-fail", "test-project-all-rules-pass"})
+  public String project;
+
+  private AnalyzerRuleList rules;
+  private DispatcherConfiguration dispatcherConfiguration;
+  private HttpdConfiguration httpdConfiguration;
+  private DispatcherAnalyzer dispatcherAnalyzer;
+
+  @Setup
+  public void setup() throws ConfigurationException, IOException {
+    File repository = Fixtures.getTestProject(project);
+    rules = Fixtures.getCoreRules();
+    dispatcherConfiguration = new DispatcherConfigurationFactory(null)
+            .parseConfiguration(repository.getPath(), Fixtures.DISPATCHER_FOLDER)
+            .getConfiguration();
+    httpdConfiguration = new HttpdConfigurationFactory()
+            .getHttpdConfiguration(repository.getPath(), Fixtures.HTTPD_FOLDER)
+            .getConfiguration();
+    dispatcherAnalyzer = new DispatcherAnalyzer(rules, 1);
+  }
+
+  @Benchmark
+  public List<Violation> processDispatcherRules() {
+    RuleProcessor ruleProcessor = new RuleProcessor();
+    List<Violation> violations = new ArrayList<>();
+    for (AnalyzerRule rule : rules.getEnabledMultiFarmRules()) {
+      violations.addAll(ruleProcessor.processMultiFarmRule(rule, dispatcherConfiguration));
+    }
+    for (AnalyzerRule rule : rules.getEnabledSingleFarmRules()) {
+      violations.addAll(ruleProcessor.processRule(rule, dispatcherConfiguration));
+    }
+    return violations;
+  }
+
+  @Benchmark
+  public List<Violation> processHttpdRules() {
+    HttpdRuleProcessor ruleProcessor = new HttpdRuleProcessor();
+    List<Violation> violations = new ArrayList<>();
+    for (AnalyzerRule rule : rules.getHttpdEnabledRules()) {
+      violations.addAll(ruleProcessor.processRule(rule, httpdConfiguration));
+    }
+    return violations;
+  }
+
+  @Benchmark
+  public List<Violation> analyzeMinimized() {
+    return dispatcherAnalyzer.getViolations(dispatcherConfiguration, ViolationVerbosity.MINIMIZED);
+  }
+}
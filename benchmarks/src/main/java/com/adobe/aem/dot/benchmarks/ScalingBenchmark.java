@@ -0,0 +1,107 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.adobe.aem.dot.benchmarks;
+
+import com.adobe.aem.dot.benchmarks.generator.ConfigurationGenerator;
+import com.adobe.aem.dot.benchmarks.generator.GeneratorOptions;
+import com.adobe.aem.dot.common.ConfigurationException;
+import com.adobe.aem.dot.common.analyzer.Violation;
+import com.adobe.aem.dot.common.analyzer.ViolationVerbosity;
+import com.adobe.aem.dot.common.parser.ConfigurationParseResults;
+import com.adobe.aem.dot.dispatcher.core.DispatcherConfigurationFactory;
+import com.adobe.aem.dot.dispatcher.core.analyzer.DispatcherAnalyzer;
+import com.adobe.aem.dot.dispatcher.core.model.DispatcherConfiguration;
+import com.adobe.aem.dot.httpd.core.HttpdConfigurationFactory;
+import com.adobe.aem.dot.httpd.core.model.HttpdConfiguration;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing and analyzing generated modules of growing size, to measure how the core scales with the number of farms
+ * and the depth of their includes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ScalingBenchmark {
+
+  @Param({"10", "100", "1000"})
+  public int farmCount;
+
+  @Param({"50"})
+  public int filtersPerFarm;
+
+  @Param({"1", "3"})
+  public int includeDepth;
+
+  private File repository;
+  private DispatcherConfiguration dispatcherConfiguration;
+  private DispatcherAnalyzer dispatcherAnalyzer;
+
+  @Setup
+  public void setup() throws ConfigurationException, IOException {
+    repository = Files.createTempDirectory("dot-scaling").toFile();
+    GeneratorOptions options = new GeneratorOptions()
+            .setFarmCount(farmCount)
+            .setFiltersPerFarm(filtersPerFarm)
+            .setIncludeDepth(includeDepth)
+            .setIncludeFanOut(2)
+            .setVhostCount(farmCount);
+    new ConfigurationGenerator(options).generate(repository);
+    dispatcherConfiguration = parseDispatcher().getConfiguration();
+    dispatcherAnalyzer = new DispatcherAnalyzer(Fixtures.getCoreRules(), 1);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    FileUtils.deleteDirectory(repository);
+  }
+
+  @Benchmark
+  public ConfigurationParseResults<DispatcherConfiguration> parseDispatcher() throws ConfigurationException {
+    return new DispatcherConfigurationFactory().parseConfiguration(repository.getPath(), Fixtures.DISPATCHER_FOLDER);
+  }
+
+  @Benchmark
+  public ConfigurationParseResults<HttpdConfiguration> parseHttpd() throws ConfigurationException {
+    return new HttpdConfigurationFactory().getHttpdConfiguration(repository.getPath(), Fixtures.HTTPD_FOLDER);
+  }
+
+  @Benchmark
+  public List<Violation> analyzeFull() {
+    return dispatcherAnalyzer.getViolations(dispatcherConfiguration, ViolationVerbosity.FULL);
+  }
+}
@@ -0,0 +1,301 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.adobe.aem.dot.benchmarks.generator;
+
+import com.adobe.aem.dot.benchmarks.Fixtures;
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Generate a dispatcher module, laid out like the <code>test-projects</code>, with the Dispatcher configuration in
+ * <code>dispatcher/src/conf.dispatcher.d</code> and the httpd configuration in <code>dispatcher/src/conf</code>.  The
+ * module can be analyzed by the <code>DispatcherConfigurationFactory</code> and the
+ * <code>HttpdConfigurationFactory</code>, and the same options always generate the same module.
+ */
+public class ConfigurationGenerator {
+  private static final String[] EXTENSIONS = { "html", "json", "js", "css", "png", "jpg", "svg", "woff2", "xml" };
+  private static final String[] METHODS = { "GET", "HEAD", "POST" };
+  private static final String[] MODULES = { "mod_headers.c", "mod_rewrite.c", "mod_expires.c", "disp_apache2.c",
+          "mod_deflate.c" };
+
+  private final GeneratorOptions options;
+  private final Random random;
+
+  public ConfigurationGenerator(GeneratorOptions options) {
+    this.options = options;
+    this.random = new Random(options.getSeed());
+  }
+
+  /**
+   * Write the module to a folder.  Files the module does not hold are left in the folder.
+   * @param repository The root folder of the module
+   * @throws IOException If a file could not be written
+   */
+  public void generate(File repository) throws IOException {
+    random.setSeed(options.getSeed());
+    generateDispatcherConfiguration(FileUtils.getFile(repository, Fixtures.DISPATCHER_FOLDER));
+    generateHttpdConfiguration(FileUtils.getFile(repository, Fixtures.HTTPD_FOLDER).getParentFile());
+  }
+
+  private void generateDispatcherConfiguration(File folder) throws IOException {
+    Lines dispatcherAny = new Lines();
+    dispatcherAny.add("### Generated: " + options);
+    dispatcherAny.add("/name \"generated-dispatcher\"");
+    dispatcherAny.add("/farms {");
+    dispatcherAny.add("  $include \"enabled_farms/*_farm.any\"");
+    dispatcherAny.add("}");
+    dispatcherAny.write(new File(folder, "dispatcher.any"));
+
+    for (int farm = 1; farm <= options.getFarmCount(); farm++) {
+      String farmName = String.format("farm%04d", farm);
+      generateFarm(folder, farmName);
+      generateFilters(folder, farmName);
+    }
+  }
+
+  private void generateFarm(File folder, String farmName) throws IOException {
+    Lines lines = new Lines();
+    lines.add("/" + farmName + " {");
+    lines.add("  /clientheaders {");
+    lines.add("    \"Host\"");
+    lines.add("    \"Referer\"");
+    lines.add("    \"User-Agent\"");
+    lines.add("  }");
+    lines.add("  /virtualhosts {");
+    lines.add("    " + value(farmName + ".example.com", "PUBLISH_DEFAULT_HOSTNAME"));
+    lines.add("  }");
+    lines.add("  /renders {");
+    lines.add("    /0 {");
+    lines.add("      /hostname " + value("127.0.0.1", "PUBLISH_IP"));
+    lines.add("      /port " + value("4503", "PUBLISH_PORT"));
+    lines.add("      /timeout \"10000\"");
+    lines.add("    }");
+    lines.add("  }");
+    lines.add("  /filter {");
+    lines.add("    $include \"" + includePath(farmName, 1, "0") + "\"");
+    lines.add("  }");
+    lines.add("  /cache {");
+    lines.add("    /docroot " + value("/var/www/html/" + farmName, "PUBLISH_DOCROOT"));
+    lines.add("    /statfileslevel \"" + (1 + random.nextInt(4)) + "\"");
+    lines.add("    /allowAuthorized \"0\"");
+    lines.add("    /serveStaleOnError \"1\"");
+    lines.add("    /rules {");
+    lines.add("      /0000 { /glob \"*\" /type \"allow\" }");
+    lines.add("      /0001 { /glob \"/libs/granite/csrf/token.json\" /type \"deny\" }");
+    lines.add("    }");
+    lines.add("    /invalidate {");
+    lines.add("      /0000 { /glob \"*\" /type \"deny\" }");
+    lines.add("      /0001 { /glob \"*.html\" /type \"allow\" }");
+    lines.add("    }");
+    lines.add("    /allowedClients {");
+    lines.add("      /0000 { /glob \"*.*.*.*\" /type \"deny\" }");
+    lines.add("      /0001 { /glob \"127.0.0.1\" /type \"allow\" }");
+    lines.add("    }");
+    lines.add("    /ignoreUrlParams {");
+    lines.add("      /0001 { /glob \"*\" /type \"allow\" }");
+    lines.add("    }");
+    lines.add("    /headers {");
+    lines.add("      \"Cache-Control\"");
+    lines.add("      \"Content-Type\"");
+    lines.add("      \"Expires\"");
+    lines.add("      \"Last-Modified\"");
+    lines.add("    }");
+    lines.add("    /gracePeriod \"2\"");
+    lines.add("  }");
+    lines.add("}");
+    lines.write(FileUtils.getFile(folder, "enabled_farms", farmName + "_farm.any"));
+  }
+
+  /**
+   * Write the filter files of a farm: a tree of <code>$include</code>d files, <code>includeDepth</code> levels deep,
+   * where each file above the last level includes <code>includeFanOut</code> files of the next level.  The filter rules
+   * are spread over the files of the last level, in order.
+   */
+  private void generateFilters(File folder, String farmName) throws IOException {
+    int leafCount = 1;
+    for (int level = 1; level < options.getIncludeDepth(); level++) {
+      leafCount *= options.getIncludeFanOut();
+    }
+    generateFilterFile(folder, farmName, 1, "0", 0, leafCount);
+  }
+
+  /**
+   * @return The number of the next leaf file.
+   */
+  private int generateFilterFile(File folder, String farmName, int level, String path, int leaf, int leafCount)
+          throws IOException {
+    Lines lines = new Lines();
+    if (level < options.getIncludeDepth()) {
+      lines.add("$include \"" + includePath(farmName, level + 1, path + "_*") + "\"");
+      for (int child = 0; child < options.getIncludeFanOut(); child++) {
+        leaf = generateFilterFile(folder, farmName, level + 1, path + "_" + child, leaf, leafCount);
+      }
+    } else {
+      int filterCount = options.getFiltersPerFarm();
+      int first = (int) ((long) leaf * filterCount / leafCount);
+      int last = (int) ((long) (leaf + 1) * filterCount / leafCount);
+      if (leaf == 0) {
+        lines.add("/0000 { /type \"deny\" /url \"*\" }");
+      }
+      for (int filter = first; filter < last; filter++) {
+        lines.add(filterRule(filter + 1));
+      }
+      leaf++;
+    }
+    lines.write(new File(folder, includePath(farmName, level, path)));
+    return leaf;
+  }
+
+  private String includePath(String farmName, int level, String path) {
+    return "filters/" + farmName + "/l" + level + "_" + path + ".any";
+  }
+
+  private String filterRule(int index) {
+    String site = "site" + random.nextInt(50);
+    String extension = EXTENSIONS[random.nextInt(EXTENSIONS.length)];
+    StringBuilder rule = new StringBuilder(String.format("/%04d { /type \"%s\"", index,
+            random.nextInt(10) < 8 ? "allow" : "deny"));
+    if (random.nextBoolean()) {
+      rule.append(" /method \"").append(METHODS[random.nextInt(METHODS.length)]).append("\"");
+    }
+
+    double kind = random.nextDouble();
+    if (kind < options.getGlobDensity()) {
+      rule.append(random.nextBoolean() ? " /url \"/content/" + site + "/*\"" : " /path \"/content/" + site + "/*\"");
+      rule.append(" /extension \"").append(extension).append("\"");
+    } else if (kind < options.getGlobDensity() + options.getRegexDensity()) {
+      rule.append(" /path '/content/").append(site).append("/[a-z0-9-]+(/.*)?'");
+      rule.append(" /extension '(").append(extension).append("|").append(EXTENSIONS[random.nextInt(EXTENSIONS.length)])
+              .append(")'");
+      if (random.nextBoolean()) {
+        rule.append(" /selectors '(model|variant").append(random.nextInt(10)).append(")'");
+      }
+    } else {
+      rule.append(" /path \"/content/").append(site).append("/page").append(random.nextInt(1000)).append("\"");
+      rule.append(" /extension \"").append(extension).append("\"");
+    }
+    return rule.append(" }").toString();
+  }
+
+  private void generateHttpdConfiguration(File folder) throws IOException {
+    Lines httpdConf = new Lines();
+    httpdConf.add("# Generated: " + options);
+    httpdConf.add("ServerRoot \"/etc/httpd\"");
+    httpdConf.add("Listen 80");
+    httpdConf.add("Include conf.modules.d/*.conf");
+    httpdConf.add("User apache");
+    httpdConf.add("Group apache");
+    httpdConf.add("<Directory />");
+    httpdConf.add("\tAllowOverride none");
+    httpdConf.add("\tRequire all denied");
+    httpdConf.add("</Directory>");
+    httpdConf.add("DocumentRoot \"/var/www/html\"");
+    httpdConf.add("<IfModule dir_module>");
+    httpdConf.add("\tDirectoryIndex index.html");
+    httpdConf.add("</IfModule>");
+    httpdConf.add("ErrorLog \"logs/error_log\"");
+    httpdConf.add("LogLevel warn");
+    httpdConf.add("IncludeOptional conf.d/*.conf");
+    httpdConf.write(FileUtils.getFile(folder, "conf", "httpd.conf"));
+
+    Lines modules = new Lines();
+    modules.add("LoadModule dispatcher_module modules/mod_dispatcher.so");
+    modules.write(FileUtils.getFile(folder, "conf.modules.d", "02-dispatcher.conf"));
+
+    Lines vhosts = new Lines();
+    vhosts.add("<IfModule disp_apache2.c>");
+    vhosts.add("\tDispatcherConfig conf.dispatcher.d/dispatcher.any");
+    vhosts.add("\tDispatcherLog logs/dispatcher.log");
+    vhosts.add("</IfModule>");
+    vhosts.add("IncludeOptional conf.d/enabled_vhosts/*.vhost");
+    vhosts.write(FileUtils.getFile(folder, "conf.d", "dispatcher_vhost.conf"));
+
+    for (int vhost = 1; vhost <= options.getVhostCount(); vhost++) {
+      generateVhost(folder, String.format("vhost%04d", vhost));
+    }
+  }
+
+  private void generateVhost(File folder, String vhostName) throws IOException {
+    Lines lines = new Lines();
+    String docroot = value("/var/www/html/" + vhostName, "PUBLISH_DOCROOT");
+    lines.add("<VirtualHost *:80>");
+    lines.add("\tServerName " + vhostName + ".example.com");
+    lines.add("\tServerAlias " + unquoted(value(vhostName + "-alias.example.com", "PUBLISH_DEFAULT_HOSTNAME")));
+    lines.add("\tDocumentRoot " + docroot);
+    lines.add("\t<IfModule mod_headers.c>");
+    lines.add("\t\tHeader always add X-Vhost \"" + vhostName + "\"");
+    lines.add("\t\tHeader merge X-Content-Type-Options nosniff");
+    lines.add("\t</IfModule>");
+    for (int directory = 0; directory < options.getDirectoriesPerVhost(); directory++) {
+      lines.add("\t<Directory \"" + unquoted(docroot) + "/dir" + directory + "\">");
+      addSections(lines, "\t\t", options.getSectionDepth());
+      lines.add("\t\tAllowOverride None");
+      lines.add("\t\tRequire all granted");
+      lines.add("\t</Directory>");
+    }
+    lines.add("\t<IfModule disp_apache2.c>");
+    lines.add("\t\tDispatcherUseProcessedURL 1");
+    lines.add("\t\tDispatcherPassError 0");
+    lines.add("\t</IfModule>");
+    lines.add("\t<IfModule mod_rewrite.c>");
+    lines.add("\t\tRewriteEngine on");
+    lines.add("\t\tRewriteRule ^/" + vhostName + "/(.*)$ /content/" + vhostName + "/$1 [PT,L]");
+    lines.add("\t</IfModule>");
+    lines.add("</VirtualHost>");
+    lines.write(FileUtils.getFile(folder, "conf.d", "enabled_vhosts", vhostName + ".vhost"));
+  }
+
+  private void addSections(Lines lines, String indent, int depth) {
+    if (depth == 0) {
+      lines.add(indent + "Options FollowSymLinks");
+      lines.add(indent + "SetHandler dispatcher-handler");
+      return;
+    }
+    lines.add(indent + "<IfModule " + MODULES[random.nextInt(MODULES.length)] + ">");
+    addSections(lines, indent + "\t", depth - 1);
+    lines.add(indent + "</IfModule>");
+  }
+
+  /**
+   * @return The quoted value, or the quoted environment variable, depending on the <code>envVarDensity</code>.
+   */
+  private String value(String literal, String variable) {
+    return "\"" + (random.nextDouble() < options.getEnvVarDensity() ? "${" + variable + "}" : literal) + "\"";
+  }
+
+  private static String unquoted(String value) {
+    return value.substring(1, value.length() - 1);
+  }
+
+  /**
+   * The lines of a file being generated.
+   */
+  private static class Lines {
+    private final StringBuilder contents = new StringBuilder();
+
+    void add(String line) {
+      contents.append(line).append('\n');
+    }
+
+    void write(File file) throws IOException {
+      FileUtils.writeStringToFile(file, contents.toString(), StandardCharsets.UTF_8);
+    }
+  }
+}
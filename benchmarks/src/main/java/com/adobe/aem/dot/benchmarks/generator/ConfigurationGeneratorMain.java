@@ -0,0 +1,91 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.adobe.aem.dot.benchmarks.generator;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Generate a dispatcher module from the command line:
+ * <pre>
+ * java -cp benchmarks.jar com.adobe.aem.dot.benchmarks.generator.ConfigurationGeneratorMain OUTPUT_FOLDER
+ *     [--seed=42] [--farms=2] [--filters=20] [--glob-density=0.5] [--regex-density=0.2] [--include-depth=1]
+ *     [--include-fan-out=1] [--env-var-density=0.3] [--vhosts=2] [--directories=2] [--section-depth=1]
+ * </pre>
+ */
+public class ConfigurationGeneratorMain {
+
+  public static void main(String[] args) throws IOException {
+    if (args.length == 0 || args[0].startsWith("--")) {
+      System.err.println("Usage: ConfigurationGeneratorMain OUTPUT_FOLDER [--name=value ...]");
+      System.exit(1);
+    }
+
+    GeneratorOptions options = new GeneratorOptions();
+    for (int index = 1; index < args.length; index++) {
+      String arg = args[index];
+      int equals = arg.indexOf('=');
+      if (!arg.startsWith("--") || equals < 0) {
+        throw new IllegalArgumentException("Options must be given as --name=value.  Option=" + arg);
+      }
+      setOption(options, arg.substring(2, equals), arg.substring(equals + 1));
+    }
+
+    File output = new File(args[0]);
+    new ConfigurationGenerator(options).generate(output);
+    System.out.println("Generated " + output.getAbsolutePath() + ": " + options);
+  }
+
+  static void setOption(GeneratorOptions options, String name, String value) {
+    switch (name) {
+      case "seed":
+        options.setSeed(Long.parseLong(value));
+        break;
+      case "farms":
+        options.setFarmCount(Integer.parseInt(value));
+        break;
+      case "filters":
+        options.setFiltersPerFarm(Integer.parseInt(value));
+        break;
+      case "glob-density":
+        options.setGlobDensity(Double.parseDouble(value));
+        break;
+      case "regex-density":
+        options.setRegexDensity(Double.parseDouble(value));
+        break;
+      case "include-depth":
+        options.setIncludeDepth(Integer.parseInt(value));
+        break;
+      case "include-fan-out":
+        options.setIncludeFanOut(Integer.parseInt(value));
+        break;
+      case "env-var-density":
+        options.setEnvVarDensity(Double.parseDouble(value));
+        break;
+      case "vhosts":
+        options.setVhostCount(Integer.parseInt(value));
+        break;
+      case "directories":
+        options.setDirectoriesPerVhost(Integer.parseInt(value));
+        break;
+      case "section-depth":
+        options.setSectionDepth(Integer.parseInt(value));
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown option.  Option=" + name);
+    }
+  }
+}
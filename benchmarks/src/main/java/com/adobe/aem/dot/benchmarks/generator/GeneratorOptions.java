@@ -0,0 +1,201 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.adobe.aem.dot.benchmarks.generator;
+
+/**
+ * The size and shape of a generated dispatcher module.  The defaults give a module of about the size of the
+ * <code>test-projects</code>.
+ */
+public class GeneratorOptions {
+  private long seed = 42;
+  private int farmCount = 2;
+  private int filtersPerFarm = 20;
+  private double globDensity = 0.5;
+  private double regexDensity = 0.2;
+  private int includeDepth = 1;
+  private int includeFanOut = 1;
+  private double envVarDensity = 0.3;
+  private int vhostCount = 2;
+  private int directoriesPerVhost = 2;
+  private int sectionDepth = 1;
+
+  public long getSeed() {
+    return seed;
+  }
+
+  /**
+   * @param seed The seed of the generator.  The same options, including the seed, give the same module.
+   * @return These options
+   */
+  public GeneratorOptions setSeed(long seed) {
+    this.seed = seed;
+    return this;
+  }
+
+  public int getFarmCount() {
+    return farmCount;
+  }
+
+  /**
+   * @param farmCount The number of farms in <code>enabled_farms</code>
+   * @return These options
+   */
+  public GeneratorOptions setFarmCount(int farmCount) {
+    this.farmCount = requireAtLeast("farmCount", farmCount, 1);
+    return this;
+  }
+
+  public int getFiltersPerFarm() {
+    return filtersPerFarm;
+  }
+
+  /**
+   * @param filtersPerFarm The number of rules in the /filter section of each farm
+   * @return These options
+   */
+  public GeneratorOptions setFiltersPerFarm(int filtersPerFarm) {
+    this.filtersPerFarm = requireAtLeast("filtersPerFarm", filtersPerFarm, 1);
+    return this;
+  }
+
+  public double getGlobDensity() {
+    return globDensity;
+  }
+
+  /**
+   * @param globDensity The share, between 0 and 1, of filter rules matching with a glob pattern
+   * @return These options
+   */
+  public GeneratorOptions setGlobDensity(double globDensity) {
+    this.globDensity = requireShare("globDensity", globDensity);
+    return this;
+  }
+
+  public double getRegexDensity() {
+    return regexDensity;
+  }
+
+  /**
+   * @param regexDensity The share, between 0 and 1, of filter rules matching with a regular expression.  Filters which
+   *                     are neither glob nor regex filters match literal values.
+   * @return These options
+   */
+  public GeneratorOptions setRegexDensity(double regexDensity) {
+    this.regexDensity = requireShare("regexDensity", regexDensity);
+    return this;
+  }
+
+  public int getIncludeDepth() {
+    return includeDepth;
+  }
+
+  /**
+   * @param includeDepth The number of levels of <code>$include</code>d files holding the filters of a farm
+   * @return These options
+   */
+  public GeneratorOptions setIncludeDepth(int includeDepth) {
+    this.includeDepth = requireAtLeast("includeDepth", includeDepth, 1);
+    return this;
+  }
+
+  public int getIncludeFanOut() {
+    return includeFanOut;
+  }
+
+  /**
+   * @param includeFanOut The number of files each level of included filter files includes, through a glob
+   * @return These options
+   */
+  public GeneratorOptions setIncludeFanOut(int includeFanOut) {
+    this.includeFanOut = requireAtLeast("includeFanOut", includeFanOut, 1);
+    return this;
+  }
+
+  public double getEnvVarDensity() {
+    return envVarDensity;
+  }
+
+  /**
+   * @param envVarDensity The share, between 0 and 1, of hostnames, ports and document roots given as environment
+   *                      variables
+   * @return These options
+   */
+  public GeneratorOptions setEnvVarDensity(double envVarDensity) {
+    this.envVarDensity = requireShare("envVarDensity", envVarDensity);
+    return this;
+  }
+
+  public int getVhostCount() {
+    return vhostCount;
+  }
+
+  /**
+   * @param vhostCount The number of httpd <code>VirtualHost</code>s, one per file
+   * @return These options
+   */
+  public GeneratorOptions setVhostCount(int vhostCount) {
+    this.vhostCount = requireAtLeast("vhostCount", vhostCount, 0);
+    return this;
+  }
+
+  public int getDirectoriesPerVhost() {
+    return directoriesPerVhost;
+  }
+
+  /**
+   * @param directoriesPerVhost The number of <code>Directory</code> sections in each virtual host
+   * @return These options
+   */
+  public GeneratorOptions setDirectoriesPerVhost(int directoriesPerVhost) {
+    this.directoriesPerVhost = requireAtLeast("directoriesPerVhost", directoriesPerVhost, 0);
+    return this;
+  }
+
+  public int getSectionDepth() {
+    return sectionDepth;
+  }
+
+  /**
+   * @param sectionDepth The number of <code>IfModule</code> sections nested in each <code>Directory</code> section
+   * @return These options
+   */
+  public GeneratorOptions setSectionDepth(int sectionDepth) {
+    this.sectionDepth = requireAtLeast("sectionDepth", sectionDepth, 0);
+    return this;
+  }
+
+  private static int requireAtLeast(String name, int value, int minimum) {
+    if (value < minimum) {
+      throw new IllegalArgumentException(name + " must be at least " + minimum + ".  Value=" + value);
+    }
+    return value;
+  }
+
+  private static double requireShare(String name, double value) {
+    if (value < 0 || value > 1) {
+      throw new IllegalArgumentException(name + " must be between 0 and 1.  Value=" + value);
+    }
+    return value;
+  }
+
+  @Override
+  public String toString() {
+    return "seed=" + seed + ", farmCount=" + farmCount + ", filtersPerFarm=" + filtersPerFarm +
+            ", globDensity=" + globDensity + ", regexDensity=" + regexDensity + ", includeDepth=" + includeDepth +
+            ", includeFanOut=" + includeFanOut + ", envVarDensity=" + envVarDensity + ", vhostCount=" + vhostCount +
+            ", directoriesPerVhost=" + directoriesPerVhost + ", sectionDepth=" + sectionDepth;
+  }
+}
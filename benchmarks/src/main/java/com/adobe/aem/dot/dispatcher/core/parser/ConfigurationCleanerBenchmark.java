@@ -0,0 +1,61 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.adobe.aem.dot.dispatcher.core.parser;
+
+import com.adobe.aem.dot.benchmarks.Fixtures;
+import com.adobe.aem.dot.common.ConfigurationLine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cleaning the resolved Dispatcher configuration of a test project: resolving environment variables, and removing
+ * comments and empty lines.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConfigurationCleanerBenchmark {
+
+  @Param({"test-project-all-rules-fail", "test-project-all-rules-pass"})
+  public String project;
+
+  private List<ConfigurationLine> resolvedLines;
+
+  @Setup
+  public void setup() {
+    resolvedLines = Fixtures.resolveDispatcherConfiguration(Fixtures.getTestProject(project));
+  }
+
+  @Benchmark
+  public List<ConfigurationLine> cleanConfig() {
+    return ConfigurationCleaner.cleanConfig(resolvedLines, true);
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.adobe.aem.dot.dispatcher.core.parser;
+
+import com.adobe.aem.dot.benchmarks.Fixtures;
+import com.adobe.aem.dot.common.ConfigurationLine;
+import com.adobe.aem.dot.common.parser.ConfigurationParseResults;
+import com.adobe.aem.dot.dispatcher.core.model.DispatcherConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tokenizing, reading and parsing the resolved Dispatcher configuration of a test project.  The benchmarks are in the
+ * parser's package, as the lexer and the reader's constructors are internal to it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConfigurationParserBenchmark {
+
+  @Param({"test-project-all-rules-fail", "test-project-all-rules-pass"})
+  public String project;
+
+  private List<ConfigurationLine> resolvedLines;
+  private List<ConfigurationLine> cleanedLines;
+
+  @Setup
+  public void setup() {
+    resolvedLines = Fixtures.resolveDispatcherConfiguration(Fixtures.getTestProject(project));
+    cleanedLines = ConfigurationCleaner.cleanConfig(resolvedLines, true);
+  }
+
+  @Benchmark
+  public int tokenize() {
+    return ConfigurationLexer.tokenize(cleanedLines).size();
+  }
+
+  @Benchmark
+  public int readTokens() {
+    ConfigurationReader reader = new ConfigurationReader(cleanedLines);
+    int count = 0;
+    while (reader.hasNext()) {
+      reader.next();
+      count++;
+    }
+    return count;
+  }
+
+  @Benchmark
+  public ConfigurationParseResults<DispatcherConfiguration> parse() throws ConfigurationSyntaxException {
+    return new ConfigurationParser().parseConfiguration(resolvedLines);
+  }
+}
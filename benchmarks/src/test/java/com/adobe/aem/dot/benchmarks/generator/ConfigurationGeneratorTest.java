@@ -0,0 +1,100 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.adobe.aem.dot.benchmarks.generator;
+
+import com.adobe.aem.dot.benchmarks.Fixtures;
+import com.adobe.aem.dot.common.ConfigurationException;
+import com.adobe.aem.dot.dispatcher.core.DispatcherConfigurationFactory;
+import com.adobe.aem.dot.dispatcher.core.model.ConfigurationValue;
+import com.adobe.aem.dot.dispatcher.core.model.DispatcherConfiguration;
+import com.adobe.aem.dot.dispatcher.core.model.Farm;
+import com.adobe.aem.dot.httpd.core.HttpdConfigurationFactory;
+import com.adobe.aem.dot.httpd.core.model.HttpdConfiguration;
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+public class ConfigurationGeneratorTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void generatesAnalyzableModule() throws ConfigurationException, IOException {
+    GeneratorOptions options = new GeneratorOptions()
+            .setFarmCount(5)
+            .setFiltersPerFarm(37)
+            .setIncludeDepth(3)
+            .setIncludeFanOut(2)
+            .setVhostCount(4)
+            .setDirectoriesPerVhost(3)
+            .setSectionDepth(2);
+    File repository = folder.getRoot();
+    new ConfigurationGenerator(options).generate(repository);
+
+    DispatcherConfiguration dispatcher = new DispatcherConfigurationFactory()
+            .parseConfiguration(repository.getPath(), Fixtures.DISPATCHER_FOLDER)
+            .getConfiguration();
+    assertNotNull(dispatcher);
+    assertEquals(5, dispatcher.getFarms().size());
+    for (ConfigurationValue<Farm> farm : dispatcher.getFarms()) {
+      // The leading deny-all rule, and the generated rules.
+      assertEquals(38, farm.getValue().getFilter().getValue().size());
+    }
+
+    HttpdConfiguration httpd = new HttpdConfigurationFactory()
+            .getHttpdConfiguration(repository.getPath(), Fixtures.HTTPD_FOLDER)
+            .getConfiguration();
+    assertNotNull(httpd);
+    assertEquals(4, httpd.getVirtualHosts().size());
+  }
+
+  @Test
+  public void isReproducible() throws IOException {
+    GeneratorOptions options = new GeneratorOptions().setFarmCount(3).setSeed(7);
+    File first = folder.newFolder("first");
+    File second = folder.newFolder("second");
+    new ConfigurationGenerator(options).generate(first);
+    new ConfigurationGenerator(options).generate(second);
+
+    String farm = Fixtures.DISPATCHER_FOLDER + "/filters/farm0002/l1_0.any";
+    assertEquals(FileUtils.readFileToString(new File(first, farm), StandardCharsets.UTF_8),
+            FileUtils.readFileToString(new File(second, farm), StandardCharsets.UTF_8));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsInvalidCount() {
+    new GeneratorOptions().setFarmCount(0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsInvalidDensity() {
+    new GeneratorOptions().setGlobDensity(1.5);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsUnknownOption() {
+    ConfigurationGeneratorMain.setOption(new GeneratorOptions(), "unknown", "1");
+  }
+}
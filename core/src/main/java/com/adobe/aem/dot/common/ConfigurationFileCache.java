@@ -0,0 +1,152 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.adobe.aem.dot.common;
+
+import com.adobe.aem.dot.common.util.PropertiesUtil;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps the lines of configuration files in memory, so a configuration can be parsed repeatedly while only reading
+ * the files which changed in between.  Files are identified by their normalized absolute path.  When enabled, the
+ * cache also holds the <code>RepositoryFileTree</code> of the repository, so the repository is walked once for all
+ * the parses rather than once per parse.
+ */
+public class ConfigurationFileCache {
+  private final Map<String, List<String>> contents = new HashMap<>();
+  private final boolean indexRepository;
+  private String indexedRepoPath = null;
+  private RepositoryFileTree fileTree = null;
+  private Path confinedRoot = null;
+
+  /**
+   * Create a cache which indexes the repository when the <code>dot.configuration.file.tree.enabled</code> property is
+   * set.
+   */
+  public ConfigurationFileCache() {
+    this(PropertiesUtil.getBooleanProperty(PropertiesUtil.FILE_TREE_ENABLED_PROP, false));
+  }
+
+  /**
+   * Create a cache.
+   * @param indexRepository Whether to keep an index of the repository's files for resolving includes
+   */
+  public ConfigurationFileCache(boolean indexRepository) {
+    this.indexRepository = indexRepository;
+  }
+
+  /**
+   * Get the lines of a file, reading it only if it is not already cached.
+   * @param file The file to read
+   * @return The lines of the file
+   * @throws IOException when the file cannot be read
+   */
+  public List<String> readLines(File file) throws IOException {
+    String key = getKey(file);
+    List<String> lines = contents.get(key);
+    if (lines == null) {
+      lines = ConfigurationFileLoader.readLines(file);
+      contents.put(key, lines);
+    }
+    return lines;
+  }
+
+  /**
+   * Get the cached lines of a file.
+   * @param file The file
+   * @return The lines of the file, or null if the file is not cached.
+   */
+  public List<String> get(File file) {
+    return contents.get(getKey(file));
+  }
+
+  /**
+   * Cache the lines of a file which were read elsewhere.
+   * @param file The file
+   * @param lines The lines of the file
+   */
+  public void put(File file, List<String> lines) {
+    contents.put(getKey(file), lines);
+  }
+
+  /**
+   * Get the index of the repository's files.  The repository is walked the first time only, and the folders of
+   * changed files are answered by the file system afterwards.
+   * @param repoPath The root folder of the repository
+   * @return The index, or null if indexing is disabled or the repository could not be indexed.
+   */
+  public RepositoryFileTree getFileTree(String repoPath) {
+    if (!indexRepository) {
+      return null;
+    }
+    if (!StringUtils.equals(repoPath, indexedRepoPath)) {
+      fileTree = RepositoryFileTree.index(repoPath);
+      indexedRepoPath = repoPath;
+    }
+    return fileTree;
+  }
+
+  /**
+   * Only resolve included files within a folder, such as a repository which was uploaded and is not trusted.
+   * @param confinedRoot The canonical path of the folder included files must be within, or null to resolve any file
+   */
+  public void setConfinedRoot(Path confinedRoot) {
+    this.confinedRoot = confinedRoot;
+  }
+
+  /**
+   * @return The canonical path of the folder included files must be within, or null if any file is resolved.
+   */
+  public Path getConfinedRoot() {
+    return confinedRoot;
+  }
+
+  /**
+   * Forget the provided files, so they are read again the next time they are needed.
+   * @param files The files which changed
+   * @return true if any of the files were cached
+   */
+  public boolean invalidate(Collection<File> files) {
+    if (fileTree != null) {
+      fileTree.invalidate(files);
+    }
+    boolean invalidated = false;
+    for (File file : files) {
+      invalidated |= contents.remove(getKey(file)) != null;
+    }
+    return invalidated;
+  }
+
+  /**
+   * @return The normalized absolute paths of the cached files.
+   */
+  public Set<String> getFiles() {
+    return Collections.unmodifiableSet(contents.keySet());
+  }
+
+  private static String getKey(File file) {
+    return file.getAbsoluteFile().toPath().normalize().toString();
+  }
+}
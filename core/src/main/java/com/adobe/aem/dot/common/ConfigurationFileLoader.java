@@ -0,0 +1,123 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.adobe.aem.dot.common;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Loads configuration files through a <code>FileChannel</code>.  Small files are read into a buffer, larger files are
+ * memory mapped.  The bytes are decoded as UTF-8 exactly once, and the file is always closed once it is read.
+ */
+public class ConfigurationFileLoader {
+  // Files of at least this size are memory mapped rather than read into a buffer.
+  static final long MAPPING_THRESHOLD = 1024 * 1024;
+
+  private ConfigurationFileLoader() {}
+
+  /**
+   * Read the lines of a file.  Lines may end with "\n", "\r\n" or "\r".
+   * @param file The file to read
+   * @return The lines of the file, without their line endings
+   * @throws FileNotFoundException when the file does not exist, or is a directory
+   * @throws IOException when the file cannot be read
+   */
+  public static List<String> readLines(File file) throws IOException {
+    return splitLines(decode(file));
+  }
+
+  /**
+   * Read the full contents of a file as a single String.
+   * @param file The file to read
+   * @return The contents of the file
+   * @throws FileNotFoundException when the file does not exist, or is a directory
+   * @throws IOException when the file cannot be read
+   */
+  public static String readContents(File file) throws IOException {
+    return decode(file).toString();
+  }
+
+  /**
+   * Split the provided contents into lines, the way <code>Files.readAllLines</code> does.  Lines may end with "\n",
+   * "\r\n" or "\r".  A line ending at the very end of the contents does not start a new, empty line, and empty
+   * contents have no lines.
+   * @param contents The contents to split
+   * @return The lines of the contents, without their line endings
+   */
+  public static List<String> splitLines(CharSequence contents) {
+    List<String> lines = new ArrayList<>();
+    int length = contents.length();
+    int start = 0;
+    int index = 0;
+    while (index < length) {
+      char nextChar = contents.charAt(index);
+      if (nextChar == '\n' || nextChar == '\r') {
+        lines.add(contents.subSequence(start, index).toString());
+        if (nextChar == '\r' && index + 1 < length && contents.charAt(index + 1) == '\n') {
+          index++;
+        }
+        start = index + 1;
+      }
+      index++;
+    }
+
+    if (start < length) {
+      lines.add(contents.subSequence(start, length).toString());
+    }
+
+    return lines;
+  }
+
+  private static CharBuffer decode(File file) throws IOException {
+    // Report missing files the same way java.io readers do, so callers only need to handle FileNotFoundException.
+    if (file.isDirectory()) {
+      throw new FileNotFoundException(file.getPath() + " (Is a directory)");
+    }
+
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      long size = channel.size();
+      ByteBuffer bytes;
+      if (size >= MAPPING_THRESHOLD) {
+        bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+      } else {
+        bytes = ByteBuffer.allocate((int) size);
+        while (bytes.hasRemaining() && channel.read(bytes) >= 0) {
+          // Keep reading until the buffer is full, or the end of the file is reached.
+        }
+        bytes.flip();
+      }
+
+      CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+              .onMalformedInput(CodingErrorAction.REPLACE)
+              .onUnmappableCharacter(CodingErrorAction.REPLACE);
+      return decoder.decode(bytes);
+    } catch (NoSuchFileException nsfEx) {
+      throw new FileNotFoundException(file.getPath() + " (No such file or directory)");
+    }
+  }
+}
@@ -25,12 +25,12 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.FileFilter;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -42,11 +42,12 @@ public class FileResolver {
 
   private final String basePath;
   private final boolean allowDirectoryPath;
+  private final FileResolverCache pathCache;
+  private final RepositoryFileTree fileTree;
+  private final Path confinedRoot;
 
   private static final Logger logger = LoggerFactory.getLogger(FileResolver.class);
 
-  private final static Map<String, String> cachedIncludeFiles = new HashMap<>();
-
   private static final String missingEnvVarStart = "_ENV___";
   private static final String missingEnvVarEnd = "__";
 
@@ -56,8 +57,51 @@ public class FileResolver {
    * @param allowDirectoryPath - whether to allow a directory to be included, without wildcards
    */
   public FileResolver(String basePath, boolean allowDirectoryPath) {
+    this(basePath, allowDirectoryPath, new FileResolverCache());
+  }
+
+  /**
+   * Instantiate a new FileResolver which shares resolved paths with other resolvers of the same run.
+   * @param basePath - the starting point to handle relative path includes from
+   * @param allowDirectoryPath - whether to allow a directory to be included, without wildcards
+   * @param pathCache - the resolved paths of the current run
+   */
+  public FileResolver(String basePath, boolean allowDirectoryPath, FileResolverCache pathCache) {
+    this(basePath, allowDirectoryPath, pathCache, null);
+  }
+
+  /**
+   * Instantiate a new FileResolver which looks up files in an index of the repository.
+   * @param basePath - the starting point to handle relative path includes from
+   * @param allowDirectoryPath - whether to allow a directory to be included, without wildcards
+   * @param pathCache - the resolved paths of the current run
+   * @param fileTree - the index of the repository's files, or null to use the file system
+   */
+  public FileResolver(String basePath, boolean allowDirectoryPath, FileResolverCache pathCache,
+                      RepositoryFileTree fileTree) {
+    this(basePath, allowDirectoryPath, pathCache, fileTree, null);
+  }
+
+  /**
+   * Instantiate a new FileResolver which only resolves files within a folder.  Files outside of the folder, reached
+   * through absolute paths, "../" or symbolic links, are skipped.
+   * @param basePath - the starting point to handle relative path includes from
+   * @param allowDirectoryPath - whether to allow a directory to be included, without wildcards
+   * @param pathCache - the resolved paths of the current run
+   * @param fileTree - the index of the repository's files, or null to use the file system
+   * @param confinedRoot - the canonical path of the folder the files must be within, or null to resolve any file
+   */
+  public FileResolver(String basePath, boolean allowDirectoryPath, FileResolverCache pathCache,
+                      RepositoryFileTree fileTree, Path confinedRoot) {
     this.basePath = basePath;
     this.allowDirectoryPath = allowDirectoryPath;
+    this.pathCache = pathCache;
+    this.fileTree = fileTree;
+    this.confinedRoot = confinedRoot;
+  }
+
+  public FileResolverCache getPathCache() {
+    return pathCache;
   }
 
   /**
@@ -93,6 +137,23 @@ public class FileResolver {
    * be files, readable, etc.
    */
   public List<File> resolveFiles(String filePath, String currentWorkingDirectory) {
+    List<File> files = resolve(filePath, currentWorkingDirectory);
+    if (confinedRoot == null || files.isEmpty()) {
+      return files;
+    }
+
+    List<File> confinedFiles = new ArrayList<>();
+    for (File file : files) {
+      if (isWithinConfinedRoot(file)) {
+        confinedFiles.add(file);
+      } else {
+        logger.error("Skipping include outside of the repository.  Path=\"{}\"", file.getPath());
+      }
+    }
+    return confinedFiles;
+  }
+
+  private List<File> resolve(String filePath, String currentWorkingDirectory) {
     String resolvedPath = resolveEnvironmentVariables(filePath);
     if (resolvedPath.contains("${") && resolvedPath.contains("}")) {
       logger.error("Skipping file with unresolved environment variable.  Path=\"{}\"", resolvedPath);
@@ -112,8 +173,7 @@ public class FileResolver {
       logger.trace("Found wildcard (*). Path=\"{}\"", filePath);
       File globFile = new File(resolvedPath);
       File directory = globFile.getParentFile();
-      FileFilter fileFilter = new WildcardFileFilter(globFile.getName());
-      File[] files = directory.listFiles(fileFilter);
+      File[] files = listFiles(directory, globFile.getName());
 
       if (files != null && files.length > 0) {
         // If directories are not allowed, then simply return our list instead of processing subdirectories.
@@ -130,7 +190,7 @@ public class FileResolver {
             String target = PathUtil.stripLastPathElement(filePath);
             name = PathUtil.appendPaths(target, nextFile.getName());
           }
-          List<File> nextFiles = resolveFiles(name, currentWorkingDirectory);
+          List<File> nextFiles = resolve(name, currentWorkingDirectory);
           if (!nextFiles.isEmpty()) {
             directoryFiles.addAll(nextFiles);
           }
@@ -152,7 +212,7 @@ public class FileResolver {
 
         // Check for file without the [x] in the path.
         String path = FilenameUtils.separatorsToSystem(filePath.replaceAll(wildcard, ""));
-        List<File> without = resolveFiles(path, currentWorkingDirectory);
+        List<File> without = resolve(path, currentWorkingDirectory);
         if (!without.isEmpty()) {
           files.addAll(without);
           foundOne = true;
@@ -160,7 +220,7 @@ public class FileResolver {
 
         // Check for file with the [x] in the path.
         path = FilenameUtils.separatorsToSystem(filePath.replaceAll(wildcard, inner));
-        List<File> with = resolveFiles(path, currentWorkingDirectory);
+        List<File> with = resolve(path, currentWorkingDirectory);
         if (!with.isEmpty()) {
           files.addAll(with);
           foundOne = true;
@@ -175,15 +235,15 @@ public class FileResolver {
       return files;
     } else {
       File resolvedFile = new File(resolvedPath);
-      if (resolvedFile.exists()) {
-        if (resolvedFile.isDirectory()) {
+      if (exists(resolvedFile)) {
+        if (isDirectory(resolvedFile)) {
           if (!allowDirectoryPath) {
             logger.error("Cannot include a directory.  Use wildcards to include the contents.  Path=\"{}\"", resolvedPath);
             return Collections.emptyList();
           }
 
           logger.warn("Including a directory is not recommended.  Instead, use wildcards.  Path=\"{}\"", resolvedPath);
-          return resolveFiles(PathUtil.appendPaths(filePath, "*"), currentWorkingDirectory);
+          return resolve(PathUtil.appendPaths(filePath, "*"), currentWorkingDirectory);
         }
 
         // It is a existing, non-directory file.
@@ -263,8 +323,9 @@ public class FileResolver {
   private String getBaseCombinedPath(String includePath, String cwd) {
     // Check if this combination has already been determined.  If so, use the cached value.
     String key = PathUtil.appendPaths(cwd, includePath);
-    if (cachedIncludeFiles.containsKey(key)) {
-      return cachedIncludeFiles.get(key);
+    FileResolverCache.CachedPath cachedPath = pathCache.get(key);
+    if (cachedPath != null) {
+      return cachedPath.getPath();
     }
 
     String combinedPath = "";
@@ -292,8 +353,7 @@ public class FileResolver {
 
     // Check for a file without any path being included.  If so, concatenate and return the value.
     if (StringUtils.isEmpty(baseIncludePath)) {
-      cachedIncludeFiles.put(key, key);   // 'key' happens to be our value, cwd + '/' + includePath
-      return key;
+      return pathCache.put(key, key);   // 'key' happens to be our value, cwd + '/' + includePath
     }
 
     boolean isIncludeAbsolute = PathUtil.isAbsolute(includePath);
@@ -305,8 +365,7 @@ public class FileResolver {
 
     // Check for an easy overlap
     if (!isIncludeAbsolute && cwd.endsWith(baseIncludePath)) {
-      cachedIncludeFiles.put(key, cwd + includeSuffix);
-      return cachedIncludeFiles.get(key);
+      return pathCache.put(key, cwd + includeSuffix);
     }
 
     // See if the baseIncludePath can fit on any section of the cwd.
@@ -316,7 +375,7 @@ public class FileResolver {
       // If not absolute path, take away folders from the end.
       if (!isIncludeAbsolute) {
         String testPath = PathUtil.appendPaths(lastBase, withoutRelativeParent);
-        if (PathUtil.isDir(testPath)) {
+        if (isDir(testPath)) {
           combinedPath = testPath;
           break;
         }
@@ -325,14 +384,14 @@ public class FileResolver {
         String subPath = baseIncludePath;
         while (StringUtils.isNotEmpty(subPath)) {
           String dirCheck = PathUtil.appendPaths(lastBase, subPath);
-          if (PathUtil.isDir(dirCheck)) {
+          if (isDir(dirCheck)) {
             // Double-Check: If no wildcards were found, see if the intended file exists in this location.
             // Helps in cases where a folder is used twice:  /configurations/conf/conf/file.conf
             File foundFile = null;
             if (firstWildIndex == 0) {
               foundFile = new File(PathUtil.appendPaths(dirCheck, includeSuffix));
             }
-            if (foundFile == null || foundFile.exists()) {
+            if (foundFile == null || exists(foundFile)) {
               lastBase = PathUtil.appendPaths(lastBase, subPath);
               break;
             }
@@ -351,11 +410,35 @@ public class FileResolver {
     }
 
     if (StringUtils.isEmpty(combinedPath)) {
-      cachedIncludeFiles.put(key, null);
-      return null;
+      return pathCache.put(key, null);
+    }
+
+    return pathCache.put(key, FilenameUtils.separatorsToSystem(combinedPath + includeSuffix));
+  }
+
+  private boolean isWithinConfinedRoot(File file) {
+    try {
+      return file.getCanonicalFile().toPath().startsWith(confinedRoot);
+    } catch (IOException ioEx) {
+      return false;
     }
+  }
+
+  private boolean exists(File file) {
+    return fileTree != null ? fileTree.exists(file) : file.exists();
+  }
+
+  private boolean isDirectory(File file) {
+    return fileTree != null ? fileTree.isDirectory(file) : file.isDirectory();
+  }
+
+  private boolean isDir(String path) {
+    return fileTree != null ? fileTree.isDirectory(new File(FilenameUtils.separatorsToSystem(path)))
+            : PathUtil.isDir(path);
+  }
 
-    cachedIncludeFiles.put(key, FilenameUtils.separatorsToSystem(combinedPath + includeSuffix));
-    return cachedIncludeFiles.get(key);
+  private File[] listFiles(File directory, String wildcard) {
+    return fileTree != null ? fileTree.listFiles(directory, wildcard)
+            : directory.listFiles((FileFilter) new WildcardFileFilter(wildcard));
   }
 }
@@ -0,0 +1,132 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.adobe.aem.dot.common;
+
+import com.adobe.aem.dot.common.util.PropertiesUtil;
+import lombok.Getter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers the paths a <code>FileResolver</code> determined for include paths, keyed by the include path combined
+ * with the folder it was resolved from.  A cache is meant to live for one resolution run (a single configuration
+ * parse), so results never carry over between repositories.  It may be shared by resolvers on several threads, and
+ * holds at most <code>maximumSize</code> entries, evicting the least recently used one when full.
+ */
+public class FileResolverCache {
+  private static final int DEFAULT_MAXIMUM_SIZE = 10000;
+
+  private final int maximumSize;
+  private final Map<String, CachedPath> paths;
+
+  private final AtomicLong hitCount = new AtomicLong();
+  private final AtomicLong missCount = new AtomicLong();
+  private final AtomicLong evictionCount = new AtomicLong();
+
+  /**
+   * Create a cache whose size is limited by the <code>dot.configuration.path.cache.size</code> property.
+   */
+  public FileResolverCache() {
+    this((int) PropertiesUtil.getLongProperty(PropertiesUtil.PATH_CACHE_SIZE_PROP, DEFAULT_MAXIMUM_SIZE));
+  }
+
+  /**
+   * Create a cache holding at most <code>maximumSize</code> resolved paths.
+   * @param maximumSize The maximum number of entries.  With 0 or less, nothing is cached.
+   */
+  public FileResolverCache(int maximumSize) {
+    this.maximumSize = Math.max(maximumSize, 0);
+    this.paths = new LinkedHashMap<String, CachedPath>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, CachedPath> eldest) {
+        if (size() > FileResolverCache.this.maximumSize) {
+          evictionCount.incrementAndGet();
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  /**
+   * Look up a previously resolved path.
+   * @param key The include path combined with the folder it is resolved from
+   * @return The cached resolution, or null if the key is not cached.
+   */
+  CachedPath get(String key) {
+    CachedPath path;
+    synchronized (paths) {
+      path = paths.get(key);
+    }
+    (path != null ? hitCount : missCount).incrementAndGet();
+    return path;
+  }
+
+  /**
+   * Remember a resolved path.
+   * @param key The include path combined with the folder it is resolved from
+   * @param path The resolved path, or null if the path could not be resolved
+   * @return The resolved path
+   */
+  String put(String key, String path) {
+    synchronized (paths) {
+      paths.put(key, new CachedPath(path));
+    }
+    return path;
+  }
+
+  public int getMaximumSize() {
+    return maximumSize;
+  }
+
+  public int size() {
+    synchronized (paths) {
+      return paths.size();
+    }
+  }
+
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  public long getMissCount() {
+    return missCount.get();
+  }
+
+  public long getEvictionCount() {
+    return evictionCount.get();
+  }
+
+  @Override
+  public String toString() {
+    return "FileResolverCache{size=" + size() + ", hits=" + getHitCount() + ", misses=" + getMissCount() +
+            ", evictions=" + getEvictionCount() + "}";
+  }
+
+  /**
+   * The result of resolving an include path: the resolved path, or null if the path could not be resolved.
+   */
+  @Getter
+  static final class CachedPath {
+    private final String path;
+
+    private CachedPath(String path) {
+      this.path = path;
+    }
+  }
+}
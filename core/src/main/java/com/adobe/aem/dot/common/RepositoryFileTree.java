@@ -0,0 +1,344 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.adobe.aem.dot.common;
+
+import com.adobe.aem.dot.common.util.PropertiesUtil;
+import org.apache.commons.io.filefilter.WildcardFileFilter;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An in-memory index of the folders and files of a repository, built by walking the repository once.  The
+ * <code>FileResolver</code> consults it instead of the file system, so resolving includes and wildcards needs no
+ * further file system calls for paths inside the repository.
+ *
+ * Symbolic links are followed, and folder contents are listed in the order the file system returned them.  Paths
+ * outside the repository, paths containing "..", folders which could not be read, and folders of version control or
+ * build output (i.e. ".git", "target" and "node_modules") are answered by the file system.  Names are compared
+ * case-sensitively.
+ *
+ * A tree is meant to be built once per analysis or session.  When files change, <code>invalidate</code> drops the
+ * contents of their folders from the index, so those folders are answered by the file system without walking the
+ * repository again.
+ */
+public class RepositoryFileTree {
+  private static final Logger logger = LoggerFactory.getLogger(RepositoryFileTree.class);
+
+  // Folders which are never included by a configuration, and whose contents are therefore not indexed.
+  private static final Set<String> SKIPPED_FOLDERS = new HashSet<>(Arrays.asList(".git", ".svn", ".hg", "target",
+          "node_modules"));
+
+  private static final Node MISSING = new Node(false, false);
+
+  private final Path root;
+  private final Node rootNode = new Node(true, true);
+  private int fileCount = 0;
+  private int folderCount = 0;
+
+  private RepositoryFileTree(Path root) {
+    this.root = root;
+  }
+
+  /**
+   * Index the repository when the <code>dot.configuration.file.tree.enabled</code> property is set.
+   * @param repoPath The root folder of the repository
+   * @return The index, or null if the property is not set or the repository could not be indexed.
+   */
+  public static RepositoryFileTree fromProperties(String repoPath) {
+    if (!PropertiesUtil.getBooleanProperty(PropertiesUtil.FILE_TREE_ENABLED_PROP, false)) {
+      return null;
+    }
+    return index(repoPath);
+  }
+
+  /**
+   * Index the repository, logging rather than throwing when it cannot be indexed.
+   * @param repoPath The root folder of the repository
+   * @return The index, or null if the repository could not be indexed.
+   */
+  static RepositoryFileTree index(String repoPath) {
+    if (StringUtils.isEmpty(repoPath)) {
+      return null;
+    }
+
+    if (Paths.get(repoPath).toAbsolutePath().getParent() == null) {
+      logger.warn("Repository is the root of the file system, and is not indexed.  Path=\"{}\"", repoPath);
+      return null;
+    }
+
+    try {
+      return build(repoPath);
+    } catch (IOException ioEx) {
+      logger.warn("Repository could not be indexed.  Using the file system instead.  Path=\"{}\"", repoPath, ioEx);
+      return null;
+    }
+  }
+
+  /**
+   * Walk the repository once, recording every folder and file below it.
+   * @param repoPath The root folder of the repository
+   * @return The index of the repository
+   * @throws IOException when the repository folder cannot be read
+   */
+  public static RepositoryFileTree build(String repoPath) throws IOException {
+    Path root = Paths.get(repoPath).toAbsolutePath().normalize();
+    if (!Files.isDirectory(root)) {
+      throw new FileNotFoundException(root + " (Not a directory)");
+    }
+
+    long start = System.currentTimeMillis();
+    RepositoryFileTree tree = new RepositoryFileTree(root);
+    Files.walkFileTree(root, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE, tree.new Indexer());
+    logger.debug("Indexed repository. Path=\"{}\" Folders={} Files={} Time={}ms", root, tree.folderCount,
+            tree.fileCount, System.currentTimeMillis() - start);
+    return tree;
+  }
+
+  /**
+   * Same as <code>File.exists()</code>.
+   * @param file The file or folder
+   * @return true if the file or folder exists
+   */
+  public boolean exists(File file) {
+    Node node = find(file);
+    return node == null ? file.exists() : node.exists;
+  }
+
+  /**
+   * Same as <code>File.isDirectory()</code>.
+   * @param file The file or folder
+   * @return true if the folder exists
+   */
+  public boolean isDirectory(File file) {
+    Node node = find(file);
+    return node == null ? file.isDirectory() : node.directory;
+  }
+
+  /**
+   * Same as <code>File.listFiles</code> with a <code>WildcardFileFilter</code>.
+   * @param directory The folder to list
+   * @param wildcard The pattern the names of the listed files and folders must match
+   * @return The matching files and folders, or null if <code>directory</code> is not a folder.
+   */
+  public File[] listFiles(File directory, String wildcard) {
+    WildcardFileFilter filter = new WildcardFileFilter(wildcard);
+    Node node = find(directory);
+    if (node == null || (node.directory && node.children == null)) {
+      return directory.listFiles((FileFilter) filter);
+    }
+    if (!node.directory) {
+      return null;
+    }
+
+    return node.children.keySet().stream()
+            .filter(name -> filter.accept(directory, name))
+            .map(name -> new File(directory, name))
+            .toArray(File[]::new);
+  }
+
+  /**
+   * Drop the contents of the folders of changed files from the index, so they are answered by the file system.  A
+   * folder which no longer exists is dropped from its nearest existing parent folder.
+   * @param files The files which were changed, added or deleted
+   */
+  public void invalidate(Collection<File> files) {
+    for (File file : files) {
+      Path path;
+      try {
+        path = file.toPath().toAbsolutePath().normalize();
+      } catch (InvalidPathException ipEx) {
+        continue;
+      }
+
+      Path folder = path.getParent();
+      while (folder != null && folder.startsWith(root) && !folder.equals(root) && !Files.isDirectory(folder)) {
+        folder = folder.getParent();
+      }
+      if (folder == null || !folder.startsWith(root)) {
+        continue;
+      }
+
+      // Find the deepest indexed folder on the way to the changed file's folder.
+      Node node = rootNode;
+      for (Path name : root.relativize(folder)) {
+        Node child = node.children != null ? node.children.get(name.toString()) : null;
+        if (child == null || child.unknown || !child.directory) {
+          break;
+        }
+        node = child;
+      }
+      node.children = null;
+    }
+  }
+
+  public int getFileCount() {
+    return fileCount;
+  }
+
+  public int getFolderCount() {
+    return folderCount;
+  }
+
+  /**
+   * Look up a file in the index.
+   * @param file The file to look up
+   * @return The node of the file, MISSING if the file does not exist, or null if the index cannot tell.
+   */
+  private Node find(File file) {
+    Path path;
+    try {
+      path = file.toPath();
+    } catch (InvalidPathException ipEx) {
+      return null;
+    }
+    for (Path name : path) {
+      // ".." after a symbolic link leaves the link's target, which lexical normalization would not do.
+      if (name.toString().equals("..")) {
+        return null;
+      }
+    }
+
+    path = path.toAbsolutePath().normalize();
+    if (!path.startsWith(root)) {
+      return null;
+    }
+
+    Node node = rootNode;
+    if (path.equals(root)) {
+      return node;
+    }
+    for (Path name : root.relativize(path)) {
+      if (node.unknown) {
+        return null;
+      }
+      if (!node.exists || !node.directory) {
+        return MISSING;
+      }
+      if (node.children == null) {
+        return null;
+      }
+      node = node.children.get(name.toString());
+      if (node == null) {
+        return MISSING;
+      }
+    }
+    return node.unknown ? null : node;
+  }
+
+  private static final class Node {
+    private final boolean exists;
+    private final boolean directory;
+    private final boolean unknown;
+    // The folder contents, in the order the file system listed them.  null when the contents are not indexed.
+    private Map<String, Node> children;
+
+    private Node(boolean exists, boolean directory) {
+      this(exists, directory, false);
+    }
+
+    private Node(boolean exists, boolean directory, boolean unknown) {
+      this.exists = exists;
+      this.directory = directory;
+      this.unknown = unknown;
+      this.children = directory ? new LinkedHashMap<>() : null;
+    }
+  }
+
+  private final class Indexer extends SimpleFileVisitor<Path> {
+    private final Deque<Node> folders = new ArrayDeque<>();
+
+    @Override
+    public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+      if (folders.isEmpty()) {
+        folders.push(rootNode);
+        return FileVisitResult.CONTINUE;
+      }
+
+      Node folder = add(dir, new Node(true, true));
+      folderCount++;
+      if (SKIPPED_FOLDERS.contains(dir.getFileName().toString())) {
+        folder.children = null;
+        return FileVisitResult.SKIP_SUBTREE;
+      }
+      folders.push(folder);
+      return FileVisitResult.CONTINUE;
+    }
+
+    @Override
+    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+      // With links followed, only a link whose target does not exist is still reported as a link.
+      boolean exists = !attrs.isSymbolicLink();
+      add(file, new Node(exists, false));
+      if (exists) {
+        fileCount++;
+      }
+      return FileVisitResult.CONTINUE;
+    }
+
+    @Override
+    public FileVisitResult visitFileFailed(Path file, IOException exc) {
+      // Unreadable entries and links looping back to a parent folder are left to the file system.
+      logger.trace("Repository entry is not indexed. Path=\"{}\"", file, exc);
+      if (folders.isEmpty()) {
+        rootNode.children = null;
+      } else {
+        add(file, new Node(true, false, true));
+      }
+      return FileVisitResult.CONTINUE;
+    }
+
+    @Override
+    public FileVisitResult postVisitDirectory(Path dir, IOException exc) {
+      Node folder = folders.pop();
+      if (exc != null) {
+        logger.trace("Repository folder is not fully indexed. Path=\"{}\"", dir, exc);
+        folder.children = null;
+      }
+      return FileVisitResult.CONTINUE;
+    }
+
+    private Node add(Path path, Node node) {
+      Node folder = folders.peek();
+      if (folder != null && folder.children != null) {
+        folder.children.put(path.getFileName().toString(), node);
+      }
+      return node;
+    }
+  }
+}
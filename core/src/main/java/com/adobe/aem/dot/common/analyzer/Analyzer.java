@@ -22,14 +22,7 @@ import lombok.Getter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
-import java.util.TreeSet;
-import java.util.stream.Collectors;
 
 /**
  * Analyze a DispatcherConfiguration for violations.
@@ -39,12 +32,24 @@ public abstract class Analyzer {
   @Getter
   private AnalyzerRuleList analyzerRuleList;
 
+  // Records the cost of each rule and check evaluated by this analyzer.
+  @Getter
+  private CostRecorder costRecorder = CostRecorder.DISABLED;
+
   private static final Logger logger = LoggerFactory.getLogger(Analyzer.class);
 
   public Analyzer(AnalyzerRuleList analyzerRuleList) {
     this.analyzerRuleList = analyzerRuleList;
   }
 
+  /**
+   * Record the wall time, invocations and allocated bytes of the rules and checks of the following analyses.
+   * @param costRecorder The recorder of the costs, or null to stop recording them.
+   */
+  public void setCostRecorder(CostRecorder costRecorder) {
+    this.costRecorder = costRecorder != null ? costRecorder : CostRecorder.DISABLED;
+  }
+
   public abstract List<Violation> getViolations(Configuration config, ViolationVerbosity verbosity);
 
   /**
@@ -56,40 +61,8 @@ public abstract class Analyzer {
    * @return A reduced list of violations including count.
    */
   public static List<Violation> reduceViolationList(List<Violation> violations, boolean reportEachRuleOnlyOnce) {
-    Set<Violation> violationSet = new TreeSet<>(violations);  // Sort and make unique...
-    logger.info("Unique Violation Count={}.", violationSet.size());
-    List<Violation> countedViolations = new ArrayList<>();
-
-    // If the request is to report identical rule violations occurring at difference source locations, then return
-    // the list as it is now.
-    if (!reportEachRuleOnlyOnce) {
-      return violationSet.stream()
-                     .map(CountedRuleViolation::new)
-                     .collect(Collectors.toList());
-    }
-
-    // Reduce the list to only report each rule violation once, with number of times it was violated.
-    Iterator<Violation> it = violationSet.iterator();
-    Map<String, Integer> violationCount = new HashMap<>();
-    while (it.hasNext()) {
-      Violation nextViolation = it.next();
-      AnalyzerRule nextRule = nextViolation.getAnalyzerRule();
-      if (violationCount.containsKey(nextRule.getId())) {
-        // Previously encountered rule violation - just increment count.
-        violationCount.put(nextRule.getId(), violationCount.get(nextRule.getId()) + 1);
-      } else {
-        // New Rule Violation - initialize count and record it.
-        violationCount.put(nextRule.getId(), 1);
-        countedViolations.add(new CountedRuleViolation(nextViolation));
-      }
-    }
-
-    // Set the count for each violation.
-    for (Violation violation: countedViolations) {
-      CountedRuleViolation crv = (CountedRuleViolation) violation;
-      crv.setRuleViolationCount(violationCount.get(violation.getAnalyzerRule().getId()));
-    }
-
-    return countedViolations;
+    ViolationAggregator aggregator = ViolationAggregator.aggregate(violations);
+    logger.info("Unique Violation Count={}.", aggregator.getUniqueCount());
+    return aggregator.getViolations(reportEachRuleOnlyOnce ? ViolationVerbosity.MINIMIZED : ViolationVerbosity.PARTIAL);
   }
 }
@@ -19,20 +19,16 @@ package com.adobe.aem.dot.common.analyzer;
 import com.adobe.aem.dot.common.util.GoUrlUtil;
 import com.adobe.aem.dot.dispatcher.core.DispatcherConstants;
 import com.adobe.aem.dot.dispatcher.core.analyzer.FarmType;
-import com.adobe.aem.dot.dispatcher.core.model.ConfigurationValue;
 import com.adobe.aem.dot.dispatcher.core.model.Farm;
 import com.adobe.aem.dot.httpd.core.HttpdConstants;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
-import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.beans.IntrospectionException;
-import java.beans.PropertyDescriptor;
-import java.lang.reflect.InvocationTargetException;
 import java.util.List;
 
 /**
@@ -54,6 +50,10 @@ public class AnalyzerRule {
   private List<String> tags;
   private String effort;      // integer + unit (i.e. "15min")
 
+  @Getter(AccessLevel.NONE)
+  @Setter(AccessLevel.NONE)
+  private volatile transient ElementAccessor elementAccessor = null;
+
   protected static final String DOC_URL_DEFAULT = "https://experienceleague.adobe.com/docs/experience-manager-dispatcher/using/configuring/dispatcher-configuration.html";
 
   private static final Logger logger = LoggerFactory.getLogger(AnalyzerRule.class);
@@ -65,66 +65,30 @@ public class AnalyzerRule {
    */
   @JsonIgnore
   public Object determineCheckTarget(Farm farm) {
-    // Determine the configuration element to check
-    if (StringUtils.isEmpty(this.getElement())) {
-      logger.error("Each rule must contain an `element` string, such as \"farm.filter\" or \"farm.cache.statfileslevel\".");
-      return null;
-    }
-
-    String[] elementTokens = this.getElement().split("\\.");
-
-    if (elementTokens.length < 2) {
-      logger.error("Each rule's `element` string must contain at least 2 tokens separated by \".\", such as \"farm.filter\" or \"farm.cache.statfileslevel\". ProvidedElement=\"{}\"",
-              this.getElement());
-      return null;
-    }
-
-    String topLevelElementName = elementTokens[0].toLowerCase();
-    Object objectToCheck;
-    String fieldNameToCheck;
-
-    // Determine the property to check
     logger.debug("Processing rule element=\"{}\" from RuleId=\"{}\"", this.getElement(), this.getId());
-    if (!topLevelElementName.equals(DispatcherConstants.FARM)) {
-      logger.error("Do not know how to handle this rule's element path: ProvidedElement=\"{}\" failed on property=\"{}\"",
-              this.getElement(), topLevelElementName);
-      return null;
+    ElementAccessor accessor = this.elementAccessor;
+    if (accessor == null || !accessor.isFor(this.getElement())) {
+      accessor = compileElement();
     }
+    return accessor.apply(farm);
+  }
 
-    Object configValueToCheck = null;
-    logger.trace("topLevelElement: farm");
-
-    String secondLevelElementName = elementTokens[1].toLowerCase();
-    switch (secondLevelElementName) {
-      case "cache":
-        logger.trace("secondLevelElement: cache");
-
-        if (elementTokens.length == 3) {
-          // There's one final token: the field name
-          fieldNameToCheck = elementTokens[2];
-          objectToCheck = callGetter(farm, secondLevelElementName);
-          configValueToCheck = callGetter(objectToCheck, fieldNameToCheck);
-          logger.trace("Property on object=\"{}\" named=\"{}\" has value=\"{}\"", secondLevelElementName,
-                  fieldNameToCheck, configValueToCheck);
-        } else {
-          // This method does not know how to handle this particular rule element
-          logger.error("Unhandled rule element. ProvidedElement=\"{}\"", this.getElement());
-        }
-        break;
-      case "filter":
-        logger.trace("secondLevelElement: filter");
-
-        configValueToCheck = callGetter(farm, secondLevelElementName);
-        logger.trace("Property on object=\"{}\" named=\"{}\" has value=\"{}\"", topLevelElementName,
-                secondLevelElementName, configValueToCheck);
-        break;
-      default:
-        // TODO: handle others
-        logger.error("Do not know how to handle this rule's element path: ProvidedElement=\"{}\" failed on property=\"{}\"",
-                this.getElement(), secondLevelElementName);
+  /**
+   * Compile the element path, so determining the check target of a farm does not need to interpret the path or use
+   * reflection, and precompile the regex expressions of the checks.  Rules are compiled when they are loaded, and the
+   * element again if it changes.
+   */
+  public void compile() {
+    compileElement();
+    if (this.getChecks() != null) {
+      this.getChecks().forEach(Check::compile);
     }
+  }
 
-    return configValueToCheck;
+  private ElementAccessor compileElement() {
+    ElementAccessor accessor = ElementAccessor.compile(this.getElement());
+    this.elementAccessor = accessor;
+    return accessor;
   }
 
   /**
@@ -172,31 +136,4 @@ public class AnalyzerRule {
   public String getDocumentationURL() {
     return GoUrlUtil.getDocumentationGoURL(this.getId(), DOC_URL_DEFAULT);
   }
-
-  private Object callGetter(Object obj, String fieldName){
-    if (obj == null) {
-      logger.error("Could not read property=\"{}\" from a null object", fieldName);
-      return null;
-    }
-
-    Object valueObj = obj;
-    // Cover case where the object is a configuration value - a 'getValue()' must be called on it.
-    if ((obj instanceof ConfigurationValue)) {
-      valueObj = ((ConfigurationValue<?>)obj).getValue();
-    }
-
-    PropertyDescriptor propertyDescriptor;
-    try {
-      propertyDescriptor = new PropertyDescriptor(fieldName, valueObj.getClass(),
-              "get" + Character.toUpperCase(fieldName.charAt(0)) + fieldName.substring(1),
-              null);
-      Object result = propertyDescriptor.getReadMethod().invoke(valueObj);
-      logger.trace("callGetter found result for property=\"{}\" value=\"{}\"", fieldName,
-              result != null ? result.toString() : "null");
-      return result;
-    } catch (IntrospectionException | IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-      logger.error("Error reading property=\"{}\" from value=\"{}\"", fieldName, valueObj, e);
-      return null;
-    }
-  }
 }
@@ -22,6 +22,7 @@ import com.adobe.aem.dot.dispatcher.core.analyzer.conditions.FilterListStartsWit
 import com.adobe.aem.dot.dispatcher.core.analyzer.conditions.IntEqualsCheck;
 import com.adobe.aem.dot.dispatcher.core.analyzer.conditions.IntGreaterOrEqualCheck;
 import com.adobe.aem.dot.dispatcher.core.analyzer.conditions.IsUniqueLabelCheck;
+import com.adobe.aem.dot.dispatcher.core.analyzer.conditions.ListIndexes;
 import com.adobe.aem.dot.dispatcher.core.analyzer.conditions.RuleListIncludesCheck;
 import com.adobe.aem.dot.dispatcher.core.analyzer.conditions.RuleListStartsWithCheck;
 import com.adobe.aem.dot.dispatcher.core.model.FilterRule;
@@ -68,6 +69,16 @@ public abstract class Check {
 
   public abstract CheckResult performCheck(Object configurationValue);
 
+  /**
+   * Perform the check, using the list indexes of the current analysis where the check can make use of them.
+   * @param configurationValue The value to check
+   * @param listIndexes The list indexes of the current analysis
+   * @return The result of the check
+   */
+  public CheckResult performCheck(Object configurationValue, ListIndexes listIndexes) {
+    return performCheck(configurationValue);
+  }
+
   @JsonIgnore
   public abstract Condition getCondition();
 
@@ -92,6 +103,18 @@ public abstract class Check {
     return null;
   }
 
+  /**
+   * Precompile the <code>regex(...)</code> expressions of the rule or filter value of this Check.
+   */
+  public void compile() {
+    if (this.getRuleValue() != null) {
+      this.getRuleValue().compilePatterns();
+    }
+    if (this.getFilterValue() != null) {
+      this.getFilterValue().compilePatterns();
+    }
+  }
+
   protected boolean processFailIf(boolean check) {
     if (this.failIf) {
       return !check;
@@ -0,0 +1,270 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.adobe.aem.dot.common.analyzer;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records the wall time, the number of invocations and the bytes allocated by the parse phases, the rules and the
+ * checks of an analysis, so the rules which slow an analysis down can be told apart.  Costs are accumulated by name,
+ * and may be recorded from several threads at once.  The allocated bytes are only known on JVMs which measure the
+ * allocations of each thread; they are reported as 0 elsewhere.
+ * <p>
+ * A Dispatcher rule, and each of its checks, is evaluated once per farm it applies to, so its invocations count
+ * farm and rule pairs rather than rules: a rule evaluated against 3 farms counts 3.  Multi-farm rules and Apache Httpd
+ * rules are evaluated once per configuration.
+ * <p>
+ * The allocated bytes of a sample are those of the thread which started it.  Rules and checks are started and
+ * recorded on the thread evaluating them, so their bytes are complete.  A phase which hands work to other threads,
+ * such as include resolution with an include parallelism above 1 or an analysis with an analyzer parallelism above 1,
+ * does not count the bytes allocated by those threads, and under-reports its allocations.  Its wall time is complete.
+ */
+public class CostRecorder {
+
+  /**
+   * A recorder which records nothing.  It is used where no costs were requested.
+   */
+  public static final CostRecorder DISABLED = new CostRecorder(false);
+
+  @Getter
+  private final boolean enabled;
+
+  private final ConcurrentMap<String, Cost> phaseCosts = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, Cost> ruleCosts = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, Cost> checkCosts = new ConcurrentHashMap<>();
+
+  private static final com.sun.management.ThreadMXBean allocationBean = getAllocationBean();
+
+  public CostRecorder() {
+    this(true);
+  }
+
+  private CostRecorder(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  /**
+   * Start measuring a piece of work on the current thread.  Only the allocations of the current thread are measured.
+   * @return The sample to pass to one of the record methods once the work is done, or null if nothing is recorded.
+   */
+  public Sample start() {
+    return this.enabled ? new Sample(System.nanoTime(), getAllocatedBytes()) : null;
+  }
+
+  /**
+   * Record the cost of a parse phase, or of another part of the analysis which is not a rule.
+   * @param phase The name of the phase
+   * @param sample The sample started before the phase
+   */
+  public void recordPhase(String phase, Sample sample) {
+    record(this.phaseCosts, phase, phase, null, sample);
+  }
+
+  /**
+   * Record the cost of one evaluation of a rule, against one farm or, for multi-farm and Apache Httpd rules, against
+   * the whole configuration.
+   * @param rule The rule
+   * @param sample The sample started before the rule was evaluated
+   */
+  public void recordRule(AnalyzerRule rule, Sample sample) {
+    record(this.ruleCosts, rule.getId(), rule.getId(), null, sample);
+  }
+
+  /**
+   * Record the cost of one evaluation of a check.  The checks of a rule are told apart by their position in it.
+   * @param rule The rule the check belongs to
+   * @param checkIndex The position of the check in the rule's checks
+   * @param check The check
+   * @param sample The sample started before the check was performed
+   */
+  public void recordCheck(AnalyzerRule rule, int checkIndex, Check check, Sample sample) {
+    String key = rule.getId() + "#" + checkIndex;
+    String condition = check.getCondition() == null ? "" : check.getCondition().toString();
+    record(this.checkCosts, key, rule.getId(), condition + "#" + checkIndex, sample);
+  }
+
+  /**
+   * @return The costs of the parse phases, the most expensive first.
+   */
+  public List<Cost> getPhaseCosts() {
+    return sorted(this.phaseCosts);
+  }
+
+  /**
+   * @return The costs of the rules, the most expensive first.
+   */
+  public List<Cost> getRuleCosts() {
+    return sorted(this.ruleCosts);
+  }
+
+  /**
+   * @return The costs of the checks, the most expensive first.
+   */
+  public List<Cost> getCheckCosts() {
+    return sorted(this.checkCosts);
+  }
+
+  /**
+   * @return true if no cost was recorded.
+   */
+  public boolean isEmpty() {
+    return this.phaseCosts.isEmpty() && this.ruleCosts.isEmpty() && this.checkCosts.isEmpty();
+  }
+
+  /**
+   * @return true if the allocated bytes are measured on this JVM.
+   */
+  public static boolean isAllocationMeasured() {
+    return allocationBean != null;
+  }
+
+  /**
+   * Render the recorded costs as a JSON document, with the phases, the rules and the checks each listed from the
+   * most expensive to the least expensive.
+   * @return The timing report
+   * @throws IOException if the costs cannot be rendered
+   */
+  public String generateTimingReport() throws IOException {
+    Map<String, Object> report = new LinkedHashMap<>();
+    report.put("allocationMeasured", isAllocationMeasured());
+    report.put("phases", getPhaseCosts());
+    report.put("rules", getRuleCosts());
+    report.put("checks", getCheckCosts());
+
+    ObjectMapper mapper = new ObjectMapper();
+    mapper.enable(SerializationFeature.INDENT_OUTPUT);
+    return mapper.writeValueAsString(report);
+  }
+
+  private void record(ConcurrentMap<String, Cost> costs, String key, String name, String check, Sample sample) {
+    if (sample == null) {
+      return;
+    }
+    long wallNanos = System.nanoTime() - sample.startNanos;
+    long allocatedBytes = sample.startBytes < 0 ? 0 : Math.max(0, getAllocatedBytes() - sample.startBytes);
+    costs.computeIfAbsent(key, k -> new Cost(name, check)).add(wallNanos, allocatedBytes);
+  }
+
+  private static List<Cost> sorted(Map<String, Cost> costs) {
+    // Sort copies, so costs recorded meanwhile do not change the order while sorting.
+    List<Cost> list = new ArrayList<>();
+    for (Cost cost : costs.values()) {
+      list.add(cost.copy());
+    }
+    list.sort(Comparator.comparingLong(Cost::getWallNanos).reversed()
+            .thenComparing(Cost::getName)
+            .thenComparing(cost -> cost.getCheck() == null ? "" : cost.getCheck()));
+    return list;
+  }
+
+  private static long getAllocatedBytes() {
+    return allocationBean != null ? allocationBean.getThreadAllocatedBytes(Thread.currentThread().getId()) : -1;
+  }
+
+  private static com.sun.management.ThreadMXBean getAllocationBean() {
+    try {
+      ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+      if (threadBean instanceof com.sun.management.ThreadMXBean) {
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) threadBean;
+        if (bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled()) {
+          return bean;
+        }
+      }
+    } catch (LinkageError | RuntimeException ex) {
+      // The JVM does not provide the com.sun.management extensions.
+    }
+    return null;
+  }
+
+  /**
+   * The starting point of a measurement.
+   */
+  public static final class Sample {
+    private final long startNanos;
+    private final long startBytes;
+
+    private Sample(long startNanos, long startBytes) {
+      this.startNanos = startNanos;
+      this.startBytes = startBytes;
+    }
+  }
+
+  /**
+   * The accumulated cost of a phase, a rule or a check.
+   */
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  public static final class Cost {
+    // The name of the phase, or the id of the rule.
+    @Getter
+    private final String name;
+    // The condition and position of the check in its rule, or null for phases and rules.
+    @Getter
+    private final String check;
+
+    private final LongAdder invocations = new LongAdder();
+    private final LongAdder wallNanos = new LongAdder();
+    private final LongAdder allocatedBytes = new LongAdder();
+
+    Cost(String name, String check) {
+      this.name = name;
+      this.check = check;
+    }
+
+    void add(long nanos, long bytes) {
+      this.invocations.increment();
+      this.wallNanos.add(nanos);
+      this.allocatedBytes.add(bytes);
+    }
+
+    Cost copy() {
+      Cost copy = new Cost(this.name, this.check);
+      copy.invocations.add(getInvocations());
+      copy.wallNanos.add(getWallNanos());
+      copy.allocatedBytes.add(getAllocatedBytes());
+      return copy;
+    }
+
+    /**
+     * @return The number of times the phase ran, or the rule or check was evaluated, counting each farm separately.
+     */
+    public long getInvocations() {
+      return this.invocations.sum();
+    }
+
+    public long getWallNanos() {
+      return this.wallNanos.sum();
+    }
+
+    public long getAllocatedBytes() {
+      return this.allocatedBytes.sum();
+    }
+  }
+}
@@ -0,0 +1,203 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.adobe.aem.dot.common.analyzer;
+
+import com.adobe.aem.dot.dispatcher.core.DispatcherConstants;
+import com.adobe.aem.dot.dispatcher.core.model.ConfigurationValue;
+import com.adobe.aem.dot.dispatcher.core.model.Farm;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * The compiled form of an <code>AnalyzerRule</code>'s element path, such as "farm.cache.statfileslevel".  The path
+ * is split and validated once, and each property along it is read through a <code>MethodHandle</code> to its getter,
+ * which is looked up once per class of the object it is read from.
+ */
+final class ElementAccessor {
+  // Log as the rule, which is where element paths used to be resolved.
+  private static final Logger logger = LoggerFactory.getLogger(AnalyzerRule.class);
+
+  private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+  private final String element;
+  private final Function<Farm, Object> accessor;
+
+  private ElementAccessor(String element, Function<Farm, Object> accessor) {
+    this.element = element;
+    this.accessor = accessor;
+  }
+
+  /**
+   * Compile an element path.  An element path which cannot be handled compiles to an accessor which logs the problem
+   * each time it is used, and returns null.
+   * @param element The element path of the rule
+   * @return The accessor for the element path
+   */
+  static ElementAccessor compile(String element) {
+    // Determine the configuration element to check
+    if (StringUtils.isEmpty(element)) {
+      return new ElementAccessor(element, farm -> {
+        logger.error("Each rule must contain an `element` string, such as \"farm.filter\" or \"farm.cache.statfileslevel\".");
+        return null;
+      });
+    }
+
+    String[] elementTokens = element.split("\\.");
+
+    if (elementTokens.length < 2) {
+      return new ElementAccessor(element, farm -> {
+        logger.error("Each rule's `element` string must contain at least 2 tokens separated by \".\", such as \"farm.filter\" or \"farm.cache.statfileslevel\". ProvidedElement=\"{}\"",
+                element);
+        return null;
+      });
+    }
+
+    String topLevelElementName = elementTokens[0].toLowerCase();
+    if (!topLevelElementName.equals(DispatcherConstants.FARM)) {
+      return new ElementAccessor(element, farm -> {
+        logger.error("Do not know how to handle this rule's element path: ProvidedElement=\"{}\" failed on property=\"{}\"",
+                element, topLevelElementName);
+        return null;
+      });
+    }
+
+    String secondLevelElementName = elementTokens[1].toLowerCase();
+    switch (secondLevelElementName) {
+      case "cache":
+        if (elementTokens.length == 3) {
+          // There's one final token: the field name
+          String fieldNameToCheck = elementTokens[2];
+          PropertyReader cacheReader = new PropertyReader(secondLevelElementName);
+          PropertyReader fieldReader = new PropertyReader(fieldNameToCheck);
+          return new ElementAccessor(element, farm -> {
+            Object configValueToCheck = fieldReader.read(cacheReader.read(farm));
+            logger.trace("Property on object=\"{}\" named=\"{}\" has value=\"{}\"", secondLevelElementName,
+                    fieldNameToCheck, configValueToCheck);
+            return configValueToCheck;
+          });
+        }
+        return new ElementAccessor(element, farm -> {
+          // This method does not know how to handle this particular rule element
+          logger.error("Unhandled rule element. ProvidedElement=\"{}\"", element);
+          return null;
+        });
+      case "filter":
+        PropertyReader filterReader = new PropertyReader(secondLevelElementName);
+        return new ElementAccessor(element, farm -> {
+          Object configValueToCheck = filterReader.read(farm);
+          logger.trace("Property on object=\"{}\" named=\"{}\" has value=\"{}\"", topLevelElementName,
+                  secondLevelElementName, configValueToCheck);
+          return configValueToCheck;
+        });
+      default:
+        return new ElementAccessor(element, farm -> {
+          logger.error("Do not know how to handle this rule's element path: ProvidedElement=\"{}\" failed on property=\"{}\"",
+                  element, secondLevelElementName);
+          return null;
+        });
+    }
+  }
+
+  /**
+   * @param element An element path
+   * @return true if this accessor was compiled from the element path
+   */
+  boolean isFor(String element) {
+    return Objects.equals(this.element, element);
+  }
+
+  /**
+   * Read the element from a farm.
+   * @param farm The farm
+   * @return The value of the element, or null if it cannot be read
+   */
+  Object apply(Farm farm) {
+    return accessor.apply(farm);
+  }
+
+  /**
+   * Reads one property through its getter.
+   */
+  private static final class PropertyReader {
+    private final String fieldName;
+    private final String getterName;
+    private volatile Getter getter = null;
+
+    private PropertyReader(String fieldName) {
+      this.fieldName = fieldName;
+      this.getterName = "get" + Character.toUpperCase(fieldName.charAt(0)) + fieldName.substring(1);
+    }
+
+    private Object read(Object obj) {
+      if (obj == null) {
+        logger.error("Could not read property=\"{}\" from a null object", fieldName);
+        return null;
+      }
+
+      Object valueObj = obj;
+      // Cover case where the object is a configuration value - a 'getValue()' must be called on it.
+      if ((obj instanceof ConfigurationValue)) {
+        valueObj = ((ConfigurationValue<?>)obj).getValue();
+        if (valueObj == null) {
+          logger.error("Could not read property=\"{}\" from a null object", fieldName);
+          return null;
+        }
+      }
+
+      try {
+        Getter current = getter;
+        if (current == null || current.type != valueObj.getClass()) {
+          current = new Getter(valueObj.getClass(), getterName);
+          getter = current;
+        }
+        Object result = current.handle.invokeExact(valueObj);
+        logger.trace("callGetter found result for property=\"{}\" value=\"{}\"", fieldName,
+                result != null ? result.toString() : "null");
+        return result;
+      } catch (Error error) {
+        throw error;
+      } catch (Throwable e) {
+        logger.error("Error reading property=\"{}\" from value=\"{}\"", fieldName, valueObj, e);
+        return null;
+      }
+    }
+  }
+
+  /**
+   * The getter of a property, for one class.
+   */
+  private static final class Getter {
+    private final Class<?> type;
+    private final MethodHandle handle;
+
+    private Getter(Class<?> type, String getterName) throws ReflectiveOperationException {
+      Method method = type.getMethod(getterName);
+      if (method.getReturnType() == void.class) {
+        throw new NoSuchMethodException(type.getName() + "." + getterName + " does not return a value");
+      }
+      this.type = type;
+      this.handle = MethodHandles.publicLookup().unreflect(method).asType(GETTER_TYPE);
+    }
+  }
+}
@@ -0,0 +1,207 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.adobe.aem.dot.common.analyzer;
+
+import com.adobe.aem.dot.common.ConfigurationSource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Aggregate violations in a single pass: exact duplicates (the same rule violated at the same file and line, such as
+ * a file included from several others) are dropped, and the remaining violations are counted by rule and by file.
+ * The PARTIAL and MINIMIZED lists are projected from the aggregation, and only they are sorted.
+ */
+public class ViolationAggregator {
+  // The first violation added for each rule, file and line.
+  private final Map<Key, Violation> uniqueViolations = new HashMap<>();
+  private final Map<String, RuleGroup> ruleGroups = new HashMap<>();
+  private final Map<String, Integer> fileCounts = new HashMap<>();
+  private int addedCount;
+
+  /**
+   * @param violations The violations to aggregate
+   * @return An aggregation of the violations
+   */
+  public static ViolationAggregator aggregate(Iterable<Violation> violations) {
+    ViolationAggregator aggregator = new ViolationAggregator();
+    for (Violation violation : violations) {
+      aggregator.add(violation);
+    }
+    return aggregator;
+  }
+
+  /**
+   * @param violation A violation, which is dropped if the same rule was already violated at the same file and line.
+   */
+  public void add(Violation violation) {
+    addedCount++;
+    ConfigurationSource source = violation.getConfigurationSource();
+    Key key = new Key(violation.getAnalyzerRule(), source);
+    if (uniqueViolations.putIfAbsent(key, violation) != null) {
+      return;
+    }
+
+    RuleGroup group = ruleGroups.get(key.ruleId);
+    if (group == null) {
+      ruleGroups.put(key.ruleId, new RuleGroup(violation));
+    } else {
+      group.add(violation);
+    }
+    if (source != null) {
+      fileCounts.merge(source.getFileName(), 1, Integer::sum);
+    }
+  }
+
+  /**
+   * @return The number of violations added, including duplicates.
+   */
+  public int getAddedCount() {
+    return addedCount;
+  }
+
+  /**
+   * @return The number of violations left once the duplicates are dropped.
+   */
+  public int getUniqueCount() {
+    return uniqueViolations.size();
+  }
+
+  /**
+   * @return The number of unique violations of each rule, by rule id.
+   */
+  public Map<String, Integer> getRuleCounts() {
+    Map<String, Integer> counts = new HashMap<>();
+    for (Map.Entry<String, RuleGroup> entry : ruleGroups.entrySet()) {
+      counts.put(entry.getKey(), entry.getValue().count);
+    }
+    return counts;
+  }
+
+  /**
+   * @return The number of unique violations in each file, by file name.  Violations without a source are not counted.
+   */
+  public Map<String, Integer> getFileCounts() {
+    return Collections.unmodifiableMap(fileCounts);
+  }
+
+  /**
+   * @param verbosity PARTIAL or MINIMIZED.  FULL violations are not aggregated.
+   * @return The violations, projected for the verbosity and sorted by severity, rule and source.
+   */
+  public List<Violation> getViolations(ViolationVerbosity verbosity) {
+    if (verbosity == ViolationVerbosity.MINIMIZED) {
+      return getViolationsByRule();
+    }
+    return getUniqueViolations();
+  }
+
+  /**
+   * @return Each unique violation, without a count, sorted.
+   */
+  public List<Violation> getUniqueViolations() {
+    List<Violation> sorted = new ArrayList<>(uniqueViolations.values());
+    Collections.sort(sorted);
+    List<Violation> counted = new ArrayList<>(sorted.size());
+    for (Violation violation : sorted) {
+      counted.add(new CountedRuleViolation(violation));
+    }
+    return counted;
+  }
+
+  /**
+   * @return The first unique violation of each rule, in sort order, with the number of unique violations of the rule,
+   * sorted.
+   */
+  public List<Violation> getViolationsByRule() {
+    List<Violation> firsts = new ArrayList<>(ruleGroups.size());
+    for (RuleGroup group : ruleGroups.values()) {
+      firsts.add(group.first);
+    }
+    Collections.sort(firsts);
+    List<Violation> counted = new ArrayList<>(firsts.size());
+    for (Violation violation : firsts) {
+      CountedRuleViolation countedViolation = new CountedRuleViolation(violation);
+      countedViolation.setRuleViolationCount(ruleGroups.get(Key.getRuleId(violation.getAnalyzerRule())).count);
+      counted.add(countedViolation);
+    }
+    return counted;
+  }
+
+  /**
+   * The unique violations of a rule: how many there are, and the first of them in sort order.
+   */
+  private static class RuleGroup {
+    private Violation first;
+    private int count = 1;
+
+    RuleGroup(Violation violation) {
+      this.first = violation;
+    }
+
+    void add(Violation violation) {
+      count++;
+      if (violation.compareTo(first) < 0) {
+        first = violation;
+      }
+    }
+  }
+
+  /**
+   * What makes a violation unique: its rule, and the file and line it was found at.
+   */
+  private static final class Key {
+    private final Severity severity;
+    private final String ruleId;
+    private final String fileName;
+    private final int lineNumber;
+    private final int hash;
+
+    Key(AnalyzerRule rule, ConfigurationSource source) {
+      this.severity = rule.getSeverity();
+      this.ruleId = getRuleId(rule);
+      this.fileName = source == null ? null : source.getFileName();
+      this.lineNumber = source == null ? -1 : source.getLineNumber();
+      this.hash = Objects.hash(severity, ruleId, fileName, lineNumber);
+    }
+
+    static String getRuleId(AnalyzerRule rule) {
+      return rule.getId() == null ? "" : rule.getId();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) o;
+      return hash == key.hash && lineNumber == key.lineNumber && severity == key.severity &&
+              ruleId.equals(key.ruleId) && Objects.equals(fileName, key.fileName);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+}
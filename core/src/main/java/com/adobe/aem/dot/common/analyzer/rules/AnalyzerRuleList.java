@@ -81,6 +81,18 @@ public class AnalyzerRuleList {
     }
   }
 
+  /**
+   * Compile the element path of each rule, so checking a farm against the rules needs no further interpretation of
+   * the paths or reflection.
+   * @return This rule list
+   */
+  AnalyzerRuleList compileRules() {
+    if (this.rules != null) {
+      this.rules.forEach(AnalyzerRule::compile);
+    }
+    return this;
+  }
+
   /**
    * Get all the rules which are currently loaded and set to `enabled`.
    * @return A list of enabled rules.
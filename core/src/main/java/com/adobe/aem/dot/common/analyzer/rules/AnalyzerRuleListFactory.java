@@ -32,7 +32,7 @@ public class AnalyzerRuleListFactory {
    */
   public static AnalyzerRuleList getAnalyzerRuleList() throws IOException {
     JSONRuleReader jsonRuleReader = new JSONRuleReader();
-    return jsonRuleReader.readInternalRules();
+    return jsonRuleReader.readInternalRules().compileRules();
   }
 
   /**
@@ -43,7 +43,7 @@ public class AnalyzerRuleListFactory {
    */
   public static AnalyzerRuleList getAnalyzerRuleList(final String rulesDirectory) throws IOException {
     JSONRuleReader jsonRuleReader = new JSONRuleReader();
-    return jsonRuleReader.readInternalRulesAndRulesFromFiles(rulesDirectory);
+    return jsonRuleReader.readInternalRulesAndRulesFromFiles(rulesDirectory).compileRules();
   }
 
   /**
@@ -54,7 +54,7 @@ public class AnalyzerRuleListFactory {
    */
   public static AnalyzerRuleList getAnalyzerRuleListFromInputStream(final InputStream externalRules) throws IOException {
     JSONRuleReader jsonRuleReader = new JSONRuleReader();
-    return jsonRuleReader.readInternalRulesAndRulesFromInputStream(externalRules);
+    return jsonRuleReader.readInternalRulesAndRulesFromInputStream(externalRules).compileRules();
   }
 }
 
@@ -17,30 +17,27 @@
 package com.adobe.aem.dot.common.parser;
 
 import com.adobe.aem.dot.common.ConfigurationSource;
-import com.adobe.aem.dot.common.analyzer.AnalyzerRule;
 import com.adobe.aem.dot.common.analyzer.Severity;
 import com.adobe.aem.dot.common.analyzer.Violation;
-import com.adobe.aem.dot.common.util.PathUtil;
-import lombok.Getter;
+import com.adobe.aem.dot.common.util.Diagnostic;
 
-import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import static com.adobe.aem.dot.common.util.PropertiesUtil.DISP_VIOLATION_ELEMENT_PROP;
-import static com.adobe.aem.dot.common.util.PropertiesUtil.getProperty;
-
 /**
  * The ConfigurationViolations class records violations that occur during the parsing and the reading of the
- * Dispatcher configuration.  Based on the message, the violation is created with the appropriate information.
+ * Dispatcher configuration.  Violations are collected in the <code>ViolationContext</code> of the parse running on
+ * the current thread, so code deep within the parse (i.e. the <code>FeedbackProcessor</code>) can report violations
+ * without a reference to the context.
  */
 public class ConfigurationViolations {
-  @Getter
-  private final static List<Violation> violations = new ArrayList<>();
+  private static final ThreadLocal<ViolationContext> currentContext = new ThreadLocal<>();
+  // The context of the thread's last parse, once ended.
+  private static final ThreadLocal<ViolationContext> finishedContext = new ThreadLocal<>();
 
   // List of Syntax violations, with their IDs, mapping to the error message snippet.
   public static final String UNKNOWN_VIOLATION_ID = "DOTRules:Syntax0---syntax-violation";
@@ -55,45 +52,107 @@ public class ConfigurationViolations {
           {"DOTRules:Httpd-S1---include-failed", "Include directive must include existing files."}
   }).collect(Collectors.toMap(data -> data[0], data -> data[1]));
 
+  // Rule IDs of the message templates seen so far.  Templates are constants, so the map stays small.
+  private static final int MAX_CACHED_TEMPLATES = 1024;
+  private static final Map<String, String> templateRuleIds = new ConcurrentHashMap<>();
+
+  /**
+   * Start collecting violations in a new context on the current thread.  Violations collected by earlier contexts
+   * are left untouched, and the context of the thread's last parse is no longer readable.
+   * @return The new context, current until it is ended or another context is started on this thread.
+   */
+  public static ViolationContext startContext() {
+    ViolationContext context = new ViolationContext();
+    finishedContext.remove();
+    currentContext.set(context);
+    return context;
+  }
+
+  /**
+   * Stop collecting violations in the current thread's context.  A parse which started a context ends it once it is
+   * done, so violations reported afterwards do not extend the results of the parse: they go to a new context.  The
+   * ended context stays readable through <code>getViolations()</code> until the next <code>startContext()</code>, so a
+   * pooled thread holds on to the violations of its last parse at most.
+   */
+  public static void endContext() {
+    finishedContext.set(currentContext.get());
+    currentContext.remove();
+  }
+
+  /**
+   * @return The context collecting violations on the current thread.  A new context is started when there is none.
+   */
+  public static ViolationContext getContext() {
+    ViolationContext context = currentContext.get();
+    return context != null ? context : startContext();
+  }
+
+  /**
+   * Start collecting violations in a new, empty context on the current thread.
+   */
   public static void clearViolations() {
-    violations.clear();
+    startContext();
   }
 
   /**
-   * Add a parsing violation to the list of configuration violations.
+   * @return The violations collected by the current thread's context or, once it has ended, by the context of the
+   * thread's last parse.
+   */
+  public static List<Violation> getViolations() {
+    ViolationContext context = currentContext.get();
+    if (context == null) {
+      context = finishedContext.get();
+    }
+    return context != null ? context.getViolations() : Collections.emptyList();
+  }
+
+  /**
+   * Add a parsing violation to the current thread's context.
    * @param context The context/description of the violation
    * @param severity The severity of the violation
    * @param source The `ConfigurationSource` indicating where the violation occurred
    */
   public static void addViolation(String context, Severity severity, ConfigurationSource source) {
-    String ruleId = UNKNOWN_VIOLATION_ID;
+    getContext().addViolation(context, severity, source);
+  }
+
+  /**
+   * Add a parsing violation described by a diagnostic to the current thread's context.
+   * @param diagnostic The diagnostic describing the violation
+   * @param severity The severity of the violation
+   * @param source The `ConfigurationSource` indicating where the violation occurred
+   */
+  public static void addViolation(Diagnostic diagnostic, Severity severity, ConfigurationSource source) {
+    getContext().addViolation(diagnostic, severity, source);
+  }
+
+  /**
+   * Determine the parsing rule reported by a message, based on the snippets of <code>parsingRuleMap</code>.
+   * @param message The message
+   * @return The ID of the rule, or <code>UNKNOWN_VIOLATION_ID</code> if the message matches no rule.
+   */
+  public static String getRuleId(String message) {
     for (Map.Entry<String, String> ruleEntry : parsingRuleMap.entrySet()) {
-      if (context.contains(ruleEntry.getValue())) {
-        ruleId = ruleEntry.getKey();
-        break;
+      if (message.contains(ruleEntry.getValue())) {
+        return ruleEntry.getKey();
       }
     }
+    return UNKNOWN_VIOLATION_ID;
+  }
 
-    // Set the Violation rule defaults
-    String type = "Code Smell";
-    List<String> tags = Arrays.asList("beta", "dispatcher");
-    String element = "";
-    try {
-      element = getProperty(DISP_VIOLATION_ELEMENT_PROP);
-    } catch(IOException ignore) {
+  /**
+   * Determine the parsing rule reported by the messages of a template.  The result is remembered per template.
+   * @param template The message template
+   * @return The ID of the rule, or <code>UNKNOWN_VIOLATION_ID</code> if the template matches no rule.
+   */
+  public static String getTemplateRuleId(String template) {
+    String ruleId = templateRuleIds.get(template);
+    if (ruleId == null) {
+      ruleId = getRuleId(template);
+      if (templateRuleIds.size() < MAX_CACHED_TEMPLATES) {
+        templateRuleIds.put(template, ruleId);
+      }
     }
-
-    AnalyzerRule rule = new AnalyzerRule();
-    rule.setType(type);
-    rule.setTags(tags);
-    rule.setEffort("");
-    rule.setSeverity(severity);
-    rule.setDescription(context);
-    rule.setId(ruleId);
-    rule.setElement(element);
-    rule.setEnabled(true);
-    rule.setOrigin(PathUtil.getLastPathElement(source != null ? source.getFileName() : ""));
-
-    violations.add(new Violation(rule, context, source));
+    return ruleId;
   }
 }
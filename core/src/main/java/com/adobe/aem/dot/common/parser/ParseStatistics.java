@@ -0,0 +1,55 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.adobe.aem.dot.common.parser;
+
+import lombok.Getter;
+
+/**
+ * Counts the files and lines read while resolving the includes of one configuration, and how deeply the files were
+ * included.  Like a <code>ViolationContext</code>, it is confined to the thread doing the parse.
+ */
+@Getter
+public class ParseStatistics {
+  // The number of files read, including the main configuration file.
+  private int fileCount = 0;
+  // The number of lines of all the files read.
+  private long lineCount = 0;
+  // The deepest level of included files.  The main configuration file is at level 1.
+  private long maximumIncludeDepth = 0;
+
+  /**
+   * Count a file which was read.
+   * @param lines The number of lines of the file
+   * @param includeDepth The level of the file, 1 for the main configuration file
+   */
+  public void addFile(int lines, long includeDepth) {
+    this.fileCount++;
+    this.lineCount += lines;
+    this.maximumIncludeDepth = Math.max(this.maximumIncludeDepth, includeDepth);
+  }
+
+  /**
+   * @return The number of files read because they were included.
+   */
+  public int getIncludedFileCount() {
+    return Math.max(0, this.fileCount - 1);
+  }
+
+  @Override
+  public String toString() {
+    return "Files=" + this.fileCount + " Lines=" + this.lineCount + " MaximumIncludeDepth=" + this.maximumIncludeDepth;
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.adobe.aem.dot.common.parser;
+
+import com.adobe.aem.dot.common.ConfigurationSource;
+import com.adobe.aem.dot.common.analyzer.AnalyzerRule;
+import com.adobe.aem.dot.common.analyzer.Severity;
+import com.adobe.aem.dot.common.analyzer.Violation;
+import com.adobe.aem.dot.common.util.Diagnostic;
+import com.adobe.aem.dot.common.util.PathUtil;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static com.adobe.aem.dot.common.util.PropertiesUtil.DISP_VIOLATION_ELEMENT_PROP;
+import static com.adobe.aem.dot.common.util.PropertiesUtil.getProperty;
+
+/**
+ * Collects the violations encountered while parsing and reading one configuration.  Each parse creates its own
+ * context, so configurations can be parsed concurrently, and the violations of one parse are never cleared or
+ * extended by another.  A context is confined to the thread doing the parse.
+ */
+public class ViolationContext {
+  private final List<Violation> violations = new ArrayList<>();
+
+  /**
+   * Add a parsing violation to this context.  Based on the message, the violation is created with the appropriate
+   * rule information.
+   * @param context The context/description of the violation
+   * @param severity The severity of the violation
+   * @param source The `ConfigurationSource` indicating where the violation occurred
+   */
+  public void addViolation(String context, Severity severity, ConfigurationSource source) {
+    addViolation(ConfigurationViolations.getRuleId(context), context, severity, source);
+  }
+
+  /**
+   * Add a parsing violation to this context.  The violation is created with the rule of the diagnostic's template.
+   * @param diagnostic The diagnostic describing the violation
+   * @param severity The severity of the violation
+   * @param source The `ConfigurationSource` indicating where the violation occurred
+   */
+  public void addViolation(Diagnostic diagnostic, Severity severity, ConfigurationSource source) {
+    addViolation(diagnostic.getRuleId(), diagnostic.getMessage(), severity, source);
+  }
+
+  private void addViolation(String ruleId, String context, Severity severity, ConfigurationSource source) {
+    // Set the Violation rule defaults
+    String type = "Code Smell";
+    List<String> tags = Arrays.asList("beta", "dispatcher");
+    String element = "";
+    try {
+      element = getProperty(DISP_VIOLATION_ELEMENT_PROP);
+    } catch(IOException ignore) {
+    }
+
+    AnalyzerRule rule = new AnalyzerRule();
+    rule.setType(type);
+    rule.setTags(tags);
+    rule.setEffort("");
+    rule.setSeverity(severity);
+    rule.setDescription(context);
+    rule.setId(ruleId);
+    rule.setElement(element);
+    rule.setEnabled(true);
+    rule.setOrigin(PathUtil.getLastPathElement(source != null ? source.getFileName() : ""));
+
+    violations.add(new Violation(rule, context, source));
+  }
+
+  /**
+   * Add violations which were already created, i.e. by an earlier parse of an unchanged section.
+   * @param toAdd The violations to add
+   */
+  public void addViolations(Collection<Violation> toAdd) {
+    violations.addAll(toAdd);
+  }
+
+  /**
+   * @return The violations collected so far, in the order they were added.
+   */
+  public List<Violation> getViolations() {
+    return violations;
+  }
+
+  /**
+   * @return The number of violations collected so far.
+   */
+  public int size() {
+    return violations.size();
+  }
+}
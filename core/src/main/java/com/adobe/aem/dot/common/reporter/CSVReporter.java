@@ -17,47 +17,50 @@
 package com.adobe.aem.dot.common.reporter;
 
 import com.adobe.aem.dot.common.analyzer.AnalyzerRule;
+import com.adobe.aem.dot.common.analyzer.CostRecorder;
 import com.adobe.aem.dot.common.analyzer.CountedRuleViolation;
 import com.adobe.aem.dot.common.analyzer.Violation;
+import lombok.Setter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
- * Render a List of Violation objects as a CSV document.
+ * Render Violation objects as a CSV document.
  */
 public class CSVReporter implements ViolationReporter {
+  // Set the cost recorder of the analysis to have its costs appended to the report, after an empty line.  Nothing
+  // will be output, if it is left blank or recorded nothing.
+  @Setter
+  private CostRecorder costRecorder;
 
-  private final List<String[]> dataLines = new ArrayList<>();
   private final Logger logger = LoggerFactory.getLogger(CSVReporter.class);
 
   @Override
-  public String generateViolationReport(List<Violation> violationList) {
-    if (violationList == null) {
-      throw new IllegalArgumentException("CSV generateViolationReport received a null violationList.");
+  public void writeViolationReport(Iterator<Violation> violations, Writer writer) throws IOException {
+    if (violations == null) {
+      throw new IllegalArgumentException("CSV writeViolationReport received null violations.");
     }
-    dataLines.clear();
+    ReportLines lines = new ReportLines(writer);
 
     logger.trace("Begin: Generating report in CSV format.");
 
-    addHeaders();
-    for (Violation violation : violationList) {
+    lines.add(convertToCSV(headers));
+    while (violations.hasNext()) {
+      Violation violation = violations.next();
       int count = (violation instanceof CountedRuleViolation) ?
                           ((CountedRuleViolation) violation).getRuleViolationCount() :
                           -1;
-      addViolation(violation, count);
+      lines.add(convertToCSV(getViolationRow(violation, count)));
     }
+    addCosts(lines);
 
-    logger.debug("End: Finished generating report in CSV format. rowCount={}.", dataLines.size());
-
-    return dataLines
-                   .stream()
-                   .map(this::convertToCSV)
-                   .collect(Collectors.joining(System.lineSeparator()));
+    logger.debug("End: Finished generating report in CSV format. rowCount={}.", lines.getCount());
   }
 
   private String convertToCSV(String[] data) {
@@ -81,11 +84,17 @@ public class CSVReporter implements ViolationReporter {
     return escapedData;
   }
 
-  private void addHeaders() {
-    dataLines.add(headers);
+  private void addCosts(ReportLines lines) throws IOException {
+    if (CostRows.hasCosts(this.costRecorder)) {
+      lines.add("");
+      lines.add(convertToCSV(CostRows.headers));
+      for (String[] row : CostRows.getRows(this.costRecorder)) {
+        lines.add(convertToCSV(row));
+      }
+    }
   }
 
-  private void addViolation(Violation violation, int count)  {
+  private String[] getViolationRow(Violation violation, int count)  {
     AnalyzerRule rule = violation.getAnalyzerRule();
     String fileLocation = violation.getConfigurationSource() == null ? "<unknown file location>" :
                                   violation.getConfigurationSource().getFileName();
@@ -95,7 +104,7 @@ public class CSVReporter implements ViolationReporter {
       fileLocation += " (" + count + " occurrences)";
     }
 
-    dataLines.add(new String[] {
+    return new String[] {
             // File Location
             fileLocation,
             // Line Number
@@ -114,6 +123,6 @@ public class CSVReporter implements ViolationReporter {
             rule.getTags() == null ? "" : String.join(",", rule.getTags()),
             // Documentation
             rule.getDocumentationURL()
-    });
+    };
   }
 }
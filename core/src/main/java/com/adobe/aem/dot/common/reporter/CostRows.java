@@ -0,0 +1,75 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.adobe.aem.dot.common.reporter;
+
+import com.adobe.aem.dot.common.analyzer.CostRecorder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Lay out the costs recorded during an analysis as the rows of the optional timing section of a report.  The
+ * "Evaluations" column counts each parse of a phase, and each evaluation of a rule or check against one farm, so a
+ * Dispatcher rule evaluated against 3 farms counts 3.
+ */
+final class CostRows {
+
+  static final String[] headers = new String[]{
+          "Timing",
+          "Name",
+          "Check",
+          "Evaluations",
+          "Wall Time (ms)",
+          "Allocated Bytes"};
+
+  private CostRows() {
+  }
+
+  /**
+   * @param costRecorder The recorder of the costs, which may be null
+   * @return true if there are costs to report.
+   */
+  static boolean hasCosts(CostRecorder costRecorder) {
+    return costRecorder != null && !costRecorder.isEmpty();
+  }
+
+  /**
+   * Get a row for each phase, then each rule, then each check, each group listed from the most expensive.
+   * @param costRecorder The recorder of the costs
+   * @return The rows, without the headers.
+   */
+  static List<String[]> getRows(CostRecorder costRecorder) {
+    List<String[]> rows = new ArrayList<>();
+    addRows(rows, "Phase", costRecorder.getPhaseCosts());
+    addRows(rows, "Rule", costRecorder.getRuleCosts());
+    addRows(rows, "Check", costRecorder.getCheckCosts());
+    return rows;
+  }
+
+  private static void addRows(List<String[]> rows, String timing, List<CostRecorder.Cost> costs) {
+    for (CostRecorder.Cost cost : costs) {
+      rows.add(new String[] {
+              timing,
+              cost.getName(),
+              cost.getCheck() == null ? "" : cost.getCheck(),
+              String.valueOf(cost.getInvocations()),
+              String.format(Locale.ROOT, "%.3f", cost.getWallNanos() / 1_000_000.0),
+              String.valueOf(cost.getAllocatedBytes())
+      });
+    }
+  }
+}
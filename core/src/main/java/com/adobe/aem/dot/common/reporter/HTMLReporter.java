@@ -17,6 +17,7 @@
 package com.adobe.aem.dot.common.reporter;
 
 import com.adobe.aem.dot.common.analyzer.AnalyzerRule;
+import com.adobe.aem.dot.common.analyzer.CostRecorder;
 import com.adobe.aem.dot.common.analyzer.CountedRuleViolation;
 import com.adobe.aem.dot.common.analyzer.Violation;
 import com.adobe.aem.dot.common.analyzer.ViolationVerbosity;
@@ -25,13 +26,13 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.text.MessageFormat;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Iterator;
 
 /**
- * Render a List of Violation objects as a HTML document.
+ * Render Violation objects as a HTML document.
  */
 public class HTMLReporter implements ViolationReporter {
   // Set the configuration path to have it included in the report, above the table.  Nothing will be
@@ -40,77 +41,111 @@ public class HTMLReporter implements ViolationReporter {
   private String configurationPath;
   @Setter
   private ViolationVerbosity verbosity = null;
+  // Set the cost recorder of the analysis to have its costs included in the report, below the table.  Nothing will be
+  // output, if it is left blank or recorded nothing.
+  @Setter
+  private CostRecorder costRecorder;
 
-  private final List<String> dataLines = new ArrayList<>();
   private final Logger logger = LoggerFactory.getLogger(HTMLReporter.class);
 
   @Override
-  public String generateViolationReport(List<Violation> violationList) {
-    if (violationList == null) {
-      throw new IllegalArgumentException("HTML generateViolationReport received a null violationList.");
+  public void writeViolationReport(Iterator<Violation> violations, Writer writer) throws IOException {
+    if (violations == null) {
+      throw new IllegalArgumentException("HTML writeViolationReport received null violations.");
     }
-    dataLines.clear();
+    ReportLines lines = new ReportLines(writer);
 
     logger.trace("Begin: Generating report in HTML format.");
 
-    addHTMLStart();
+    addHTMLStart(lines);
 
-    // Table has been started, add header and violation rows.
-    addHeaderRow();
-    addViolationRows(violationList);
+    lines.add("  <table cellspacing=\"0\" cellpadding=\"2px\">");
+    addHeaderRow(lines);
+    addViolationRows(lines, violations);
+    lines.add("  </table>");
 
-    addHTMLEnd();
+    // The costs are not part of the hooks, so overriding them does not drop the costs.
+    addCostTable(lines);
 
-    logger.debug("End: Finished generating report in HTML format. rowCount={}.", dataLines.size());
+    addHTMLEnd(lines);
 
-    return dataLines
-                   .stream()
-                   .collect(Collectors.joining(System.lineSeparator()));
+    logger.debug("End: Finished generating report in HTML format. rowCount={}.", lines.getCount());
   }
 
-  protected void addHTMLStart() {
-    dataLines.add("<html>");
-    dataLines.add("<head>");
-    dataLines.add("  <style>table, th, td { border: 1px solid black; }</style>");
-    dataLines.add("</head>");
-    dataLines.add("<body>");
+  /**
+   * Write the start of the document, up to the violations table.
+   * @param lines The lines of the report being written
+   * @throws IOException when the report cannot be written
+   */
+  protected void addHTMLStart(ReportLines lines) throws IOException {
+    lines.add("<html>");
+    lines.add("<head>");
+    lines.add("  <style>table, th, td { border: 1px solid black; }</style>");
+    lines.add("</head>");
+    lines.add("<body>");
     if (StringUtils.isNotEmpty(this.configurationPath)) {
-      dataLines.add("<p><b>Configuration Path</b>: " + this.configurationPath + "</p>");
+      lines.add("<p><b>Configuration Path</b>: " + this.configurationPath + "</p>");
     }
     if (this.verbosity != null) {
-      dataLines.add("<p><b>Report Verbosity</b>: " + this.verbosity.toString() + "</p>");
+      lines.add("<p><b>Report Verbosity</b>: " + this.verbosity.toString() + "</p>");
     }
-    dataLines.add("  <table cellspacing=\"0\" cellpadding=\"2px\">");
   }
 
-  protected void addHTMLEnd() {
-    dataLines.add("  </table>");
-    dataLines.add("</body>");
-    dataLines.add("</html>");
+  /**
+   * Write the end of the document, after the violations and timing tables.
+   * @param lines The lines of the report being written
+   * @throws IOException when the report cannot be written
+   */
+  protected void addHTMLEnd(ReportLines lines) throws IOException {
+    lines.add("</body>");
+    lines.add("</html>");
   }
 
-  private void addHeaderRow() {
+  private void addHeaderRow(ReportLines lines) throws IOException {
     String format = "      <th>{0}</th>";   // + System.lineSeparator();
 
-    dataLines.add("    <tr>");
+    lines.add("    <tr>");
 
     for (String header: headers) {
-      dataLines.add(MessageFormat.format(format, header));
+      lines.add(MessageFormat.format(format, header));
     }
 
-    dataLines.add("    </tr>");
+    lines.add("    </tr>");
+  }
+
+  private void addCostTable(ReportLines lines) throws IOException {
+    if (!CostRows.hasCosts(this.costRecorder)) {
+      return;
+    }
+
+    lines.add("<p><b>Timing</b></p>");
+    lines.add("  <table cellspacing=\"0\" cellpadding=\"2px\">");
+    lines.add("    <tr>");
+    for (String header : CostRows.headers) {
+      lines.add(MessageFormat.format("      <th>{0}</th>", header));
+    }
+    lines.add("    </tr>");
+    for (String[] row : CostRows.getRows(this.costRecorder)) {
+      lines.add("    <tr>");
+      for (String cell : row) {
+        lines.add(MessageFormat.format("      <td>{0}</td>", cell));
+      }
+      lines.add("    </tr>");
+    }
+    lines.add("  </table>");
   }
 
-  private void addViolationRows(List<Violation> violationList) {
-    for (Violation violation : violationList) {
+  private void addViolationRows(ReportLines lines, Iterator<Violation> violations) throws IOException {
+    while (violations.hasNext()) {
+      Violation violation = violations.next();
       int count = (violation instanceof CountedRuleViolation) ?
                           ((CountedRuleViolation) violation).getRuleViolationCount() :
                           -1;
-      addViolationRow(violation, count);
+      addViolationRow(lines, violation, count);
     }
   }
 
-  private void addViolationRow(Violation violation, int count) {
+  private void addViolationRow(ReportLines lines, Violation violation, int count) throws IOException {
     AnalyzerRule rule = violation.getAnalyzerRule();
     String fileLocation = violation.getConfigurationSource() == null ? "<unknown file location>" :
                                   violation.getConfigurationSource().getFileName();
@@ -122,25 +157,25 @@ public class HTMLReporter implements ViolationReporter {
 
     String format = "      <td>{0}</td>";
 
-    dataLines.add("    <tr>");
-    dataLines.add(MessageFormat.format(format, fileLocation));
-    dataLines.add(MessageFormat.format(format, lineNumber));
-    dataLines.add(MessageFormat.format(format, processViolationProperty(rule.getDescription())));
-    dataLines.add(MessageFormat.format(format, processViolationProperty(rule.getType())));
-    dataLines.add(MessageFormat.format(format, String.valueOf(rule.getSeverity())));
-    dataLines.add(MessageFormat.format(format, processViolationProperty(rule.getEffort())));
-    dataLines.add(MessageFormat.format(format, processViolationProperty(rule.getId())));
-    dataLines.add(MessageFormat.format(format, processViolationProperty(rule.getTags() == null ? "" : String.join(",", rule.getTags()))));
+    lines.add("    <tr>");
+    lines.add(MessageFormat.format(format, fileLocation));
+    lines.add(MessageFormat.format(format, lineNumber));
+    lines.add(MessageFormat.format(format, processViolationProperty(rule.getDescription())));
+    lines.add(MessageFormat.format(format, processViolationProperty(rule.getType())));
+    lines.add(MessageFormat.format(format, String.valueOf(rule.getSeverity())));
+    lines.add(MessageFormat.format(format, processViolationProperty(rule.getEffort())));
+    lines.add(MessageFormat.format(format, processViolationProperty(rule.getId())));
+    lines.add(MessageFormat.format(format, processViolationProperty(rule.getTags() == null ? "" : String.join(",", rule.getTags()))));
 
     if (StringUtils.isNotEmpty(rule.getDocumentationURL())) {
       String documentationLink =
               MessageFormat.format("<a href=\"{0}\">{1}</a>",
                       rule.getDocumentationURL(), rule.getDocumentationURL());
-      dataLines.add(MessageFormat.format(format,documentationLink));
+      lines.add(MessageFormat.format(format,documentationLink));
     } else {
-      dataLines.add(MessageFormat.format(format, ""));
+      lines.add(MessageFormat.format(format, ""));
     }
-    dataLines.add("    </tr>");
+    lines.add("    </tr>");
   }
 
   // Any processing the of the property values.  Check for null.  Escape characters.  etc.
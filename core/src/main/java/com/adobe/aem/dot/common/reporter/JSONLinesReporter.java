@@ -0,0 +1,103 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.adobe.aem.dot.common.reporter;
+
+import com.adobe.aem.dot.common.analyzer.AnalyzerRule;
+import com.adobe.aem.dot.common.analyzer.CountedRuleViolation;
+import com.adobe.aem.dot.common.analyzer.Violation;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * Render Violation objects as JSON lines: one JSON object per line, written as the violations are iterated.  The
+ * <code>"record"</code> field of an object tells what it holds.  A <code>"rule"</code> record, with the metadata of a
+ * rule, comes once before the first <code>"violation"</code> record of the rule.
+ */
+public class JSONLinesReporter implements ViolationReporter {
+  static final String RULE_RECORD = "rule";
+  static final String VIOLATION_RECORD = "violation";
+
+  private final Logger logger = LoggerFactory.getLogger(JSONLinesReporter.class);
+
+  @Override
+  public void writeViolationReport(Iterator<Violation> violations, Writer writer) throws IOException {
+    if (violations == null) {
+      throw new IllegalArgumentException("JSON lines writeViolationReport received null violations.");
+    }
+
+    logger.trace("Begin: Generating report in JSON lines format.");
+
+    Set<String> reportedRules = new HashSet<>();
+    int recordCount = 0;
+    try (JsonGenerator generator = JSONReports.createGenerator(writer)) {
+      // Each record ends its line, rather than being separated from the next by a space.
+      generator.setRootValueSeparator(null);
+      while (violations.hasNext()) {
+        Violation violation = violations.next();
+        AnalyzerRule rule = violation.getAnalyzerRule();
+        String ruleId = JSONReports.getRuleId(rule);
+        if (reportedRules.add(ruleId)) {
+          writeRule(generator, ruleId, rule);
+          recordCount++;
+        }
+        writeViolation(generator, ruleId, violation);
+        recordCount++;
+      }
+    }
+
+    logger.debug("End: Finished generating report in JSON lines format. recordCount={} ruleCount={}.", recordCount,
+            reportedRules.size());
+  }
+
+  private void writeRule(JsonGenerator generator, String ruleId, AnalyzerRule rule) throws IOException {
+    generator.writeStartObject();
+    generator.writeStringField("record", RULE_RECORD);
+    generator.writeStringField("id", ruleId);
+    generator.writeStringField("description", rule.getDescription());
+    JSONReports.writeRuleProperties(generator, rule);
+    generator.writeStringField("documentationURL", rule.getDocumentationURL());
+    generator.writeEndObject();
+    endLine(generator);
+  }
+
+  private void writeViolation(JsonGenerator generator, String ruleId, Violation violation) throws IOException {
+    generator.writeStartObject();
+    generator.writeStringField("record", VIOLATION_RECORD);
+    generator.writeStringField("ruleId", ruleId);
+    if (violation.getConfigurationSource() != null) {
+      generator.writeStringField("file", violation.getConfigurationSource().getFileName());
+      generator.writeNumberField("line", violation.getConfigurationSource().getLineNumber());
+    }
+    generator.writeStringField("context", violation.getContext());
+    if (violation instanceof CountedRuleViolation) {
+      generator.writeNumberField("occurrences", ((CountedRuleViolation) violation).getRuleViolationCount());
+    }
+    generator.writeEndObject();
+    endLine(generator);
+  }
+
+  private static void endLine(JsonGenerator generator) throws IOException {
+    // JSON lines are separated by \n on every platform.
+    generator.writeRaw('\n');
+  }
+}
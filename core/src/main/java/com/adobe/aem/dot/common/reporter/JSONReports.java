@@ -0,0 +1,67 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.adobe.aem.dot.common.reporter;
+
+import com.adobe.aem.dot.common.analyzer.AnalyzerRule;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Helpers shared by the reporters writing JSON through a <code>JsonGenerator</code>.
+ */
+final class JSONReports {
+  private static final JsonFactory factory = new JsonFactory()
+          .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+          .disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+
+  private JSONReports() {
+  }
+
+  /**
+   * @param writer The destination of a report
+   * @return A generator writing to the destination, which closes and flushes neither.
+   * @throws IOException when the generator cannot be created
+   */
+  static JsonGenerator createGenerator(Writer writer) throws IOException {
+    return factory.createGenerator(writer);
+  }
+
+  static String getRuleId(AnalyzerRule rule) {
+    return rule.getId() == null ? "" : rule.getId();
+  }
+
+  /**
+   * Write the metadata of a rule as fields of the current object.
+   * @param generator The generator of the report
+   * @param rule The rule
+   * @throws IOException when the report cannot be written
+   */
+  static void writeRuleProperties(JsonGenerator generator, AnalyzerRule rule) throws IOException {
+    generator.writeStringField("severity", rule.getSeverity() == null ? null : rule.getSeverity().name());
+    generator.writeStringField("type", rule.getType());
+    generator.writeStringField("effort", rule.getEffort());
+    generator.writeArrayFieldStart("tags");
+    if (rule.getTags() != null) {
+      for (String tag : rule.getTags()) {
+        generator.writeString(tag);
+      }
+    }
+    generator.writeEndArray();
+  }
+}
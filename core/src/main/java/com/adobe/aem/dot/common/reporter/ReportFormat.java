@@ -0,0 +1,128 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.adobe.aem.dot.common.reporter;
+
+import com.adobe.aem.dot.common.analyzer.CostRecorder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * The formats violation reports can be written in.
+ */
+public enum ReportFormat {
+  CSV("csv", CSVReporter::new),
+  HTML("html", HTMLReporter::new),
+  SARIF("sarif", SARIFReporter::new),
+  JSONL("jsonl", JSONLinesReporter::new);
+
+  private final String extension;
+  private final Supplier<ViolationReporter> reporterSupplier;
+
+  ReportFormat(String extension, Supplier<ViolationReporter> reporterSupplier) {
+    this.extension = extension;
+    this.reporterSupplier = reporterSupplier;
+  }
+
+  /**
+   * @return The usual file name extension of reports in this format, without the dot.
+   */
+  public String getExtension() {
+    return extension;
+  }
+
+  /**
+   * @return A new reporter writing reports in this format.
+   */
+  public ViolationReporter createReporter() {
+    return reporterSupplier.get();
+  }
+
+  /**
+   * @param costRecorder The recorder of the analysis costs, to be included by the formats which report them
+   * @return A new reporter writing reports in this format.
+   */
+  public ViolationReporter createReporter(CostRecorder costRecorder) {
+    ViolationReporter reporter = reporterSupplier.get();
+    if (reporter instanceof CSVReporter) {
+      ((CSVReporter) reporter).setCostRecorder(costRecorder);
+    } else if (reporter instanceof HTMLReporter) {
+      ((HTMLReporter) reporter).setCostRecorder(costRecorder);
+    }
+    return reporter;
+  }
+
+  /**
+   * @param fileName The file name of a report
+   * @return The format of reports with the file name's extension, or CSV if the extension is not known.
+   */
+  public static ReportFormat forFileName(String fileName) {
+    int dot = fileName == null ? -1 : fileName.lastIndexOf('.');
+    if (dot >= 0) {
+      String extension = fileName.substring(dot + 1);
+      for (ReportFormat format : values()) {
+        if (format.extension.equalsIgnoreCase(extension)) {
+          return format;
+        }
+      }
+    }
+    return CSV;
+  }
+
+  /**
+   * @param fileName The file name of a report in any format
+   * @return The file name of the same report in this format: the extension of the file name is replaced by this
+   *         format's extension.
+   */
+  public String getFileName(String fileName) {
+    int dot = fileName.lastIndexOf('.');
+    int separator = Math.max(fileName.lastIndexOf('/'), fileName.lastIndexOf('\\'));
+    String baseName = dot > separator ? fileName.substring(0, dot) : fileName;
+    return baseName + "." + extension;
+  }
+
+  /**
+   * @param extensions A comma separated list of extensions, such as <code>csv,html,sarif</code>
+   * @return The formats with the extensions, in the order of the list, without duplicates.
+   * @throws IllegalArgumentException when an extension is not known
+   */
+  public static List<ReportFormat> forExtensions(String extensions) {
+    List<ReportFormat> formats = new ArrayList<>();
+    if (extensions == null) {
+      return formats;
+    }
+    for (String extension : extensions.split(",")) {
+      String trimmed = extension.trim();
+      if (trimmed.isEmpty()) {
+        continue;
+      }
+      ReportFormat format = null;
+      for (ReportFormat candidate : values()) {
+        if (candidate.extension.equalsIgnoreCase(trimmed)) {
+          format = candidate;
+        }
+      }
+      if (format == null) {
+        throw new IllegalArgumentException("Unknown report format.  Format=" + trimmed);
+      }
+      if (!formats.contains(format)) {
+        formats.add(format);
+      }
+    }
+    return formats;
+  }
+}
@@ -0,0 +1,53 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.adobe.aem.dot.common.reporter;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Write the lines of a report as they are produced, separated by the system's line separator and without one after the
+ * last line, as the lines of the report were once joined.  Each report being written has its own lines, so a reporter
+ * can write several reports at once.
+ */
+public final class ReportLines {
+  private final Writer writer;
+  private int count;
+
+  ReportLines(Writer writer) {
+    this.writer = writer;
+  }
+
+  /**
+   * Write a line of the report.
+   * @param line The line, without a line separator
+   * @throws IOException when the report cannot be written
+   */
+  public void add(String line) throws IOException {
+    if (count > 0) {
+      writer.write(System.lineSeparator());
+    }
+    writer.write(line);
+    count++;
+  }
+
+  /**
+   * @return The number of lines written so far.
+   */
+  public int getCount() {
+    return count;
+  }
+}
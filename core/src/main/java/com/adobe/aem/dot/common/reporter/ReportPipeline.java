@@ -0,0 +1,253 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.adobe.aem.dot.common.reporter;
+
+import com.adobe.aem.dot.common.analyzer.Violation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write the same violations as several reports, such as CSV, HTML and SARIF, in a single traversal of the violations.
+ * Each sink writes its report on a thread of its own, and is fed batches of violations through a small bounded queue,
+ * so the memory used does not grow with the number of violations.  Each sink's writer is closed once its report is
+ * written.  Closing the pipeline closes the writers of the sinks which were not written, i.e. when opening the
+ * destination of a later sink failed.
+ */
+public class ReportPipeline implements Closeable {
+  static final int BATCH_SIZE = 1024;
+  static final int QUEUE_CAPACITY = 16;
+  // Marks the end of the violations.
+  private static final List<Violation> END = Collections.emptyList();
+
+  private final List<Sink> sinks = new ArrayList<>();
+
+  private final Logger logger = LoggerFactory.getLogger(ReportPipeline.class);
+
+  /**
+   * @param name The name of the report, for logging
+   * @param reporter The reporter writing the report
+   * @param writer The destination of the report, which is closed once the report is written
+   * @return This pipeline
+   */
+  public ReportPipeline addSink(String name, ViolationReporter reporter, Writer writer) {
+    sinks.add(new Sink(name, reporter, writer));
+    return this;
+  }
+
+  public int getSinkCount() {
+    return sinks.size();
+  }
+
+  /**
+   * Write every report.  Every sink is written to the end, even if another one failed.
+   * @param violations The violations to report, iterated once
+   * @throws IOException when one of the reports cannot be written.  The failures of other sinks are suppressed by it.
+   */
+  public void write(Iterator<Violation> violations) throws IOException {
+    if (violations == null) {
+      throw new IllegalArgumentException("ReportPipeline received null violations.");
+    }
+    logger.trace("Begin: Writing {} reports.", sinks.size());
+
+    if (sinks.size() == 1) {
+      // Nothing to share the traversal with.
+      sinks.get(0).call(violations);
+    } else if (!sinks.isEmpty()) {
+      writeConcurrently(violations);
+    }
+
+    logger.debug("End: Wrote {} reports.", sinks.size());
+  }
+
+  /**
+   * Close the writers of the sinks which were not written.
+   * @throws IOException when a writer cannot be closed.  The failures of other writers are suppressed by it.
+   */
+  @Override
+  public void close() throws IOException {
+    IOException failure = null;
+    for (Sink sink : sinks) {
+      try {
+        sink.close();
+      } catch (IOException ex) {
+        if (failure == null) {
+          failure = ex;
+        } else {
+          failure.addSuppressed(ex);
+        }
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  private void writeConcurrently(Iterator<Violation> violations) throws IOException {
+    // The sinks block while they wait for batches, so each one gets a thread of its own.
+    ExecutorService pool = Executors.newFixedThreadPool(sinks.size());
+    try {
+      // Each sink returns its IOException, if any, rather than have it wrapped by the pool.
+      List<Future<IOException>> results = new ArrayList<>();
+      for (Sink sink : sinks) {
+        results.add(pool.submit(() -> {
+          try {
+            sink.call(new QueueIterator(sink.queue));
+            return null;
+          } catch (IOException ex) {
+            return ex;
+          }
+        }));
+      }
+
+      List<Violation> batch = new ArrayList<>(BATCH_SIZE);
+      while (violations.hasNext()) {
+        batch.add(violations.next());
+        if (batch.size() == BATCH_SIZE) {
+          offer(batch, results);
+          batch = new ArrayList<>(BATCH_SIZE);
+        }
+      }
+      if (!batch.isEmpty()) {
+        offer(batch, results);
+      }
+      offer(END, results);
+
+      IOException failure = null;
+      for (int index = 0; index < results.size(); index++) {
+        IOException sinkFailure;
+        try {
+          sinkFailure = results.get(index).get();
+        } catch (ExecutionException ex) {
+          sinkFailure = toIOException(sinks.get(index), ex.getCause());
+        }
+        if (sinkFailure != null) {
+          if (failure == null) {
+            failure = sinkFailure;
+          } else {
+            failure.addSuppressed(sinkFailure);
+          }
+        }
+      }
+      if (failure != null) {
+        throw failure;
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while writing reports.", ex);
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  /**
+   * Hand a batch to every sink which is still writing.  A sink which failed stops taking batches, and is skipped.
+   */
+  private void offer(List<Violation> batch, List<Future<IOException>> results) throws InterruptedException {
+    for (int index = 0; index < sinks.size(); index++) {
+      BlockingQueue<List<Violation>> queue = sinks.get(index).queue;
+      Future<IOException> result = results.get(index);
+      while (!result.isDone() && !queue.offer(batch, 10, TimeUnit.MILLISECONDS)) {
+        // The sink is busy writing.  Check again whether it failed.
+      }
+    }
+  }
+
+  private static IOException toIOException(Sink sink, Throwable cause) {
+    if (cause instanceof Error) {
+      throw (Error) cause;
+    }
+    return new IOException("Report could not be written.  Report=\"" + sink.name + "\"", cause);
+  }
+
+  private static class Sink {
+    private final String name;
+    private final ViolationReporter reporter;
+    private final Writer writer;
+    private final BlockingQueue<List<Violation>> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private volatile boolean closed;
+
+    Sink(String name, ViolationReporter reporter, Writer writer) {
+      this.name = name;
+      this.reporter = reporter;
+      this.writer = writer;
+    }
+
+    void call(Iterator<Violation> violations) throws IOException {
+      this.closed = true;
+      try (Writer destination = this.writer) {
+        reporter.writeViolationReport(violations, destination);
+      }
+    }
+
+    void close() throws IOException {
+      if (!this.closed) {
+        this.closed = true;
+        this.writer.close();
+      }
+    }
+  }
+
+  /**
+   * Iterate the violations of the batches taken from a queue, until the end is marked.
+   */
+  private static class QueueIterator implements Iterator<Violation> {
+    private final BlockingQueue<List<Violation>> queue;
+    private List<Violation> batch = new ArrayList<>();
+    private int position;
+
+    QueueIterator(BlockingQueue<List<Violation>> queue) {
+      this.queue = queue;
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (batch != END && position == batch.size()) {
+        try {
+          batch = queue.take();
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+          throw new IllegalStateException("Interrupted while waiting for violations to report.", ex);
+        }
+        position = 0;
+      }
+      return batch != END;
+    }
+
+    @Override
+    public Violation next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return batch.get(position++);
+    }
+  }
+}
@@ -0,0 +1,206 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.adobe.aem.dot.common.reporter;
+
+import com.adobe.aem.dot.common.ConfigurationSource;
+import com.adobe.aem.dot.common.analyzer.AnalyzerRule;
+import com.adobe.aem.dot.common.analyzer.CountedRuleViolation;
+import com.adobe.aem.dot.common.analyzer.Severity;
+import com.adobe.aem.dot.common.analyzer.Violation;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Render Violation objects as a SARIF 2.1.0 log, with a single run.  Results are written as the violations are
+ * iterated.  The rules they reference are collected on the way and written once each, in the tool's driver, after the
+ * results.
+ */
+public class SARIFReporter implements ViolationReporter {
+  static final String SCHEMA = "https://json.schemastore.org/sarif-2.1.0.json";
+  static final String VERSION = "2.1.0";
+  static final String TOOL_NAME = "AEM Dispatcher Optimizer Tool";
+  static final String TOOL_URI = "https://github.com/adobe/aem-dispatcher-optimizer-tool";
+  // The base of relative artifact locations: the root of the analyzed repository.
+  static final String SOURCE_ROOT = "%SRCROOT%";
+
+  private final Logger logger = LoggerFactory.getLogger(SARIFReporter.class);
+
+  @Override
+  public void writeViolationReport(Iterator<Violation> violations, Writer writer) throws IOException {
+    if (violations == null) {
+      throw new IllegalArgumentException("SARIF writeViolationReport received null violations.");
+    }
+
+    logger.trace("Begin: Generating report in SARIF format.");
+
+    // Rules in the order they were first referenced, and their position, which is the ruleIndex of the results, by id.
+    List<AnalyzerRule> rules = new ArrayList<>();
+    Map<String, Integer> ruleIndexes = new HashMap<>();
+    int resultCount = 0;
+    try (JsonGenerator generator = JSONReports.createGenerator(writer)) {
+      generator.writeStartObject();
+      generator.writeStringField("$schema", SCHEMA);
+      generator.writeStringField("version", VERSION);
+      generator.writeArrayFieldStart("runs");
+      generator.writeStartObject();
+
+      generator.writeArrayFieldStart("results");
+      while (violations.hasNext()) {
+        writeResult(generator, violations.next(), rules, ruleIndexes);
+        resultCount++;
+      }
+      generator.writeEndArray();
+
+      writeTool(generator, rules);
+
+      generator.writeEndObject();
+      generator.writeEndArray();
+      generator.writeEndObject();
+    }
+
+    logger.debug("End: Finished generating report in SARIF format. resultCount={} ruleCount={}.", resultCount,
+            rules.size());
+  }
+
+  private void writeResult(JsonGenerator generator, Violation violation, List<AnalyzerRule> rules,
+                           Map<String, Integer> ruleIndexes) throws IOException {
+    AnalyzerRule rule = violation.getAnalyzerRule();
+    String ruleId = JSONReports.getRuleId(rule);
+    Integer ruleIndex = ruleIndexes.get(ruleId);
+    if (ruleIndex == null) {
+      ruleIndex = rules.size();
+      ruleIndexes.put(ruleId, ruleIndex);
+      rules.add(rule);
+    }
+
+    generator.writeStartObject();
+    generator.writeStringField("ruleId", ruleId);
+    generator.writeNumberField("ruleIndex", ruleIndex);
+    generator.writeStringField("level", getLevel(rule.getSeverity()));
+    generator.writeObjectFieldStart("message");
+    generator.writeStringField("text", StringUtils.defaultIfEmpty(violation.getContext(),
+            StringUtils.defaultString(rule.getDescription())));
+    generator.writeEndObject();
+
+    ConfigurationSource source = violation.getConfigurationSource();
+    if (source != null && source.getFileName() != null) {
+      generator.writeArrayFieldStart("locations");
+      generator.writeStartObject();
+      generator.writeObjectFieldStart("physicalLocation");
+      generator.writeObjectFieldStart("artifactLocation");
+      writeArtifactLocation(generator, source.getFileName());
+      generator.writeEndObject();
+      // SARIF lines start at 1.  Line 0 marks violations of a whole file.
+      if (source.getLineNumber() > 0) {
+        generator.writeObjectFieldStart("region");
+        generator.writeNumberField("startLine", source.getLineNumber());
+        generator.writeEndObject();
+      }
+      generator.writeEndObject();
+      generator.writeEndObject();
+      generator.writeEndArray();
+    }
+
+    if (violation instanceof CountedRuleViolation) {
+      generator.writeObjectFieldStart("properties");
+      generator.writeNumberField("occurrences", ((CountedRuleViolation) violation).getRuleViolationCount());
+      generator.writeEndObject();
+    }
+    generator.writeEndObject();
+  }
+
+  /**
+   * Write the location of a file as a URI.  Files are usually named relative to the analyzed repository, and are then
+   * written as a relative URI reference against SOURCE_ROOT.  Other files are written as absolute <code>file</code>
+   * URIs.
+   */
+  static void writeArtifactLocation(JsonGenerator generator, String fileName) throws IOException {
+    String path = FilenameUtils.separatorsToUnix(fileName);
+    try {
+      if (FilenameUtils.getPrefixLength(path) > 0) {
+        generator.writeStringField("uri", new URI("file", "", path.startsWith("/") ? path : "/" + path, null)
+                .toASCIIString());
+        return;
+      }
+      path = StringUtils.removeStart(path, "./");
+      // Encode as an absolute path, so a ':' in the first segment cannot be taken for a scheme, then drop the '/'.
+      generator.writeStringField("uri", new URI(null, null, "/" + path, null).toASCIIString().substring(1));
+      generator.writeStringField("uriBaseId", SOURCE_ROOT);
+    } catch (URISyntaxException ex) {
+      generator.writeStringField("uri", fileName);
+    }
+  }
+
+  private void writeTool(JsonGenerator generator, List<AnalyzerRule> rules) throws IOException {
+    generator.writeObjectFieldStart("tool");
+    generator.writeObjectFieldStart("driver");
+    generator.writeStringField("name", TOOL_NAME);
+    generator.writeStringField("informationUri", TOOL_URI);
+    generator.writeArrayFieldStart("rules");
+    for (AnalyzerRule rule : rules) {
+      generator.writeStartObject();
+      generator.writeStringField("id", JSONReports.getRuleId(rule));
+      generator.writeObjectFieldStart("shortDescription");
+      generator.writeStringField("text", StringUtils.defaultString(rule.getDescription()));
+      generator.writeEndObject();
+      if (StringUtils.isNotEmpty(rule.getDocumentationURL())) {
+        generator.writeStringField("helpUri", rule.getDocumentationURL());
+      }
+      generator.writeObjectFieldStart("defaultConfiguration");
+      generator.writeStringField("level", getLevel(rule.getSeverity()));
+      generator.writeEndObject();
+      generator.writeObjectFieldStart("properties");
+      JSONReports.writeRuleProperties(generator, rule);
+      generator.writeEndObject();
+      generator.writeEndObject();
+    }
+    generator.writeEndArray();
+    generator.writeEndObject();
+    generator.writeEndObject();
+  }
+
+  /**
+   * @param severity The severity of a rule
+   * @return The SARIF level of the severity.
+   */
+  static String getLevel(Severity severity) {
+    if (severity == null) {
+      return "warning";
+    }
+    switch (severity) {
+      case BLOCKER:
+      case CRITICAL:
+        return "error";
+      case MAJOR:
+        return "warning";
+      default:
+        return "note";
+    }
+  }
+}
@@ -19,6 +19,10 @@ package com.adobe.aem.dot.common.reporter;
 import com.adobe.aem.dot.common.analyzer.Violation;
 
 import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Iterator;
 import java.util.List;
 
 public interface ViolationReporter {
@@ -34,5 +38,31 @@ public interface ViolationReporter {
           "Tags",
           "Documentation"};
 
-  String generateViolationReport(List<Violation> violationList) throws IOException;
+  /**
+   * Write the report row by row, as the violations are iterated, so that the report is never held in memory.  The
+   * writer is neither flushed nor closed.
+   * @param violations The violations to report
+   * @param writer The destination of the report
+   * @throws IOException when the report cannot be written
+   */
+  void writeViolationReport(Iterator<Violation> violations, Writer writer) throws IOException;
+
+  /**
+   * @param violationList The violations to report
+   * @return The report, in memory.  Prefer <code>writeViolationReport</code> for large reports.
+   */
+  default String generateViolationReport(List<Violation> violationList) {
+    if (violationList == null) {
+      throw new IllegalArgumentException(getClass().getSimpleName() +
+              " generateViolationReport received a null violationList.");
+    }
+    StringWriter writer = new StringWriter();
+    try {
+      writeViolationReport(violationList.iterator(), writer);
+    } catch (IOException ex) {
+      // A StringWriter does not throw.
+      throw new UncheckedIOException(ex);
+    }
+    return writer.toString();
+  }
 }
@@ -0,0 +1,81 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.adobe.aem.dot.common.util;
+
+import com.adobe.aem.dot.common.ConfigurationSource;
+import com.adobe.aem.dot.common.parser.ConfigurationViolations;
+
+/**
+ * A piece of feedback about the configuration: a message template, the value to insert into it, and where in the
+ * configuration it was found.  The message is only formatted when a log entry or a violation needs its text, and
+ * the rule it reports is determined from the template rather than by searching the formatted text.
+ */
+public class Diagnostic {
+  private final String template;
+  private final String argument;
+  private final ConfigurationSource source;
+
+  private String message = null;
+
+  /**
+   * Create a diagnostic.
+   * @param template The message.  It can take one {0} marker which will be replaced by the argument.
+   * @param argument The value to be inserted into the message.
+   * @param source Where the issue was found, or null if it is not tied to a configuration line.
+   */
+  public Diagnostic(String template, String argument, ConfigurationSource source) {
+    this.template = template;
+    this.argument = argument;
+    this.source = source;
+  }
+
+  public String getTemplate() {
+    return template;
+  }
+
+  public String getArgument() {
+    return argument;
+  }
+
+  public ConfigurationSource getSource() {
+    return source;
+  }
+
+  /**
+   * @return The id of the parsing rule this diagnostic reports.
+   */
+  public String getRuleId() {
+    return ConfigurationViolations.getTemplateRuleId(template);
+  }
+
+  /**
+   * @return The template with the argument inserted.
+   */
+  public String getMessage() {
+    if (message == null) {
+      message = FeedbackProcessor.processMessage(template, argument);
+    }
+    return message;
+  }
+
+  /**
+   * @return The message followed by the file information of the source, as it is logged.
+   */
+  @Override
+  public String toString() {
+    return FeedbackProcessor.appendFileInformation(getMessage(), source);
+  }
+}
@@ -29,7 +29,7 @@ import java.text.MessageFormat;
 
 /**
  * The FeedbackProcessor reports back to the customer through logs entries, and by collecting violations that will
- * be added to the final report.
+ * be added to the final report.  Messages are formatted only if they are logged or reported as a violation.
  */
 public class FeedbackProcessor {
 
@@ -66,10 +66,12 @@ public class FeedbackProcessor {
    *                 be reported.
    */
   public static void error(Logger logger, String message, String value, ConfigurationSource source, Severity severity) {
-    String processedMessage = processMessage(message, value);
-    logger.error(appendFileInformation(processedMessage, source));
+    Diagnostic diagnostic = new Diagnostic(message, value, source);
+    if (logger.isErrorEnabled()) {
+      logger.error(diagnostic.toString());
+    }
     if (severity != null && value != null) {
-      ConfigurationViolations.addViolation(processedMessage, severity, source);
+      ConfigurationViolations.addViolation(diagnostic, severity, source);
     }
   }
 
@@ -100,10 +102,12 @@ public class FeedbackProcessor {
    *                 be reported.
    */
   public static void warn(Logger logger, String message, String value, ConfigurationSource source, Severity severity) {
-    String processedMessage = processMessage(message, value);
-    logger.warn(appendFileInformation(processedMessage, source));
+    Diagnostic diagnostic = new Diagnostic(message, value, source);
+    if (logger.isWarnEnabled()) {
+      logger.warn(diagnostic.toString());
+    }
     if (severity != null && source != null) {
-      ConfigurationViolations.addViolation(processedMessage, severity, source);
+      ConfigurationViolations.addViolation(diagnostic, severity, source);
     }
   }
 
@@ -117,10 +121,12 @@ public class FeedbackProcessor {
    *                 be reported.
    */
   public static void warn(Logger logger, String message, ConfigurationValue<?> value, Severity severity) {
-    String processedMessage = processMessage(message, value);
-    logger.warn(appendFileInformation(processedMessage, value));
+    Diagnostic diagnostic = new Diagnostic(message, getArgument(value), value);
+    if (logger.isWarnEnabled()) {
+      logger.warn(diagnostic.toString());
+    }
     if (severity != null && value != null) {
-      ConfigurationViolations.addViolation(processedMessage, severity, value.getConfigurationSource());
+      ConfigurationViolations.addViolation(diagnostic, severity, value.getConfigurationSource());
     }
   }
 
@@ -132,18 +138,19 @@ public class FeedbackProcessor {
    * @param value The `ConfigurationValue` that triggered this case.
    */
   public static void info(Logger logger, String message, ConfigurationValue<?> value) {
-    String processedMessage = processMessage(message, value);
-    logger.info(appendFileInformation(processedMessage, value));
+    if (logger.isInfoEnabled()) {
+      logger.info(new Diagnostic(message, getArgument(value), value).toString());
+    }
   }
 
-  private static String processMessage(String message, ConfigurationValue<?> value) {
+  private static String getArgument(ConfigurationValue<?> value) {
     if (value != null) {
-      return processMessage(message, value.getValue() != null ? value.getValue().toString() : null);
+      return value.getValue() != null ? value.getValue().toString() : null;
     }
-    return processMessage(message, "");
+    return "";
   }
 
-  private static String processMessage(String message, String value) {
+  static String processMessage(String message, String value) {
     // See if value.getValue() should be inserted.
     if (message.contains("{}")) {
       message = message.replace("{}", "{0}");
@@ -163,7 +170,7 @@ public class FeedbackProcessor {
     return message;
   }
 
-  private static String appendFileInformation(String message, ConfigurationSource source) {
+  static String appendFileInformation(String message, ConfigurationSource source) {
     if (source == null) {
       return message;
     }
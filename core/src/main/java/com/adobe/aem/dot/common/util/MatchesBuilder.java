@@ -19,18 +19,12 @@ package com.adobe.aem.dot.common.util;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.PatternSyntaxException;
 
 public class MatchesBuilder {
 
-    private static final Logger logger = LoggerFactory.getLogger(MatchesBuilder.class.getName());
-    private static final String REGEX_MARKER = "regex(";
-
     @Getter
     @Setter(AccessLevel.PRIVATE)
     class MatchesPair {
@@ -43,7 +37,8 @@ public class MatchesBuilder {
         }
 
         /**
-         * Return true if the strings are an exact match, or if the value 'matches' the match regex.
+         * Return true if the strings are an exact match, or if the value 'matches' the match regex.  The regex is
+         * compiled once, by the <code>PatternRegistry</code>.
          * @return whether the two strings match
          */
         boolean matches() {
@@ -55,23 +50,10 @@ public class MatchesBuilder {
                 return false;
             }
 
-            boolean isRegex = getMatch().startsWith(REGEX_MARKER);
-            if (isRegex && !getMatch().endsWith(")")) {
-                logger.error("Invalid regex expression.  Error: regex() not closed correctly.  Expression=\"{}\"",
-                        getMatch());
-            } else if (isRegex) {
-                try {
-                    String matchExpr = getMatch().substring(REGEX_MARKER.length(), getMatch().length() - 1);
-                    return value.matches(matchExpr);
-                } catch(PatternSyntaxException | IndexOutOfBoundsException ex) {
-                    logger.error("Invalid regex expression.  Expression=\"{}\"  Error=\"{}\"",
-                            getMatch(), ex.getLocalizedMessage());
-                }
-            } else {
-                return value.equals(getMatch());
+            if (PatternRegistry.isRegex(getMatch())) {
+                return PatternRegistry.matches(getMatch(), getValue());
             }
-
-            return false;
+            return getValue().equals(getMatch());
         }
     }
 
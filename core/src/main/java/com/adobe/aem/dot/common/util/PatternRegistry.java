@@ -0,0 +1,166 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.adobe.aem.dot.common.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Holds the compiled patterns of <code>regex(...)</code> expressions, so an expression is compiled only once instead
+ * of on every comparison.  Expressions from the rules are precompiled when the rules are loaded and kept for good.
+ * Other expressions, such as those found in configurations, are compiled when first used and kept in a cache of at
+ * most <code>dot.pattern.cache.size</code> entries, evicting the least recently used one when full.  The registry is
+ * shared, and may be used by several threads.
+ *
+ * Invalid expressions are cached as well, along with the reason they are invalid, and reported on every lookup, so
+ * each analysis using one reports it, even when an earlier analysis of the same process compiled it.
+ */
+public class PatternRegistry {
+  // Invalid expressions are reported where the comparisons were always reported.
+  private static final Logger logger = LoggerFactory.getLogger(MatchesBuilder.class.getName());
+  private static final String REGEX_MARKER = "regex(";
+  private static final int DEFAULT_MAXIMUM_SIZE = 1000;
+
+  private static final Map<String, CompiledExpression> precompiled = new ConcurrentHashMap<>();
+  private static final int maximumSize = Math.max(0,
+          (int) PropertiesUtil.getLongProperty(PropertiesUtil.PATTERN_CACHE_SIZE_PROP, DEFAULT_MAXIMUM_SIZE));
+  private static final Map<String, CompiledExpression> compiled =
+          new LinkedHashMap<String, CompiledExpression>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompiledExpression> eldest) {
+              return size() > maximumSize;
+            }
+          };
+
+  private PatternRegistry() {}
+
+  /**
+   * Is the expression a <code>regex(...)</code> expression, rather than a value to compare exactly?
+   * @param expression The trimmed expression
+   * @return true if the expression starts with <code>regex(</code>
+   */
+  public static boolean isRegex(String expression) {
+    return expression != null && expression.startsWith(REGEX_MARKER);
+  }
+
+  /**
+   * Compile a <code>regex(...)</code> expression from a rule, and keep it for as long as the application runs.
+   * Expressions which are not regex expressions are ignored.
+   * @param expression The expression, which is trimmed
+   */
+  public static void precompile(String expression) {
+    String trimmed = expression == null ? null : expression.trim();
+    if (isRegex(trimmed)) {
+      precompiled.computeIfAbsent(trimmed, PatternRegistry::compile);
+    }
+  }
+
+  /**
+   * Get the compiled pattern of a <code>regex(...)</code> expression.  An invalid expression is reported every time.
+   * @param expression The trimmed expression
+   * @return The pattern, or null if the expression is invalid
+   */
+  public static Pattern getPattern(String expression) {
+    CompiledExpression compiledExpression = precompiled.get(expression);
+    if (compiledExpression == null) {
+      synchronized (compiled) {
+        compiledExpression = compiled.computeIfAbsent(expression, PatternRegistry::compile);
+      }
+    }
+
+    if (compiledExpression.pattern == null) {
+      compiledExpression.report(expression);
+    }
+    return compiledExpression.pattern;
+  }
+
+  /**
+   * Does the value match the pattern of a <code>regex(...)</code> expression?
+   * @param expression The trimmed expression
+   * @param value The value to match
+   * @return true if the expression is valid, and the entire value matches it
+   */
+  public static boolean matches(String expression, String value) {
+    Pattern pattern = getPattern(expression);
+    return pattern != null && pattern.matcher(value).matches();
+  }
+
+  /**
+   * @return The number of expressions precompiled from rules.
+   */
+  public static int getPrecompiledCount() {
+    return precompiled.size();
+  }
+
+  /**
+   * @return The number of other expressions currently cached.
+   */
+  public static int getCompiledCount() {
+    synchronized (compiled) {
+      return compiled.size();
+    }
+  }
+
+  /**
+   * Forget the expressions which were not precompiled, so they are compiled again.
+   */
+  public static void clear() {
+    synchronized (compiled) {
+      compiled.clear();
+    }
+  }
+
+  private static CompiledExpression compile(String expression) {
+    if (!expression.endsWith(")")) {
+      return new CompiledExpression(null, null);
+    }
+
+    try {
+      return new CompiledExpression(
+              Pattern.compile(expression.substring(REGEX_MARKER.length(), expression.length() - 1)), null);
+    } catch (PatternSyntaxException ex) {
+      return new CompiledExpression(null, ex.getLocalizedMessage());
+    }
+  }
+
+  /**
+   * The result of compiling an expression: its pattern, or, if it is invalid, why.
+   */
+  private static final class CompiledExpression {
+    private final Pattern pattern;
+    // The error of an expression which does not compile.  null for an expression which is not closed.
+    private final String error;
+
+    private CompiledExpression(Pattern pattern, String error) {
+      this.pattern = pattern;
+      this.error = error;
+    }
+
+    private void report(String expression) {
+      if (error == null) {
+        logger.error("Invalid regex expression.  Error: regex() not closed correctly.  Expression=\"{}\"", expression);
+      } else {
+        logger.error("Invalid regex expression.  Expression=\"{}\"  Error=\"{}\"", expression, error);
+      }
+    }
+  }
+}
@@ -36,6 +36,12 @@ public class PropertiesUtil {
   public static final String MAX_LINES_PROP = "dot.maximum.configuration.lines";
   public static final String MAX_INCLUDE_DEPTH_PROP = "dot.maximum.configuration.include.depth";
   public static final String DISP_VIOLATION_ELEMENT_PROP = "dot.parsing.violation.element";
+  public static final String INCLUDE_PARALLELISM_PROP = "dot.configuration.include.parallelism";
+  public static final String PARSE_CACHE_DIRECTORY_PROP = "dot.parsing.cache.directory";
+  public static final String PATH_CACHE_SIZE_PROP = "dot.configuration.path.cache.size";
+  public static final String FILE_TREE_ENABLED_PROP = "dot.configuration.file.tree.enabled";
+  public static final String ANALYZER_PARALLELISM_PROP = "dot.analyzer.parallelism";
+  public static final String PATTERN_CACHE_SIZE_PROP = "dot.pattern.cache.size";
 
   public static long getLongProperty(String propertyName, long defaultValue) {
     try {
@@ -51,6 +57,19 @@ public class PropertiesUtil {
     }
   }
 
+  public static boolean getBooleanProperty(String propertyName, boolean defaultValue) {
+    try {
+      String prop = getProperty(propertyName);
+      if (StringUtils.isEmpty(prop)) {
+        return defaultValue;
+      }
+      return Boolean.parseBoolean(prop.trim());
+    } catch(Exception ex) {
+      logger.warn("Property was not read correctly.  Name=\"{}\"", propertyName, ex);
+      return defaultValue;
+    }
+  }
+
   public static String getProperty(String propertyName) throws IOException {
     // Return value if we already read it.
     if (properties.containsKey(propertyName)) {
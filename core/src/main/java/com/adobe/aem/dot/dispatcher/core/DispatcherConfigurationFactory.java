@@ -17,32 +17,71 @@
 package com.adobe.aem.dot.dispatcher.core;
 
 import com.adobe.aem.dot.common.ConfigurationException;
+import com.adobe.aem.dot.common.ConfigurationFileCache;
+import com.adobe.aem.dot.common.ConfigurationFileLoader;
 import com.adobe.aem.dot.common.ConfigurationFileFinder;
 import com.adobe.aem.dot.common.ConfigurationLine;
 import com.adobe.aem.dot.common.ConfigurationSource;
+import com.adobe.aem.dot.common.analyzer.CostRecorder;
 import com.adobe.aem.dot.common.analyzer.Severity;
 import com.adobe.aem.dot.common.parser.ConfigurationParseResults;
 import com.adobe.aem.dot.common.parser.ConfigurationViolations;
+import com.adobe.aem.dot.common.parser.ParseStatistics;
+import com.adobe.aem.dot.common.parser.ViolationContext;
 import com.adobe.aem.dot.common.util.PathUtil;
 import com.adobe.aem.dot.dispatcher.core.model.DispatcherConfiguration;
+import com.adobe.aem.dot.dispatcher.core.parser.ConfigurationParseCache;
 import com.adobe.aem.dot.dispatcher.core.parser.ConfigurationParser;
+import com.adobe.aem.dot.dispatcher.core.parser.ConfigurationSectionCache;
 import com.adobe.aem.dot.dispatcher.core.parser.ConfigurationSyntaxException;
 import com.adobe.aem.dot.dispatcher.core.resolver.IncludeResolver;
 import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.text.MessageFormat;
 import java.util.List;
 
 public class DispatcherConfigurationFactory {
   private final Logger logger = LoggerFactory.getLogger(DispatcherConfigurationFactory.class);
 
+  private final ConfigurationParseCache parseCache;
+
+  private CostRecorder costRecorder = CostRecorder.DISABLED;
+
+  private ParseStatistics parseStatistics;
+
+  public DispatcherConfigurationFactory() {
+    this(ConfigurationParseCache.fromProperties());
+  }
+
+  /**
+   * Create a factory which reuses parse results across runs.
+   * @param parseCache The cache of parse results, or null to always parse the configuration.
+   */
+  public DispatcherConfigurationFactory(ConfigurationParseCache parseCache) {
+    this.parseCache = parseCache;
+  }
+
+  /**
+   * Record the wall time, invocations and allocated bytes of the parse phases of the following parses.
+   * @param costRecorder The recorder of the costs, or null to stop recording them.
+   */
+  public void setCostRecorder(CostRecorder costRecorder) {
+    this.costRecorder = costRecorder != null ? costRecorder : CostRecorder.DISABLED;
+  }
+
+  /**
+   * @return The number of files and lines read by the last parse of this factory, and how deeply they were included,
+   * or null if no configuration file was read.
+   */
+  public ParseStatistics getParseStatistics() {
+    return parseStatistics;
+  }
+
   /**
    * The parseConfiguration method builds a DispatcherConfiguration object by parsing dispatcher.any.
    * The dispatcher.any file is the entry point into the configuration.  The dispatcher.any file's
@@ -58,6 +97,42 @@ public class DispatcherConfigurationFactory {
   public ConfigurationParseResults<DispatcherConfiguration> parseConfiguration(String repoPath,
                                                                                String dispatcherAnyFilePath)
           throws ConfigurationException, IllegalArgumentException {
+    return parseConfiguration(repoPath, dispatcherAnyFilePath, null, null);
+  }
+
+  /**
+   * Parse the dispatcher.any file, reading the configuration files through a cache shared with other parses of the
+   * same analysis.
+   *
+   * @param repoPath - the "mount" point for the project source.
+   * @param dispatcherAnyFilePath - the path to the folder that contains the dispatcher.any file.
+   * @param fileCache - the lines of files read previously, and the index of the repository, or null to read every
+   *                  file.
+   * @return <code>ConfigurationParseResults</code> the instantiated dispatcher configuration and violations.
+   * @throws ConfigurationException Can throw this if an error is encountered.
+   */
+  public ConfigurationParseResults<DispatcherConfiguration> parseConfiguration(String repoPath,
+                                                                               String dispatcherAnyFilePath,
+                                                                               ConfigurationFileCache fileCache)
+          throws ConfigurationException, IllegalArgumentException {
+    return parseConfiguration(repoPath, dispatcherAnyFilePath, fileCache, null);
+  }
+
+  /**
+   * Parse the dispatcher.any file, reusing what is known from a previous parse of the same configuration.
+   *
+   * @param repoPath - the "mount" point for the project source.
+   * @param dispatcherAnyFilePath - the path to the folder that contains the dispatcher.any file.
+   * @param fileCache - the lines of files read previously, or null to read every file.
+   * @param sectionCache - the farms parsed previously, or null to parse every farm.
+   * @return <code>ConfigurationParseResults</code> the instantiated dispatcher configuration and violations.
+   * @throws ConfigurationException Can throw this if an error is encountered.
+   */
+  ConfigurationParseResults<DispatcherConfiguration> parseConfiguration(String repoPath, String dispatcherAnyFilePath,
+                                                                        ConfigurationFileCache fileCache,
+                                                                        ConfigurationSectionCache sectionCache)
+          throws ConfigurationException, IllegalArgumentException {
+    parseStatistics = null;
     if (StringUtils.isEmpty(repoPath)) {
       throw new IllegalArgumentException("The repo folder is not set.");
     }
@@ -87,22 +162,43 @@ public class DispatcherConfigurationFactory {
 
       // Config file was not found.
       if (dispatcherAnyFile == null) {
-        ConfigurationViolations.addViolation("Could not find Dispatcher configuration file.", Severity.MAJOR,
+        ViolationContext violations = ConfigurationViolations.startContext();
+        violations.addViolation("Could not find Dispatcher configuration file.", Severity.MAJOR,
                 new ConfigurationSource(repoPath, 0));
-        return new ConfigurationParseResults<>(null, ConfigurationViolations.getViolations());
+        ConfigurationViolations.endContext();
+        return new ConfigurationParseResults<>(null, violations.getViolations());
       }
     }
 
     logger.info("Loading configuration from file.  File=\"{}\"", dispatcherAnyFile.getPath());
 
     try {
-      String configStr = IOUtils.toString(dispatcherAnyFile.toURI().toURL(), StandardCharsets.UTF_8);
-      IncludeResolver resolver = new IncludeResolver(configStr, dispatcherAnyFile.getParent(), repoPath);
+      CostRecorder.Sample includeSample = costRecorder.start();
+      List<String> configLines = fileCache != null ? fileCache.readLines(dispatcherAnyFile)
+              : ConfigurationFileLoader.readLines(dispatcherAnyFile);
+      IncludeResolver resolver = new IncludeResolver(configLines, dispatcherAnyFile.getParent(), repoPath, fileCache);
       List<ConfigurationLine> config = resolver.resolve();
-      ConfigurationParser parser = new ConfigurationParser();
+      parseStatistics = resolver.getStatistics();
+      costRecorder.recordPhase("Dispatcher include resolution", includeSample);
+
+      String cacheKey = null;
+      if (parseCache != null) {
+        cacheKey = parseCache.getKey(config);
+        ConfigurationParseResults<DispatcherConfiguration> cachedResults = parseCache.get(cacheKey);
+        if (cachedResults != null) {
+          return cachedResults;
+        }
+      }
 
       // Parse the provided configuration into a DispatcherConfiguration object
-      return parser.parseConfiguration(config);
+      CostRecorder.Sample parseSample = costRecorder.start();
+      ConfigurationParser parser = new ConfigurationParser();
+      ConfigurationParseResults<DispatcherConfiguration> results = parser.parseConfiguration(config, sectionCache);
+      costRecorder.recordPhase("Dispatcher parsing", parseSample);
+      if (parseCache != null) {
+        parseCache.put(cacheKey, results);
+      }
+      return results;
     } catch (ConfigurationSyntaxException e) {
       throw new ConfigurationException("Unable to parse the dispatcher configuration: " + dispatcherAnyFilePath, e);
     } catch (IOException e) {
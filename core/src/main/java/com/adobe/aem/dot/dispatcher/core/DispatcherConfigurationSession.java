@@ -0,0 +1,114 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.adobe.aem.dot.dispatcher.core;
+
+import com.adobe.aem.dot.common.ConfigurationException;
+import com.adobe.aem.dot.common.ConfigurationFileCache;
+import com.adobe.aem.dot.common.RepositoryFileTree;
+import com.adobe.aem.dot.common.parser.ConfigurationParseResults;
+import com.adobe.aem.dot.dispatcher.core.model.DispatcherConfiguration;
+import com.adobe.aem.dot.dispatcher.core.parser.ConfigurationSectionCache;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * A long-lived parse of one Dispatcher configuration, for callers which parse it again every time its files change
+ * (i.e. a watch loop).  The session keeps the lines of every file the configuration includes, and the farms parsed
+ * from them.  When told which files changed, only those files are read again, and only the farms whose
+ * configuration lines changed are parsed again.  When the repository is indexed, it is walked by the first parse only.
+ */
+public class DispatcherConfigurationSession {
+  private final DispatcherConfigurationFactory factory;
+  private final String repoPath;
+  private final String dispatcherAnyFilePath;
+  private final ConfigurationFileCache fileCache;
+  private final ConfigurationSectionCache sectionCache = new ConfigurationSectionCache();
+
+  private ConfigurationParseResults<DispatcherConfiguration> results = null;
+
+  /**
+   * Create a session for the configuration found at the provided location.
+   * @param repoPath - the "mount" point for the project source.
+   * @param dispatcherAnyFilePath - the path to the folder that contains the dispatcher.any file.
+   */
+  public DispatcherConfigurationSession(String repoPath, String dispatcherAnyFilePath) {
+    this(new DispatcherConfigurationFactory(null), repoPath, dispatcherAnyFilePath);
+  }
+
+  DispatcherConfigurationSession(DispatcherConfigurationFactory factory, String repoPath,
+                                 String dispatcherAnyFilePath) {
+    this(factory, repoPath, dispatcherAnyFilePath, new ConfigurationFileCache());
+  }
+
+  DispatcherConfigurationSession(DispatcherConfigurationFactory factory, String repoPath,
+                                 String dispatcherAnyFilePath, ConfigurationFileCache fileCache) {
+    this.factory = factory;
+    this.repoPath = repoPath;
+    this.dispatcherAnyFilePath = dispatcherAnyFilePath;
+    this.fileCache = fileCache;
+  }
+
+  /**
+   * Get the results of the latest parse, parsing the configuration if it has not been parsed yet.
+   * @return <code>ConfigurationParseResults</code> the instantiated dispatcher configuration and violations.
+   * @throws ConfigurationException Can throw this if an error is encountered.
+   */
+  public ConfigurationParseResults<DispatcherConfiguration> getResults() throws ConfigurationException {
+    if (this.results == null) {
+      this.results = this.factory.parseConfiguration(this.repoPath, this.dispatcherAnyFilePath, this.fileCache,
+              this.sectionCache);
+    }
+    return this.results;
+  }
+
+  /**
+   * Parse the configuration again after some of its files changed.  Files which were added to a folder included with
+   * a wildcard are picked up as well, so the changed files do not need to be part of the current configuration.
+   * @param changedFiles The files which were changed, added or deleted since the previous parse.
+   * @return <code>ConfigurationParseResults</code> the instantiated dispatcher configuration and violations.
+   * @throws ConfigurationException Can throw this if an error is encountered.
+   */
+  public ConfigurationParseResults<DispatcherConfiguration> update(Collection<File> changedFiles)
+          throws ConfigurationException {
+    this.fileCache.invalidate(changedFiles);
+    this.results = null;
+    return getResults();
+  }
+
+  /**
+   * @return The normalized absolute paths of the files read for the configuration.
+   */
+  public Set<String> getFiles() {
+    return this.fileCache.getFiles();
+  }
+
+  /**
+   * @return The index of the repository's files, built by the first parse and kept for the updates, or null if the
+   * repository is not indexed.
+   */
+  RepositoryFileTree getFileTree() {
+    return this.fileCache.getFileTree(this.repoPath);
+  }
+
+  /**
+   * @return The number of farms reused, rather than parsed again, since the session was created.
+   */
+  public int getReusedFarmCount() {
+    return this.sectionCache.getReusedCount();
+  }
+}
@@ -19,23 +19,45 @@ package com.adobe.aem.dot.dispatcher.core.analyzer;
 import com.adobe.aem.dot.common.Configuration;
 import com.adobe.aem.dot.common.analyzer.Analyzer;
 import com.adobe.aem.dot.common.analyzer.AnalyzerRule;
+import com.adobe.aem.dot.common.analyzer.CostRecorder;
 import com.adobe.aem.dot.common.analyzer.Violation;
 import com.adobe.aem.dot.common.analyzer.ViolationVerbosity;
 import com.adobe.aem.dot.common.analyzer.rules.AnalyzerRuleList;
+import com.adobe.aem.dot.common.util.PropertiesUtil;
+import com.adobe.aem.dot.dispatcher.core.model.ConfigurationValue;
 import com.adobe.aem.dot.dispatcher.core.model.DispatcherConfiguration;
+import com.adobe.aem.dot.dispatcher.core.model.Farm;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 public class DispatcherAnalyzer extends Analyzer {
 
   private final Logger logger = LoggerFactory.getLogger(DispatcherAnalyzer.class);
 
+  private final int parallelism;
+
   public DispatcherAnalyzer(AnalyzerRuleList analyzerRuleList) throws IOException {
+    this(analyzerRuleList, (int) PropertiesUtil.getLongProperty(PropertiesUtil.ANALYZER_PARALLELISM_PROP, 1));
+  }
+
+  /**
+   * Instantiate a new DispatcherAnalyzer.
+   * @param analyzerRuleList The rules to apply
+   * @param parallelism The number of threads used to evaluate the rules against the farms.  With 1 or less, the rules
+   *                    are evaluated one at a time.
+   * @throws IOException Can throw this.
+   */
+  public DispatcherAnalyzer(AnalyzerRuleList analyzerRuleList, int parallelism) throws IOException {
     super(analyzerRuleList);
+    this.parallelism = parallelism;
   }
 
   /**
@@ -71,25 +93,74 @@ public class DispatcherAnalyzer extends Analyzer {
     }
 
     logger.trace("Begin: Analyzing dispatcher configuration.");
-    RuleProcessor ruleProcessor = new RuleProcessor();
+    CostRecorder.Sample sample = getCostRecorder().start();
+    RuleProcessor ruleProcessor = new RuleProcessor(getCostRecorder());
+
+    List<Violation> violations = this.parallelism <= 1 ?
+            analyzeSequentially(ruleProcessor, (DispatcherConfiguration) config) :
+            analyzeInParallel(ruleProcessor, (DispatcherConfiguration) config);
 
+    getCostRecorder().recordPhase("Dispatcher analysis", sample);
+    logger.debug("End: Finished analyzing dispatcher configuration. Full Violation Count={}.", violations.size());
+
+    return violations;
+  }
+
+  private List<Violation> analyzeSequentially(RuleProcessor ruleProcessor, DispatcherConfiguration config) {
     List<Violation> violations = new ArrayList<>();
 
     // Handle multi Farm rules first
     for (AnalyzerRule multiFarmRule : getAnalyzerRuleList().getEnabledMultiFarmRules()) {
-      List<Violation> ruleViolations = ruleProcessor.processMultiFarmRule(multiFarmRule,
-              (DispatcherConfiguration) config);
+      List<Violation> ruleViolations = ruleProcessor.processMultiFarmRule(multiFarmRule, config);
       violations.addAll(ruleViolations);
     }
 
     // Handle the single farm rules next
     for (AnalyzerRule rule : getAnalyzerRuleList().getEnabledSingleFarmRules()) {
-      List<Violation> ruleViolations = ruleProcessor.processRule(rule,
-              (DispatcherConfiguration) config);
+      List<Violation> ruleViolations = ruleProcessor.processRule(rule, config);
       violations.addAll(ruleViolations);
     }
 
-    logger.debug("End: Finished analyzing dispatcher configuration. Full Violation Count={}.", violations.size());
+    return violations;
+  }
+
+  /**
+   * Evaluate each multi farm rule, and each single farm rule against each of its farms, as a separate task.  The
+   * tasks are listed in the order the sequential analysis performs them, and their violations are joined in that
+   * order, so the result does not depend on which task finishes first.
+   */
+  private List<Violation> analyzeInParallel(RuleProcessor ruleProcessor, DispatcherConfiguration config) {
+    List<Callable<List<Violation>>> tasks = new ArrayList<>();
+    for (AnalyzerRule multiFarmRule : getAnalyzerRuleList().getEnabledMultiFarmRules()) {
+      tasks.add(() -> ruleProcessor.processMultiFarmRule(multiFarmRule, config));
+    }
+    for (AnalyzerRule rule : getAnalyzerRuleList().getEnabledSingleFarmRules()) {
+      for (ConfigurationValue<Farm> farm : ruleProcessor.getFarmsToCheck(rule, config)) {
+        tasks.add(() -> ruleProcessor.processFarm(rule, farm));
+      }
+    }
+
+    List<Violation> violations = new ArrayList<>();
+    ForkJoinPool pool = new ForkJoinPool(this.parallelism);
+    try {
+      for (Future<List<Violation>> result : pool.invokeAll(tasks)) {
+        violations.addAll(result.get());
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while analyzing dispatcher configuration.", ex);
+    } catch (ExecutionException ex) {
+      Throwable cause = ex.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IllegalStateException(cause);
+    } finally {
+      pool.shutdownNow();
+    }
 
     return violations;
   }
@@ -20,8 +20,10 @@ import com.adobe.aem.dot.common.ConfigurationSource;
 import com.adobe.aem.dot.common.analyzer.AnalyzerRule;
 import com.adobe.aem.dot.common.analyzer.Check;
 import com.adobe.aem.dot.common.analyzer.CheckResult;
+import com.adobe.aem.dot.common.analyzer.CostRecorder;
 import com.adobe.aem.dot.common.analyzer.Violation;
 import com.adobe.aem.dot.common.util.PathUtil;
+import com.adobe.aem.dot.dispatcher.core.analyzer.conditions.ListIndexes;
 import com.adobe.aem.dot.dispatcher.core.model.ConfigurationValue;
 import com.adobe.aem.dot.dispatcher.core.model.DispatcherConfiguration;
 import com.adobe.aem.dot.dispatcher.core.model.Farm;
@@ -40,9 +42,41 @@ import java.util.stream.Collectors;
 public class RuleProcessor {
   private static final Logger logger = LoggerFactory.getLogger(RuleProcessor.class);
 
+  // Filter and rule lists are indexed once for all the rules this processor evaluates.
+  private final ListIndexes listIndexes = new ListIndexes();
+
+  private final CostRecorder costRecorder;
+
+  public RuleProcessor() {
+    this(CostRecorder.DISABLED);
+  }
+
+  /**
+   * Instantiate a RuleProcessor which records the cost of each rule and check it evaluates.
+   * @param costRecorder The recorder of the costs
+   */
+  public RuleProcessor(CostRecorder costRecorder) {
+    this.costRecorder = costRecorder != null ? costRecorder : CostRecorder.DISABLED;
+  }
+
   public List<Violation> processRule(AnalyzerRule rule, DispatcherConfiguration config) {
     List<Violation> violations = new ArrayList<>();
 
+    // Iterate through each farm
+    for (ConfigurationValue<Farm> farmConfigValue : getFarmsToCheck(rule, config)) {
+      violations.addAll(processFarm(rule, farmConfigValue));
+    }
+
+    return violations;
+  }
+
+  /**
+   * Determine the farms a single farm rule applies to.
+   * @param rule - AnalyzerRule which involves one farm at a time
+   * @param config - the provided dispatcher configuration to check
+   * @return the farms to check, in the order of the configuration
+   */
+  public List<ConfigurationValue<Farm>> getFarmsToCheck(AnalyzerRule rule, DispatcherConfiguration config) {
     // Only check farms that are relevant for this particular rule
     List<ConfigurationValue<Farm>> relevantFarms = getRelevantFarms(rule, config);
     String relevantFarmNames = relevantFarms.stream()
@@ -53,46 +87,59 @@ public class RuleProcessor {
     // Are there any farms to check?
     if (StringUtils.isEmpty(relevantFarmNames)) {
       logger.info("No farms apply to this rule. Skipping rule id=\"{}\"", rule.getId());
-      // Return empty violations list
       return Collections.emptyList();
     }
 
-    // Iterate through each farm
-    for (ConfigurationValue<Farm> farmConfigValue : relevantFarms) {
-      Farm farm = farmConfigValue.getValue();
-
-      // Iterate through each check that is part of this rule
-      // All checks must pass in order for this configuration to be considered violation-free.
-      for (Check check : rule.getChecks()) {
-        // This object is the target of our configuration check
-        Object checkTarget = rule.determineCheckTarget(farm);
-
-        String target = "";
-        if (checkTarget instanceof ConfigurationValue<?>) {
-          ConfigurationSource configurationSource = ((ConfigurationValue<?>) checkTarget).getConfigurationSource();
-          target = PathUtil.getLastPathElement(configurationSource.getFileName()) + ":" +
-                           configurationSource.getLineNumber();
-        }
+    return relevantFarms;
+  }
 
-        // Perform the check
-        CheckResult checkResult = check.performCheck(checkTarget);
-        logger.info("RuleId=\"{}\" Result=\"{}\" CheckElement=\"{}\" CheckCondition=\"{}\" CheckValue=\"{}\" File=\"{}\"",
-                rule.getId(), checkResult.isPassed() ? "Pass" : "Fail", rule.getElement(), check.getCondition(),
-                check.getValueString(), target);
+  /**
+   * Process a single farm rule against one farm.
+   * @param rule - AnalyzerRule which involves one farm at a time
+   * @param farmConfigValue - the farm to check
+   * @return a List of Violations, if and only if any are detected in the farm
+   */
+  public List<Violation> processFarm(AnalyzerRule rule, ConfigurationValue<Farm> farmConfigValue) {
+    CostRecorder.Sample ruleSample = costRecorder.start();
+    List<Violation> violations = new ArrayList<>();
+    Farm farm = farmConfigValue.getValue();
+
+    // Iterate through each check that is part of this rule
+    // All checks must pass in order for this configuration to be considered violation-free.
+    List<Check> checks = rule.getChecks();
+    for (int checkIndex = 0; checkIndex < checks.size(); checkIndex++) {
+      Check check = checks.get(checkIndex);
+      // This object is the target of our configuration check
+      Object checkTarget = rule.determineCheckTarget(farm);
+
+      String target = "";
+      if (checkTarget instanceof ConfigurationValue<?>) {
+        ConfigurationSource configurationSource = ((ConfigurationValue<?>) checkTarget).getConfigurationSource();
+        target = PathUtil.getLastPathElement(configurationSource.getFileName()) + ":" +
+                         configurationSource.getLineNumber();
+      }
 
-        if (!checkResult.isPassed()) {
-          if (checkResult.getConfigurationSource() == null) {
-            // This means that the configuration value was not found in the config.
-            // Fall back to the Farm's configurationSource.
-            checkResult.setConfigurationSource(farmConfigValue.getConfigurationSource());
-          }
-          violations.add(prepareViolation(rule, check, checkResult, farm));
+      // Perform the check
+      CostRecorder.Sample checkSample = costRecorder.start();
+      CheckResult checkResult = check.performCheck(checkTarget, listIndexes);
+      costRecorder.recordCheck(rule, checkIndex, check, checkSample);
+      logger.info("RuleId=\"{}\" Result=\"{}\" CheckElement=\"{}\" CheckCondition=\"{}\" CheckValue=\"{}\" File=\"{}\"",
+              rule.getId(), checkResult.isPassed() ? "Pass" : "Fail", rule.getElement(), check.getCondition(),
+              check.getValueString(), target);
 
+      if (!checkResult.isPassed()) {
+        if (checkResult.getConfigurationSource() == null) {
+          // This means that the configuration value was not found in the config.
+          // Fall back to the Farm's configurationSource.
+          checkResult.setConfigurationSource(farmConfigValue.getConfigurationSource());
         }
-        // otherwise: check passed!
+        violations.add(prepareViolation(rule, check, checkResult, farm));
+
       }
+      // otherwise: check passed!
     }
 
+    costRecorder.recordRule(rule, ruleSample);
     return violations;
   }
 
@@ -103,12 +150,17 @@ public class RuleProcessor {
    * @return a List of Violations, if and only if any are detected in the provided configuration
    */
   public List<Violation> processMultiFarmRule(AnalyzerRule rule, DispatcherConfiguration config) {
+    CostRecorder.Sample ruleSample = costRecorder.start();
     List<ConfigurationValue<Farm>> relevantFarms = getRelevantFarms(rule, config);
     List<Violation> violations = new ArrayList<>();
 
-    for (Check check : rule.getChecks()) {
+    List<Check> checks = rule.getChecks();
+    for (int checkIndex = 0; checkIndex < checks.size(); checkIndex++) {
+      Check check = checks.get(checkIndex);
       // Pass all relevant farms to checks in this type of Rule
+      CostRecorder.Sample checkSample = costRecorder.start();
       CheckResult checkResult = check.performCheck(relevantFarms);
+      costRecorder.recordCheck(rule, checkIndex, check, checkSample);
       if (!checkResult.isPassed()) {
         String context = "Configuration items labeled " + checkResult.getDetails() + " failed the " + check.getCondition() + " check.";
         violations.add(new Violation(rule, context, checkResult.getConfigurationSource()));
@@ -116,6 +168,7 @@ public class RuleProcessor {
       // otherwise: check passed!
     }
 
+    costRecorder.recordRule(rule, ruleSample);
     return violations;
   }
 
@@ -37,9 +37,14 @@ public class FilterListIncludesCheck extends Check {
     return Condition.FILTER_LIST_INCLUDES;
   }
 
-  @SuppressWarnings("unchecked")
   @Override
   public CheckResult performCheck(Object configurationValue) {
+    return performCheck(configurationValue, null);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public CheckResult performCheck(Object configurationValue, ListIndexes listIndexes) {
     if (!(configurationValue instanceof ConfigurationValue<?>)) {
       // configurationValue must be defined and of the correct type to proceed.
       return new CheckResult(this.processFailIf(false));
@@ -50,7 +55,8 @@ public class FilterListIncludesCheck extends Check {
       List<FilterRule> configFilters = wrappedConfigFilters.getValue();
       FilterRule checkFilter = this.getFilterValue();
       return new CheckResult(this.processFailIf(configFilters != null && !configFilters.isEmpty() &&
-              configFilters.contains(checkFilter)),
+              (listIndexes != null ? listIndexes.containsFilter(configFilters, checkFilter) :
+                      configFilters.contains(checkFilter))),
               wrappedConfigFilters.getConfigurationSource());
     } catch(ClassCastException ccEx) {
       logger.error("Value could not be cast to a filter list. Value=\"{}\"", configurationValue.toString());
@@ -0,0 +1,125 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.adobe.aem.dot.dispatcher.core.analyzer.conditions;
+
+import com.adobe.aem.dot.common.util.PatternRegistry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Answers <code>List.contains</code> for a list of rules or filters without comparing the item to every entry.  The
+ * entries are bucketed by the values of a few of their fields.  A field of the item with a literal value selects the
+ * buckets holding exactly that value, while a <code>regex(...)</code> or missing field is matched against the distinct
+ * values of the buckets instead of against every entry.  The remaining candidates are compared with
+ * <code>equals</code>, so the result is the same as that of <code>List.contains</code>.
+ * @param <T> The type of the entries
+ */
+class ListIndex<T> {
+  private final List<Function<T, Object>> keyFields;
+  private final Map<List<String>, List<T>> buckets = new LinkedHashMap<>();
+
+  @SafeVarargs
+  ListIndex(List<T> entries, Function<T, Object>... keyFields) {
+    this.keyFields = Arrays.asList(keyFields);
+    for (T entry : entries) {
+      buckets.computeIfAbsent(getKey(entry), key -> new ArrayList<>()).add(entry);
+    }
+  }
+
+  /**
+   * Does the list contain an entry which equals the item?
+   * @param item The item to look for, whose fields may be <code>regex(...)</code> expressions
+   * @return the same as <code>List.contains(item)</code>
+   */
+  boolean contains(T item) {
+    if (item == null) {
+      List<T> nulls = buckets.get(null);
+      return nulls != null && !nulls.isEmpty();
+    }
+
+    List<String> itemKey = getKey(item);
+    if (itemKey.stream().allMatch(ListIndex::isLiteral)) {
+      return containsEqual(buckets.get(itemKey), item);
+    }
+
+    for (Map.Entry<List<String>, List<T>> bucket : buckets.entrySet()) {
+      if (keyMatches(itemKey, bucket.getKey()) && containsEqual(bucket.getValue(), item)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  int getBucketCount() {
+    return buckets.size();
+  }
+
+  private List<String> getKey(T entry) {
+    if (entry == null) {
+      return null;
+    }
+
+    List<String> key = new ArrayList<>(keyFields.size());
+    for (Function<T, Object> field : keyFields) {
+      // Values are compared as MatchesBuilder compares them: trimmed strings.
+      Object value = field.apply(entry);
+      key.add(value == null ? null : value.toString().trim());
+    }
+    return key;
+  }
+
+  private static boolean isLiteral(String value) {
+    return value != null && !PatternRegistry.isRegex(value);
+  }
+
+  private static boolean keyMatches(List<String> itemKey, List<String> entryKey) {
+    if (entryKey == null) {
+      return false;
+    }
+
+    for (int index = 0; index < itemKey.size(); index++) {
+      String match = itemKey.get(index);
+      String value = entryKey.get(index);
+      if (match == null) {
+        continue;
+      }
+      if (value == null) {
+        return false;
+      }
+      if (PatternRegistry.isRegex(match) ? !PatternRegistry.matches(match, value) : !match.equals(value)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean containsEqual(List<T> entries, T item) {
+    if (entries == null) {
+      return false;
+    }
+    for (T entry : entries) {
+      if (item.equals(entry)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
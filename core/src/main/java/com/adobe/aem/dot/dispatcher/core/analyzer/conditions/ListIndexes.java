@@ -0,0 +1,74 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.adobe.aem.dot.dispatcher.core.analyzer.conditions;
+
+import com.adobe.aem.dot.dispatcher.core.model.FilterRule;
+import com.adobe.aem.dot.dispatcher.core.model.GlobRule;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Holds the indexes of the filter and rule lists of a configuration, so each list is indexed once per analysis no
+ * matter how many checks look into it.  Lists are identified by instance.  Short lists are not indexed, since scanning
+ * them costs less than building the index.  An instance may be shared by checks running on several threads.
+ */
+public class ListIndexes {
+  static final int MINIMUM_INDEXED_SIZE = 16;
+
+  private final Map<List<?>, ListIndex<?>> indexes = Collections.synchronizedMap(new IdentityHashMap<>());
+
+  /**
+   * Does the filter list contain the filter?
+   * @param filters The filters of a configuration
+   * @param filter The filter to look for
+   * @return the same as <code>filters.contains(filter)</code>
+   */
+  @SuppressWarnings("unchecked")
+  public boolean containsFilter(List<FilterRule> filters, FilterRule filter) {
+    if (filters.size() < MINIMUM_INDEXED_SIZE) {
+      return filters.contains(filter);
+    }
+    ListIndex<FilterRule> index = (ListIndex<FilterRule>) indexes.computeIfAbsent(filters,
+            list -> new ListIndex<>(filters, FilterRule::getType, FilterRule::getMethod, FilterRule::getExtension));
+    return index.contains(filter);
+  }
+
+  /**
+   * Does the rule list contain the rule?
+   * @param rules The rules of a configuration
+   * @param rule The rule to look for
+   * @return the same as <code>rules.contains(rule)</code>
+   */
+  @SuppressWarnings("unchecked")
+  public boolean containsRule(List<GlobRule> rules, GlobRule rule) {
+    if (rules.size() < MINIMUM_INDEXED_SIZE) {
+      return rules.contains(rule);
+    }
+    ListIndex<GlobRule> index = (ListIndex<GlobRule>) indexes.computeIfAbsent(rules,
+            list -> new ListIndex<>(rules, GlobRule::getType, GlobRule::getGlob));
+    return index.contains(rule);
+  }
+
+  /**
+   * @return The number of lists indexed so far.
+   */
+  public int size() {
+    return indexes.size();
+  }
+}
@@ -37,9 +37,14 @@ public class RuleListIncludesCheck extends Check {
         return Condition.RULE_LIST_INCLUDES;
     }
 
-  @SuppressWarnings("unchecked")
   @Override
   public CheckResult performCheck(Object configurationValue) {
+    return performCheck(configurationValue, null);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public CheckResult performCheck(Object configurationValue, ListIndexes listIndexes) {
     if (!(configurationValue instanceof ConfigurationValue<?>)) {
       // configurationValue must be defined and of the correct type to proceed.
       return new CheckResult(this.processFailIf(false));
@@ -50,7 +55,8 @@ public class RuleListIncludesCheck extends Check {
       List<GlobRule> configRules = wrappedConfigRules.getValue();
       GlobRule checkRule = this.getRuleValue();
       return new CheckResult(this.processFailIf(configRules != null && !configRules.isEmpty() &&
-              configRules.contains(checkRule)),
+              (listIndexes != null ? listIndexes.containsRule(configRules, checkRule) :
+                      configRules.contains(checkRule))),
               wrappedConfigRules.getConfigurationSource());
     } catch(ClassCastException ccEx) {
       logger.error("Value could not be cast to a rule list. Value=\"{}\"", configurationValue.toString());
@@ -0,0 +1,42 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.adobe.aem.dot.dispatcher.core.filter;
+
+import com.adobe.aem.dot.dispatcher.core.model.FilterRule;
+import lombok.Getter;
+
+/**
+ * The outcome of checking a request against the /filter section of a farm: whether the request is allowed, and the
+ * filter which decided it.
+ */
+@Getter
+public class FilterDecision {
+  private final boolean allowed;
+  private final FilterRule rule;
+  private final int ruleIndex;
+
+  FilterDecision(boolean allowed, FilterRule rule, int ruleIndex) {
+    this.allowed = allowed;
+    this.rule = rule;
+    this.ruleIndex = ruleIndex;
+  }
+
+  @Override
+  public String toString() {
+    return (this.allowed ? "Allowed" : "Denied") + (this.rule == null ? " (no filter matched)" :
+            " by filter " + this.ruleIndex + " (" + this.rule + ")");
+  }
+}
@@ -0,0 +1,200 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.adobe.aem.dot.dispatcher.core.filter;
+
+import com.adobe.aem.dot.dispatcher.core.model.ConfigurationValue;
+import com.adobe.aem.dot.dispatcher.core.model.FilterRule;
+import com.adobe.aem.dot.dispatcher.core.model.RuleType;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Decides whether the /filter section of a farm allows a request, and which filter decided it.  As in the Dispatcher,
+ * every property of a filter has to match the request for the filter to apply, the last filter which applies decides,
+ * and a request no filter applies to is allowed.  Properties for the selectors, extension, suffix or query only
+ * match requests which have that part.
+ * <p>
+ * The filters are compiled once: their values are turned into matchers, and the filters are indexed by the literal
+ * prefix of their /url, /path or /glob value.  Evaluating a request then walks the prefix indexes, and tests only the
+ * filters which can apply, starting with the last.  An engine is immutable, and may be used by several threads.
+ */
+public class FilterEngine {
+  private final List<FilterRule> filters;
+  private final CompiledFilter[] compiledFilters;
+  private final PrefixIndex urlIndex = new PrefixIndex();
+  private final PrefixIndex pathIndex = new PrefixIndex();
+  private final PrefixIndex requestLineIndex = new PrefixIndex();
+  private final BitSet unindexed = new BitSet();
+
+  private FilterEngine(List<FilterRule> filters) {
+    this.filters = Collections.unmodifiableList(new ArrayList<>(filters));
+    this.compiledFilters = new CompiledFilter[this.filters.size()];
+
+    for (int index = 0; index < this.filters.size(); index++) {
+      FilterRule filter = this.filters.get(index);
+      CompiledFilter compiled = filter == null || filter.getType() == null ? null : new CompiledFilter(filter);
+      this.compiledFilters[index] = compiled;
+      if (compiled == null) {
+        // Filters without a type cannot decide anything.
+        continue;
+      }
+
+      if (!indexBy(compiled.url, urlIndex, index) && !indexBy(compiled.path, pathIndex, index) &&
+              !indexBy(compiled.glob, requestLineIndex, index)) {
+        this.unindexed.set(index);
+      }
+    }
+  }
+
+  /**
+   * Compile the filters of a farm.
+   * @param filters The /filter section of the farm, which may be null
+   * @return The engine
+   */
+  public static FilterEngine compile(ConfigurationValue<List<FilterRule>> filters) {
+    return compile(filters == null ? null : filters.getValue());
+  }
+
+  /**
+   * Compile a list of filters.
+   * @param filters The filters, in the order of the configuration, which may be null
+   * @return The engine
+   */
+  public static FilterEngine compile(List<FilterRule> filters) {
+    return new FilterEngine(filters == null ? Collections.emptyList() : filters);
+  }
+
+  /**
+   * Decide whether the filters allow the request.
+   * @param request The request
+   * @return The decision, naming the filter which decided it, if any
+   */
+  public FilterDecision evaluate(FilterRequest request) {
+    BitSet candidates = (BitSet) this.unindexed.clone();
+    urlIndex.collect(request.getUrl(), candidates);
+    pathIndex.collect(request.getPath(), candidates);
+    requestLineIndex.collect(request.getRequestLine(), candidates);
+
+    for (int index = candidates.length() - 1; index >= 0; index = candidates.previousSetBit(index - 1)) {
+      CompiledFilter filter = compiledFilters[index];
+      if (filter.matches(request)) {
+        return new FilterDecision(filter.allow, filter.filter, index);
+      }
+    }
+    return new FilterDecision(true, null, -1);
+  }
+
+  /**
+   * Decide whether the filters allow the request, testing every filter instead of using the indexes.
+   * @param request The request
+   * @return The decision, which is the same as that of <code>evaluate</code>
+   */
+  FilterDecision evaluateSequentially(FilterRequest request) {
+    for (int index = compiledFilters.length - 1; index >= 0; index--) {
+      CompiledFilter filter = compiledFilters[index];
+      if (filter != null && filter.matches(request)) {
+        return new FilterDecision(filter.allow, filter.filter, index);
+      }
+    }
+    return new FilterDecision(true, null, -1);
+  }
+
+  /**
+   * @param request The request
+   * @return true if the filters allow the request
+   */
+  public boolean isAllowed(FilterRequest request) {
+    return evaluate(request).isAllowed();
+  }
+
+  /**
+   * @return The filters, in the order of the configuration.
+   */
+  public List<FilterRule> getFilters() {
+    return filters;
+  }
+
+  /**
+   * @return The number of filters which are tested for every request, as their /url, /path and /glob values have no
+   * literal prefix.
+   */
+  public int getUnindexedCount() {
+    return unindexed.cardinality();
+  }
+
+  private static boolean indexBy(ValueMatcher matcher, PrefixIndex index, int filterIndex) {
+    if (matcher == null || matcher.getLiteralPrefix().isEmpty()) {
+      return false;
+    }
+    index.add(matcher.getLiteralPrefix(), filterIndex);
+    return true;
+  }
+
+  /**
+   * A filter whose values are compiled into matchers.  Properties which are not set match any request.
+   */
+  private static class CompiledFilter {
+    private final FilterRule filter;
+    private final boolean allow;
+    private final ValueMatcher method;
+    private final ValueMatcher url;
+    private final ValueMatcher path;
+    private final ValueMatcher selectors;
+    private final ValueMatcher extension;
+    private final ValueMatcher suffix;
+    private final ValueMatcher query;
+    private final ValueMatcher glob;
+
+    CompiledFilter(FilterRule filter) {
+      this.filter = filter;
+      this.allow = filter.getType() == RuleType.ALLOW;
+      this.method = ValueMatcher.compile(filter.getMethod());
+      this.url = ValueMatcher.compile(filter.getUrl());
+      this.path = ValueMatcher.compile(filter.getPath());
+      this.selectors = ValueMatcher.compile(filter.getSelectors());
+      this.extension = ValueMatcher.compile(filter.getExtension());
+      this.suffix = ValueMatcher.compile(filter.getSuffix());
+      this.query = ValueMatcher.compile(filter.getQuery());
+      this.glob = ValueMatcher.compile(filter.getGlob());
+    }
+
+    boolean matches(FilterRequest request) {
+      return matches(method, request.getMethod()) &&
+              matchesPresent(extension, request.getExtension()) &&
+              matchesPresent(selectors, request.getSelectors()) &&
+              matches(path, request.getPath()) &&
+              matches(url, request.getUrl()) &&
+              matchesPresent(suffix, request.getSuffix()) &&
+              matchesPresent(query, request.getQuery()) &&
+              matches(glob, request.getRequestLine());
+    }
+
+    private static boolean matches(ValueMatcher matcher, String value) {
+      return matcher == null || matcher.matches(value);
+    }
+
+    /**
+     * Match an optional part of the request.  A filter with a value for the part does not apply to requests without
+     * it, so <code>/selectors "*"</code> only applies to requests with selectors.
+     */
+    private static boolean matchesPresent(ValueMatcher matcher, String value) {
+      return matcher == null || (!value.isEmpty() && matcher.matches(value));
+    }
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.adobe.aem.dot.dispatcher.core.filter;
+
+import lombok.Getter;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * A request to be checked against the /filter section of a farm, split into the parts the filters refer to.  Missing
+ * parts are empty strings, never null.
+ */
+@Getter
+public class FilterRequest {
+  private static final String PROTOCOL = "HTTP/1.1";
+
+  private final String method;
+  private final String path;
+  private final String selectors;
+  private final String extension;
+  private final String suffix;
+  private final String query;
+  private final String url;
+  private final String requestLine;
+
+  /**
+   * Create a request from its parts.
+   * @param method The HTTP method, i.e. GET
+   * @param path The resource path, i.e. /content/site/page
+   * @param selectors The selectors, separated by periods, i.e. sel1.sel2
+   * @param extension The extension, i.e. html
+   * @param suffix The suffix, starting with a slash
+   * @param query The query string, without the question mark
+   */
+  public FilterRequest(String method, String path, String selectors, String extension, String suffix, String query) {
+    this.method = StringUtils.defaultString(method);
+    this.path = StringUtils.defaultString(path);
+    this.selectors = StringUtils.defaultString(selectors);
+    this.extension = StringUtils.defaultString(extension);
+    this.suffix = StringUtils.defaultString(suffix);
+    this.query = StringUtils.defaultString(query);
+
+    StringBuilder builder = new StringBuilder(this.path);
+    if (!this.selectors.isEmpty()) {
+      builder.append('.').append(this.selectors);
+    }
+    if (!this.extension.isEmpty()) {
+      builder.append('.').append(this.extension);
+    }
+    this.url = builder.append(this.suffix).toString();
+    this.requestLine = this.method + " " + this.url + (this.query.isEmpty() ? "" : "?" + this.query) + " " + PROTOCOL;
+  }
+
+  /**
+   * Split a request URL the way Sling decomposes it: the path runs to the first period, the extension follows the
+   * last period before the suffix, the selectors sit in between, and the suffix starts at the first slash after the
+   * path.
+   * @param method The HTTP method, i.e. GET
+   * @param url The URL, i.e. /content/site/page.sel.html/suffix?query
+   * @return The request
+   */
+  public static FilterRequest parse(String method, String url) {
+    String remaining = StringUtils.defaultString(url);
+    String query = null;
+    int queryIndex = remaining.indexOf('?');
+    if (queryIndex >= 0) {
+      query = remaining.substring(queryIndex + 1);
+      remaining = remaining.substring(0, queryIndex);
+    }
+
+    int dotIndex = remaining.indexOf('.');
+    if (dotIndex < 0) {
+      return new FilterRequest(method, remaining, null, null, null, query);
+    }
+
+    String path = remaining.substring(0, dotIndex);
+    String suffix = null;
+    String selectorsAndExtension = remaining.substring(dotIndex + 1);
+    int suffixIndex = selectorsAndExtension.indexOf('/');
+    if (suffixIndex >= 0) {
+      suffix = selectorsAndExtension.substring(suffixIndex);
+      selectorsAndExtension = selectorsAndExtension.substring(0, suffixIndex);
+    }
+
+    int extensionIndex = selectorsAndExtension.lastIndexOf('.');
+    String selectors = extensionIndex < 0 ? null : selectorsAndExtension.substring(0, extensionIndex);
+    String extension = selectorsAndExtension.substring(extensionIndex + 1);
+    return new FilterRequest(method, path, selectors, extension, suffix, query);
+  }
+
+  @Override
+  public String toString() {
+    return this.requestLine;
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.adobe.aem.dot.dispatcher.core.filter;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A trie of the literal prefixes of filter values, which finds the filters whose prefix a request part starts with
+ * by walking the part once, instead of testing every filter.
+ */
+class PrefixIndex {
+  private final Node root = new Node();
+  private int size = 0;
+
+  void add(String prefix, int ruleIndex) {
+    Node node = root;
+    for (int index = 0; index < prefix.length(); index++) {
+      node = node.children.computeIfAbsent(prefix.charAt(index), key -> new Node());
+    }
+    node.rules = Arrays.copyOf(node.rules, node.rules.length + 1);
+    node.rules[node.rules.length - 1] = ruleIndex;
+    size++;
+  }
+
+  /**
+   * Mark the filters whose prefix the value starts with.
+   * @param value A part of the request
+   * @param candidates Receives the indexes of the filters
+   */
+  void collect(String value, BitSet candidates) {
+    if (size == 0) {
+      return;
+    }
+
+    Node node = root;
+    int index = 0;
+    while (node != null) {
+      for (int rule : node.rules) {
+        candidates.set(rule);
+      }
+      node = index < value.length() ? node.children.get(value.charAt(index++)) : null;
+    }
+  }
+
+  int size() {
+    return size;
+  }
+
+  private static class Node {
+    private final Map<Character, Node> children = new HashMap<>(4);
+    private int[] rules = new int[0];
+  }
+}
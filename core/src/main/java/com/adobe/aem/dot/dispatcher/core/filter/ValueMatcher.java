@@ -0,0 +1,181 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.adobe.aem.dot.dispatcher.core.filter;
+
+import com.adobe.aem.dot.common.util.PatternRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Matches one part of a request against the value of a filter property.  Values are globs, in which <code>*</code>
+ * matches any characters, unless they are written as <code>regex(...)</code> or contain characters which only have a
+ * meaning in regular expressions.  The Dispatcher tells them apart by their quotes, which are not kept by the parser.
+ * Either way, the entire part has to match.
+ */
+abstract class ValueMatcher {
+  private static final Logger logger = LoggerFactory.getLogger(ValueMatcher.class);
+  private static final String REGEX_CHARACTERS = "()[]{}|^$+\\";
+  private static final String REGEX_META_CHARACTERS = "\\^$.|?*+()[]{}";
+
+  private final String literalPrefix;
+
+  private ValueMatcher(String literalPrefix) {
+    this.literalPrefix = literalPrefix;
+  }
+
+  abstract boolean matches(String value);
+
+  /**
+   * @return The characters every matching value starts with, possibly none.
+   */
+  String getLiteralPrefix() {
+    return literalPrefix;
+  }
+
+  /**
+   * Compile the value of a filter property.
+   * @param expression The value of the property
+   * @return The matcher, or null if the property is not set
+   */
+  static ValueMatcher compile(String expression) {
+    if (expression == null) {
+      return null;
+    }
+
+    String trimmed = expression.trim();
+    if (PatternRegistry.isRegex(trimmed)) {
+      Pattern pattern = PatternRegistry.getPattern(trimmed);
+      return pattern == null ? new NoneMatcher() : new PatternMatcher(pattern, "");
+    }
+
+    if (isRegularExpression(trimmed)) {
+      try {
+        return new PatternMatcher(Pattern.compile(trimmed), getRegexLiteralPrefix(trimmed));
+      } catch (PatternSyntaxException ex) {
+        logger.error("Invalid filter regular expression, treating it as a glob.  Expression=\"{}\"  Error=\"{}\"",
+                trimmed, ex.getLocalizedMessage());
+      }
+    }
+
+    return compileGlob(trimmed);
+  }
+
+  private static ValueMatcher compileGlob(String glob) {
+    int wildcard = glob.indexOf('*');
+    if (wildcard < 0) {
+      return new LiteralMatcher(glob);
+    }
+
+    String prefix = glob.substring(0, wildcard);
+    if (wildcard == glob.length() - 1) {
+      return new PrefixMatcher(prefix);
+    }
+
+    StringBuilder regex = new StringBuilder();
+    int start = 0;
+    while (wildcard >= 0) {
+      if (wildcard > start) {
+        regex.append(Pattern.quote(glob.substring(start, wildcard)));
+      }
+      regex.append(".*");
+      start = wildcard + 1;
+      wildcard = glob.indexOf('*', start);
+    }
+    if (start < glob.length()) {
+      regex.append(Pattern.quote(glob.substring(start)));
+    }
+    return new PatternMatcher(Pattern.compile(regex.toString(), Pattern.DOTALL), prefix);
+  }
+
+  private static boolean isRegularExpression(String value) {
+    for (int index = 0; index < value.length(); index++) {
+      if (REGEX_CHARACTERS.indexOf(value.charAt(index)) >= 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static String getRegexLiteralPrefix(String regex) {
+    if (regex.indexOf('|') >= 0) {
+      // An alternative may start with anything.
+      return "";
+    }
+
+    int end = 0;
+    while (end < regex.length() && REGEX_META_CHARACTERS.indexOf(regex.charAt(end)) < 0) {
+      end++;
+    }
+    if (end < regex.length() && "?*{".indexOf(regex.charAt(end)) >= 0) {
+      // The last literal character is optional, or repeated an unknown number of times.
+      end--;
+    }
+    return regex.substring(0, Math.max(end, 0));
+  }
+
+  private static class LiteralMatcher extends ValueMatcher {
+    private final String literal;
+
+    LiteralMatcher(String literal) {
+      super(literal);
+      this.literal = literal;
+    }
+
+    @Override
+    boolean matches(String value) {
+      return literal.equals(value);
+    }
+  }
+
+  private static class PrefixMatcher extends ValueMatcher {
+    PrefixMatcher(String prefix) {
+      super(prefix);
+    }
+
+    @Override
+    boolean matches(String value) {
+      return value.startsWith(getLiteralPrefix());
+    }
+  }
+
+  private static class PatternMatcher extends ValueMatcher {
+    private final Pattern pattern;
+
+    PatternMatcher(Pattern pattern, String literalPrefix) {
+      super(literalPrefix);
+      this.pattern = pattern;
+    }
+
+    @Override
+    boolean matches(String value) {
+      return value.startsWith(getLiteralPrefix()) && pattern.matcher(value).matches();
+    }
+  }
+
+  private static class NoneMatcher extends ValueMatcher {
+    NoneMatcher() {
+      super("");
+    }
+
+    @Override
+    boolean matches(String value) {
+      return false;
+    }
+  }
+}
@@ -58,7 +58,7 @@ public class AuthChecker extends LabeledConfigurationValue {
     ConfigurationValue<String> token;
 
     // Expect { to begin the block
-    if (!reader.isNextChar('{', false)) {
+    if (!reader.isNextChar('{')) {
       FeedbackProcessor.error(logger,"Each /auth_checker block must begin with a '{' character.",
               reader.getCurrentConfigurationValue(), Severity.MAJOR);
       return new AuthChecker();
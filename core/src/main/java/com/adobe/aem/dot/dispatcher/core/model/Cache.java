@@ -61,7 +61,7 @@ public class Cache {
     Cache cache = new Cache();
 
     // Expect { to begin the block
-    if (!reader.isNextChar('{', false)) {
+    if (!reader.isNextChar('{')) {
       FeedbackProcessor.error(logger,"Each /cache block must begin with a '{' character.",
               reader.getCurrentConfigurationValue(), Severity.MAJOR);
       return new Cache();
@@ -139,7 +139,7 @@ public class Farm extends LabeledConfigurationValue {
     List<ConfigurationValue<Farm>> farms = new ArrayList<>();
 
     // Expect { to begin the block
-    if (!reader.isNextChar('{', false)) {
+    if (!reader.isNextChar('{')) {
       FeedbackProcessor.error(logger,"Each /farms block must begin with a '{' character.",
               reader.getCurrentConfigurationValue(), Severity.MAJOR);
       return new ArrayList<>();
@@ -148,27 +148,36 @@ public class Farm extends LabeledConfigurationValue {
     reader.next(); // Advance the reader's pointer passed the "{" marker.
     boolean hasMoreFarms = true;
     while (reader.hasNext() && hasMoreFarms) {
-      ConfigurationValue<String> nextFarmLabel = reader.nextName();
+      ConfigurationValue<String> nextFarmLabel = reader.peekName();
       if (nextFarmLabel == null || nextFarmLabel.getValue().equals("}")) {
         // We've reached the end of the farms section
+        reader.next();
         hasMoreFarms = false;
       } else {
         logger.info("*** Processing Farm=\"{}\"...", nextFarmLabel.getFileName());
-        Farm farm = Farm.parseFarm(reader);
-        farm.setLabel(nextFarmLabel);
-        farms.add(new ConfigurationValue<>(farm,
-                nextFarmLabel.getFileName(), nextFarmLabel.getLineNumber(), nextFarmLabel.getIncludedFrom()));
+        // Labels are not always unique, so the file declaring the farm is part of its section key.  The label is
+        // read within the section, so a reused farm is never modified after a previous parse returned it.
+        farms.add(reader.parseSection(nextFarmLabel.getValue() + "@" + nextFarmLabel.getFileName(),
+                Farm::parseLabeledFarm));
       }
     }
 
     return farms;
   }
 
+  private static ConfigurationValue<Farm> parseLabeledFarm(ConfigurationReader reader)
+          throws ConfigurationSyntaxException {
+    ConfigurationValue<String> label = reader.nextName();
+    Farm farm = Farm.parseFarm(reader);
+    farm.setLabel(label);
+    return new ConfigurationValue<>(farm, label.getFileName(), label.getLineNumber(), label.getIncludedFrom());
+  }
+
   private static Farm parseFarm(ConfigurationReader reader) throws ConfigurationSyntaxException {
     Farm farm = new Farm();
 
     // Expect { to begin the block
-    if (!reader.isNextChar('{', false)) {
+    if (!reader.isNextChar('{')) {
       FeedbackProcessor.error(logger,"Each /farm block must begin with a '{' character.",
               reader.getCurrentConfigurationValue(), Severity.MAJOR);
       return new Farm();
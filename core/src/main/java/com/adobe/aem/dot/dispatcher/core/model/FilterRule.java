@@ -19,6 +19,7 @@ package com.adobe.aem.dot.dispatcher.core.model;
 import com.adobe.aem.dot.common.analyzer.Severity;
 import com.adobe.aem.dot.common.util.FeedbackProcessor;
 import com.adobe.aem.dot.common.util.MatchesBuilder;
+import com.adobe.aem.dot.common.util.PatternRegistry;
 import com.adobe.aem.dot.dispatcher.core.parser.ConfigurationReader;
 import com.adobe.aem.dot.dispatcher.core.parser.ConfigurationSyntaxException;
 import lombok.AccessLevel;
@@ -130,6 +131,20 @@ public class FilterRule extends LabeledConfigurationValue {
     this.glob = value;
   }
 
+  /**
+   * Precompile any <code>regex(...)</code> expressions of this filter, so comparing against it does not compile them.
+   */
+  public void compilePatterns() {
+    PatternRegistry.precompile(getUrl());
+    PatternRegistry.precompile(getExtension());
+    PatternRegistry.precompile(getSelectors());
+    PatternRegistry.precompile(getSuffix());
+    PatternRegistry.precompile(getPath());
+    PatternRegistry.precompile(getMethod());
+    PatternRegistry.precompile(getQuery());
+    PatternRegistry.precompile(getGlob());
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) return true;
@@ -169,7 +184,7 @@ public class FilterRule extends LabeledConfigurationValue {
     List<FilterRule> filters = new ArrayList<>();
 
     // Expect { to begin the block
-    if (!reader.isNextChar('{', false)) {
+    if (!reader.isNextChar('{')) {
       FeedbackProcessor.error(logger,"Each /filter block must begin with a '{' character.",
               reader.getCurrentConfigurationValue(), Severity.MAJOR);
       return new ConfigurationValue<>(new ArrayList<>());
@@ -212,7 +227,7 @@ public class FilterRule extends LabeledConfigurationValue {
 
     // Expect { to begin the filter block, unless there is no label.
     if (!skipLabel) {
-      if (!reader.isNextChar('{', false)) {
+      if (!reader.isNextChar('{')) {
         FeedbackProcessor.error(logger,"Each filter rule must begin with a '{' character.",
                 reader.getCurrentConfigurationValue(), Severity.MAJOR);
         return new FilterRule();
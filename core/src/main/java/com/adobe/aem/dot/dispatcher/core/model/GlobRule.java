@@ -19,6 +19,7 @@ package com.adobe.aem.dot.dispatcher.core.model;
 import com.adobe.aem.dot.common.analyzer.Severity;
 import com.adobe.aem.dot.common.util.FeedbackProcessor;
 import com.adobe.aem.dot.common.util.MatchesBuilder;
+import com.adobe.aem.dot.common.util.PatternRegistry;
 import com.adobe.aem.dot.dispatcher.core.parser.ConfigurationReader;
 import com.adobe.aem.dot.dispatcher.core.parser.ConfigurationSyntaxException;
 import lombok.AccessLevel;
@@ -84,7 +85,7 @@ public class GlobRule extends LabeledConfigurationValue {
     List<GlobRule> rules = new ArrayList<>();
 
     // Expect { to begin the block
-    if (!reader.isNextChar('{', false)) {
+    if (!reader.isNextChar('{')) {
       FeedbackProcessor.error(logger,"Each /rules block must begin with a '{' character.",
               reader.getCurrentConfigurationValue(), Severity.MAJOR);
       return new ConfigurationValue<>(new ArrayList<>());
@@ -126,7 +127,7 @@ public class GlobRule extends LabeledConfigurationValue {
 
     // Expect { to begin the rule block, unless there is no label.
     if (!skipLabel) {
-      if (!reader.isNextChar('{', false)) {
+      if (!reader.isNextChar('{')) {
         FeedbackProcessor.error(logger,"Each rule must begin with a '{' character.",
                 reader.getCurrentConfigurationValue(), Severity.MAJOR);
         return new GlobRule();
@@ -166,6 +167,14 @@ public class GlobRule extends LabeledConfigurationValue {
     return rule;
   }
 
+  /**
+   * Precompile the glob of this rule if it is a <code>regex(...)</code> expression, so comparing against it does not
+   * compile it.
+   */
+  public void compilePatterns() {
+    PatternRegistry.precompile(getGlob());
+  }
+
   /**
    * Consider two rules equal if both the Glob and Type are the same (disregard Name).
    * @param o an object to compare
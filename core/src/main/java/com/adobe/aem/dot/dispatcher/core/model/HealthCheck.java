@@ -41,7 +41,7 @@ public class HealthCheck extends ConfigurationSource {
     HealthCheck healthCheck = new HealthCheck();
 
     // Expect { to begin the block
-    if (!reader.isNextChar('{', false)) {
+    if (!reader.isNextChar('{')) {
       FeedbackProcessor.error(logger,"Each /health_check block must begin with a '{' character.",
               reader.getCurrentConfigurationValue(), Severity.MAJOR);
       return new HealthCheck();
@@ -63,7 +63,7 @@ public class Render extends LabeledConfigurationValue {
     List<Render> renders = new ArrayList<>();
 
     // Expect { to begin the block
-    if (!reader.isNextChar('{', false)) {
+    if (!reader.isNextChar('{')) {
       FeedbackProcessor.error(logger,"Each /renders block must begin with a '{' character.",
               reader.getCurrentConfigurationValue(), Severity.MAJOR);
       return new ArrayList<>();
@@ -104,7 +104,7 @@ public class Render extends LabeledConfigurationValue {
 
     // Expect { to begin the rule block, unless there is no label.
     if (!skipLabel) {
-      if (!reader.isNextChar('{', false)) {
+      if (!reader.isNextChar('{')) {
         FeedbackProcessor.error(logger,"Each render must begin with a '{' character.",
                 reader.getCurrentConfigurationValue(), Severity.MAJOR);
         return new Render();
@@ -93,7 +93,7 @@ public class SessionManagement extends LabeledConfigurationValue {
     SessionManagement sessionManagement = new SessionManagement();
 
     // Expect { to begin the block
-    if (!reader.isNextChar('{', false)) {
+    if (!reader.isNextChar('{')) {
       FeedbackProcessor.error(logger,"Each /sessionManagement block must begin with a '{' character.",
               reader.getCurrentConfigurationValue(), Severity.MAJOR);
       return new SessionManagement();
@@ -41,7 +41,7 @@ public class Statistics extends ConfigurationSource {
     Statistics statistics = new Statistics();
 
     // Expect { to begin the block
-    if (!reader.isNextChar('{', false)) {
+    if (!reader.isNextChar('{')) {
       FeedbackProcessor.error(logger,"Each /statistics block must begin with a '{' character.",
               reader.getCurrentConfigurationValue(), Severity.MAJOR);
       return new Statistics();
@@ -44,7 +44,7 @@ public class StatisticsCategories {
     List<StatisticsRule> categoriesList = new ArrayList<>();
 
     // Expect { to begin the block
-    if (!reader.isNextChar('{', false)) {
+    if (!reader.isNextChar('{')) {
       FeedbackProcessor.error(logger,"Each /categories block must begin with a '{' character.",
               reader.getCurrentConfigurationValue(), Severity.MAJOR);
       return new StatisticsCategories();
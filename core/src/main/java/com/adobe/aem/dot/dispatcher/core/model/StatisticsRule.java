@@ -48,7 +48,7 @@ public class StatisticsRule extends LabeledConfigurationValue {
     StatisticsRule rule = new StatisticsRule();
 
     // Expect { to begin the block
-    if (!reader.isNextChar('{', false)) {
+    if (!reader.isNextChar('{')) {
       FeedbackProcessor.error(logger,"Each StatisticsRule block must begin with a '{' character.",
               reader.getCurrentConfigurationValue(), Severity.MAJOR);
       return new StatisticsRule();
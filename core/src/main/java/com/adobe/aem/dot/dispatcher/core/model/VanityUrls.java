@@ -45,7 +45,7 @@ public class VanityUrls extends ConfigurationSource {
     VanityUrls vanityUrls = new VanityUrls();
 
     // Expect { to begin the block
-    if (!reader.isNextChar('{', false)) {
+    if (!reader.isNextChar('{')) {
       FeedbackProcessor.error(logger,"Each /vanity_urls block must begin with a '{' character.",
               reader.getCurrentConfigurationValue(), Severity.MAJOR);
       return new VanityUrls();
@@ -40,48 +40,50 @@ class ConfigurationCleaner {
 
   private ConfigurationCleaner() {}
 
-  static List<ConfigurationLine> cleanConfig(List<ConfigurationLine> configurationLines) {
-    // Split by line break
-    List<ConfigurationLine> configLines = new ArrayList<>();
+  /**
+   * Prepare the configuration lines for reading, in a single scan of each line.  Environment variables are resolved,
+   * comments, empty lines and surrounding whitespace are removed, and unmatched quotes and unclosed braces are
+   * reported.
+   * @param configurationLines A list of <code>ConfigurationLine</code> objects.  They are not modified.
+   * @param replace Replace the markers of environment variables which are not set with underscores.
+   * @return The cleaned lines, without empty lines and comments.
+   */
+  static List<ConfigurationLine> cleanConfig(List<ConfigurationLine> configurationLines, boolean replace) {
+    List<ConfigurationLine> configLines = new ArrayList<>(configurationLines.size());
+    Set<String> variablesNotResolved = new HashSet<>();
+    Map<String, Integer> braces = new HashMap<>();
+    LineScanner scanner = new LineScanner();
 
-    // Tidy each line. Remove empty lines & comments
     for (ConfigurationLine line : configurationLines) {
-      String lineTrimmed = trimWhitespaceAndComments(line.getContents());
-      if (shouldLineBeIncluded(lineTrimmed)) {
-        // Add non-empty trimmed lines to the temp line list
-        configLines.add(new ConfigurationLine(lineTrimmed, line.getFileName(), line.getLineNumber(),
-                line.getIncludedFrom()));
+      String contents = line.getContents();
+      if (contents.contains("${")) {
+        contents = FileResolver.resolveEnvironmentVariables(contents, replace, variablesNotResolved);
       }
-    }
 
-    return configLines;
-  }
+      String lineTrimmed = scanner.scan(contents);
+      if (!shouldLineBeIncluded(lineTrimmed)) {
+        continue;
+      }
+      ConfigurationLine cleanLine = new ConfigurationLine(lineTrimmed, line.getFileName(), line.getLineNumber(),
+              line.getIncludedFrom());
+      configLines.add(cleanLine);
 
-  /**
-   * Pass each line through some basic tests and output any possible errors.
-   * @param configurationLines A list of <code>ConfigurationLine</code> objects.
-   */
-  static void validateConfigurationLines(List<ConfigurationLine> configurationLines) {
-    Map<String, Integer> braces = new HashMap<>();
-    for (ConfigurationLine line: configurationLines) {
       // Check for mismatched quotes.
-      long dqCount = line.getContents().chars().filter(ch -> ch == '"').count();
-      long sqCount = line.getContents().chars().filter(ch -> ch == '\'').count();
-      int escapedCount = StringUtils.countMatches(line.getContents(), "\\\"");
-      if ((dqCount - escapedCount) > 0 && (dqCount - escapedCount) % 2 != 0) {
-        FeedbackProcessor.warn(logger, "Unmatched quote (\").  Line=\"{}\"", line, Severity.MAJOR);
+      int unescapedCount = scanner.doubleQuotes - scanner.escapedDoubleQuotes;
+      if (unescapedCount > 0 && unescapedCount % 2 != 0) {
+        FeedbackProcessor.warn(logger, "Unmatched quote (\").  Line=\"{}\"", cleanLine, Severity.MAJOR);
       }
-      escapedCount = StringUtils.countMatches(line.getContents(), "\\'");
-      if ((sqCount - escapedCount) > 0 && (sqCount - escapedCount) % 2 != 0) {
-        FeedbackProcessor.warn(logger, "Unmatched quote (').  Line=\"{}\"", line, Severity.MAJOR);
+      unescapedCount = scanner.singleQuotes - scanner.escapedSingleQuotes;
+      if (unescapedCount > 0 && unescapedCount % 2 != 0) {
+        FeedbackProcessor.warn(logger, "Unmatched quote (').  Line=\"{}\"", cleanLine, Severity.MAJOR);
       }
 
-      long openBraceCount = line.getContents().chars().filter(ch -> ch == '{').count();
-      long closeBraceCount = line.getContents().chars().filter(ch -> ch == '}').count();
-      String filename = line.getFileName();
-      int oldCount = braces.get(filename) != null ? braces.get(filename) : 0;
-      Integer newCount = oldCount + (int) openBraceCount - (int) closeBraceCount;
-      braces.put(filename, newCount);
+      braces.merge(line.getFileName(), scanner.braceBalance, Integer::sum);
+    }
+
+    if (!variablesNotResolved.isEmpty()) {
+      List<String> sorted = variablesNotResolved.stream().sorted(Comparator.naturalOrder()).collect(Collectors.toList());
+      logger.warn("Environment variables were not resolved. EnvVars=\"{}\"", StringUtils.join(sorted, ", "));
     }
 
     // Identify and log any unclosed brace issues
@@ -91,63 +93,103 @@ class ConfigurationCleaner {
         logger.warn("Unclosed brace encountered in file=\"{}\"", fileWithUnclosedBrace);
       }
     }
-  }
 
-  static void updateEnvironmentVariables(List<ConfigurationLine> configurationLines, boolean replace) {
-    Set<String> variablesNotResolved = new HashSet<>();
-    for (ConfigurationLine line : configurationLines) {
-      String resolvedEnv = FileResolver.resolveEnvironmentVariables(line.getContents(), replace, variablesNotResolved);
-      if (!resolvedEnv.equals(line.getContents())) {
-        line.setContents(resolvedEnv);
-      }
-    }
-    if (!variablesNotResolved.isEmpty()) {
-      List<String> sorted = variablesNotResolved.stream().sorted(Comparator.naturalOrder()).collect(Collectors.toList());
-      logger.warn("Environment variables were not resolved. EnvVars=\"{}\"", StringUtils.join(sorted, ", "));
-    }
+    return configLines;
   }
 
   private static boolean shouldLineBeIncluded(String line) {
     // Don't include empty lines or comments
-    return line.trim().length() > 0 && !line.trim().startsWith("#");
+    return line.length() > 0 && line.charAt(0) != '#';
   }
 
-  private static String trimWhitespaceAndComments(String input) {
-    StringBuilder cleaned = new StringBuilder();
-    boolean inDoubleQuote = false;
-    boolean inSingleQuote = false;
-    boolean lastEscapeChar = false;
-    input = input.trim();
+  /**
+   * Trims a line of whitespace and comments, counting the quotes and braces of what remains as it goes.
+   */
+  private static final class LineScanner {
+    private int doubleQuotes;
+    private int singleQuotes;
+    private int escapedDoubleQuotes;
+    private int escapedSingleQuotes;
+    private int braceBalance;
+
+    /**
+     * Scan a line.
+     * @param input The line
+     * @return The line without surrounding whitespace, and without a comment (a '#' outside of quotes).
+     */
+    String scan(String input) {
+      doubleQuotes = 0;
+      singleQuotes = 0;
+      escapedDoubleQuotes = 0;
+      escapedSingleQuotes = 0;
+      braceBalance = 0;
+
+      int length = input.length();
+      int start = 0;
+      while (start < length && input.charAt(start) <= ' ') {
+        start++;
+      }
 
-    for (char nextChar: input.toCharArray()) {
-      boolean isDoubleQuote = false;
-      boolean isSingleQuote = false;
+      boolean inDoubleQuote = false;
+      boolean inSingleQuote = false;
+      boolean lastEscapeChar = false;
+      char previousChar = 0;
+      int end = start;
+      for (; end < length; end++) {
+        char nextChar = input.charAt(end);
+        boolean isDoubleQuote = false;
+        boolean isSingleQuote = false;
+
+        if (nextChar == '\\') {
+          lastEscapeChar = true;
+        }
+        if (nextChar == '"' && !lastEscapeChar) {
+          isDoubleQuote = true;
+        } else if (nextChar == '\'' && !lastEscapeChar) {
+          isSingleQuote = true;
+        }
 
-      if (nextChar == '\\') {
-        lastEscapeChar = true;
-      }
-      if (nextChar == '"' && !lastEscapeChar) {
-        isDoubleQuote = true;
-      } else if (nextChar == '\'' && !lastEscapeChar) {
-        isSingleQuote = true;
-      }
+        if (!inSingleQuote && isDoubleQuote) {
+          inDoubleQuote = !inDoubleQuote;
+        } else if (!inDoubleQuote && isSingleQuote) {
+          inSingleQuote = !inSingleQuote;
+        } else if (!inDoubleQuote && !inSingleQuote && nextChar == '#') {
+          break;
+        }
 
-      if (!inSingleQuote && isDoubleQuote) {
-        inDoubleQuote = !inDoubleQuote;
-      } else if (!inDoubleQuote && isSingleQuote) {
-        inSingleQuote = !inSingleQuote;
-      } else if (!inDoubleQuote && !inSingleQuote && nextChar == '#') {
-        break;
-      }
+        if (nextChar != '\\') {
+          lastEscapeChar = false;
+        }
 
-      if (nextChar != '\\') {
-        lastEscapeChar = false;
+        switch (nextChar) {
+          case '"':
+            doubleQuotes++;
+            if (previousChar == '\\') {
+              escapedDoubleQuotes++;
+            }
+            break;
+          case '\'':
+            singleQuotes++;
+            if (previousChar == '\\') {
+              escapedSingleQuotes++;
+            }
+            break;
+          case '{':
+            braceBalance++;
+            break;
+          case '}':
+            braceBalance--;
+            break;
+          default:
+        }
+        previousChar = nextChar;
       }
 
-      cleaned.append(nextChar);
+      while (end > start && input.charAt(end - 1) <= ' ') {
+        end--;
+      }
+      return input.substring(start, end);
     }
-
-    return cleaned.toString().trim();
   }
 
   static String prettifyConfig(List<ConfigurationLine> configLines) {
@@ -0,0 +1,142 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.adobe.aem.dot.dispatcher.core.parser;
+
+import com.adobe.aem.dot.common.ConfigurationLine;
+
+import java.util.List;
+
+/**
+ * Splits a list of <code>ConfigurationLine</code>s into <code>ConfigurationTokens</code> in a single pass.  Tokens
+ * never span lines.  The rules match the way the dispatcher reads its configuration:
+ * <ul>
+ *   <li>"{" and "}" are always tokens of their own</li>
+ *   <li>"/" begins a label, which runs until whitespace or the start of another token</li>
+ *   <li>quoted strings run until the matching, non-escaped quote, or the end of the line</li>
+ *   <li>"#" outside of a quoted string comments out the rest of the line</li>
+ * </ul>
+ * A label, value or unterminated string which runs to the end of its line is reported against the following line,
+ * which keeps the line numbers of parsed values (and so of reported violations) the same as they have always been.
+ */
+final class ConfigurationLexer {
+  private static final int INITIAL_LINE_CAPACITY = 8;
+
+  private ConfigurationLexer() {}
+
+  static ConfigurationTokens tokenize(List<ConfigurationLine> configurationLines) {
+    ConfigurationTokens tokens = new ConfigurationTokens(configurationLines);
+    for (int lineIndex = 0; lineIndex < configurationLines.size(); lineIndex++) {
+      tokenizeLine(tokens, lineIndex, 0);
+    }
+
+    return tokens;
+  }
+
+  /**
+   * Tokenize a single line, starting part way through it.
+   * @param configurationLines The full list of lines
+   * @param lineIndex The index of the line to tokenize
+   * @param start The offset within the line to start from
+   * @return the tokens found from <code>start</code> to the end of the line
+   */
+  static ConfigurationTokens tokenizeRemainder(List<ConfigurationLine> configurationLines, int lineIndex, int start) {
+    ConfigurationTokens tokens = new ConfigurationTokens(configurationLines, INITIAL_LINE_CAPACITY);
+    tokenizeLine(tokens, lineIndex, start);
+    return tokens;
+  }
+
+  private static void tokenizeLine(ConfigurationTokens tokens, int lineIndex, int start) {
+    List<ConfigurationLine> configurationLines = tokens.getLines();
+    String contents = configurationLines.get(lineIndex).getContents();
+    int length = contents.length();
+    int index = start;
+
+    while (index < length) {
+      char nextChar = contents.charAt(index);
+      if (Character.isWhitespace(nextChar)) {
+        index++;
+        continue;
+      }
+      if (nextChar == '#') {
+        break;
+      }
+
+      int end;
+      ConfigurationTokenType type;
+      if (nextChar == '{') {
+        type = ConfigurationTokenType.OPEN_BRACE;
+        end = index + 1;
+      } else if (nextChar == '}') {
+        type = ConfigurationTokenType.CLOSE_BRACE;
+        end = index + 1;
+      } else if (nextChar == '"' || nextChar == '\'') {
+        type = ConfigurationTokenType.QUOTED;
+        end = findClosingQuote(contents, index, nextChar);
+        if (end < 0) {
+          type = ConfigurationTokenType.UNTERMINATED_QUOTED;
+          end = length;
+        }
+      } else if (nextChar == '/') {
+        type = ConfigurationTokenType.LABEL;
+        end = findEndOfToken(contents, index + 1);
+      } else {
+        type = ConfigurationTokenType.VALUE;
+        end = findEndOfToken(contents, index + 1);
+      }
+
+      int sourceLineIndex = lineIndex;
+      if (end == length && type.isOpenEnded() && lineIndex + 1 < configurationLines.size()) {
+        sourceLineIndex = lineIndex + 1;
+      }
+      tokens.add(type, lineIndex, sourceLineIndex, index, end - index);
+      index = end;
+    }
+  }
+
+  /**
+   * Find the end of the quoted string which starts at <code>start</code>.
+   * @return the index after the closing quote, or -1 if the quote is not closed on this line.
+   */
+  private static int findClosingQuote(String contents, int start, char quoteChar) {
+    for (int index = start + 1; index < contents.length(); index++) {
+      if (contents.charAt(index) == quoteChar && (index == start + 1 || contents.charAt(index - 1) != '\\')) {
+        return index + 1;
+      }
+    }
+
+    return -1;
+  }
+
+  private static int findEndOfToken(String contents, int start) {
+    int index = start;
+    while (index < contents.length()) {
+      char nextChar = contents.charAt(index);
+      if (Character.isWhitespace(nextChar) || isBeginningOfNextToken(nextChar)) {
+        break;
+      }
+      index++;
+    }
+
+    return index;
+  }
+
+  private static boolean isBeginningOfNextToken(char character) {
+    return character == '/' ||
+            character == '{' || character == '}' ||
+            character == '"' || character == '\'';
+  }
+}
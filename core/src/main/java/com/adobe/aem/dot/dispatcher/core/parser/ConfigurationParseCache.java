@@ -0,0 +1,267 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.adobe.aem.dot.dispatcher.core.parser;
+
+import com.adobe.aem.dot.common.ConfigurationLine;
+import com.adobe.aem.dot.common.ConfigurationSource;
+import com.adobe.aem.dot.common.analyzer.Severity;
+import com.adobe.aem.dot.common.analyzer.Violation;
+import com.adobe.aem.dot.common.analyzer.ViolationVerbosity;
+import com.adobe.aem.dot.common.parser.ConfigurationParseResults;
+import com.adobe.aem.dot.common.parser.ViolationContext;
+import com.adobe.aem.dot.common.util.PropertiesUtil;
+import com.adobe.aem.dot.dispatcher.core.model.ConfigurationValue;
+import com.adobe.aem.dot.dispatcher.core.model.DispatcherConfiguration;
+import com.adobe.aem.dot.dispatcher.core.model.Farm;
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * An on-disk cache of parsed Dispatcher configurations.  Entries are addressed by a SHA-256 hash of the resolved
+ * configuration lines (content, file name, line number and including file) and the values of the environment
+ * variables those lines reference, so an unchanged set of files maps to the same entry from one run to the next.
+ * An entry is a JSON document holding the format of the entry, the parsed <code>DispatcherConfiguration</code> and the
+ * violations encountered while parsing it.  Entries of another format are ignored.
+ */
+public class ConfigurationParseCache {
+  private static final Logger logger = LoggerFactory.getLogger(ConfigurationParseCache.class);
+
+  // Change when the layout of the entries, the model classes, or the way the key is computed changes.
+  private static final String CACHE_FORMAT = "2";
+  private static final String ENTRY_SUFFIX = ".parse.json";
+  private static final String FORMAT_FIELD = "format";
+  private static final String CONFIGURATION_FIELD = "configuration";
+  private static final String VIOLATIONS_FIELD = "violations";
+
+  private static final ObjectMapper MAPPER = createMapper();
+  private static final TypeReference<ConfigurationValue<String>> STRING_VALUE_TYPE =
+          new TypeReference<ConfigurationValue<String>>() {};
+  private static final TypeReference<ConfigurationValue<Boolean>> BOOLEAN_VALUE_TYPE =
+          new TypeReference<ConfigurationValue<Boolean>>() {};
+  private static final TypeReference<List<ConfigurationValue<Farm>>> FARMS_TYPE =
+          new TypeReference<List<ConfigurationValue<Farm>>>() {};
+
+  private final File directory;
+
+  public ConfigurationParseCache(File directory) {
+    this.directory = directory;
+  }
+
+  /**
+   * Create a cache in the directory set by the <code>dot.parsing.cache.directory</code> property.
+   * @return The cache, or null if the property is not set.
+   */
+  public static ConfigurationParseCache fromProperties() {
+    String directory = null;
+    try {
+      directory = PropertiesUtil.getProperty(PropertiesUtil.PARSE_CACHE_DIRECTORY_PROP);
+    } catch (IOException ioEx) {
+      logger.warn("Property was not read correctly.  Name=\"{}\"", PropertiesUtil.PARSE_CACHE_DIRECTORY_PROP, ioEx);
+    }
+
+    return StringUtils.isBlank(directory) ? null : new ConfigurationParseCache(new File(directory.trim()));
+  }
+
+  /**
+   * Compute the key of a resolved configuration.  The key covers the lines and the environment variables they
+   * reference, so entries are never updated: a changed configuration gets a new key, and so a new entry, while the
+   * entry of the previous configuration is left as it was.
+   * @param configurationLines The lines produced by the <code>IncludeResolver</code>
+   * @return A hex encoded SHA-256 hash identifying the configuration
+   */
+  public String getKey(List<ConfigurationLine> configurationLines) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException nsaEx) {
+      throw new IllegalStateException("SHA-256 is not available.", nsaEx);
+    }
+
+    update(digest, CACHE_FORMAT);
+    update(digest, StringUtils.defaultString(ConfigurationParseCache.class.getPackage().getImplementationVersion()));
+
+    Map<String, String> environment = new TreeMap<>();
+    for (ConfigurationLine line : configurationLines) {
+      update(digest, line.getContents());
+      update(digest, line.getFileName());
+      update(digest, Integer.toString(line.getLineNumber()));
+      update(digest, line.getIncludedFrom());
+      collectEnvironmentVariables(line.getContents(), environment);
+    }
+
+    for (Map.Entry<String, String> variable : environment.entrySet()) {
+      update(digest, variable.getKey());
+      update(digest, variable.getValue());
+    }
+
+    StringBuilder key = new StringBuilder();
+    for (byte nextByte : digest.digest()) {
+      key.append(String.format("%02x", nextByte));
+    }
+    return key.toString();
+  }
+
+  /**
+   * Read the parse results stored for a key.
+   * @param key The key of the configuration
+   * @return The stored parse results, or null if there are none or they could not be read.
+   */
+  public ConfigurationParseResults<DispatcherConfiguration> get(String key) {
+    File entry = getEntryFile(key);
+    if (!entry.isFile()) {
+      return null;
+    }
+
+    DispatcherConfiguration configuration;
+    ViolationContext violations;
+    try {
+      JsonNode root = MAPPER.readTree(entry);
+      if (root == null || !CACHE_FORMAT.equals(root.path(FORMAT_FIELD).asText(null))) {
+        logger.warn("Ignoring parse cache entry of another format.  File=\"{}\"", entry.getPath());
+        return null;
+      }
+
+      JsonNode configurationNode = root.path(CONFIGURATION_FIELD);
+      configuration = new DispatcherConfiguration(
+              MAPPER.convertValue(configurationNode.get("name"), STRING_VALUE_TYPE),
+              MAPPER.convertValue(configurationNode.get("ignoreEINTR"), BOOLEAN_VALUE_TYPE),
+              MAPPER.convertValue(configurationNode.get("farms"), FARMS_TYPE));
+      violations = new ViolationContext();
+      for (JsonNode violation : root.path(VIOLATIONS_FIELD)) {
+        violations.addViolation(violation.path("context").asText(null),
+                MAPPER.convertValue(violation.get("severity"), Severity.class),
+                MAPPER.convertValue(violation.get("source"), ConfigurationSource.class));
+      }
+    } catch (IOException | IllegalArgumentException ex) {
+      logger.warn("Ignoring unreadable parse cache entry.  File=\"{}\"", entry.getPath(), ex);
+      return null;
+    }
+
+    logger.info("Reusing cached Dispatcher configuration parse results.  Key={}", key);
+    return new ConfigurationParseResults<>(configuration, violations.getViolations());
+  }
+
+  /**
+   * Store parse results for a key.  Failures to write are logged, and otherwise ignored.
+   * @param key The key of the configuration
+   * @param results The results of parsing the configuration
+   */
+  public void put(String key, ConfigurationParseResults<DispatcherConfiguration> results) {
+    Path temporary = null;
+    try {
+      Files.createDirectories(this.directory.toPath());
+      temporary = Files.createTempFile(this.directory.toPath(), key, ".tmp");
+      try (JsonGenerator generator = MAPPER.getFactory().createGenerator(
+              new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+        generator.writeStartObject();
+        generator.writeStringField(FORMAT_FIELD, CACHE_FORMAT);
+        generator.writeFieldName(CONFIGURATION_FIELD);
+        MAPPER.writeValue(generator, results.getConfiguration());
+        generator.writeArrayFieldStart(VIOLATIONS_FIELD);
+        for (Violation violation : results.getViolations(ViolationVerbosity.FULL)) {
+          generator.writeStartObject();
+          generator.writeStringField("context", violation.getContext());
+          generator.writeFieldName("severity");
+          MAPPER.writeValue(generator, violation.getAnalyzerRule().getSeverity());
+          generator.writeFieldName("source");
+          MAPPER.writeValue(generator, violation.getConfigurationSource());
+          generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+      }
+
+      // Readers must never see a partially written entry.
+      Path entry = getEntryFile(key).toPath();
+      try {
+        Files.move(temporary, entry, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      } catch (AtomicMoveNotSupportedException amnsEx) {
+        Files.move(temporary, entry, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } catch (IOException | IllegalArgumentException ex) {
+      logger.warn("Unable to write parse cache entry.  Directory=\"{}\"", this.directory.getPath(), ex);
+      if (temporary != null) {
+        temporary.toFile().delete();
+      }
+    }
+  }
+
+  /**
+   * The mapper of the entries.  The model classes are mapped field by field, ignoring their Jackson annotations, which
+   * hide the sources of the values from the effective configuration output.  Entries are plain JSON: reading one can
+   * only create the model classes the fields declare.
+   */
+  private static ObjectMapper createMapper() {
+    ObjectMapper mapper = new ObjectMapper();
+    mapper.configure(MapperFeature.USE_ANNOTATIONS, false);
+    mapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE);
+    mapper.setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
+    mapper.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
+    mapper.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, true);
+    return mapper;
+  }
+
+  private File getEntryFile(String key) {
+    return new File(this.directory, key + ENTRY_SUFFIX);
+  }
+
+  private static void update(MessageDigest digest, String value) {
+    // Separate every value, and distinguish null from empty.
+    if (value == null) {
+      digest.update((byte) 0);
+    } else {
+      digest.update((byte) 1);
+      digest.update(value.getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) 0);
+    }
+  }
+
+  private static void collectEnvironmentVariables(String contents, Map<String, String> environment) {
+    int index = contents == null ? -1 : contents.indexOf("${");
+    while (index >= 0) {
+      int endIndex = contents.indexOf("}", index);
+      if (endIndex < 0) {
+        break;
+      }
+      String name = contents.substring(index + 2, endIndex);
+      environment.put(name, System.getenv(name));
+      index = contents.indexOf("${", endIndex);
+    }
+  }
+}
@@ -20,6 +20,7 @@ import com.adobe.aem.dot.common.ConfigurationLine;
 import com.adobe.aem.dot.common.analyzer.Severity;
 import com.adobe.aem.dot.common.parser.ConfigurationParseResults;
 import com.adobe.aem.dot.common.parser.ConfigurationViolations;
+import com.adobe.aem.dot.common.parser.ViolationContext;
 import com.adobe.aem.dot.common.util.FeedbackProcessor;
 import com.adobe.aem.dot.dispatcher.core.model.ConfigurationValue;
 import com.adobe.aem.dot.dispatcher.core.model.DispatcherConfiguration;
@@ -43,19 +44,46 @@ public class ConfigurationParser {
    */
   public ConfigurationParseResults<DispatcherConfiguration> parseConfiguration(
           List<ConfigurationLine> configurationLines) throws ConfigurationSyntaxException {
-    ConfigurationViolations.clearViolations();
+    return parseConfiguration(configurationLines, null);
+  }
+
+  /**
+   * Parse the provided configurationString into a DispatcherConfiguration object, reusing the farms of a previous
+   * parse which are unchanged.
+   * @param configurationLines - a list of <code>ConfigurationLine</code> objects.
+   * @param sectionCache - the farms of the previous parse, or null to parse every farm.
+   * @return A <code>DispatcherConfiguration</code> object, as parsed from the provided String
+   * @throws ConfigurationSyntaxException when issues parsing the configuration are encountered
+   */
+  public ConfigurationParseResults<DispatcherConfiguration> parseConfiguration(
+          List<ConfigurationLine> configurationLines, ConfigurationSectionCache sectionCache)
+          throws ConfigurationSyntaxException {
+    // Violations are collected in a context of this parse's own, current on this thread while the parse runs.
+    ViolationContext violations = ConfigurationViolations.startContext();
+    try {
+      return parseConfiguration(configurationLines, sectionCache, violations);
+    } finally {
+      ConfigurationViolations.endContext();
+    }
+  }
 
-    ConfigurationCleaner.updateEnvironmentVariables(configurationLines, true);
-    configurationLines = ConfigurationCleaner.cleanConfig(configurationLines);
-    logger.trace("Clean config: \n{}", ConfigurationCleaner.prettifyConfig(configurationLines));
+  private ConfigurationParseResults<DispatcherConfiguration> parseConfiguration(
+          List<ConfigurationLine> configurationLines, ConfigurationSectionCache sectionCache,
+          ViolationContext violations) throws ConfigurationSyntaxException {
+    if (sectionCache != null) {
+      sectionCache.startParse();
+    }
 
-    ConfigurationCleaner.validateConfigurationLines(configurationLines);
+    configurationLines = ConfigurationCleaner.cleanConfig(configurationLines, true);
+    if (logger.isTraceEnabled()) {
+      logger.trace("Clean config: \n{}", ConfigurationCleaner.prettifyConfig(configurationLines));
+    }
 
     ConfigurationValue<String> name = null;
     ConfigurationValue<Boolean> ignoreEINTR = new ConfigurationValue<>(false, DEFAULT_VALUE_FILE_NAME, 0);
     List<ConfigurationValue<Farm>> farms = null;
 
-    ConfigurationReader reader = new ConfigurationReader(configurationLines);
+    ConfigurationReader reader = new ConfigurationReader(configurationLines, violations, sectionCache);
 
     while (reader.hasNext()) {
       ConfigurationValue<String> currentToken = reader.next();
@@ -80,7 +108,11 @@ public class ConfigurationParser {
       }
     }
 
+    if (sectionCache != null) {
+      sectionCache.finishParse();
+    }
+
     DispatcherConfiguration config = new DispatcherConfiguration(name, ignoreEINTR, farms);
-    return new ConfigurationParseResults<>(config, ConfigurationViolations.getViolations());
+    return new ConfigurationParseResults<>(config, violations.getViolations());
   }
 }
@@ -18,6 +18,8 @@ package com.adobe.aem.dot.dispatcher.core.parser;
 
 import com.adobe.aem.dot.common.ConfigurationLine;
 import com.adobe.aem.dot.common.analyzer.Severity;
+import com.adobe.aem.dot.common.parser.ConfigurationViolations;
+import com.adobe.aem.dot.common.parser.ViolationContext;
 import com.adobe.aem.dot.common.util.FeedbackProcessor;
 import com.adobe.aem.dot.dispatcher.core.model.ConfigurationValue;
 import org.slf4j.Logger;
@@ -26,70 +28,112 @@ import org.slf4j.LoggerFactory;
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Reads values from a list of <code>ConfigurationLine</code>s.  The lines are split into tokens up front by the
+ * <code>ConfigurationLexer</code>, and the reader then moves through those tokens, so peeking at the next value is a
+ * constant time operation.
+ */
 public class ConfigurationReader {
   private final List<ConfigurationLine> configuration;
-  private ConfigurationIndex configurationIndex = new ConfigurationIndex(0, 0);
+  private final ConfigurationTokens tokens;
+  private final ViolationContext violations;
+  private final ConfigurationSectionCache sectionCache;
+  private int position = 0;
+  private int replacements = 0;
 
   private static final Logger logger = LoggerFactory.getLogger(ConfigurationReader.class);
 
   ConfigurationReader(List<ConfigurationLine> configuration) {
-    this.configuration = configuration;
+    this(configuration, ConfigurationViolations.getContext(), null);
   }
 
-  private int getLineIndex() {
-    return this.configurationIndex.getLineIndex();
+  ConfigurationReader(List<ConfigurationLine> configuration, ViolationContext violations,
+                      ConfigurationSectionCache sectionCache) {
+    this.configuration = configuration;
+    this.tokens = ConfigurationLexer.tokenize(configuration);
+    this.violations = violations;
+    this.sectionCache = sectionCache;
   }
 
-  private int getCharIndex() {
-    return this.configurationIndex.getCharIndex();
+  /**
+   * Parses a section of the configuration, such as a farm.
+   * @param <T> The type of the parsed section
+   */
+  @FunctionalInterface
+  public interface SectionParser<T> {
+    T parse(ConfigurationReader reader) throws ConfigurationSyntaxException;
   }
 
-  private String getCurrentFileName() {
-    return this.configuration.get(this.getLineIndex()).getFileName();
-  }
+  /**
+   * Parse the section starting at the next token.  When the reader has a <code>ConfigurationSectionCache</code>
+   * holding a section parsed from the same tokens, that section and its violations are reused, and the reader is
+   * moved past it without parsing it again.
+   * @param key Identifies the section within the configuration, i.e. the farm label
+   * @param parser Parses the section
+   * @param <T> The type of the parsed section
+   * @return The parsed section
+   * @throws ConfigurationSyntaxException when thrown by the parser
+   */
+  @SuppressWarnings("unchecked")
+  public <T> T parseSection(String key, SectionParser<T> parser) throws ConfigurationSyntaxException {
+    if (this.sectionCache == null || !this.hasNext()) {
+      return parser.parse(this);
+    }
 
-  private int getCurrentLineNumber() {
-    return this.configuration.get(this.getLineIndex()).getLineNumber();
-  }
+    ConfigurationSectionCache.Section section = this.sectionCache.find(key, this.tokens, this.configuration,
+            this.position);
+    if (section != null) {
+      logger.debug("Reusing unchanged section.  Section=\"{}\"", key);
+      this.violations.addViolations(section.getViolations());
+      this.position += section.getTokenCount();
+      return (T) section.getValue();
+    }
 
-  private String getCurrentIncludedFrom() {
-    return this.configuration.get(this.getLineIndex()).getIncludedFrom();
-  }
+    int start = this.position;
+    int startReplacements = this.replacements;
+    int startViolations = this.violations.size();
 
-  public ConfigurationValue<?> getCurrentConfigurationValue() {
-    return new ConfigurationValue<>(this.configuration.get(this.getLineIndex()).getContents(),
-            this.getCurrentFileName(), this.getCurrentLineNumber(), this.getCurrentIncludedFrom());
+    T value = parser.parse(this);
+
+    // Tokens split while parsing no longer match a fresh tokenization, so such sections are not remembered.
+    if (this.replacements == startReplacements && this.position > start) {
+      this.sectionCache.store(key, new ConfigurationSectionCache.Section(value,
+              new ArrayList<>(this.violations.getViolations().subList(startViolations, this.violations.size())),
+              this.tokens,
+              this.configuration, start, this.position));
+    }
+    return value;
   }
 
   /**
-   * Increment the configuration index to the next character, or to the next line.
-   * @return Whether the increment caused the reader to go to the next line.
+   * Get the line the reader is currently positioned on: the line of the next token, or the last line once all
+   * tokens have been read.
+   * @return the current <code>ConfigurationLine</code>, or null if the configuration has no lines
    */
-  private boolean incrementIndex() {
+  private ConfigurationLine getCurrentLine() {
     if (this.hasNext()) {
-      ConfigurationLine currentLine = this.configuration.get(getLineIndex());
-      String currentContents = currentLine.getContents();
-
-      if (getCharIndex() < currentContents.length() - 1) {
-        this.configurationIndex.incrementCharIndex();
-        return false;
-      } else {
-        this.configurationIndex.incrementLineIndex();
-        return true;
-      }
+      return this.tokens.getLine(this.position);
     }
-
-    return false;
+    if (this.configuration.isEmpty()) {
+      return null;
+    }
+    return this.configuration.get(this.configuration.size() - 1);
   }
 
-  public boolean hasNext() {
-    if (getLineIndex() == this.configuration.size() - 1) {
-      ConfigurationLine currentLine = this.configuration.get(getLineIndex());
-      String currentContents = currentLine.getContents();
-      return this.getCharIndex() != currentContents.length() - 1;
+  /**
+   * @return the value of the line the reader is currently positioned on, or null if the configuration has no lines
+   */
+  public ConfigurationValue<?> getCurrentConfigurationValue() {
+    ConfigurationLine currentLine = this.getCurrentLine();
+    if (currentLine == null) {
+      return null;
     }
+    return new ConfigurationValue<>(currentLine.getContents(), currentLine.getFileName(),
+            currentLine.getLineNumber(), currentLine.getIncludedFrom());
+  }
 
-    return true;
+  public boolean hasNext() {
+    return this.position < this.tokens.size();
   }
 
   /**
@@ -107,8 +151,9 @@ public class ConfigurationReader {
   public ConfigurationValue<Boolean> nextBoolean() {
     ConfigurationValue<String> nextToken = this.next();
     Boolean positive = nextToken.getValue().equals("1") || nextToken.getValue().equals("true");
-    return new ConfigurationValue<>(positive, this.getCurrentFileName(), getCurrentLineNumber(),
-            getCurrentIncludedFrom());
+    ConfigurationLine currentLine = this.getCurrentLine();
+    return new ConfigurationValue<>(positive, currentLine.getFileName(), currentLine.getLineNumber(),
+            currentLine.getIncludedFrom());
   }
 
   /**
@@ -127,7 +172,7 @@ public class ConfigurationReader {
               Severity.MAJOR);
     }
     return new ConfigurationValue<>(value, nextToken.getFileName(), nextToken.getLineNumber(),
-            getCurrentIncludedFrom());
+            this.getCurrentLine().getIncludedFrom());
   }
 
   /**
@@ -143,29 +188,56 @@ public class ConfigurationReader {
     return nameWithOptionalSlash;
   }
 
+  /**
+   * Returns the next token, as <code>nextName()</code> would, without advancing the reader.
+   * @return the next token, a String, with its "/" prefix removed, or null if there are no more tokens
+   */
+  public ConfigurationValue<String> peekName() {
+    int start = this.position;
+    ConfigurationValue<String> name = this.nextName();
+    this.position = start;
+    return name;
+  }
+
   /**
    * Finds and returns the next string.  A string means the text in the following quotes.  If no double
    * or single quotes are used, read until the end of the line, or until a comment character is encountered.
    * @return the next token, a String, with its "/" prefix removed
    */
   public ConfigurationValue<String> nextString() {
-    int currentLineNumber = this.getCurrentLineNumber();
     ConfigurationValue<String> nextString = this.next(true);
     // Handle normal quoted string.
     if (nextString.getValue().startsWith("\"") || nextString.getValue().startsWith("'")) {
       return getStringWithoutQuotes(nextString);
     }
 
-    // Check whether the last scan left the scanner on the same line.  If so, there is more to read.
-    char nextChar = this.getChar();
-    StringBuilder builder = new StringBuilder(nextString.getValue());
-    while (currentLineNumber == this.getCurrentLineNumber() && !Character.isWhitespace(nextChar)) {
-      builder.append(nextChar);
-      this.incrementIndex();
-      nextChar = this.getChar();
+    // An unquoted string runs until whitespace, even through characters which would otherwise begin a new token.
+    int stringIndex = this.position - 1;
+    if (this.hasNext() && this.tokens.isAdjacent(stringIndex, this.position)) {
+      int lineIndex = this.tokens.getLineIndex(stringIndex);
+      String contents = this.tokens.getLine(stringIndex).getContents();
+      int end = this.tokens.getEnd(stringIndex);
+      while (end < contents.length() && !Character.isWhitespace(contents.charAt(end))) {
+        end++;
+      }
+      nextString.setValue(contents.substring(this.tokens.getOffset(stringIndex), end));
+
+      // Skip the tokens which are now part of the string.  A token which runs passed the end of the string (such as a
+      // quote opened within it) has to be split, so the rest of the line is tokenized again.
+      int lineEnd = this.position;
+      while (lineEnd < this.tokens.size() && this.tokens.getLineIndex(lineEnd) == lineIndex) {
+        if (this.tokens.getEnd(lineEnd) <= end) {
+          this.position++;
+        }
+        lineEnd++;
+      }
+      if (this.position < lineEnd) {
+        this.tokens.replace(this.position, lineEnd,
+                ConfigurationLexer.tokenizeRemainder(this.configuration, lineIndex, end));
+        this.replacements++;
+      }
     }
 
-    nextString.setValue(builder.toString());
     return nextString;
   }
 
@@ -176,16 +248,20 @@ public class ConfigurationReader {
    * @return the next token, a <code>ConfigurationValue&lt;String&gt;</code>
    */
   public ConfigurationValue<String> next(boolean preserveQuotes) {
-    if (!this.advanceToNextToken()) {
+    if (!this.hasNext()) {
       // No additional tokens to parse
       return null;
     }
 
-    char beginChar = this.getChar();
-    boolean isQuotedToken = (beginChar == '"' || beginChar == '\'');
-
-    // Find the end of this token
-    ConfigurationValue<String> nextToken = this.extractNextToken(isQuotedToken, beginChar);
+    ConfigurationLine line = this.tokens.getSourceLine(this.position);
+    ConfigurationValue<String> nextToken = new ConfigurationValue<>(this.tokens.getText(this.position),
+            line.getFileName(), line.getLineNumber(), line.getIncludedFrom());
+    if (this.tokens.getType(this.position) == ConfigurationTokenType.UNTERMINATED_QUOTED) {
+      // The closing quote did not appear on this line.  Assume it should be at the end.
+      logger.error("Unterminated string encountered.  Token=\"{}\", File=\"{}\", Line={}",
+              nextToken.getValue(), nextToken.getFileName(), nextToken.getLineNumber());
+    }
+    this.position++;
 
     if (preserveQuotes) {
       return nextToken;
@@ -215,7 +291,7 @@ public class ConfigurationReader {
 
     boolean hasMoreListItems = true;
     while (this.hasNext() && hasMoreListItems) {
-      if (this.isNextChar('}', true)) {
+      if (this.isNextChar('}')) {
         braceCount--;
         // If next char is a closing brace, and we've hit the final one, then the string list is complete.  If there
         // was an opening brace, read past this one.  If not, leave the pointer.
@@ -227,7 +303,7 @@ public class ConfigurationReader {
         } else {
           this.next();  // Push reading pointer passed this brace (inside string list)
         }
-      } else if (this.isNextChar('/', true)) {
+      } else if (this.isNextChar('/')) {
         // A '/' character indicates the start of a new token, and the end of the string list.
         hasMoreListItems = false;
       } else {
@@ -251,180 +327,54 @@ public class ConfigurationReader {
    * next read value is not an opening brace ({), the call will have no affect.
    */
   public void advancePastThisElement() {
-    if (!isNextChar('{', false)) {
+    if (!isNextChar('{')) {
       return;
     }
 
-    int originalLineIndex = this.getLineIndex();
-    int originalCharIndex = this.getCharIndex();
-    ConfigurationValue<?> startToken;
+    int originalPosition = this.position;
 
     // Clear the "{"
-    startToken = this.next(false);
+    this.position++;
 
     long braceCount = 1;
     while (braceCount > 0) {
-      ConfigurationValue<?> nextToken = this.next(true);
-      // If next value is empty, it means the end of the configuration has been reached.
-      if (nextToken == null) {
-        // The braces were unmatched. Avoid missing the entirety of the configuration: reset the original pointers.
-        FeedbackProcessor.error(logger, "Unclosed brace encountered.", startToken, Severity.MAJOR);
-        this.configurationIndex = new ConfigurationIndex(originalCharIndex, originalLineIndex);
-        this.incrementIndex(); // Passed the "startToken" value = "{".
+      // If there are no tokens left, it means the end of the configuration has been reached.
+      if (!this.hasNext()) {
+        // The braces were unmatched. Avoid missing the entirety of the configuration: reset the original pointer,
+        // passed the "{".
+        this.position = originalPosition;
+        FeedbackProcessor.error(logger, "Unclosed brace encountered.", this.next(false), Severity.MAJOR);
         return;
       }
-      String nextValue = nextToken.getValue().toString();
-      if (nextValue.equals("{")) {
+      ConfigurationTokenType type = this.tokens.getType(this.position++);
+      if (type == ConfigurationTokenType.OPEN_BRACE) {
         braceCount++;
-      } else if (nextValue.equals("}")) {
+      } else if (type == ConfigurationTokenType.CLOSE_BRACE) {
         braceCount--;
       }
     }
   }
 
-  public boolean isNextChar(char charToCheck, boolean checkForString) {
-    String currentLine = this.configuration.get(this.getLineIndex()).getContents();
-    int charIndex = this.getCharIndex();
-    if (charIndex >= currentLine.length()) {
-      return false;
-    }
-    char nextChar = currentLine.charAt(charIndex);
-
-    while (Character.isWhitespace(nextChar)) {
-      charIndex++;
-      if (charIndex == currentLine.length()) {
-        return false;
-      }
-      nextChar = currentLine.charAt(charIndex);
-    }
-
-    if (nextChar != charToCheck) {
-      return false;
-    }
-
-    if (!checkForString) {
-      return true;
-    }
-
-    // Check if currently within quotes.
-    int quoteIndex = currentLine.indexOf("\"");
-    // If no quote, or first quote comes after the '#' char.
-    if (quoteIndex < 0 || quoteIndex > charIndex) {
-      return true;
-    }
-    boolean inQuote = true;
-    while (quoteIndex > 0 && quoteIndex < charIndex) {
-      try {
-        quoteIndex = currentLine.indexOf("\"", quoteIndex + 1);
-        if (quoteIndex >= 0 && quoteIndex < charIndex) {
-          inQuote = !inQuote;
-        }
-      } catch (StringIndexOutOfBoundsException oobEx) {
-        quoteIndex = -1;
-        // Line finished with a double-quote.  'inQuote' is not affected.
-      }
-    }
-
-    return !inQuote;
-  }
-
-  private boolean advanceToNextToken() {
-    // Read ahead to see if there are any non-whitespace chars remaining before the end of the string
-    while (this.hasNext()) {
-      if (!Character.isWhitespace(getChar())) {
-        // Found the start of a new token
-        return true;
-      }
-
-      this.incrementIndex();
-    }
-
-    // Reached the end of the config string, no next token found
-    return false;
-  }
-
-  private char getChar() {
-    if (this.isNextChar('#', true)) {
-      this.configurationIndex.setCharIndex(0);
-      this.configurationIndex.incrementLineIndex();
-      return this.getChar();
-    }
-    return this.configuration.get(this.getLineIndex()).getContents().charAt(this.getCharIndex());
-  }
-
   /**
-   * Get the next token.  A token cannot span lines including a quoted token.
-   * @param isQuoted Whether the token appears quoted.
-   * @param quoteChar The character used to quote (single or double quote)
-   * @return A <code>ConfigurationValue</code>, string with filename and line number.
+   * Check whether the next token begins with the provided character.  A quoted string is a token of its own, so a
+   * character within quotes is never matched.
+   * @param charToCheck The character to look for
+   * @return true if the next token begins with <code>charToCheck</code>
    */
-  private ConfigurationValue<String> extractNextToken(boolean isQuoted, char quoteChar) {
-    StringBuilder nextTokenBuilder = new StringBuilder();
-    char lastChar = Character.MIN_VALUE;
-    char nextChar = this.getChar();
-
-    // If we are starting a label or a quoted string, save the char and increment.
-    if (nextChar == '/' || (isQuoted && nextChar == quoteChar)) {
-      nextTokenBuilder.append(nextChar);
-      if (this.incrementIndex()) {
-        // The line ended with a starting token (slash or quote) - return a blank string.
-        return new ConfigurationValue<>(nextTokenBuilder.toString(), this.getCurrentFileName(),
-                this.getCurrentLineNumber(), this.getCurrentIncludedFrom());
-      }
-      nextChar = this.getChar();
-    }
-
-    while (this.hasNext() && this.getCharactersLeftInCurrentLine() != 0) {
-      if (isQuoted) {
-        if (nextChar == quoteChar && lastChar != '\\') {
-          // Done - found matching, non-escaped quote.
-          return getTokenAndIncrement(nextTokenBuilder.append(nextChar).toString());
-        }
-      } else if (nextTokenBuilder.toString().length() == 0 && (nextChar == '{' || nextChar == '}')) {
-        return getTokenAndIncrement(nextTokenBuilder.append(nextChar).toString());
-      } else if (Character.isWhitespace(nextChar)) {
-        // Whitespace found so the endIndex is the previous character.
-        return getTokenAndIncrement(nextTokenBuilder.toString());
-      } else if (this.isBeginningOfNextToken(nextChar)) {
-        return new ConfigurationValue<>(nextTokenBuilder.toString(), this.getCurrentFileName(), this.getCurrentLineNumber(),
-                this.getCurrentIncludedFrom());
-      }
-
-      nextTokenBuilder.append(nextChar);
-      lastChar = nextChar;
-
-      // The closing quote did not appear on this line.  Assume it should be at the end.
-      if (isQuoted && this.getCharactersLeftInCurrentLine() == 1) {
-        logger.error("Unterminated string encountered.  Token=\"{}\", File=\"{}\", Line={}",
-                nextTokenBuilder.toString(), this.getCurrentFileName(), this.getCurrentLineNumber());
-        nextTokenBuilder.append(nextChar);
-        this.incrementIndex();
-        return new ConfigurationValue<>(nextTokenBuilder.toString(), this.getCurrentFileName(), this.getCurrentLineNumber(),
-                this.getCurrentIncludedFrom());
-      }
-
-      boolean endOfLine = this.getCharactersLeftInCurrentLine() == 1;
-      this.incrementIndex();
-
-      // Token do not span lines.  Parsing is finished.
-      if (endOfLine) {
-        break;
-      }
-      nextChar = this.getChar();
-    }
-
-    return new ConfigurationValue<>(nextTokenBuilder.toString(), this.getCurrentFileName(), this.getCurrentLineNumber(),
-            this.getCurrentIncludedFrom());
-  }
-
-  private boolean isBeginningOfNextToken(char character) {
-    return ((character == '/' ||
-            character == '{' || character == '}' ||
-            character == '"' || character == '\''));
+  public boolean isNextChar(char charToCheck) {
+    return this.hasNext() && this.tokens.getFirstChar(this.position) == charToCheck;
   }
 
-  private int getCharactersLeftInCurrentLine() {
-    return this.configuration.get(this.getLineIndex()).getContents().length() - this.getCharIndex();
+  /**
+   * Check whether the next token begins with the provided character.
+   * @param charToCheck The character to look for
+   * @param checkForString Ignored: tokens never begin inside a quoted string
+   * @return true if the next token begins with <code>charToCheck</code>
+   * @deprecated Use {@link #isNextChar(char)}
+   */
+  @Deprecated
+  public boolean isNextChar(char charToCheck, boolean checkForString) {
+    return this.isNextChar(charToCheck);
   }
 
   private ConfigurationValue<String> getStringWithoutQuotes(ConfigurationValue<String> optionallyQuotedToken) {
@@ -440,17 +390,4 @@ public class ConfigurationReader {
     optionallyQuotedToken.setValue(value);
     return optionallyQuotedToken;
   }
-
-  /**
-   * Create a ConfigurationValue<String> with the current values.  Incrementing can change the line number and
-   * file name which will make them the wrong values.  Capture the correct value, then increment.
-   * @param value The value of the ConfigurationValue<String>
-   * @return ConfigurationValue<String>
-   */
-  private ConfigurationValue<String> getTokenAndIncrement(String value) {
-    ConfigurationValue<String> token = new ConfigurationValue<>(value, this.getCurrentFileName(),
-            this.getCurrentLineNumber(), this.getCurrentIncludedFrom());
-    this.incrementIndex();
-    return token;
-  }
-}
\ No newline at end of file
+}
@@ -0,0 +1,178 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.adobe.aem.dot.dispatcher.core.parser;
+
+import com.adobe.aem.dot.common.ConfigurationLine;
+import com.adobe.aem.dot.common.analyzer.Violation;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Remembers the sections (i.e. farms) parsed by a <code>ConfigurationReader</code>, so that a later parse of an
+ * edited configuration can reuse the sections whose tokens did not change.  A section is reused only when every token
+ * it read, the token following it, and the lines those tokens came from are identical to the previous parse.
+ * Sections which were not parsed or reused by the latest parse are forgotten.
+ */
+public class ConfigurationSectionCache {
+  private Map<String, Section> previous = new HashMap<>();
+  private Map<String, Section> current = new HashMap<>();
+
+  private int reused = 0;
+
+  /**
+   * Called by the parser before it starts reading a configuration.
+   */
+  void startParse() {
+    this.current.clear();
+  }
+
+  /**
+   * Called by the parser once a complete configuration has been read.
+   */
+  void finishParse() {
+    this.previous = this.current;
+    this.current = new HashMap<>();
+  }
+
+  /**
+   * @return The number of sections reused since this cache was created.
+   */
+  public int getReusedCount() {
+    return reused;
+  }
+
+  /**
+   * Find a section, previously parsed from identical tokens, starting at <code>start</code>.
+   * @return The section, or null if there is none.
+   */
+  Section find(String key, ConfigurationTokens tokens, List<ConfigurationLine> configuration, int start) {
+    Section section = this.previous.get(key);
+    if (section == null || !section.matches(tokens, configuration, start)) {
+      return null;
+    }
+
+    this.current.put(key, section);
+    this.reused++;
+    return section;
+  }
+
+  void store(String key, Section section) {
+    this.current.put(key, section);
+  }
+
+  /**
+   * A parsed section, and a snapshot of the tokens it was parsed from.
+   */
+  static final class Section {
+    private final Object value;
+    private final List<Violation> violations;
+    private final int tokenCount;
+    private final byte[] types;
+    private final int[] offsets;
+    private final int[] lengths;
+    private final int[] lineIndexes;
+    private final int[] sourceLineIndexes;
+    private final ConfigurationLine[] lines;
+    private final ConfigurationLine lastLine;
+
+    /**
+     * Capture the tokens from <code>start</code> up to <code>end</code> (exclusive), along with the token at
+     * <code>end</code>, which the parser may have peeked at.
+     */
+    Section(Object value, List<Violation> violations, ConfigurationTokens tokens,
+            List<ConfigurationLine> configuration, int start, int end) {
+      this.value = value;
+      this.violations = violations;
+      this.tokenCount = end - start;
+
+      int captured = Math.min(end + 1, tokens.size()) - start;
+      this.types = new byte[captured];
+      this.offsets = new int[captured];
+      this.lengths = new int[captured];
+      this.lineIndexes = new int[captured];
+      this.sourceLineIndexes = new int[captured];
+
+      int firstLine = tokens.getLineIndex(start);
+      int lastLineIndex = firstLine;
+      for (int index = 0; index < captured; index++) {
+        int token = start + index;
+        this.types[index] = (byte) tokens.getType(token).ordinal();
+        this.offsets[index] = tokens.getOffset(token);
+        this.lengths[index] = tokens.getLength(token);
+        this.lineIndexes[index] = tokens.getLineIndex(token) - firstLine;
+        this.sourceLineIndexes[index] = tokens.getSourceLineIndex(token) - firstLine;
+        lastLineIndex = Math.max(lastLineIndex, tokens.getSourceLineIndex(token));
+      }
+
+      this.lines = configuration.subList(firstLine, lastLineIndex + 1).toArray(new ConfigurationLine[0]);
+      this.lastLine = configuration.get(configuration.size() - 1);
+    }
+
+    Object getValue() {
+      return value;
+    }
+
+    List<Violation> getViolations() {
+      return violations;
+    }
+
+    int getTokenCount() {
+      return tokenCount;
+    }
+
+    private boolean matches(ConfigurationTokens tokens, List<ConfigurationLine> configuration, int start) {
+      int captured = this.types.length;
+      if (start + captured > tokens.size() || (captured == this.tokenCount && start + captured != tokens.size())) {
+        return false;
+      }
+      if (captured == this.tokenCount && !isSameLine(this.lastLine, configuration.get(configuration.size() - 1))) {
+        return false;
+      }
+
+      int firstLine = tokens.getLineIndex(start);
+      if (firstLine + this.lines.length > configuration.size()) {
+        return false;
+      }
+      for (int index = 0; index < this.lines.length; index++) {
+        if (!isSameLine(this.lines[index], configuration.get(firstLine + index))) {
+          return false;
+        }
+      }
+
+      for (int index = 0; index < captured; index++) {
+        int token = start + index;
+        if (this.types[index] != tokens.getType(token).ordinal() || this.offsets[index] != tokens.getOffset(token) ||
+                this.lengths[index] != tokens.getLength(token) ||
+                this.lineIndexes[index] != tokens.getLineIndex(token) - firstLine ||
+                this.sourceLineIndexes[index] != tokens.getSourceLineIndex(token) - firstLine) {
+          return false;
+        }
+      }
+
+      return true;
+    }
+
+    private static boolean isSameLine(ConfigurationLine first, ConfigurationLine second) {
+      return first.getLineNumber() == second.getLineNumber() &&
+              StringUtils.equals(first.getContents(), second.getContents()) &&
+              StringUtils.equals(first.getFileName(), second.getFileName()) &&
+              StringUtils.equals(first.getIncludedFrom(), second.getIncludedFrom());
+    }
+  }
+}
@@ -0,0 +1,43 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.adobe.aem.dot.dispatcher.core.parser;
+
+/**
+ * The kinds of token the <code>ConfigurationLexer</code> can find in a dispatcher configuration.
+ */
+enum ConfigurationTokenType {
+  LABEL(true),                  // A token beginning with "/", such as "/farms"
+  OPEN_BRACE(false),
+  CLOSE_BRACE(false),
+  QUOTED(false),                // A single or double quoted string, quotes included
+  UNTERMINATED_QUOTED(true),    // A quoted string with no closing quote before the end of its line
+  VALUE(true);                  // Any other unquoted value
+
+  private final boolean openEnded;
+
+  ConfigurationTokenType(boolean openEnded) {
+    this.openEnded = openEnded;
+  }
+
+  /**
+   * Open ended tokens have no closing character, and so only end at whitespace, another token or the end of the line.
+   * @return true if this type of token is open ended
+   */
+  boolean isOpenEnded() {
+    return this.openEnded;
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.adobe.aem.dot.dispatcher.core.parser;
+
+import com.adobe.aem.dot.common.ConfigurationLine;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A compact list of the tokens found in a list of <code>ConfigurationLine</code>s.  Each token is stored as its type,
+ * the index of the line it was found on, its offset and length within that line's contents, and the index of the line
+ * it is reported against.  Token text is only extracted from the line when it is asked for.
+ */
+final class ConfigurationTokens {
+  private static final int INITIAL_CAPACITY = 64;
+  private static final ConfigurationTokenType[] TYPES = ConfigurationTokenType.values();
+
+  private final List<ConfigurationLine> lines;
+  private byte[] types;
+  private int[] lineIndexes;
+  private int[] sourceLineIndexes;
+  private int[] offsets;
+  private int[] lengths;
+  private int size = 0;
+
+  ConfigurationTokens(List<ConfigurationLine> lines) {
+    this(lines, Math.max(INITIAL_CAPACITY, lines.size() * 2));
+  }
+
+  ConfigurationTokens(List<ConfigurationLine> lines, int capacity) {
+    this.lines = lines;
+    this.types = new byte[capacity];
+    this.lineIndexes = new int[capacity];
+    this.sourceLineIndexes = new int[capacity];
+    this.offsets = new int[capacity];
+    this.lengths = new int[capacity];
+  }
+
+  void add(ConfigurationTokenType type, int lineIndex, int sourceLineIndex, int offset, int length) {
+    this.ensureCapacity(this.size + 1);
+    this.types[this.size] = (byte) type.ordinal();
+    this.lineIndexes[this.size] = lineIndex;
+    this.sourceLineIndexes[this.size] = sourceLineIndex;
+    this.offsets[this.size] = offset;
+    this.lengths[this.size] = length;
+    this.size++;
+  }
+
+  private void ensureCapacity(int required) {
+    if (required > this.types.length) {
+      int capacity = Math.max(required, this.types.length * 2);
+      this.types = Arrays.copyOf(this.types, capacity);
+      this.lineIndexes = Arrays.copyOf(this.lineIndexes, capacity);
+      this.sourceLineIndexes = Arrays.copyOf(this.sourceLineIndexes, capacity);
+      this.offsets = Arrays.copyOf(this.offsets, capacity);
+      this.lengths = Arrays.copyOf(this.lengths, capacity);
+    }
+  }
+
+  List<ConfigurationLine> getLines() {
+    return this.lines;
+  }
+
+  int size() {
+    return this.size;
+  }
+
+  ConfigurationTokenType getType(int index) {
+    return TYPES[this.types[index]];
+  }
+
+  int getLineIndex(int index) {
+    return this.lineIndexes[index];
+  }
+
+  int getSourceLineIndex(int index) {
+    return this.sourceLineIndexes[index];
+  }
+
+  ConfigurationLine getLine(int index) {
+    return this.lines.get(this.lineIndexes[index]);
+  }
+
+  /**
+   * Get the line which the token's <code>ConfigurationValue</code> should point to.
+   * @param index The index of the token
+   * @return the source <code>ConfigurationLine</code>
+   */
+  ConfigurationLine getSourceLine(int index) {
+    return this.lines.get(this.sourceLineIndexes[index]);
+  }
+
+  char getFirstChar(int index) {
+    return this.getLine(index).getContents().charAt(this.offsets[index]);
+  }
+
+  int getOffset(int index) {
+    return this.offsets[index];
+  }
+
+  int getEnd(int index) {
+    return this.offsets[index] + this.lengths[index];
+  }
+
+  int getLength(int index) {
+    return this.lengths[index];
+  }
+
+  String getText(int index) {
+    int offset = this.offsets[index];
+    return this.getLine(index).getContents().substring(offset, offset + this.lengths[index]);
+  }
+
+  /**
+   * Determine whether the token at <code>next</code> directly follows the token at <code>previous</code>, on the same
+   * line and with no whitespace between them.
+   * @param previous The index of the earlier token
+   * @param next The index of the later token
+   * @return true if the two tokens are written as one contiguous run of characters
+   */
+  boolean isAdjacent(int previous, int next) {
+    return this.lineIndexes[previous] == this.lineIndexes[next] &&
+            this.offsets[previous] + this.lengths[previous] == this.offsets[next];
+  }
+
+  /**
+   * Replace the tokens from <code>from</code> (inclusive) to <code>to</code> (exclusive) with the provided tokens.
+   * @param from The index of the first token to replace
+   * @param to The index after the last token to replace
+   * @param replacement The tokens to put in their place
+   */
+  void replace(int from, int to, ConfigurationTokens replacement) {
+    int shift = replacement.size - (to - from);
+    int newSize = this.size + shift;
+    this.ensureCapacity(newSize);
+
+    int tail = this.size - to;
+    System.arraycopy(this.types, to, this.types, to + shift, tail);
+    System.arraycopy(this.lineIndexes, to, this.lineIndexes, to + shift, tail);
+    System.arraycopy(this.sourceLineIndexes, to, this.sourceLineIndexes, to + shift, tail);
+    System.arraycopy(this.offsets, to, this.offsets, to + shift, tail);
+    System.arraycopy(this.lengths, to, this.lengths, to + shift, tail);
+
+    System.arraycopy(replacement.types, 0, this.types, from, replacement.size);
+    System.arraycopy(replacement.lineIndexes, 0, this.lineIndexes, from, replacement.size);
+    System.arraycopy(replacement.sourceLineIndexes, 0, this.sourceLineIndexes, from, replacement.size);
+    System.arraycopy(replacement.offsets, 0, this.offsets, from, replacement.size);
+    System.arraycopy(replacement.lengths, 0, this.lengths, from, replacement.size);
+    this.size = newSize;
+  }
+}
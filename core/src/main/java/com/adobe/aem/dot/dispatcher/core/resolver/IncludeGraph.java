@@ -0,0 +1,147 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.adobe.aem.dot.dispatcher.core.resolver;
+
+import com.adobe.aem.dot.common.ConfigurationFileLoader;
+import com.adobe.aem.dot.dispatcher.core.parser.ConfigurationSyntaxException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * The files reachable from a dispatcher.any file through $include lines.  The graph is discovered breadth first: the
+ * $include lines of each file are resolved on the calling thread, and every newly discovered file is handed to the
+ * executor to be read, decoded and split into lines.  <code>IncludeResolver</code> then stitches the lines together
+ * in their original order, using the includes resolved here.  Files already held by the resolver's file cache are
+ * not read again.
+ */
+class IncludeGraph {
+  private final Map<String, Future<List<String>>> contents = new HashMap<>();
+  private final Map<String, Map<Integer, IncludeResolver.ResolvedInclude>> includes = new HashMap<>();
+
+  private IncludeGraph() {}
+
+  /**
+   * Discover the include graph starting at the dispatcher.any file.
+   * @param resolver The resolver used to resolve each $include line
+   * @param lines The lines of the dispatcher.any file
+   * @param file The path of the dispatcher.any file
+   * @param executor The executor which reads the included files
+   * @return The discovered graph.  Files which could not be read are left for <code>getLines</code> to report.
+   */
+  static IncludeGraph discover(IncludeResolver resolver, List<String> lines, String file, ExecutorService executor) {
+    IncludeGraph graph = new IncludeGraph();
+    graph.contents.put(file, CompletableFuture.completedFuture(lines));
+
+    Deque<String> pending = new ArrayDeque<>();
+    pending.add(file);
+    while (!pending.isEmpty()) {
+      String nextFile = pending.poll();
+      List<String> nextLines;
+      try {
+        nextLines = graph.getLines(nextFile);
+      } catch (IOException ioEx) {
+        // Reported when the file is stitched into the configuration.
+        continue;
+      }
+
+      Map<Integer, IncludeResolver.ResolvedInclude> fileIncludes = new HashMap<>();
+      int lineCount = 0;
+      for (String line : nextLines) {
+        lineCount++;
+        if (IncludeResolver.isWindowsSymlink(line, lineCount)) {
+          line = IncludeResolver.toSymlinkInclude(line);
+        }
+        if (!IncludeResolver.isIncludeLine(line)) {
+          continue;
+        }
+
+        IncludeResolver.ResolvedInclude include = resolver.resolveInclude(line, nextFile);
+        fileIncludes.put(lineCount, include);
+        try {
+          for (File includedFile : include.getFiles()) {
+            String path = includedFile.getPath();
+            if (includedFile.canRead() && !includedFile.isDirectory() && !graph.contents.containsKey(path)) {
+              List<String> cachedLines = resolver.getCachedLines(includedFile);
+              graph.contents.put(path, cachedLines != null ? CompletableFuture.completedFuture(cachedLines)
+                      : executor.submit(() -> ConfigurationFileLoader.readLines(includedFile)));
+              pending.add(path);
+            }
+          }
+        } catch (ConfigurationSyntaxException ignore) {
+          // Thrown again when the include is stitched into the configuration.
+        }
+      }
+      graph.includes.put(nextFile, fileIncludes);
+    }
+
+    return graph;
+  }
+
+  /**
+   * Get the resolved $include on a line of a file.
+   * @param file The path of the file containing the $include
+   * @param lineNumber The line number of the $include
+   * @return The resolved include, or null if it was not discovered.
+   */
+  IncludeResolver.ResolvedInclude getInclude(String file, int lineNumber) {
+    Map<Integer, IncludeResolver.ResolvedInclude> fileIncludes = includes.get(file);
+    return fileIncludes == null ? null : fileIncludes.get(lineNumber);
+  }
+
+  /**
+   * Get the lines of a file, waiting for it to be read if necessary.
+   * @param file The file to get the lines of
+   * @return The lines of the file
+   * @throws IOException when the file could not be read
+   */
+  List<String> getLines(File file) throws IOException {
+    return getLines(file.getPath());
+  }
+
+  private List<String> getLines(String path) throws IOException {
+    Future<List<String>> lines = contents.get(path);
+    if (lines == null) {
+      return ConfigurationFileLoader.readLines(new File(path));
+    }
+
+    try {
+      return lines.get();
+    } catch (InterruptedException iEx) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while reading " + path);
+    } catch (ExecutionException eEx) {
+      Throwable cause = eEx.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new IOException("Unable to read " + path, cause);
+    }
+  }
+}
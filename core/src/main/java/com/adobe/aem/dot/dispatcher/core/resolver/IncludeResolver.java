@@ -16,52 +16,121 @@
 
 package com.adobe.aem.dot.dispatcher.core.resolver;
 
+import com.adobe.aem.dot.common.ConfigurationFileCache;
+import com.adobe.aem.dot.common.ConfigurationFileLoader;
 import com.adobe.aem.dot.common.ConfigurationLine;
 import com.adobe.aem.dot.common.FileResolver;
+import com.adobe.aem.dot.common.FileResolverCache;
+import com.adobe.aem.dot.common.RepositoryFileTree;
+import com.adobe.aem.dot.common.parser.ParseStatistics;
 import com.adobe.aem.dot.common.util.PathUtil;
 import com.adobe.aem.dot.common.util.PropertiesUtil;
 import com.adobe.aem.dot.dispatcher.core.DispatcherConstants;
 import com.adobe.aem.dot.dispatcher.core.parser.ConfigurationSyntaxException;
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.SystemUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public class IncludeResolver {
   private static final Logger logger = LoggerFactory.getLogger(IncludeResolver.class);
 
-  private final String unresolvedConfig;
+  private final List<String> unresolvedConfig;
   private final String basePath;
   private final String repoPath;
+  private final int parallelism;
+  private final ConfigurationFileCache fileCache;
+  private final FileResolverCache pathCache = new FileResolverCache();
   private final List<ConfigurationLine> config = new ArrayList<>();
 
   private long includeDepthCount = 0;
+  private final ParseStatistics statistics = new ParseStatistics();
+  private IncludeGraph includeGraph = null;
+  private RepositoryFileTree fileTree = null;
 
   public IncludeResolver(String unresolvedConfig, String basePath, String repoPath) {
+    this(ConfigurationFileLoader.splitLines(unresolvedConfig), basePath, repoPath);
+  }
+
+  public IncludeResolver(List<String> unresolvedConfig, String basePath, String repoPath) {
+    this(unresolvedConfig, basePath, repoPath, (ConfigurationFileCache) null);
+  }
+
+  public IncludeResolver(List<String> unresolvedConfig, String basePath, String repoPath,
+                         ConfigurationFileCache fileCache) {
+    this(unresolvedConfig, basePath, repoPath,
+            (int) PropertiesUtil.getLongProperty(PropertiesUtil.INCLUDE_PARALLELISM_PROP, 1), fileCache);
+  }
+
+  /**
+   * Instantiate a new IncludeResolver.
+   * @param unresolvedConfig The lines of the dispatcher.any file
+   * @param basePath The folder containing the dispatcher.any file
+   * @param repoPath The root folder of the repository, removed from the file names of the resolved lines
+   * @param parallelism The number of threads used to read $included files.  With 1 or less, each file is read when it
+   *                    is encountered.  Otherwise, all included files are discovered first and read concurrently.
+   */
+  public IncludeResolver(List<String> unresolvedConfig, String basePath, String repoPath, int parallelism) {
+    this(unresolvedConfig, basePath, repoPath, parallelism, null);
+  }
+
+  /**
+   * Instantiate a new IncludeResolver which reads $included files through a cache.
+   * @param unresolvedConfig The lines of the dispatcher.any file
+   * @param basePath The folder containing the dispatcher.any file
+   * @param repoPath The root folder of the repository, removed from the file names of the resolved lines
+   * @param parallelism The number of threads used to read $included files
+   * @param fileCache Holds the lines of files read previously, or null to read every file
+   */
+  public IncludeResolver(List<String> unresolvedConfig, String basePath, String repoPath, int parallelism,
+                         ConfigurationFileCache fileCache) {
     this.unresolvedConfig = unresolvedConfig;
     this.basePath = basePath;
     this.repoPath = repoPath;
+    this.parallelism = parallelism;
+    this.fileCache = fileCache;
   }
 
   public List<ConfigurationLine> resolve() throws ConfigurationSyntaxException, IOException {
-    String[] configContent = this.unresolvedConfig.split("\\r?\\n|\\r");
-    processLines(configContent);
+    String dispatcherAny = PathUtil.appendPaths(this.basePath, DispatcherConstants.DISPATCHER_ANY);
+    fileTree = fileCache != null ? fileCache.getFileTree(this.repoPath)
+            : RepositoryFileTree.fromProperties(this.repoPath);
+    if (this.parallelism <= 1) {
+      processLines(this.unresolvedConfig, dispatcherAny, null);
+    } else {
+      ForkJoinPool pool = new ForkJoinPool(this.parallelism);
+      try {
+        includeGraph = IncludeGraph.discover(this, this.unresolvedConfig, dispatcherAny, pool);
+        processLines(this.unresolvedConfig, dispatcherAny, null);
+      } finally {
+        includeGraph = null;
+        pool.shutdownNow();
+      }
+    }
 
+    logger.debug("Resolved include paths. Cache={}", pathCache);
     return config;
   }
 
-  private void processLines(String[] lines) throws ConfigurationSyntaxException, IOException {
-    processLines(lines, PathUtil.appendPaths(this.basePath, DispatcherConstants.DISPATCHER_ANY), null);
+  public FileResolverCache getPathCache() {
+    return pathCache;
+  }
+
+  /**
+   * @return The number of files and lines read by <code>resolve()</code>, and how deeply they were included.
+   */
+  public ParseStatistics getStatistics() {
+    return statistics;
   }
 
   /**
@@ -73,38 +142,39 @@ public class IncludeResolver {
    * @throws ConfigurationSyntaxException Can throw this when a file is not readable.
    * @throws IOException Can throw this.
    */
-  private long processLines(String[] lines, String includeFile, String includedFrom) throws
+  private long processLines(List<String> lines, String includeFile, String includedFrom) throws
           ConfigurationSyntaxException, IOException {
 
     // Check if processing is increasing passed logical maximum values.
     checkForRunAwayProcessing(++includeDepthCount, config.size());
+    statistics.addFile(lines.size(), includeDepthCount);
 
-    int totalLines = lines.length;
+    int totalLines = lines.size();
     int lineCount = 0;
     for (String line : lines) {
       lineCount++;
 
       // Handle 'incorrect' symlinks on Windows - the file simply contains the relative path that it should link to.
-      if (lineCount == 1 && SystemUtils.IS_OS_WINDOWS && line.trim().startsWith("../")) {
+      if (isWindowsSymlink(line, lineCount)) {
         logger.warn("Configuration line starts with \"../\". Assuming to be a Windows symlink indicator. File=\"{}\" Line={} Included from=\"{}\"",
                 includeFile, lineCount, includedFrom == null ? "" : includedFrom);
-        line = "$include \"" + line.trim() + "\"";
+        line = toSymlinkInclude(line);
       }
 
       // if the line contains include then we need to resolve it
-      if (!line.trim().startsWith("#") && StringUtils.contains(line, "$include")) {
+      if (isIncludeLine(line)) {
         storeSurroundingIncludeText(line, true, includeFile, lineCount, includedFrom);
 
-        String includeFolder = PathUtil.stripLastPathElement(includeFile);
-        String fileToInclude = getFilePathFromInclude(line, includeFile);
-        FileResolver fileResolver = new FileResolver(this.basePath, false);
-        List<File> filesToInclude = fileResolver.resolveFiles(fileToInclude, includeFolder);
+        ResolvedInclude include = includeGraph != null ? includeGraph.getInclude(includeFile, lineCount) : null;
+        if (include == null) {
+          include = resolveInclude(line, includeFile);
+        }
 
-        for (File file : filesToInclude) {
+        for (File file : include.getFiles()) {
           if (!file.canRead()) {
             throw new ConfigurationSyntaxException(MessageFormat.format(
                     "Unable to read {0}.  Make sure the file has read permissions enabled.",
-                    fileToInclude), file.getPath(), -1);
+                    include.getPath()), file.getPath(), -1);
           }
           if (file.isDirectory()) {
             logger.error("Skipping $include value because it is a directory. Directory=\"{}\".  Original line=\"{}\".",
@@ -112,8 +182,7 @@ public class IncludeResolver {
             continue;
           }
 
-          String includedFileContent = IOUtils.toString(new FileReader(file));
-          totalLines += processLines(includedFileContent.split("\\r?\\n|\\r"), file.getPath(),
+          totalLines += processLines(readIncludedFile(file), file.getPath(),
                   includeFile.substring(this.basePath.length() + 1));
         }
 
@@ -130,6 +199,58 @@ public class IncludeResolver {
     return totalLines;
   }
 
+  private List<String> readIncludedFile(File file) throws IOException {
+    if (includeGraph != null) {
+      List<String> lines = includeGraph.getLines(file);
+      if (fileCache != null) {
+        fileCache.put(file, lines);
+      }
+      return lines;
+    }
+
+    return fileCache != null ? fileCache.readLines(file) : ConfigurationFileLoader.readLines(file);
+  }
+
+  /**
+   * Get the lines of a file which were read by a previous resolve.
+   * @param file The file
+   * @return The lines of the file, or null if they are not known.
+   */
+  List<String> getCachedLines(File file) {
+    return fileCache != null ? fileCache.get(file) : null;
+  }
+
+  static boolean isWindowsSymlink(String line, int lineCount) {
+    return lineCount == 1 && SystemUtils.IS_OS_WINDOWS && line.trim().startsWith("../");
+  }
+
+  static String toSymlinkInclude(String line) {
+    return "$include \"" + line.trim() + "\"";
+  }
+
+  static boolean isIncludeLine(String line) {
+    return !line.trim().startsWith("#") && StringUtils.contains(line, "$include");
+  }
+
+  /**
+   * Determine the files included by an $include line.  A syntax error in the line is kept in the result, and is
+   * thrown when the included files are requested.
+   * @param line The line containing the $include
+   * @param includeFile The file containing the $include line
+   * @return The path of the $include, and the files it resolves to.
+   */
+  ResolvedInclude resolveInclude(String line, String includeFile) {
+    try {
+      String includeFolder = PathUtil.stripLastPathElement(includeFile);
+      String fileToInclude = getFilePathFromInclude(line, includeFile);
+      FileResolver fileResolver = new FileResolver(this.basePath, false, this.pathCache, this.fileTree,
+              fileCache != null ? fileCache.getConfinedRoot() : null);
+      return new ResolvedInclude(fileToInclude, fileResolver.resolveFiles(fileToInclude, includeFolder), null);
+    } catch (ConfigurationSyntaxException csEx) {
+      return new ResolvedInclude(null, Collections.emptyList(), csEx);
+    }
+  }
+
   /**
    * getFileNameFromInclude will return the file path that's specified in the $include line.
    *
@@ -249,4 +370,30 @@ public class IncludeResolver {
       throw new ConfigurationSyntaxException(message, null, -1);
     }
   }
+
+  /**
+   * The outcome of resolving a single $include line.
+   */
+  static final class ResolvedInclude {
+    private final String path;
+    private final List<File> files;
+    private final ConfigurationSyntaxException error;
+
+    ResolvedInclude(String path, List<File> files, ConfigurationSyntaxException error) {
+      this.path = path;
+      this.files = files;
+      this.error = error;
+    }
+
+    String getPath() {
+      return path;
+    }
+
+    List<File> getFiles() throws ConfigurationSyntaxException {
+      if (error != null) {
+        throw error;
+      }
+      return files;
+    }
+  }
 }
@@ -17,8 +17,11 @@
 package com.adobe.aem.dot.httpd.core;
 
 import com.adobe.aem.dot.common.ConfigurationException;
+import com.adobe.aem.dot.common.ConfigurationFileCache;
 import com.adobe.aem.dot.common.ConfigurationFileFinder;
+import com.adobe.aem.dot.common.analyzer.CostRecorder;
 import com.adobe.aem.dot.common.parser.ConfigurationParseResults;
+import com.adobe.aem.dot.common.parser.ParseStatistics;
 import com.adobe.aem.dot.httpd.core.model.HttpdConfiguration;
 import com.adobe.aem.dot.httpd.core.parser.HttpdConfigurationParser;
 import org.apache.commons.io.FileUtils;
@@ -33,6 +36,26 @@ import java.text.MessageFormat;
 public class HttpdConfigurationFactory {
   private final Logger logger = LoggerFactory.getLogger(HttpdConfigurationFactory.class);
 
+  private CostRecorder costRecorder = CostRecorder.DISABLED;
+
+  private ParseStatistics parseStatistics;
+
+  /**
+   * Record the wall time, invocations and allocated bytes of the parse phases of the following parses.
+   * @param costRecorder The recorder of the costs, or null to stop recording them.
+   */
+  public void setCostRecorder(CostRecorder costRecorder) {
+    this.costRecorder = costRecorder != null ? costRecorder : CostRecorder.DISABLED;
+  }
+
+  /**
+   * @return The number of files and lines read by the last parse of this factory, and how deeply they were included,
+   * or null if no configuration file was read.
+   */
+  public ParseStatistics getParseStatistics() {
+    return parseStatistics;
+  }
+
   /**
    * The getHttpdConfiguration function builds a HttpdConfiguration object by parsing the project's httpd.conf.
    * The httpd.conf file is the entry point into the configuration.  The httpd.conf file's
@@ -47,6 +70,25 @@ public class HttpdConfigurationFactory {
   public ConfigurationParseResults<HttpdConfiguration> getHttpdConfiguration(String repoPath,
                                                                              String httpdConfDirectoryPath)
           throws ConfigurationException, IllegalArgumentException {
+    return getHttpdConfiguration(repoPath, httpdConfDirectoryPath, null);
+  }
+
+  /**
+   * Parse the httpd.conf file, reading the configuration files through a cache, which may be shared with other parses
+   * of the same analysis.
+   *
+   * @param repoPath - the "mount" point for the project source.
+   * @param httpdConfDirectoryPath - the path to the folder that contains the httpd.conf file
+   * @param fileCache - the lines of files read previously, and the index of the repository, or null to read every
+   *                  file.
+   * @return <code>ConfigurationParseResults</code> the instantiated httpd configuration and violation list.
+   * @throws ConfigurationException Can be thrown if an error is encountered
+   */
+  public ConfigurationParseResults<HttpdConfiguration> getHttpdConfiguration(String repoPath,
+                                                                             String httpdConfDirectoryPath,
+                                                                             ConfigurationFileCache fileCache)
+          throws ConfigurationException, IllegalArgumentException {
+    parseStatistics = null;
     if (StringUtils.isEmpty(repoPath)) {
       throw new IllegalArgumentException("The repo folder is not set.");
     }
@@ -80,8 +122,12 @@ public class HttpdConfigurationFactory {
 
     try {
       // Parse the provided configuration file into a HttpdConfiguration object
-      HttpdConfigurationParser parser = new HttpdConfigurationParser(repoPath);
-      return parser.parseConfiguration(httpdConfFile);
+      CostRecorder.Sample sample = costRecorder.start();
+      HttpdConfigurationParser parser = new HttpdConfigurationParser(repoPath, fileCache);
+      parseStatistics = parser.getStatistics();
+      ConfigurationParseResults<HttpdConfiguration> results = parser.parseConfiguration(httpdConfFile);
+      costRecorder.recordPhase("Apache Httpd parsing", sample);
+      return results;
     }
     catch (IOException e) {
       throw new ConfigurationException("Unable to process the Apache Httpd configuration file: " + httpdConfDirectoryPath, e);
@@ -0,0 +1,83 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.adobe.aem.dot.httpd.core;
+
+import com.adobe.aem.dot.common.ConfigurationException;
+import com.adobe.aem.dot.common.ConfigurationFileCache;
+import com.adobe.aem.dot.common.parser.ConfigurationParseResults;
+import com.adobe.aem.dot.httpd.core.model.HttpdConfiguration;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * A long-lived parse of one Apache Httpd configuration, for callers which parse it again every time its files change
+ * (i.e. a watch loop).  The session keeps the lines of every file the configuration includes.  When told which files
+ * changed, only those files are read again before the configuration is rebuilt.
+ */
+public class HttpdConfigurationSession {
+  private final HttpdConfigurationFactory factory = new HttpdConfigurationFactory();
+  private final String repoPath;
+  private final String httpdConfDirectoryPath;
+  private final ConfigurationFileCache fileCache = new ConfigurationFileCache();
+
+  private ConfigurationParseResults<HttpdConfiguration> results = null;
+
+  /**
+   * Create a session for the configuration found at the provided location.
+   * @param repoPath - the "mount" point for the project source.
+   * @param httpdConfDirectoryPath - the path to the folder that contains the httpd.conf file
+   */
+  public HttpdConfigurationSession(String repoPath, String httpdConfDirectoryPath) {
+    this.repoPath = repoPath;
+    this.httpdConfDirectoryPath = httpdConfDirectoryPath;
+  }
+
+  /**
+   * Get the results of the latest parse, parsing the configuration if it has not been parsed yet.
+   * @return <code>ConfigurationParseResults</code> the instantiated httpd configuration and violation list, or null
+   * if no httpd.conf file was found.
+   * @throws ConfigurationException Can be thrown if an error is encountered
+   */
+  public ConfigurationParseResults<HttpdConfiguration> getResults() throws ConfigurationException {
+    if (this.results == null) {
+      this.results = this.factory.getHttpdConfiguration(this.repoPath, this.httpdConfDirectoryPath, this.fileCache);
+    }
+    return this.results;
+  }
+
+  /**
+   * Parse the configuration again after some of its files changed.
+   * @param changedFiles The files which were changed, added or deleted since the previous parse.
+   * @return <code>ConfigurationParseResults</code> the instantiated httpd configuration and violation list, or null
+   * if no httpd.conf file was found.
+   * @throws ConfigurationException Can be thrown if an error is encountered
+   */
+  public ConfigurationParseResults<HttpdConfiguration> update(Collection<File> changedFiles)
+          throws ConfigurationException {
+    this.fileCache.invalidate(changedFiles);
+    this.results = null;
+    return getResults();
+  }
+
+  /**
+   * @return The normalized absolute paths of the files read for the configuration.
+   */
+  public Set<String> getFiles() {
+    return this.fileCache.getFiles();
+  }
+}
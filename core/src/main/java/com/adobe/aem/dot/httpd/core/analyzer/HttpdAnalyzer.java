@@ -19,6 +19,7 @@ package com.adobe.aem.dot.httpd.core.analyzer;
 import com.adobe.aem.dot.common.Configuration;
 import com.adobe.aem.dot.common.analyzer.Analyzer;
 import com.adobe.aem.dot.common.analyzer.AnalyzerRule;
+import com.adobe.aem.dot.common.analyzer.CostRecorder;
 import com.adobe.aem.dot.common.analyzer.Violation;
 import com.adobe.aem.dot.common.analyzer.ViolationVerbosity;
 import com.adobe.aem.dot.common.analyzer.rules.AnalyzerRuleList;
@@ -71,7 +72,8 @@ public class HttpdAnalyzer extends Analyzer {
     }
 
     logger.trace("Begin: Analyzing Apache Httpd configuration");
-    HttpdRuleProcessor ruleProcessor = new HttpdRuleProcessor();
+    CostRecorder.Sample sample = getCostRecorder().start();
+    HttpdRuleProcessor ruleProcessor = new HttpdRuleProcessor(getCostRecorder());
 
     List<Violation> violations = new ArrayList<>();
 
@@ -81,6 +83,7 @@ public class HttpdAnalyzer extends Analyzer {
       violations.addAll(ruleViolations);
     }
 
+    getCostRecorder().recordPhase("Apache Httpd analysis", sample);
     logger.info("End: Finished analyzing Apache Httpd configuration. Full Violation Count={}.", violations.size());
 
     return violations;
@@ -19,6 +19,7 @@ package com.adobe.aem.dot.httpd.core.analyzer;
 import com.adobe.aem.dot.common.analyzer.AnalyzerRule;
 import com.adobe.aem.dot.common.analyzer.Check;
 import com.adobe.aem.dot.common.analyzer.CheckResult;
+import com.adobe.aem.dot.common.analyzer.CostRecorder;
 import com.adobe.aem.dot.common.analyzer.Violation;
 import com.adobe.aem.dot.httpd.core.model.HttpdConfiguration;
 import com.adobe.aem.dot.httpd.core.model.Section;
@@ -34,7 +35,22 @@ import java.util.List;
 public class HttpdRuleProcessor {
   private static final Logger logger = LoggerFactory.getLogger(HttpdRuleProcessor.class);
 
+  private final CostRecorder costRecorder;
+
+  public HttpdRuleProcessor() {
+    this(CostRecorder.DISABLED);
+  }
+
+  /**
+   * Instantiate a HttpdRuleProcessor which records the cost of each rule and check it evaluates.
+   * @param costRecorder The recorder of the costs
+   */
+  public HttpdRuleProcessor(CostRecorder costRecorder) {
+    this.costRecorder = costRecorder != null ? costRecorder : CostRecorder.DISABLED;
+  }
+
   public List<Violation> processRule(AnalyzerRule rule, HttpdConfiguration config) {
+    CostRecorder.Sample ruleSample = costRecorder.start();
     List<Violation> violations = new ArrayList<>();
 
     HttpdCheckTargetLocator targetLocator = new HttpdCheckTargetLocator(rule.getElement());
@@ -42,9 +58,13 @@ public class HttpdRuleProcessor {
 
     // Iterate through each check that is part of this rule
     // All checks must pass in order for this configuration to be considered violation-free.
-    for (Check check : rule.getChecks()) {
+    List<Check> checks = rule.getChecks();
+    for (int checkIndex = 0; checkIndex < checks.size(); checkIndex++) {
+      Check check = checks.get(checkIndex);
       for (Section sectionToCheck : sectionsToCheck) {
+        CostRecorder.Sample checkSample = costRecorder.start();
         CheckResult checkResult = check.performCheck(sectionToCheck);
+        costRecorder.recordCheck(rule, checkIndex, check, checkSample);
         logger.info("RuleId=\"{}\" Result=\"{}\" CheckElement=\"{}\" CheckCondition=\"{}\" CheckValue=\"{}\"",
                 rule.getId(), checkResult.isPassed() ? "Pass" : "Fail", rule.getElement(), check.getCondition(),
                 check.getValueString());
@@ -56,6 +76,7 @@ public class HttpdRuleProcessor {
       }
     }
 
+    costRecorder.recordRule(rule, ruleSample);
     return violations;
   }
 
@@ -16,12 +16,18 @@
 
 package com.adobe.aem.dot.httpd.core.parser;
 
+import com.adobe.aem.dot.common.ConfigurationFileCache;
+import com.adobe.aem.dot.common.ConfigurationFileLoader;
 import com.adobe.aem.dot.common.ConfigurationLine;
 import com.adobe.aem.dot.common.ConfigurationSource;
 import com.adobe.aem.dot.common.FileResolver;
+import com.adobe.aem.dot.common.FileResolverCache;
+import com.adobe.aem.dot.common.RepositoryFileTree;
 import com.adobe.aem.dot.common.analyzer.Severity;
 import com.adobe.aem.dot.common.parser.ConfigurationParseResults;
 import com.adobe.aem.dot.common.parser.ConfigurationViolations;
+import com.adobe.aem.dot.common.parser.ParseStatistics;
+import com.adobe.aem.dot.common.parser.ViolationContext;
 import com.adobe.aem.dot.common.util.FeedbackProcessor;
 import com.adobe.aem.dot.common.util.PropertiesUtil;
 import com.adobe.aem.dot.httpd.core.ConfigFileEntryReadResult;
@@ -31,7 +37,6 @@ import com.adobe.aem.dot.httpd.core.model.HttpdConfiguration;
 import com.adobe.aem.dot.httpd.core.model.Section;
 import com.adobe.aem.dot.httpd.core.model.VirtualHost;
 import org.apache.commons.io.FilenameUtils;
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.SystemUtils;
 import org.slf4j.Logger;
@@ -39,13 +44,11 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Scanner;
 import java.util.stream.Collectors;
 
 /**
@@ -56,11 +59,25 @@ public class HttpdConfigurationParser {
   private static final Logger logger = LoggerFactory.getLogger(HttpdConfigurationParser.class);
 
   private final String repoPath;
+  private final ConfigurationFileCache fileCache;
+  private final FileResolverCache pathCache = new FileResolverCache();
+  private RepositoryFileTree fileTree = null;
 
   private long includeDepthCount = 0;
+  private final ParseStatistics statistics = new ParseStatistics();
 
   public HttpdConfigurationParser(String repoPath) {
+    this(repoPath, null);
+  }
+
+  /**
+   * Create a parser which reads configuration files through a cache.
+   * @param repoPath The root folder of the repository
+   * @param fileCache Holds the lines of files read previously, or null to read every file
+   */
+  public HttpdConfigurationParser(String repoPath, ConfigurationFileCache fileCache) {
     this.repoPath = repoPath;
+    this.fileCache = fileCache;
   }
 
   /**
@@ -71,15 +88,28 @@ public class HttpdConfigurationParser {
    */
   public ConfigurationParseResults<HttpdConfiguration> parseConfiguration(File configFile) throws IOException {
     // Start with a clean violation list.  Violations can be reported throughout the parsing process.
-    ConfigurationViolations.clearViolations();
+    ViolationContext violations = ConfigurationViolations.startContext();
+    try {
+      fileTree = fileCache != null ? fileCache.getFileTree(this.repoPath)
+              : RepositoryFileTree.fromProperties(this.repoPath);
+
+      List<ConfigurationLine> configLines = this.normalizeConfig(configFile,
+              configFile.getParentFile().getPath(), true);
 
-    List<ConfigurationLine> configLines = this.normalizeConfig(configFile,
-            configFile.getParentFile().getPath(), true);
+      // Parse ConfigurationLine items into an HttpdConfiguration object
+      HttpdConfiguration config = this.parseConfigurationLines(configLines);
 
-    // Parse ConfigurationLine items into an HttpdConfiguration object
-    HttpdConfiguration config = this.parseConfigurationLines(configLines);
+      return new ConfigurationParseResults<>(config, violations.getViolations());
+    } finally {
+      ConfigurationViolations.endContext();
+    }
+  }
 
-    return new ConfigurationParseResults<>(config, ConfigurationViolations.getViolations());
+  /**
+   * @return The number of files and lines read by <code>parseConfiguration()</code>, and how deeply they were included.
+   */
+  public ParseStatistics getStatistics() {
+    return statistics;
   }
 
   /**
@@ -102,46 +132,46 @@ public class HttpdConfigurationParser {
     // Increment track of include depth.
     includeDepthCount++;
 
-    // Read the file's contents into memory
-    FileReader reader = new FileReader(configFile);
-    String configurationString = IOUtils.toString(reader);
-    if (SystemUtils.IS_OS_WINDOWS && configurationString.startsWith("../")) {
-      configurationLines.addAll(handleIncorrectSymLink(configFile, configurationString, basePath, optional));
+    // Read the file's lines into memory
+    List<String> fileLines = fileCache != null ? fileCache.readLines(configFile)
+            : ConfigurationFileLoader.readLines(configFile);
+    statistics.addFile(fileLines.size(), includeDepthCount);
+    if (SystemUtils.IS_OS_WINDOWS && !fileLines.isEmpty() && fileLines.get(0).startsWith("../")) {
+      configurationLines.addAll(handleIncorrectSymLink(configFile, fileLines.get(0), basePath, optional));
     } else {
       String absolutePath = configFile.getAbsolutePath();
       String relativeFilePath = this.getRelativeFilePath(absolutePath, this.repoPath);
 
       int currentLineNumber = 0;
-      try (Scanner scanner = new Scanner(configurationString)) {
-        // Read a single line at a time
-        while (scanner.hasNextLine()) {
-          ConfigFileEntryReadResult readResult = this.getNextCompleteConfigurationLine(scanner, currentLineNumber);
-          HttpdIncludeType includeType = readResult.isApacheIncludeDirective();
-          if (includeType == HttpdIncludeType.NONE) {
-            // This directive is NOT an include. Add it to the list
-            configurationLines.add(new ConfigurationLine(readResult.getContents(), relativeFilePath, readResult.getLineNumber()));
-          } else {
-            // Handle include. Recursively call normalizeConfig with the included file(s)
-            String toInclude = this.getPatternFromIncludeDirective(readResult.getContents());
-            if (StringUtils.isNotEmpty(toInclude)) {
-              List<File> includedFiles = this.getFilesToInclude(toInclude, basePath);
-
-              // Check whether no files were found.  That is a error, unless $IncludeOptional was used.
-              if (includedFiles.isEmpty() && includeType == HttpdIncludeType.INCLUDE) {
-                FeedbackProcessor.error(logger,
-                        "Include directive must include existing files.  Check path, or use IncludeOptional.",
-                        "", new ConfigurationSource(relativeFilePath, readResult.getLineNumber()),
-                        toInclude.contains("${") ? null : Severity.MAJOR);   // Not a violation if path has EnvVar.
-              } else {
-                configurationLines.addAll(includeConfigurationFiles(includedFiles, configurationLines.size(),
-                        includeType, basePath, configFile, currentLineNumber));
-              }
+      Iterator<String> lineIterator = fileLines.iterator();
+      // Read a single line at a time
+      while (lineIterator.hasNext()) {
+        ConfigFileEntryReadResult readResult = this.getNextCompleteConfigurationLine(lineIterator, currentLineNumber);
+        HttpdIncludeType includeType = readResult.isApacheIncludeDirective();
+        if (includeType == HttpdIncludeType.NONE) {
+          // This directive is NOT an include. Add it to the list
+          configurationLines.add(new ConfigurationLine(readResult.getContents(), relativeFilePath, readResult.getLineNumber()));
+        } else {
+          // Handle include. Recursively call normalizeConfig with the included file(s)
+          String toInclude = this.getPatternFromIncludeDirective(readResult.getContents());
+          if (StringUtils.isNotEmpty(toInclude)) {
+            List<File> includedFiles = this.getFilesToInclude(toInclude, basePath);
+
+            // Check whether no files were found.  That is a error, unless $IncludeOptional was used.
+            if (includedFiles.isEmpty() && includeType == HttpdIncludeType.INCLUDE) {
+              FeedbackProcessor.error(logger,
+                      "Include directive must include existing files.  Check path, or use IncludeOptional.",
+                      "", new ConfigurationSource(relativeFilePath, readResult.getLineNumber()),
+                      toInclude.contains("${") ? null : Severity.MAJOR);   // Not a violation if path has EnvVar.
+            } else {
+              configurationLines.addAll(includeConfigurationFiles(includedFiles, configurationLines.size(),
+                      includeType, basePath, configFile, currentLineNumber));
             }
           }
-
-          // Increment currentLineNumber by the total number of lines read
-          currentLineNumber = currentLineNumber + readResult.getTotalNumberOfLinesRead();
         }
+
+        // Increment currentLineNumber by the total number of lines read
+        currentLineNumber = currentLineNumber + readResult.getTotalNumberOfLinesRead();
       }
     }
 
@@ -234,7 +264,8 @@ public class HttpdConfigurationParser {
   }
 
   private List<File> getFilesToInclude(String pattern, String basePath) {
-    FileResolver fileResolver = new FileResolver(basePath, true);
+    FileResolver fileResolver = new FileResolver(basePath, true, pathCache, fileTree,
+            fileCache != null ? fileCache.getConfinedRoot() : null);
     return fileResolver.resolveFiles(pattern);
   }
 
@@ -262,23 +293,24 @@ public class HttpdConfigurationParser {
   /**
    * Lines in httpd.conf can be continued onto the next line by ending a line with "\". This method detects this char
    * and produces a complete line by appending multiple lines together.
-   * @param scanner The Apache scanner
+   * @param lineIterator An iterator over the lines of the file
    * @param currentLineNumber The current line being scanned
    * @return The next complete configuration line.
    */
-  private ConfigFileEntryReadResult getNextCompleteConfigurationLine(Scanner scanner, int currentLineNumber) {
-    String completeLine = scanner.nextLine().trim();
+  private ConfigFileEntryReadResult getNextCompleteConfigurationLine(Iterator<String> lineIterator,
+                                                                     int currentLineNumber) {
+    String completeLine = lineIterator.next().trim();
     // We've read one line: add 1 to currentLineNumber
     int startLineNumber = currentLineNumber + 1;
     int numberOfLines = 1;
 
     // Handle lines which end in \
-    while (completeLine.endsWith("\\") && scanner.hasNextLine()) {
+    while (completeLine.endsWith("\\") && lineIterator.hasNext()) {
       // Remove last character, and append the (trimmed) next line
       String lineWithBackslashRemoved = completeLine.substring(0, completeLine.length() - 1);
       // Add a space separator only if the existing line contents does not already end with one
       completeLine = lineWithBackslashRemoved + (lineWithBackslashRemoved.endsWith(" ") ? "" : " ") +
-              scanner.nextLine().trim();
+              lineIterator.next().trim();
       numberOfLines++;
     }
 
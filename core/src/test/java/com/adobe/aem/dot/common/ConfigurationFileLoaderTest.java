@@ -0,0 +1,92 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.adobe.aem.dot.common;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class ConfigurationFileLoaderTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void splitLines() {
+    assertEquals(Collections.emptyList(), ConfigurationFileLoader.splitLines(""));
+    assertEquals(Arrays.asList("a", "b", "c"), ConfigurationFileLoader.splitLines("a\nb\r\nc"));
+    assertEquals(Arrays.asList("a", "", "b"), ConfigurationFileLoader.splitLines("a\r\rb\n"));
+    assertEquals(Arrays.asList("", "a"), ConfigurationFileLoader.splitLines("\na"));
+  }
+
+  @Test
+  public void readLines() throws IOException {
+    File file = folder.newFile("dispatcher.any");
+    Files.write(file.toPath(), "/farms {\r\n  $include \"farms/*.farm\"\r\n}\n".getBytes(StandardCharsets.UTF_8));
+
+    List<String> lines = ConfigurationFileLoader.readLines(file);
+    assertEquals(Arrays.asList("/farms {", "  $include \"farms/*.farm\"", "}"), lines);
+    assertEquals("/farms {\r\n  $include \"farms/*.farm\"\r\n}\n", ConfigurationFileLoader.readContents(file));
+  }
+
+  @Test
+  public void readLinesLikeReadAllLines() throws IOException {
+    String[] contents = { "", "\n", "a", "a\n", "a\n\n", "a\r\nb\r\n", "a\rb\r", "\n\na" };
+    for (String content : contents) {
+      File file = folder.newFile();
+      Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+      assertEquals("Lines of \"" + content + "\"", Files.readAllLines(file.toPath(), StandardCharsets.UTF_8),
+              ConfigurationFileLoader.readLines(file));
+    }
+  }
+
+  @Test
+  public void readEmptyFile() throws IOException {
+    File file = folder.newFile("empty.any");
+
+    assertEquals(Collections.emptyList(), ConfigurationFileLoader.readLines(file));
+  }
+
+  @Test
+  public void readFileEndingWithNewline() throws IOException {
+    File file = folder.newFile("farm.any");
+    Files.write(file.toPath(), "/farm {\n}\n\n".getBytes(StandardCharsets.UTF_8));
+
+    assertEquals("Expect no line after the last line ending", Arrays.asList("/farm {", "}", ""),
+            ConfigurationFileLoader.readLines(file));
+  }
+
+  @Test(expected = FileNotFoundException.class)
+  public void readMissingFile() throws IOException {
+    ConfigurationFileLoader.readLines(new File(folder.getRoot(), "missing.any"));
+  }
+
+  @Test(expected = FileNotFoundException.class)
+  public void readDirectory() throws IOException {
+    ConfigurationFileLoader.readLines(folder.getRoot());
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.adobe.aem.dot.common;
+
+import com.adobe.aem.dot.common.helpers.PathEncodingHelper;
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.io.filefilter.WildcardFileFilter;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RepositoryFileTreeTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void matchesFileSystem() throws IOException {
+    File root = folder.getRoot();
+    File farms = folder.newFolder("conf.dispatcher.d", "available_farms");
+    File enabled = folder.newFolder("conf.dispatcher.d", "enabled_farms");
+    File farm = new File(farms, "default.farm");
+    Files.write(farm.toPath(), "/farm {}".getBytes());
+    Files.write(new File(farms, "other.farm").toPath(), "/farm {}".getBytes());
+    Files.createSymbolicLink(new File(enabled, "default.farm").toPath(), farm.toPath());
+    Files.createSymbolicLink(new File(enabled, "broken.farm").toPath(), new File(farms, "gone.farm").toPath());
+    Files.createSymbolicLink(new File(root, "linked").toPath(), farms.toPath());
+    Files.createSymbolicLink(new File(farms, "loop").toPath(), root.toPath());
+
+    RepositoryFileTree tree = RepositoryFileTree.build(root.getPath());
+    assertEquals(4, tree.getFolderCount());
+    assertEquals(5, tree.getFileCount());
+
+    List<File> probes = Arrays.asList(root, farms, farm, new File(enabled, "default.farm"),
+            new File(enabled, "broken.farm"), new File(root, "linked/other.farm"), new File(root, "linked/missing"),
+            new File(farm, "not-a-folder"), new File(farms, "loop"), new File(farms, "loop/linked/default.farm"),
+            new File(enabled, "../available_farms/default.farm"), new File(root, "missing/deeper/file.farm"),
+            new File(root.getParentFile(), "outside"));
+    for (File probe : probes) {
+      assertEquals(probe.getPath(), probe.exists(), tree.exists(probe));
+      assertEquals(probe.getPath(), probe.isDirectory(), tree.isDirectory(probe));
+    }
+
+    for (File directory : Arrays.asList(farms, enabled, new File(root, "linked"), new File(farms, "loop"))) {
+      for (String wildcard : Arrays.asList("*", "*.farm", "default.far?", "*.any")) {
+        assertArrayEquals(directory.getPath() + "/" + wildcard,
+                directory.listFiles((FileFilter) new WildcardFileFilter(wildcard)), tree.listFiles(directory, wildcard));
+      }
+    }
+    assertNull(tree.listFiles(farm, "*"));
+    assertNull(tree.listFiles(new File(root, "missing"), "*"));
+  }
+
+  @Test
+  public void skipsBuildOutputAndChangedFolders() throws IOException {
+    File root = folder.getRoot();
+    File farms = folder.newFolder("conf.dispatcher.d", "enabled_farms");
+    File built = folder.newFolder("target", "classes");
+    Files.write(new File(built, "default.farm").toPath(), "/farm {}".getBytes());
+    Files.write(new File(farms, "default.farm").toPath(), "/farm {}".getBytes());
+
+    RepositoryFileTree tree = RepositoryFileTree.build(root.getPath());
+    assertEquals("Expect the build output not walked", 3, tree.getFolderCount());
+    assertEquals(1, tree.getFileCount());
+    assertTrue(tree.exists(new File(built, "default.farm")));
+
+    File added = new File(farms, "added.farm");
+    Files.write(added.toPath(), "/farm {}".getBytes());
+    assertEquals(1, tree.listFiles(farms, "*.farm").length);
+    tree.invalidate(Collections.singletonList(added));
+    assertTrue(tree.exists(added));
+    assertEquals(2, tree.listFiles(farms, "*.farm").length);
+  }
+
+  @Test
+  public void resolvesLikeFileSystem() throws IOException {
+    String classPath = PathEncodingHelper.getDecodedClassPath(this.getClass());
+    String repoPath = PathEncodingHelper.getDecodedPath(classPath.substring(0, classPath.indexOf("/core/target/")) +
+            FilenameUtils.separatorsToSystem("/test-projects/test-project-all-rules-fail"));
+    String cwd = FilenameUtils.separatorsToSystem(repoPath + "/dispatcher/src/conf.dispatcher.d");
+    RepositoryFileTree tree = RepositoryFileTree.build(repoPath);
+    assertTrue(tree.getFileCount() > 0);
+
+    List<String> includes = Arrays.asList("enabled_farms/*.farm", "filters/filters.any", "../conf.d/*.conf",
+            "/etc/httpd/conf.dispatcher.d/cache/rules.any", "clientheaders/clientheaders.an[y]", "missing/*.any",
+            "/etc/httpd/conf.dispatcher.d/virtualhosts/*");
+    for (String include : includes) {
+      List<File> expected = new FileResolver(cwd, true).resolveFiles(include, cwd);
+      List<File> actual = new FileResolver(cwd, true, new FileResolverCache(), tree).resolveFiles(include, cwd);
+      assertEquals(include, expected, actual);
+    }
+    assertFalse(tree.exists(new File(repoPath, "missing.any")));
+  }
+}
@@ -17,6 +17,8 @@
 package com.adobe.aem.dot.common.analyzer;
 
 import com.adobe.aem.dot.common.ConfigurationException;
+import com.adobe.aem.dot.common.analyzer.rules.AnalyzerRuleList;
+import com.adobe.aem.dot.common.analyzer.rules.AnalyzerRuleListFactory;
 import com.adobe.aem.dot.common.helpers.DispatcherConfigTestHelper;
 import com.adobe.aem.dot.common.parser.ConfigurationParseResults;
 import com.adobe.aem.dot.dispatcher.core.DispatcherConstants;
@@ -141,4 +143,18 @@ public class AnalyzerRuleTest {
     assertNull("donotthinkso should not have a getter", obj);
 
   }
+
+  @Test
+  public void compiledRulesCheck() throws Exception {
+    AnalyzerRuleList ruleList = AnalyzerRuleListFactory.getAnalyzerRuleList();
+    Farm farm = new Farm();
+    Farm otherFarm = new Farm();
+    for (AnalyzerRule rule : ruleList.getEnabledSingleFarmRules()) {
+      AnalyzerRule uncompiled = new AnalyzerRule();
+      uncompiled.setElement(rule.getElement());
+      // The compiled accessors are reused from farm to farm.
+      assertEquals(rule.getElement(), uncompiled.determineCheckTarget(farm), rule.determineCheckTarget(farm));
+      assertEquals(rule.getElement(), uncompiled.determineCheckTarget(otherFarm), rule.determineCheckTarget(otherFarm));
+    }
+  }
 }
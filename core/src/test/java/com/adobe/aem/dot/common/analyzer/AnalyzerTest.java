@@ -16,6 +16,7 @@
 
 package com.adobe.aem.dot.common.analyzer;
 
+import com.adobe.aem.AllRulesFailTest;
 import com.adobe.aem.dot.common.ConfigurationException;
 import com.adobe.aem.dot.common.ConfigurationSource;
 import com.adobe.aem.dot.common.analyzer.rules.AnalyzerRuleList;
@@ -23,6 +24,7 @@ import com.adobe.aem.dot.common.analyzer.rules.AnalyzerRuleListFactory;
 import com.adobe.aem.dot.common.helpers.AssertHelper;
 import com.adobe.aem.dot.common.helpers.DispatcherConfigTestHelper;
 import com.adobe.aem.dot.common.parser.ConfigurationParseResults;
+import com.adobe.aem.dot.dispatcher.core.DispatcherConfigurationFactory;
 import com.adobe.aem.dot.dispatcher.core.DispatcherConstants;
 import com.adobe.aem.dot.dispatcher.core.analyzer.DispatcherAnalyzer;
 import com.adobe.aem.dot.dispatcher.core.model.DispatcherConfiguration;
@@ -42,6 +44,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static com.adobe.aem.dot.common.analyzer.ViolationVerbosity.FULL;
 import static com.adobe.aem.dot.common.analyzer.ViolationVerbosity.MINIMIZED;
@@ -128,6 +131,29 @@ public class AnalyzerTest {
     assertTrue("First violation should contain MAJOR", violations.get(0).toString().contains("MAJOR"));
   }
 
+  @Test
+  public void parallelAnalysisMatchesSequential() throws ConfigurationException, IOException {
+    String repoPath = AllRulesFailTest.getPathToTestModule(this.getClass(), "test-projects/test-project-all-rules-fail/");
+    DispatcherConfiguration config = new DispatcherConfigurationFactory().parseConfiguration(repoPath, null)
+            .getConfiguration();
+
+    List<String> sequential = summarize(new DispatcherAnalyzer(analyzerRuleList, 1).getViolations(config, FULL));
+    assertTrue("Expect violations", sequential.size() > 5);
+    DispatcherAnalyzer parallelAnalyzer = new DispatcherAnalyzer(analyzerRuleList, 4);
+    for (int run = 0; run < 5; run++) {
+      assertEquals("Expect the same violations, in the same order", sequential,
+              summarize(parallelAnalyzer.getViolations(config, FULL)));
+    }
+  }
+
+  private static List<String> summarize(List<Violation> violations) {
+    return violations.stream()
+            .map(violation -> violation.getAnalyzerRule().getId() + " " + violation.getContext() + "@" +
+                    violation.getConfigurationSource().getFileName() + ":" +
+                    violation.getConfigurationSource().getLineNumber())
+            .collect(Collectors.toList());
+  }
+
   @Test(expected = IllegalArgumentException.class)
   public void dispatcherNullConfigTest() {
     dispatcherAnalyzer.getViolations(null, FULL);
@@ -0,0 +1,145 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.adobe.aem.dot.common.analyzer;
+
+import com.adobe.aem.AllRulesFailTest;
+import com.adobe.aem.dot.common.ConfigurationException;
+import com.adobe.aem.dot.common.analyzer.rules.AnalyzerRuleList;
+import com.adobe.aem.dot.common.analyzer.rules.AnalyzerRuleListFactory;
+import com.adobe.aem.dot.dispatcher.core.DispatcherConfigurationFactory;
+import com.adobe.aem.dot.dispatcher.core.analyzer.DispatcherAnalyzer;
+import com.adobe.aem.dot.dispatcher.core.model.DispatcherConfiguration;
+import com.adobe.aem.dot.httpd.core.HttpdConfigurationFactory;
+import com.adobe.aem.dot.httpd.core.analyzer.HttpdAnalyzer;
+import com.adobe.aem.dot.httpd.core.model.HttpdConfiguration;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static com.adobe.aem.dot.common.analyzer.ViolationVerbosity.FULL;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class CostRecorderTest {
+
+  @Test
+  public void disabledRecorderRecordsNothing() {
+    AnalyzerRule rule = new AnalyzerRule();
+    rule.setId("id1");
+    assertNull(CostRecorder.DISABLED.start());
+    CostRecorder.DISABLED.recordRule(rule, CostRecorder.DISABLED.start());
+    CostRecorder.DISABLED.recordPhase("phase", null);
+    assertFalse(CostRecorder.DISABLED.isEnabled());
+    assertTrue(CostRecorder.DISABLED.isEmpty());
+  }
+
+  @Test
+  public void shouldAccumulateCosts() throws IOException {
+    AnalyzerRule rule = new AnalyzerRule();
+    rule.setId("id1");
+    CostRecorder recorder = new CostRecorder();
+    for (int index = 0; index < 3; index++) {
+      recorder.recordRule(rule, recorder.start());
+    }
+    CostRecorder.Sample sample = recorder.start();
+    StringBuilder builder = new StringBuilder();
+    for (int index = 0; index < 1000; index++) {
+      builder.append(index);
+    }
+    recorder.recordPhase("build", sample);
+
+    assertEquals(1, recorder.getRuleCosts().size());
+    assertEquals("id1", recorder.getRuleCosts().get(0).getName());
+    assertEquals(3, recorder.getRuleCosts().get(0).getInvocations());
+    CostRecorder.Cost phase = recorder.getPhaseCosts().get(0);
+    assertEquals("build", phase.getName());
+    assertTrue(phase.getWallNanos() > 0);
+    if (CostRecorder.isAllocationMeasured()) {
+      assertTrue("Expect the builder's allocations", phase.getAllocatedBytes() >= builder.length());
+    }
+
+    JsonNode report = new ObjectMapper().readTree(recorder.generateTimingReport());
+    assertEquals(CostRecorder.isAllocationMeasured(), report.get("allocationMeasured").asBoolean());
+    assertEquals("build", report.get("phases").get(0).get("name").asText());
+    assertEquals(3, report.get("rules").get(0).get("invocations").asLong());
+    assertFalse("Rules have no check", report.get("rules").get(0).has("check"));
+    assertEquals(0, report.get("checks").size());
+  }
+
+  @Test
+  public void shouldRecordAnalysisCosts() throws ConfigurationException, IOException {
+    String repoPath = AllRulesFailTest.getPathToTestModule(this.getClass(), "test-projects/test-project-all-rules-fail/");
+    AnalyzerRuleList analyzerRuleList = AnalyzerRuleListFactory.getAnalyzerRuleList();
+    CostRecorder recorder = new CostRecorder();
+
+    DispatcherConfigurationFactory factory = new DispatcherConfigurationFactory(null);
+    factory.setCostRecorder(recorder);
+    DispatcherConfiguration config = factory.parseConfiguration(repoPath, null).getConfiguration();
+    HttpdConfigurationFactory httpdFactory = new HttpdConfigurationFactory();
+    httpdFactory.setCostRecorder(recorder);
+    HttpdConfiguration httpdConfig = httpdFactory.getHttpdConfiguration(repoPath, "dispatcher/src/conf")
+            .getConfiguration();
+
+    DispatcherAnalyzer sequentialAnalyzer = new DispatcherAnalyzer(analyzerRuleList, 1);
+    sequentialAnalyzer.setCostRecorder(recorder);
+    sequentialAnalyzer.getViolations(config, FULL);
+    HttpdAnalyzer httpdAnalyzer = new HttpdAnalyzer(analyzerRuleList);
+    httpdAnalyzer.setCostRecorder(recorder);
+    httpdAnalyzer.getViolations(httpdConfig, FULL);
+
+    assertEquals(5, recorder.getPhaseCosts().size());
+    for (CostRecorder.Cost phase : recorder.getPhaseCosts()) {
+      assertEquals(phase.getName(), 1, phase.getInvocations());
+    }
+    int ruleCount = analyzerRuleList.getEnabledMultiFarmRules().size() +
+            analyzerRuleList.getEnabledSingleFarmRules().size() + analyzerRuleList.getHttpdEnabledRules().size();
+    List<CostRecorder.Cost> ruleCosts = recorder.getRuleCosts();
+    assertTrue("Expect most rules to be evaluated", ruleCosts.size() > ruleCount / 2);
+    assertTrue(ruleCosts.get(0).getWallNanos() >= ruleCosts.get(ruleCosts.size() - 1).getWallNanos());
+    assertTrue(recorder.getCheckCosts().size() >= ruleCosts.size());
+
+    // The parallel analysis evaluates the same rules and checks as many times.
+    CostRecorder parallelRecorder = new CostRecorder();
+    DispatcherAnalyzer parallelAnalyzer = new DispatcherAnalyzer(analyzerRuleList, 4);
+    parallelAnalyzer.setCostRecorder(parallelRecorder);
+    parallelAnalyzer.getViolations(config, FULL);
+    CostRecorder dispatcherRecorder = new CostRecorder();
+    sequentialAnalyzer.setCostRecorder(dispatcherRecorder);
+    sequentialAnalyzer.getViolations(config, FULL);
+    assertEquals(getInvocations(dispatcherRecorder.getRuleCosts()), getInvocations(parallelRecorder.getRuleCosts()));
+    assertEquals(getInvocations(dispatcherRecorder.getCheckCosts()), getInvocations(parallelRecorder.getCheckCosts()));
+
+    // Recording stops once the recorder is removed.
+    sequentialAnalyzer.setCostRecorder(null);
+    sequentialAnalyzer.getViolations(config, FULL);
+    assertEquals(getInvocations(dispatcherRecorder.getRuleCosts()), getInvocations(parallelRecorder.getRuleCosts()));
+  }
+
+  private static Map<String, Long> getInvocations(List<CostRecorder.Cost> costs) {
+    Map<String, Long> invocations = new TreeMap<>();
+    for (CostRecorder.Cost cost : costs) {
+      invocations.put(cost.getName() + " " + cost.getCheck(), cost.getInvocations());
+    }
+    return invocations;
+  }
+}
@@ -21,6 +21,7 @@ import ch.qos.logback.core.read.ListAppender;
 import uk.org.webcompere.systemstubs.rules.EnvironmentVariablesRule;
 
 import com.adobe.aem.dot.common.FileResolver;
+import com.adobe.aem.dot.common.FileResolverCache;
 import com.adobe.aem.dot.common.helpers.AssertHelper;
 import com.adobe.aem.dot.common.helpers.PathEncodingHelper;
 import com.adobe.aem.dot.common.util.PathUtil;
@@ -31,7 +32,11 @@ import org.junit.Test;
 import java.io.File;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
@@ -150,4 +155,86 @@ public class FileResolverTest {
     assertTrue(logsList.get(0).getMessage().startsWith("Including a directory is not recommended.  Instead, use wildcards.  Path="));
     assertEquals("Severity should be WARN.", Level.WARN, logsList.get(0).getLevel());
   }
+
+  @Test
+  public void pathCacheTest() {
+    String workDir = Paths.get("src", "test", "resources", "dispatcher-includes", "src", "conf.dispatcher.d")
+            .toAbsolutePath().toString();
+    FileResolverCache pathCache = new FileResolverCache(1);
+    FileResolver cachingResolver = new FileResolver(missingBasePath, false, pathCache);
+
+    List<File> files = cachingResolver.resolveFiles("filters/filter.any", workDir);
+    assertEquals(1, files.size());
+    assertEquals(0, pathCache.getHitCount());
+    assertEquals(1, pathCache.getMissCount());
+
+    assertEquals(files, cachingResolver.resolveFiles("filters/filter.any", workDir));
+    assertEquals(1, pathCache.getHitCount());
+    assertEquals(1, pathCache.getMissCount());
+
+    // Unresolvable paths are remembered too.  The cache only holds one entry, so the first one is evicted.
+    assertTrue(cachingResolver.resolveFiles("/etc/missing/folder/filter.any", workDir).isEmpty());
+    assertTrue(cachingResolver.resolveFiles("/etc/missing/folder/filter.any", workDir).isEmpty());
+    assertEquals(2, pathCache.getHitCount());
+    assertEquals(2, pathCache.getMissCount());
+    assertEquals(1, pathCache.getEvictionCount());
+    assertEquals(1, pathCache.size());
+
+    // Resolvers of another run start with an empty cache.
+    FileResolver otherResolver = new FileResolver(missingBasePath, false);
+    assertEquals(files, otherResolver.resolveFiles("filters/filter.any", workDir));
+    assertEquals(0, otherResolver.getPathCache().getHitCount());
+    assertEquals(1, otherResolver.getPathCache().getMissCount());
+  }
+
+  @Test
+  public void confinedRootTest() throws Exception {
+    File workDir = Paths.get("src", "test", "resources", "dispatcher-includes", "src", "conf.dispatcher.d")
+            .toAbsolutePath().toFile();
+    File filters = new File(workDir, "filters");
+    File outside = new File(workDir, "vhosts/basic.any");
+    String[] includes = { outside.getAbsolutePath(), "../vhosts/basic.any" };
+    for (String include : includes) {
+      assertEquals(1, new FileResolver(missingBasePath, false).resolveFiles(include, filters.getPath()).size());
+    }
+
+    Path confinedRoot = filters.getCanonicalFile().toPath();
+    FileResolver confined = new FileResolver(missingBasePath, false, new FileResolverCache(), null, confinedRoot);
+    for (String include : includes) {
+      assertTrue("Outside files are skipped", confined.resolveFiles(include, filters.getPath()).isEmpty());
+    }
+    assertEquals("Skipping include outside of the repository.  Path=\"{}\"",
+            listAppender.list.get(listAppender.list.size() - 1).getMessage());
+    assertEquals(1, confined.resolveFiles("filter.any", filters.getPath()).size());
+  }
+
+  @Test
+  public void concurrentPathCacheTest() throws Exception {
+    String workDir = Paths.get("src", "test", "resources", "dispatcher-includes", "src", "conf.dispatcher.d")
+            .toAbsolutePath().toString();
+    FileResolverCache pathCache = new FileResolverCache(64);
+    String[] includes = { "filters/filter.any", "/etc/missing/filter.any", "vhosts/*.any", "vhosts/basic.any",
+            "filters/*.an[y]", "vhosts/layer-1.any" };
+    List<List<File>> expected = new ArrayList<>();
+    for (String include : includes) {
+      expected.add(new FileResolver(missingBasePath, false).resolveFiles(include, workDir));
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<List<File>>> results = new ArrayList<>();
+      for (int index = 0; index < includes.length * 20; index++) {
+        String include = includes[index % includes.length];
+        results.add(executor.submit(() -> new FileResolver(missingBasePath, false, pathCache)
+                .resolveFiles(include, workDir)));
+      }
+      for (int index = 0; index < results.size(); index++) {
+        assertEquals(expected.get(index % includes.length), results.get(index).get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+    assertTrue("Cache is bounded", pathCache.size() <= 64);
+    assertTrue("Cache was used", pathCache.getHitCount() > 0);
+  }
 }
@@ -0,0 +1,91 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.adobe.aem.dot.common.analyzer;
+
+import com.adobe.aem.dot.common.ConfigurationSource;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+
+public class ViolationAggregatorTest {
+
+  @Test
+  public void countsByRuleAndFile() {
+    AnalyzerRule major = createRule("rule-a", Severity.MAJOR);
+    AnalyzerRule minor = createRule("rule-b", Severity.MINOR);
+    List<Violation> violations = new ArrayList<>();
+    violations.add(new Violation(major, "one", new ConfigurationSource("farm.any", 3)));
+    violations.add(new Violation(major, "duplicate", new ConfigurationSource("farm.any", 3)));
+    violations.add(new Violation(major, "two", new ConfigurationSource("filters.any", 7)));
+    violations.add(new Violation(minor, "three", new ConfigurationSource("farm.any", 3)));
+
+    ViolationAggregator aggregator = ViolationAggregator.aggregate(violations);
+    assertEquals(4, aggregator.getAddedCount());
+    assertEquals(3, aggregator.getUniqueCount());
+    assertEquals(Integer.valueOf(2), aggregator.getRuleCounts().get("rule-a"));
+    assertEquals(Integer.valueOf(1), aggregator.getRuleCounts().get("rule-b"));
+    assertEquals(Integer.valueOf(2), aggregator.getFileCounts().get("farm.any"));
+    assertEquals(Integer.valueOf(1), aggregator.getFileCounts().get("filters.any"));
+
+    List<Violation> partial = aggregator.getViolations(ViolationVerbosity.PARTIAL);
+    assertEquals(3, partial.size());
+    assertEquals("The first of duplicates should be kept", "one", partial.get(0).getContext());
+
+    List<Violation> minimized = aggregator.getViolations(ViolationVerbosity.MINIMIZED);
+    assertEquals(2, minimized.size());
+    assertEquals("one", minimized.get(0).getContext());
+    assertEquals(2, ((CountedRuleViolation) minimized.get(0)).getRuleViolationCount());
+    assertEquals("three", minimized.get(1).getContext());
+    assertEquals(1, ((CountedRuleViolation) minimized.get(1)).getRuleViolationCount());
+  }
+
+  @Test
+  public void matchesSortedSetReduction() {
+    List<AnalyzerRule> rules = new ArrayList<>();
+    for (Severity severity : Severity.values()) {
+      rules.add(createRule("rule-" + severity, severity));
+      rules.add(createRule("other-" + severity, severity));
+    }
+    Random random = new Random(7);
+    List<Violation> violations = new ArrayList<>();
+    for (int index = 0; index < 2000; index++) {
+      violations.add(new Violation(rules.get(random.nextInt(rules.size())), "context" + index,
+              new ConfigurationSource("file" + random.nextInt(10) + ".any", random.nextInt(20))));
+    }
+
+    // The reduction the aggregator replaced: the first of equal violations, in their natural order.
+    Set<Violation> expected = new TreeSet<>(violations);
+    List<Violation> partial = ViolationAggregator.aggregate(violations).getViolations(ViolationVerbosity.PARTIAL);
+    assertEquals(expected.size(), partial.size());
+    int index = 0;
+    for (Violation violation : expected) {
+      assertEquals(violation.getContext(), partial.get(index++).getContext());
+    }
+  }
+
+  private static AnalyzerRule createRule(String id, Severity severity) {
+    AnalyzerRule rule = new AnalyzerRule();
+    rule.setId(id);
+    rule.setSeverity(severity);
+    return rule;
+  }
+}
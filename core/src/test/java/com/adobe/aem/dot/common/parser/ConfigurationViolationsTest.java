@@ -0,0 +1,145 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.adobe.aem.dot.common.parser;
+
+import com.adobe.aem.dot.common.ConfigurationException;
+import com.adobe.aem.dot.common.ConfigurationSource;
+import com.adobe.aem.dot.common.analyzer.Severity;
+import com.adobe.aem.dot.common.analyzer.Violation;
+import com.adobe.aem.dot.common.analyzer.ViolationVerbosity;
+import com.adobe.aem.dot.common.helpers.PathEncodingHelper;
+import com.adobe.aem.dot.dispatcher.core.DispatcherConfigurationFactory;
+import com.adobe.aem.dot.dispatcher.core.model.DispatcherConfiguration;
+import org.apache.commons.io.FilenameUtils;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+public class ConfigurationViolationsTest {
+
+  @Test
+  public void contextPerThread() throws Exception {
+    ViolationContext context = ConfigurationViolations.startContext();
+    ConfigurationViolations.addViolation("Unclosed brace encountered.", Severity.MAJOR,
+            new ConfigurationSource("main.any", 1));
+
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      int otherCount = executor.submit(() -> {
+        ConfigurationViolations.startContext();
+        ConfigurationViolations.addViolation("Skipping unknown token.", Severity.MINOR,
+                new ConfigurationSource("other.any", 2));
+        return ConfigurationViolations.getViolations().size();
+      }).get();
+      assertEquals(1, otherCount);
+    } finally {
+      executor.shutdown();
+    }
+
+    assertEquals("Expect only this thread's violation", 1, context.size());
+    assertEquals("DOTRules:Disp-S4---brace-unclosed", context.getViolations().get(0).getAnalyzerRule().getId());
+
+    // Starting a new context leaves the violations of the previous one intact.
+    ConfigurationViolations.clearViolations();
+    assertNotSame(context, ConfigurationViolations.getContext());
+    assertEquals(0, ConfigurationViolations.getViolations().size());
+    assertEquals(1, context.size());
+  }
+
+  @Test
+  public void concurrentParses() throws Exception {
+    String failPath = getTestProjectPath("test-project-all-rules-fail");
+    String passPath = getTestProjectPath("test-project-all-rules-pass");
+    ConfigurationParseResults<DispatcherConfiguration> failResults = parseResults(failPath);
+    List<String> failViolations = summarize(failResults);
+    List<String> passViolations = parse(passPath);
+    assertFalse("Expect violations", failViolations.isEmpty());
+    assertEquals("Expect the first results to be unaffected by the second parse", failViolations,
+            summarize(failResults));
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<List<String>>> failParses = new ArrayList<>();
+      List<Future<List<String>>> passParses = new ArrayList<>();
+      for (int index = 0; index < 8; index++) {
+        failParses.add(executor.submit(() -> parse(failPath)));
+        passParses.add(executor.submit(() -> parse(passPath)));
+      }
+      for (Future<List<String>> result : failParses) {
+        assertEquals(failViolations, result.get());
+      }
+      for (Future<List<String>> result : passParses) {
+        assertEquals(passViolations, result.get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void parseEndsItsContext() {
+    ConfigurationParseResults<DispatcherConfiguration> results =
+            parseResults(getTestProjectPath("test-project-all-rules-fail"));
+    List<String> violations = summarize(results);
+    assertFalse("Expect violations", violations.isEmpty());
+    assertEquals("Expect the ended context to stay readable", results.getViolations(ViolationVerbosity.FULL),
+            ConfigurationViolations.getViolations());
+
+    // Violations reported after the parse do not extend its results.
+    ConfigurationViolations.addViolation("Reported after the parse.", Severity.MINOR, null);
+    assertEquals(violations, summarize(results));
+    assertEquals(1, ConfigurationViolations.getViolations().size());
+
+    ConfigurationViolations.startContext();
+    assertTrue("Expect a new context to replace the ended one", ConfigurationViolations.getViolations().isEmpty());
+  }
+
+  private List<String> parse(String repoPath) {
+    return summarize(parseResults(repoPath));
+  }
+
+  private ConfigurationParseResults<DispatcherConfiguration> parseResults(String repoPath) {
+    try {
+      return new DispatcherConfigurationFactory(null).parseConfiguration(repoPath, "dispatcher/src/conf.dispatcher.d");
+    } catch (ConfigurationException ex) {
+      throw new IllegalStateException(ex.toString(), ex);
+    }
+  }
+
+  private List<String> summarize(ConfigurationParseResults<DispatcherConfiguration> results) {
+    List<Violation> violations = results.getViolations(ViolationVerbosity.FULL);
+    return violations.stream()
+            .map(violation -> violation.getContext() + "@" + violation.getConfigurationSource().getFileName() + ":" +
+                    violation.getConfigurationSource().getLineNumber())
+            .collect(Collectors.toList());
+  }
+
+  private String getTestProjectPath(String project) {
+    String classPath = PathEncodingHelper.getDecodedClassPath(this.getClass());
+    return PathEncodingHelper.getDecodedPath(classPath.substring(0, classPath.indexOf("/core/target/")) +
+            FilenameUtils.separatorsToSystem("/test-projects/" + project));
+  }
+}
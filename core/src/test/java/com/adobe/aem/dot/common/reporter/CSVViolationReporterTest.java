@@ -18,16 +18,21 @@ package com.adobe.aem.dot.common.reporter;
 
 import com.adobe.aem.dot.common.ConfigurationLine;
 import com.adobe.aem.dot.common.analyzer.AnalyzerRule;
+import com.adobe.aem.dot.common.analyzer.CostRecorder;
 import com.adobe.aem.dot.common.analyzer.CountedRuleViolation;
 import com.adobe.aem.dot.common.analyzer.Severity;
 import com.adobe.aem.dot.common.analyzer.Violation;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.io.StringWriter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class CSVViolationReporterTest {
 
@@ -70,6 +75,24 @@ public class CSVViolationReporterTest {
             report);
   }
 
+  @Test
+  public void writeReportStreamsRows() throws IOException {
+    AnalyzerRule rule = new AnalyzerRule();
+    rule.setId("id2");
+    rule.setSeverity(Severity.MAJOR);
+    rule.setDescription("Issue");
+    List<Violation> violations = Arrays.asList(
+            new Violation(rule, "first", new ConfigurationLine("foo", "dispatcher.any", 1)),
+            new Violation(rule, "second", new ConfigurationLine("foo", "farm.any", 2)));
+    ViolationReporter reporter = new CSVReporter();
+
+    StringWriter writer = new StringWriter();
+    reporter.writeViolationReport(violations.iterator(), writer);
+    assertEquals("Should write the report generated in memory",
+            reporter.generateViolationReport(violations), writer.toString());
+    assertEquals(3, writer.toString().split(System.lineSeparator()).length);
+  }
+
   @Test
   public void generateReportSingleCountedViolation() throws IOException {
     AnalyzerRule rule = new AnalyzerRule();
@@ -89,4 +112,37 @@ public class CSVViolationReporterTest {
                     "dispatcher.any (6 occurrences),25,\"This is the issue 'description' of the rule.\",,CRITICAL,,id3,,https://www.adobe.com/go/aem_cmcq_id3_en",
             report);
   }
-}
\ No newline at end of file
+
+  @Test
+  public void generateReportWithCosts() throws IOException {
+    AnalyzerRule rule = new AnalyzerRule();
+    rule.setId("id4");
+    CostRecorder recorder = new CostRecorder();
+    CSVReporter reporter = new CSVReporter();
+    reporter.setCostRecorder(recorder);
+    assertEquals("Should not include the timing section without costs",
+            "File Location,Line Number,Issue,Type,Severity,Effort,Rule,Tags,Documentation",
+            reporter.generateViolationReport(new ArrayList<>()));
+
+    recorder.recordRule(rule, recorder.start());
+    recorder.recordRule(rule, recorder.start());
+    String[] lines = reporter.generateViolationReport(new ArrayList<>()).split(System.lineSeparator());
+    assertEquals(4, lines.length);
+    assertEquals("", lines[1]);
+    assertEquals("Timing,Name,Check,Evaluations,Wall Time (ms),Allocated Bytes", lines[2]);
+    assertTrue(lines[3], lines[3].matches("Rule,id4,,2,\\d+\\.\\d{3},\\d+"));
+  }
+
+  @Test
+  public void createReporterWithCosts() throws IOException {
+    AnalyzerRule rule = new AnalyzerRule();
+    rule.setId("id5");
+    CostRecorder recorder = new CostRecorder();
+    recorder.recordRule(rule, recorder.start());
+
+    String report = ReportFormat.CSV.createReporter(recorder).generateViolationReport(new ArrayList<>());
+    assertTrue(report, report.contains("Rule,id5,,1,"));
+    report = ReportFormat.CSV.createReporter().generateViolationReport(new ArrayList<>());
+    assertEquals("File Location,Line Number,Issue,Type,Severity,Effort,Rule,Tags,Documentation", report);
+  }
+}
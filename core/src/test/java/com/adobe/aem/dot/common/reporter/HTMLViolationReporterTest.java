@@ -18,6 +18,7 @@ package com.adobe.aem.dot.common.reporter;
 
 import com.adobe.aem.dot.common.ConfigurationLine;
 import com.adobe.aem.dot.common.analyzer.AnalyzerRule;
+import com.adobe.aem.dot.common.analyzer.CostRecorder;
 import com.adobe.aem.dot.common.analyzer.CountedRuleViolation;
 import com.adobe.aem.dot.common.analyzer.Severity;
 import com.adobe.aem.dot.common.analyzer.Violation;
@@ -30,6 +31,7 @@ import java.util.Collections;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class HTMLViolationReporterTest {
 
@@ -144,4 +146,38 @@ public class HTMLViolationReporterTest {
 
     assertEquals("Should matched expected report", String.join("", oneViolationReport), report);
   }
-}
\ No newline at end of file
+
+  @Test
+  public void generateReportWithCosts() throws IOException {
+    CostRecorder recorder = new CostRecorder();
+    HTMLReporter reporter = new HTMLReporter();
+    reporter.setCostRecorder(recorder);
+    String report = reporter.generateViolationReport(new ArrayList<>()).replaceAll("\r", "").replaceAll("\n", "");
+    assertEquals("Should not include the timing section without costs", String.join("", emptyHTMLReport), report);
+
+    recorder.recordPhase("Dispatcher parsing", recorder.start());
+    report = reporter.generateViolationReport(new ArrayList<>()).replaceAll("\r", "").replaceAll("\n", "");
+    assertTrue(report, report.contains("  </table><p><b>Timing</b></p>  <table cellspacing=\"0\" cellpadding=\"2px\">" +
+            "    <tr>      <th>Timing</th>      <th>Name</th>"));
+    assertTrue(report, report.contains("    <tr>      <td>Phase</td>      <td>Dispatcher parsing</td>      <td></td>" +
+            "      <td>1</td>"));
+    assertTrue(report, report.endsWith("  </table></body></html>"));
+  }
+
+  @Test
+  public void overriddenHooksKeepCosts() throws IOException {
+    CostRecorder recorder = new CostRecorder();
+    recorder.recordPhase("Dispatcher parsing", recorder.start());
+    HTMLReporter reporter = new HTMLReporter() {
+      @Override
+      protected void addHTMLEnd(ReportLines lines) throws IOException {
+        lines.add("<p>Footer</p>");
+        super.addHTMLEnd(lines);
+      }
+    };
+    reporter.setCostRecorder(recorder);
+    String report = reporter.generateViolationReport(new ArrayList<>()).replaceAll("\r", "").replaceAll("\n", "");
+    assertTrue(report, report.contains("<p><b>Timing</b></p>"));
+    assertTrue(report, report.endsWith("  </table><p>Footer</p></body></html>"));
+  }
+}
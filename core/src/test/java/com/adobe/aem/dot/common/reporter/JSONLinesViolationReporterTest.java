@@ -0,0 +1,79 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.adobe.aem.dot.common.reporter;
+
+import com.adobe.aem.dot.common.ConfigurationLine;
+import com.adobe.aem.dot.common.analyzer.AnalyzerRule;
+import com.adobe.aem.dot.common.analyzer.Severity;
+import com.adobe.aem.dot.common.analyzer.Violation;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+
+public class JSONLinesViolationReporterTest {
+
+  @Test(expected = IllegalArgumentException.class)
+  public void generateReportNull() throws IOException {
+    new JSONLinesReporter().generateViolationReport(null);
+  }
+
+  @Test
+  public void generateReportEmptyList() throws IOException {
+    assertEquals("", new JSONLinesReporter().generateViolationReport(new ArrayList<>()));
+  }
+
+  @Test
+  public void generateReportWritesRulesOnce() throws IOException {
+    AnalyzerRule first = new AnalyzerRule();
+    first.setId("id1");
+    first.setSeverity(Severity.CRITICAL);
+    first.setDescription("Critical issue");
+    AnalyzerRule second = new AnalyzerRule();
+    second.setId("id2");
+    second.setSeverity(Severity.MINOR);
+
+    String report = new JSONLinesReporter().generateViolationReport(Arrays.asList(
+            new Violation(first, "one", new ConfigurationLine("foo", "dispatcher.any", 25)),
+            new Violation(first, "two", new ConfigurationLine("foo", "dispatcher.any", 30)),
+            new Violation(second, "three", new ConfigurationLine("foo", "farm.any", 2))));
+
+    String[] lines = report.split("\n");
+    assertEquals(5, lines.length);
+    ObjectMapper mapper = new ObjectMapper();
+    JsonNode rule = mapper.readTree(lines[0]);
+    assertEquals("rule", rule.get("record").asText());
+    assertEquals("id1", rule.get("id").asText());
+    assertEquals("Critical issue", rule.get("description").asText());
+    assertEquals("CRITICAL", rule.get("severity").asText());
+
+    JsonNode violation = mapper.readTree(lines[1]);
+    assertEquals("violation", violation.get("record").asText());
+    assertEquals("id1", violation.get("ruleId").asText());
+    assertEquals("dispatcher.any", violation.get("file").asText());
+    assertEquals(25, violation.get("line").asInt());
+    assertEquals("one", violation.get("context").asText());
+
+    assertEquals("violation", mapper.readTree(lines[2]).get("record").asText());
+    assertEquals("id2", mapper.readTree(lines[3]).get("id").asText());
+    assertEquals("three", mapper.readTree(lines[4]).get("context").asText());
+  }
+}
@@ -0,0 +1,163 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.adobe.aem.dot.common.reporter;
+
+import com.adobe.aem.dot.common.ConfigurationLine;
+import com.adobe.aem.dot.common.analyzer.AnalyzerRule;
+import com.adobe.aem.dot.common.analyzer.Severity;
+import com.adobe.aem.dot.common.analyzer.Violation;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class ReportPipelineTest {
+
+  @Test
+  public void writeReportsInOnePass() throws IOException {
+    // More violations than fit in a batch, to pass several batches through the queues.
+    List<Violation> violations = getViolations(ReportPipeline.BATCH_SIZE * 3 + 7);
+    CountingIterator iterator = new CountingIterator(violations.iterator());
+
+    ReportPipeline pipeline = new ReportPipeline();
+    List<StringWriter> writers = new ArrayList<>();
+    for (ReportFormat format : ReportFormat.values()) {
+      StringWriter writer = new StringWriter();
+      writers.add(writer);
+      pipeline.addSink(format.name(), format.createReporter(), writer);
+    }
+    assertEquals(ReportFormat.values().length, pipeline.getSinkCount());
+    pipeline.write(iterator);
+
+    assertEquals("Should iterate the violations once", violations.size(), iterator.count);
+    for (int index = 0; index < ReportFormat.values().length; index++) {
+      ReportFormat format = ReportFormat.values()[index];
+      assertEquals("Should write the same report as the reporter alone.  Format=" + format,
+              format.createReporter().generateViolationReport(violations), writers.get(index).toString());
+    }
+  }
+
+  @Test
+  public void writeSingleReport() throws IOException {
+    List<Violation> violations = getViolations(3);
+    StringWriter writer = new StringWriter();
+
+    new ReportPipeline().addSink("csv", new CSVReporter(), writer).write(violations.iterator());
+
+    assertEquals(new CSVReporter().generateViolationReport(violations), writer.toString());
+  }
+
+  @Test
+  public void writeOtherReportsWhenOneFails() throws IOException {
+    List<Violation> violations = getViolations(ReportPipeline.BATCH_SIZE * 2);
+    StringWriter writer = new StringWriter();
+    Writer failingWriter = new Writer() {
+      @Override
+      public void write(char[] buffer, int offset, int length) throws IOException {
+        throw new IOException("Disk full");
+      }
+
+      @Override
+      public void flush() {
+      }
+
+      @Override
+      public void close() {
+      }
+    };
+
+    ReportPipeline pipeline = new ReportPipeline()
+            .addSink("failing", new CSVReporter(), failingWriter)
+            .addSink("csv", new CSVReporter(), writer);
+    try {
+      pipeline.write(violations.iterator());
+      throw new AssertionError("Should rethrow the failure of the failing sink");
+    } catch (IOException ex) {
+      assertEquals("Disk full", ex.getMessage());
+    }
+    assertEquals("Should write the other report to the end",
+            new CSVReporter().generateViolationReport(violations), writer.toString());
+  }
+
+  @Test
+  public void closeUnwrittenWriters() throws IOException {
+    ClosingWriter unwritten = new ClosingWriter();
+    new ReportPipeline().addSink("csv", new CSVReporter(), unwritten).close();
+    assertEquals("Should close the writer of a sink which was not written", 1, unwritten.closeCount);
+
+    ClosingWriter written = new ClosingWriter();
+    try (ReportPipeline pipeline = new ReportPipeline()) {
+      pipeline.addSink("csv", new CSVReporter(), written);
+      pipeline.addSink("html", new HTMLReporter(), new StringWriter());
+      pipeline.write(getViolations(3).iterator());
+    }
+    assertEquals("Should close the writer of a written sink once", 1, written.closeCount);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void writeNull() throws IOException {
+    new ReportPipeline().write(null);
+  }
+
+  private static List<Violation> getViolations(int count) {
+    List<Violation> violations = new ArrayList<>();
+    for (int index = 0; index < count; index++) {
+      AnalyzerRule rule = new AnalyzerRule();
+      rule.setId("id" + (index % 5));
+      rule.setSeverity(index % 2 == 0 ? Severity.MAJOR : Severity.MINOR);
+      rule.setDescription("Description of rule " + (index % 5));
+      ConfigurationLine line = new ConfigurationLine("foo", "dispatcher.any", index + 1);
+      violations.add(new Violation(rule, "context " + index, line));
+    }
+    return violations;
+  }
+
+  private static class CountingIterator implements Iterator<Violation> {
+    private final Iterator<Violation> iterator;
+    private int count;
+
+    CountingIterator(Iterator<Violation> iterator) {
+      this.iterator = iterator;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return iterator.hasNext();
+    }
+
+    @Override
+    public Violation next() {
+      count++;
+      return iterator.next();
+    }
+  }
+
+  private static class ClosingWriter extends StringWriter {
+    private int closeCount;
+
+    @Override
+    public void close() throws IOException {
+      closeCount++;
+      super.close();
+    }
+  }
+}
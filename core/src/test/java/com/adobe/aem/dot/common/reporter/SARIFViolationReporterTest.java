@@ -0,0 +1,138 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.adobe.aem.dot.common.reporter;
+
+import com.adobe.aem.dot.common.ConfigurationLine;
+import com.adobe.aem.dot.common.analyzer.AnalyzerRule;
+import com.adobe.aem.dot.common.analyzer.CountedRuleViolation;
+import com.adobe.aem.dot.common.analyzer.Severity;
+import com.adobe.aem.dot.common.analyzer.Violation;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class SARIFViolationReporterTest {
+
+  @Test(expected = IllegalArgumentException.class)
+  public void generateReportNull() throws IOException {
+    new SARIFReporter().generateViolationReport(null);
+  }
+
+  @Test
+  public void generateReportEmptyList() throws IOException {
+    JsonNode log = new ObjectMapper().readTree(new SARIFReporter().generateViolationReport(new ArrayList<>()));
+
+    assertEquals("2.1.0", log.get("version").asText());
+    JsonNode run = log.get("runs").get(0);
+    assertEquals(0, run.get("results").size());
+    assertEquals(SARIFReporter.TOOL_NAME, run.get("tool").get("driver").get("name").asText());
+    assertEquals(0, run.get("tool").get("driver").get("rules").size());
+  }
+
+  @Test
+  public void generateReportWritesRulesOnce() throws IOException {
+    AnalyzerRule critical = new AnalyzerRule();
+    critical.setId("id1");
+    critical.setSeverity(Severity.CRITICAL);
+    critical.setDescription("Critical issue");
+    critical.setTags(Arrays.asList("dispatcher", "security"));
+    AnalyzerRule minor = new AnalyzerRule();
+    minor.setId("id2");
+    minor.setSeverity(Severity.MINOR);
+    minor.setDescription("Minor issue");
+
+    CountedRuleViolation counted = new CountedRuleViolation(
+            new Violation(minor, "minor context", new ConfigurationLine("foo", "farm.any", 0)));
+    counted.setRuleViolationCount(4);
+    String report = new SARIFReporter().generateViolationReport(Arrays.asList(
+            new Violation(critical, "first context", new ConfigurationLine("foo", "dispatcher.any", 25)),
+            counted,
+            new Violation(critical, "second context", new ConfigurationLine("foo", "dispatcher.any", 30))));
+
+    JsonNode run = new ObjectMapper().readTree(report).get("runs").get(0);
+    JsonNode results = run.get("results");
+    assertEquals(3, results.size());
+    assertEquals("id1", results.get(0).get("ruleId").asText());
+    assertEquals(0, results.get(0).get("ruleIndex").asInt());
+    assertEquals("error", results.get(0).get("level").asText());
+    assertEquals("first context", results.get(0).get("message").get("text").asText());
+    JsonNode location = results.get(0).get("locations").get(0).get("physicalLocation");
+    assertEquals("dispatcher.any", location.get("artifactLocation").get("uri").asText());
+    assertEquals(SARIFReporter.SOURCE_ROOT, location.get("artifactLocation").get("uriBaseId").asText());
+    assertEquals(25, location.get("region").get("startLine").asInt());
+
+    assertEquals(1, results.get(1).get("ruleIndex").asInt());
+    assertEquals("note", results.get(1).get("level").asText());
+    assertFalse("Line 0 should not be a region",
+            results.get(1).get("locations").get(0).get("physicalLocation").has("region"));
+    assertEquals(4, results.get(1).get("properties").get("occurrences").asInt());
+    assertEquals(0, results.get(2).get("ruleIndex").asInt());
+
+    JsonNode rules = run.get("tool").get("driver").get("rules");
+    assertEquals(2, rules.size());
+    assertEquals("id1", rules.get(0).get("id").asText());
+    assertEquals("Critical issue", rules.get(0).get("shortDescription").get("text").asText());
+    assertEquals("https://www.adobe.com/go/aem_cmcq_id1_en", rules.get(0).get("helpUri").asText());
+    assertEquals("CRITICAL", rules.get(0).get("properties").get("severity").asText());
+    assertEquals("security", rules.get(0).get("properties").get("tags").get(1).asText());
+    assertEquals("id2", rules.get(1).get("id").asText());
+  }
+
+  @Test
+  public void generateReportReusesReporter() throws IOException {
+    AnalyzerRule rule = new AnalyzerRule();
+    rule.setId("id1");
+    rule.setSeverity(Severity.MAJOR);
+    SARIFReporter reporter = new SARIFReporter();
+    String first = reporter.generateViolationReport(Collections.singletonList(
+            new Violation(rule, "context", new ConfigurationLine("foo", "dispatcher.any", 1))));
+    String second = reporter.generateViolationReport(Collections.singletonList(
+            new Violation(rule, "context", new ConfigurationLine("foo", "dispatcher.any", 1))));
+    assertEquals(first, second);
+  }
+
+  @Test
+  public void generateReportWritesArtifactUris() throws IOException {
+    AnalyzerRule rule = new AnalyzerRule();
+    rule.setId("id1");
+    String[] fileNames = { "dispatcher/src/conf.d/my farm.any", "dispatcher\\src\\100%.any",
+            "./conf:d/farm.any", "/opt/repo/dispatcher.any", "C:\\repo\\dispatcher.any" };
+    String[][] expected = {
+            { "dispatcher/src/conf.d/my%20farm.any", SARIFReporter.SOURCE_ROOT },
+            { "dispatcher/src/100%25.any", SARIFReporter.SOURCE_ROOT },
+            { "conf:d/farm.any", SARIFReporter.SOURCE_ROOT },
+            { "file:///opt/repo/dispatcher.any", null },
+            { "file:///C:/repo/dispatcher.any", null } };
+
+    for (int index = 0; index < fileNames.length; index++) {
+      String report = new SARIFReporter().generateViolationReport(Collections.singletonList(
+              new Violation(rule, "context", new ConfigurationLine("foo", fileNames[index], 1))));
+      JsonNode artifact = new ObjectMapper().readTree(report).get("runs").get(0).get("results").get(0)
+              .get("locations").get(0).get("physicalLocation").get("artifactLocation");
+      assertEquals(fileNames[index], expected[index][0], artifact.get("uri").asText());
+      assertEquals(fileNames[index], expected[index][1],
+              artifact.has("uriBaseId") ? artifact.get("uriBaseId").asText() : null);
+    }
+  }
+}
@@ -21,7 +21,9 @@ import ch.qos.logback.classic.Logger;
 import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.core.read.ListAppender;
 import com.adobe.aem.dot.common.ConfigurationLine;
+import com.adobe.aem.dot.common.ConfigurationSource;
 import com.adobe.aem.dot.common.analyzer.Severity;
+import com.adobe.aem.dot.common.analyzer.Violation;
 import com.adobe.aem.dot.common.helpers.AssertHelper;
 import com.adobe.aem.dot.common.parser.ConfigurationViolations;
 import com.adobe.aem.dot.dispatcher.core.model.ConfigurationValue;
@@ -113,4 +115,36 @@ public class FeedbackProcessorTest {
     assertEquals("testing null value \"\".", logsList.get(1).getMessage());
     assertEquals("Severity should be WARN.", Level.WARN, logsList.get(1).getLevel());
   }
+
+  @Test
+  public void testDeferredFormatting() {
+    Logger quietLogger = (Logger) LoggerFactory.getLogger(FeedbackProcessorTest.class);
+    Level level = quietLogger.getLevel();
+    quietLogger.setLevel(Level.OFF);
+    try {
+      // Neither logged nor reported, so the message is never formatted, and its bad format is never noticed.
+      FeedbackProcessor.error(quietLogger, "Just testing '{}' errors {1} {2}", label1, null);
+      assertEquals(0, listAppender.list.size());
+
+      FeedbackProcessor.warn(quietLogger, "Skipping unknown token.  Token=\"{}\"", label1, Severity.MINOR);
+      assertEquals(0, listAppender.list.size());
+      assertEquals(1, ConfigurationViolations.getViolations().size());
+      Violation violation = ConfigurationViolations.getViolations().get(0);
+      assertEquals("Skipping unknown token.  Token=\"test label\"", violation.getContext());
+      assertEquals("DOTRules:Disp-S2---token-unexpected", violation.getAnalyzerRule().getId());
+    } finally {
+      quietLogger.setLevel(level);
+    }
+  }
+
+  @Test
+  public void testDiagnosticRuleId() {
+    Diagnostic diagnostic = new Diagnostic("Unexpected value.  Value=\"{}\"", "Unclosed brace encountered.",
+            new ConfigurationSource("filename", 3));
+    assertEquals("The rule comes from the template, not the value", ConfigurationViolations.UNKNOWN_VIOLATION_ID,
+            diagnostic.getRuleId());
+    assertEquals("Unexpected value.  Value=\"Unclosed brace encountered.\"", diagnostic.getMessage());
+    assertEquals("Unexpected value.  Value=\"Unclosed brace encountered.\" File=\"filename\" Number=3",
+            diagnostic.toString());
+  }
 }
@@ -18,8 +18,14 @@ package com.adobe.aem.dot.common.util;
 
 import org.junit.Test;
 
+import java.util.regex.Pattern;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 public class MatchesBuilderTest {
 
@@ -36,4 +42,39 @@ public class MatchesBuilderTest {
     assertEquals("get match", "hello", mp.getMatch());
     assertEquals("get value", "there", mp.getValue());
   }
+
+  @Test
+  public void testRegex() {
+    assertTrue(new MatchesBuilder().append("regex(/content/.*)", "/content/site").isEquals());
+    assertFalse(new MatchesBuilder().append("regex(/content/.*)", "/etc/site").isEquals());
+    assertFalse(new MatchesBuilder().append("regex(/content/.*", "/content/site").isEquals());
+    assertFalse(new MatchesBuilder().append("regex(*)", "*").isEquals());
+    assertTrue(new MatchesBuilder().append("  regex(GET|HEAD)  ", "HEAD").isEquals());
+    assertFalse("Expect plain values to be compared exactly",
+            new MatchesBuilder().append("/content/.*", "/content/site").isEquals());
+  }
+
+  @Test
+  public void testPatternRegistry() {
+    // Expressions are compiled once, and shared by later comparisons.
+    Pattern pattern = PatternRegistry.getPattern("regex(/registry/compiled/.*)");
+    assertNotNull(pattern);
+    assertSame(pattern, PatternRegistry.getPattern("regex(/registry/compiled/.*)"));
+    assertNull("Expect invalid expressions to have no pattern", PatternRegistry.getPattern("regex([)"));
+
+    int precompiledCount = PatternRegistry.getPrecompiledCount();
+    PatternRegistry.precompile(" regex(/registry/precompiled/.*) ");
+    PatternRegistry.precompile("/registry/not-a-regex");
+    PatternRegistry.precompile(null);
+    assertEquals("Expect only the regex expression to be precompiled", precompiledCount + 1,
+            PatternRegistry.getPrecompiledCount());
+
+    // Precompiled expressions are kept when the other expressions are cleared.
+    pattern = PatternRegistry.getPattern("regex(/registry/precompiled/.*)");
+    PatternRegistry.clear();
+    assertEquals(0, PatternRegistry.getCompiledCount());
+    assertSame(pattern, PatternRegistry.getPattern("regex(/registry/precompiled/.*)"));
+    assertEquals(0, PatternRegistry.getCompiledCount());
+    assertTrue(PatternRegistry.matches("regex(/registry/precompiled/.*)", "/registry/precompiled/page"));
+  }
 }
@@ -22,15 +22,30 @@ import com.adobe.aem.dot.common.helpers.DispatcherConfigTestHelper;
 import com.adobe.aem.dot.common.helpers.PathEncodingHelper;
 import com.adobe.aem.dot.common.parser.ConfigurationParseResults;
 import com.adobe.aem.dot.common.parser.ConfigurationViolations;
+import com.adobe.aem.dot.common.parser.ParseStatistics;
 import com.adobe.aem.dot.common.util.PathUtil;
 import com.adobe.aem.dot.dispatcher.core.model.DispatcherConfiguration;
 import com.adobe.aem.dot.dispatcher.core.model.Farm;
+import com.adobe.aem.dot.dispatcher.core.parser.ConfigurationParseCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import org.apache.commons.io.FilenameUtils;
 import org.junit.BeforeClass;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -38,6 +53,9 @@ import static org.junit.Assert.fail;
 public class DispatcherConfigurationFactoryTest {
   private static DispatcherConfigTestHelper helper;
 
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
   @BeforeClass
   public static void beforeClass() {
     helper = new DispatcherConfigTestHelper();
@@ -110,6 +128,13 @@ public class DispatcherConfigurationFactoryTest {
     assertTrue("Farm should have renders", authorFarm.getRenders().getValue().size() > 0);
     assertTrue("Farm should have filters", authorFarm.getFilter().getValue().size() > 0);
     assertNotNull("Farm should have cache", authorFarm.getCache());
+
+    ParseStatistics statistics = dcf.getParseStatistics();
+    assertNotNull(statistics);
+    assertTrue("Should include files", statistics.getIncludedFileCount() > 0);
+    assertEquals(statistics.getFileCount() - 1, statistics.getIncludedFileCount());
+    assertTrue("Should include files from included files", statistics.getMaximumIncludeDepth() > 2);
+    assertTrue(statistics.getLineCount() > statistics.getFileCount());
   }
 
   @Test
@@ -139,4 +164,62 @@ public class DispatcherConfigurationFactoryTest {
     assertTrue("Farm should have filters", authorFarm.getFilter().getValue().size() > 0);
     assertNotNull("Farm should have cache", authorFarm.getCache());
   }
+
+  @Test
+  public void parseConfigCacheTest() throws ConfigurationException, IOException {
+    File cacheDirectory = folder.newFolder("parse-cache");
+    DispatcherConfigurationFactory dcf = new DispatcherConfigurationFactory(new ConfigurationParseCache(cacheDirectory));
+    String classPath = PathEncodingHelper.getDecodedClassPath(this.getClass());
+    String testProjectPath = PathEncodingHelper.getDecodedPath(classPath.substring(0, classPath.indexOf("/core/target/")) +
+            FilenameUtils.separatorsToSystem("/test-projects/test-project-all-rules-fail"));
+
+    ConfigurationParseResults<DispatcherConfiguration> parsed = dcf.parseConfiguration(testProjectPath,
+            "dispatcher/src/conf.dispatcher.d");
+    List<String> parsedViolations = getViolationContexts(parsed);
+    File[] entries = cacheDirectory.listFiles();
+    assertNotNull(entries);
+    assertEquals("Expect one cache entry", 1, entries.length);
+
+    ConfigurationParseResults<DispatcherConfiguration> cached = dcf.parseConfiguration(testProjectPath,
+            "dispatcher/src/conf.dispatcher.d");
+    assertNotSame("Expect configuration to be read from the cache", parsed.getConfiguration(),
+            cached.getConfiguration());
+    assertEquals("Expect same name", parsed.getConfiguration().getName().getValue(),
+            cached.getConfiguration().getName().getValue());
+    assertEquals("Expect same farm count", parsed.getConfiguration().getFarms().size(),
+            cached.getConfiguration().getFarms().size());
+    Farm parsedFarm = parsed.getConfiguration().getFarms().get(0).getValue();
+    Farm cachedFarm = cached.getConfiguration().getFarms().get(0).getValue();
+    assertEquals("Expect same farm label", parsedFarm.getLabel(), cachedFarm.getLabel());
+    assertEquals("Expect same filter count", parsedFarm.getFilter().getValue().size(),
+            cachedFarm.getFilter().getValue().size());
+    assertEquals("Expect same filter source", parsedFarm.getFilter().getFileName(),
+            cachedFarm.getFilter().getFileName());
+    assertFalse("Expect parsing violations", parsedViolations.isEmpty());
+    assertEquals("Expect same violations", parsedViolations, getViolationContexts(cached));
+    ObjectMapper mapper = new ObjectMapper().disable(SerializationFeature.FAIL_ON_EMPTY_BEANS);
+    assertEquals("Expect same effective configuration", mapper.writeValueAsString(parsed.getConfiguration()),
+            mapper.writeValueAsString(cached.getConfiguration()));
+    assertEquals("Expect a versioned JSON entry", "2", mapper.readTree(entries[0]).get("format").asText());
+
+    // An entry of another format is ignored, and the configuration is parsed again.
+    Files.write(entries[0].toPath(), "{\"format\":\"1\"}".getBytes(StandardCharsets.UTF_8));
+    ConfigurationParseResults<DispatcherConfiguration> otherFormat = dcf.parseConfiguration(testProjectPath,
+            "dispatcher/src/conf.dispatcher.d");
+    assertEquals("Expect same farm count", parsed.getConfiguration().getFarms().size(),
+            otherFormat.getConfiguration().getFarms().size());
+
+    // A damaged entry is ignored, and the configuration is parsed again.
+    Files.write(entries[0].toPath(), "damaged".getBytes(StandardCharsets.UTF_8));
+    ConfigurationParseResults<DispatcherConfiguration> reparsed = dcf.parseConfiguration(testProjectPath,
+            "dispatcher/src/conf.dispatcher.d");
+    assertEquals("Expect same violations", parsedViolations, getViolationContexts(reparsed));
+  }
+
+  private List<String> getViolationContexts(ConfigurationParseResults<DispatcherConfiguration> results) {
+    return results.getViolations(ViolationVerbosity.FULL).stream()
+            .map(violation -> violation.getContext() + "@" + violation.getConfigurationSource().getFileName() + ":" +
+                    violation.getConfigurationSource().getLineNumber())
+            .collect(Collectors.toList());
+  }
 }
@@ -0,0 +1,148 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.adobe.aem.dot.dispatcher.core;
+
+import com.adobe.aem.dot.common.ConfigurationException;
+import com.adobe.aem.dot.common.ConfigurationFileCache;
+import com.adobe.aem.dot.common.RepositoryFileTree;
+import com.adobe.aem.dot.common.analyzer.ViolationVerbosity;
+import com.adobe.aem.dot.common.helpers.PathEncodingHelper;
+import com.adobe.aem.dot.common.parser.ConfigurationParseResults;
+import com.adobe.aem.dot.dispatcher.core.model.ConfigurationValue;
+import com.adobe.aem.dot.dispatcher.core.model.DispatcherConfiguration;
+import com.adobe.aem.dot.dispatcher.core.model.Farm;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.FilenameUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class DispatcherConfigurationSessionTest {
+  private static final String ANY_PATH = "src/conf.dispatcher.d";
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private String repoPath;
+
+  @Before
+  public void before() throws IOException {
+    String classPath = PathEncodingHelper.getDecodedClassPath(this.getClass());
+    File source = new File(PathEncodingHelper.getDecodedPath(classPath.substring(0, classPath.indexOf("/core/target/")) +
+            FilenameUtils.separatorsToSystem("/test-projects/test-project-all-rules-fail/dispatcher/src")));
+    File repo = folder.newFolder("repo");
+    FileUtils.copyDirectory(source, new File(repo, "src"));
+    repoPath = repo.getPath();
+  }
+
+  @Test
+  public void updateReparsesChangedFarms() throws ConfigurationException, IOException {
+    DispatcherConfigurationSession session = new DispatcherConfigurationSession(repoPath, ANY_PATH);
+    ConfigurationParseResults<DispatcherConfiguration> results = session.getResults();
+    assertEquals("Expect 2 farms", 2, results.getConfiguration().getFarms().size());
+    assertEquals("Expect no farms reused", 0, session.getReusedFarmCount());
+
+    File farmFile = new File(repoPath, ANY_PATH + "/enabled_farms/999_skylab_farm.any");
+    assertTrue("Expect the farm file to be read", session.getFiles().contains(farmFile.getAbsolutePath()));
+
+    // Nothing changed: both farms are reused.
+    session.update(Collections.emptyList());
+    assertEquals("Expect both farms reused", 2, session.getReusedFarmCount());
+
+    String farm = FileUtils.readFileToString(farmFile, StandardCharsets.UTF_8);
+    FileUtils.writeStringToFile(farmFile, farm.replace("/statfileslevel \"0\"", "/statfileslevel \"3\""),
+            StandardCharsets.UTF_8);
+    results = session.update(Collections.singletonList(farmFile));
+    assertEquals("Expect the unchanged farm reused", 3, session.getReusedFarmCount());
+    List<String> farmSummaries = getFarmSummaries(results.getConfiguration());
+    List<String> violations = getViolations(results);
+    assertTrue("Expect the changed level", farmSummaries.contains("skylabfarm@" + ANY_PATH +
+            "/enabled_farms/999_skylab_farm.any:3"));
+
+    ConfigurationParseResults<DispatcherConfiguration> fresh = new DispatcherConfigurationFactory(null)
+            .parseConfiguration(repoPath, ANY_PATH);
+    assertEquals("Expect the same farms as a full parse", getFarmSummaries(fresh.getConfiguration()),
+            farmSummaries);
+    assertEquals("Expect the same violations as a full parse", getViolations(fresh), violations);
+  }
+
+  @Test
+  public void updateLeavesEarlierResultsUnchanged() throws ConfigurationException {
+    DispatcherConfigurationSession session = new DispatcherConfigurationSession(repoPath, ANY_PATH);
+    ConfigurationParseResults<DispatcherConfiguration> results = session.getResults();
+    List<String> farmSummaries = getFarmSummaries(results.getConfiguration());
+    List<String> violations = getViolations(results);
+
+    ConfigurationParseResults<DispatcherConfiguration> updated = session.update(Collections.emptyList());
+    assertEquals("Expect both farms reused", 2, session.getReusedFarmCount());
+    for (int index = 0; index < 2; index++) {
+      ConfigurationValue<Farm> farm = results.getConfiguration().getFarms().get(index);
+      ConfigurationValue<Farm> reused = updated.getConfiguration().getFarms().get(index);
+      assertSame("Expect the labeled farm reused as a whole", farm, reused);
+    }
+    assertEquals("Expect the earlier farms unchanged", farmSummaries, getFarmSummaries(results.getConfiguration()));
+    assertEquals("Expect the earlier violations unchanged", violations, getViolations(results));
+  }
+
+  @Test
+  public void updateKeepsRepositoryIndex() throws ConfigurationException, IOException {
+    DispatcherConfigurationSession session = new DispatcherConfigurationSession(new DispatcherConfigurationFactory(null),
+            repoPath, ANY_PATH, new ConfigurationFileCache(true));
+    assertEquals("Expect 2 farms", 2, session.getResults().getConfiguration().getFarms().size());
+    RepositoryFileTree tree = session.getFileTree();
+    assertNotNull("Expect the repository indexed", tree);
+
+    // A farm added to the folder included with a wildcard is found without walking the repository again.
+    File enabledFarms = new File(repoPath, ANY_PATH + "/enabled_farms");
+    File addedFarm = new File(enabledFarms, "500_skylab_farm.any");
+    FileUtils.copyFile(new File(enabledFarms, "000_skylab_farm.any"), addedFarm);
+    ConfigurationParseResults<DispatcherConfiguration> results = session.update(Collections.singletonList(addedFarm));
+    assertSame("Expect the same index", tree, session.getFileTree());
+    assertEquals("Expect the added farm", 3, results.getConfiguration().getFarms().size());
+  }
+
+  private List<String> getFarmSummaries(DispatcherConfiguration configuration) {
+    return configuration.getFarms().stream()
+            .map(ConfigurationValue::getValue)
+            .map(farm -> farm.getLabel() + "@" + getFileName(farm) + ":" +
+                    farm.getCache().getValue().getStatfileslevel().getValue())
+            .collect(Collectors.toList());
+  }
+
+  private String getFileName(Farm farm) {
+    return FilenameUtils.separatorsToUnix(farm.getCache().getFileName());
+  }
+
+  private List<String> getViolations(ConfigurationParseResults<DispatcherConfiguration> results) {
+    return results.getViolations(ViolationVerbosity.FULL).stream()
+            .map(violation -> violation.getContext() + "@" + violation.getConfigurationSource().getFileName() + ":" +
+                    violation.getConfigurationSource().getLineNumber())
+            .collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,138 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.adobe.aem.dot.dispatcher.core.analyzer.conditions;
+
+import com.adobe.aem.dot.common.analyzer.CheckResult;
+import com.adobe.aem.dot.dispatcher.core.model.ConfigurationValue;
+import com.adobe.aem.dot.dispatcher.core.model.FilterRule;
+import com.adobe.aem.dot.dispatcher.core.model.GlobRule;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ListIndexesTest {
+  private static final String[] METHODS = { "GET", "POST", " HEAD ", null, "regex(GET|POST)" };
+  private static final String[] EXTENSIONS = { "html", "json", "js", null, "regex(.*)" };
+
+  @Test
+  public void filtersMatchListContains() {
+    List<FilterRule> filters = new ArrayList<>();
+    for (int index = 0; index < 200; index++) {
+      filters.add(createFilter(index % 2 == 0 ? "ALLOW" : "DENY", METHODS[index % METHODS.length],
+              EXTENSIONS[index % EXTENSIONS.length], "/content/site" + (index % 7) + "/*"));
+    }
+
+    List<FilterRule> probes = new ArrayList<>();
+    for (String type : Arrays.asList("ALLOW", "DENY")) {
+      for (String method : Arrays.asList("GET", "HEAD", "DELETE", null, "regex(GET|HEAD)", "regex(P.*)", "regex([)")) {
+        for (String extension : Arrays.asList("html", "js", null, "regex(j.*)", "regex(.*)", "css")) {
+          probes.add(createFilter(type, method, extension, "/content/site3/*"));
+          probes.add(createFilter(type, method, extension, "regex(/content/site[0-2]/.*)"));
+          probes.add(createFilter(type, method, extension, null));
+        }
+      }
+    }
+    probes.add(null);
+
+    ListIndexes listIndexes = new ListIndexes();
+    int found = 0;
+    for (FilterRule probe : probes) {
+      boolean expected = filters.contains(probe);
+      assertEquals("Probe=" + probe, expected, listIndexes.containsFilter(filters, probe));
+      found += expected ? 1 : 0;
+    }
+    assertTrue("Expect some probes to be found", found > 0);
+    assertTrue("Expect some probes to be missing", found < probes.size());
+    assertEquals("Expect the list to be indexed once", 1, listIndexes.size());
+
+    filters.add(null);
+    assertTrue(new ListIndexes().containsFilter(filters, null));
+  }
+
+  @Test
+  public void rulesMatchListContains() {
+    List<GlobRule> rules = new ArrayList<>();
+    for (int index = 0; index < 100; index++) {
+      rules.add(createRule(index % 3 == 0 ? "DENY" : "ALLOW", index % 10 == 0 ? "*" : "param" + index));
+    }
+
+    ListIndexes listIndexes = new ListIndexes();
+    for (String type : Arrays.asList("ALLOW", "DENY")) {
+      for (String glob : Arrays.asList("*", "param1", "param3", "param99", "other", "regex(param9.)", "regex(.*)",
+              null)) {
+        GlobRule probe = createRule(type, glob);
+        assertEquals("Probe=" + probe, rules.contains(probe), listIndexes.containsRule(rules, probe));
+      }
+    }
+    assertEquals("Expect the list to be indexed once", 1, listIndexes.size());
+  }
+
+  @Test
+  public void shortListsAreNotIndexed() {
+    List<GlobRule> rules = new ArrayList<>();
+    for (int index = 0; index < ListIndexes.MINIMUM_INDEXED_SIZE - 1; index++) {
+      rules.add(createRule("ALLOW", "param" + index));
+    }
+
+    ListIndexes listIndexes = new ListIndexes();
+    assertTrue(listIndexes.containsRule(rules, createRule("ALLOW", "param2")));
+    assertFalse(listIndexes.containsRule(rules, createRule("DENY", "param2")));
+    assertEquals(0, listIndexes.size());
+  }
+
+  @Test
+  public void checksUseIndexes() {
+    List<FilterRule> filters = new ArrayList<>();
+    for (int index = 0; index < 50; index++) {
+      filters.add(createFilter("ALLOW", "GET", "ext" + index, null));
+    }
+    ConfigurationValue<List<FilterRule>> value = new ConfigurationValue<>(filters, "ListIndexesTest.any", 1);
+
+    FilterListIncludesCheck check = new FilterListIncludesCheck();
+    check.setFilterValue(createFilter("ALLOW", "regex(G.*)", "ext42", null));
+    ListIndexes listIndexes = new ListIndexes();
+    CheckResult checkResult = check.performCheck(value, listIndexes);
+    assertTrue(checkResult.isPassed());
+    assertEquals(1, listIndexes.size());
+    assertEquals(checkResult.isPassed(), check.performCheck(value).isPassed());
+
+    check.setFilterValue(createFilter("DENY", "GET", "ext42", null));
+    assertFalse(check.performCheck(value, listIndexes).isPassed());
+    assertEquals(1, listIndexes.size());
+  }
+
+  private static FilterRule createFilter(String type, String method, String extension, String url) {
+    FilterRule filter = new FilterRule();
+    filter.setType(type);
+    filter.setMethod(method);
+    filter.setExtension(extension);
+    filter.setURL(url);
+    return filter;
+  }
+
+  private static GlobRule createRule(String type, String glob) {
+    GlobRule rule = new GlobRule();
+    rule.setType(type);
+    rule.setGlob(glob);
+    return rule;
+  }
+}
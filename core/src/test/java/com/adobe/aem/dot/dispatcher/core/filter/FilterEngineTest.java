@@ -0,0 +1,201 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.adobe.aem.dot.dispatcher.core.filter;
+
+import com.adobe.aem.AllRulesFailTest;
+import com.adobe.aem.dot.common.ConfigurationException;
+import com.adobe.aem.dot.dispatcher.core.DispatcherConfigurationFactory;
+import com.adobe.aem.dot.dispatcher.core.model.DispatcherConfiguration;
+import com.adobe.aem.dot.dispatcher.core.model.Farm;
+import com.adobe.aem.dot.dispatcher.core.model.FilterRule;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class FilterEngineTest {
+
+  @Test
+  public void parseRequest() {
+    FilterRequest request = FilterRequest.parse("GET", "/content/site/page.sel1.sel2.html/suffix/path.json?debug=1");
+    assertEquals("GET", request.getMethod());
+    assertEquals("/content/site/page", request.getPath());
+    assertEquals("sel1.sel2", request.getSelectors());
+    assertEquals("html", request.getExtension());
+    assertEquals("/suffix/path.json", request.getSuffix());
+    assertEquals("debug=1", request.getQuery());
+    assertEquals("/content/site/page.sel1.sel2.html/suffix/path.json", request.getUrl());
+    assertEquals("GET /content/site/page.sel1.sel2.html/suffix/path.json?debug=1 HTTP/1.1", request.getRequestLine());
+
+    request = FilterRequest.parse("GET", "/content/site/page");
+    assertEquals("/content/site/page", request.getPath());
+    assertEquals("", request.getSelectors());
+    assertEquals("", request.getExtension());
+    assertEquals("", request.getSuffix());
+    assertEquals("", request.getQuery());
+    assertEquals("GET /content/site/page HTTP/1.1", request.getRequestLine());
+
+    request = FilterRequest.parse("POST", "/content/site/page.html");
+    assertEquals("", request.getSelectors());
+    assertEquals("html", request.getExtension());
+  }
+
+  @Test
+  public void lastMatchingFilterDecides() {
+    List<FilterRule> filters = new ArrayList<>();
+    filters.add(createFilter("DENY", "*", null, null, null, null));
+    filters.add(createFilter("ALLOW", null, "/content/*", null, "(html|json)", null));
+    filters.add(createFilter("DENY", null, null, "(infinity|[0-9-]+)", null, null));
+    filters.add(createFilter("ALLOW", "/libs/granite/csrf/token.json", null, null, null, "GET"));
+    FilterEngine engine = FilterEngine.compile(filters);
+
+    assertDecision(engine, "GET", "/content/site/page.html", true, 1);
+    assertDecision(engine, "GET", "/content/site/page.infinity.json", false, 2);
+    assertDecision(engine, "GET", "/content/site/page.1.json", false, 2);
+    assertDecision(engine, "GET", "/content/site/page.model.json", true, 1);
+    assertDecision(engine, "GET", "/content/site/page.pdf", false, 0);
+    assertDecision(engine, "GET", "/libs/granite/csrf/token.json", true, 3);
+    assertDecision(engine, "POST", "/libs/granite/csrf/token.json", false, 0);
+    assertEquals("Expect only the catch-all and selectors filters to be tested for every request", 2,
+            engine.getUnindexedCount());
+  }
+
+  @Test
+  public void noFilters() {
+    FilterDecision decision = FilterEngine.compile((List<FilterRule>) null).evaluate(
+            FilterRequest.parse("GET", "/content/site/page.html"));
+    assertTrue("Expect requests no filter applies to to be allowed", decision.isAllowed());
+    assertNull(decision.getRule());
+    assertEquals(-1, decision.getRuleIndex());
+    assertTrue(FilterEngine.compile(Collections.emptyList()).isAllowed(FilterRequest.parse("GET", "/")));
+  }
+
+  @Test
+  public void regexAndGlobValues() {
+    List<FilterRule> filters = new ArrayList<>();
+    filters.add(createFilter("DENY", "regex(/content/.*)", null, null, null, null));
+    filters.add(createFilter("ALLOW", "/content/*/page.*", null, null, null, null));
+    filters.add(createFilter("DENY", "/_?jcr[:_]system.*", null, null, null, null));
+    filters.add(createFilter("ALLOW", "regex(/content/[)", null, null, null, null));
+    FilterEngine engine = FilterEngine.compile(filters);
+
+    assertDecision(engine, "GET", "/content/site/page.html", true, 1);
+    assertDecision(engine, "GET", "/content/site/other.html", false, 0);
+    assertDecision(engine, "GET", "/jcr:system/path.json", false, 2);
+    assertDecision(engine, "GET", "/_jcr_system/path.json", false, 2);
+  }
+
+  @Test
+  public void publishFarmFilters() throws ConfigurationException {
+    String repoPath = AllRulesFailTest.getPathToTestModule(this.getClass(), "test-projects/test-project-all-rules-pass/");
+    DispatcherConfiguration config = new DispatcherConfigurationFactory().parseConfiguration(repoPath, null)
+            .getConfiguration();
+    Farm publishFarm = config.getFarms().stream()
+            .map(farm -> farm.getValue())
+            .filter(farm -> farm.getLabel().contains("publish"))
+            .findFirst()
+            .orElseThrow(IllegalStateException::new);
+    FilterEngine engine = FilterEngine.compile(publishFarm.getFilter());
+
+    assertDecision(engine, "GET", "/content/site/page.html", true, "0010");
+    assertDecision(engine, "GET", "/content/site/page.infinity.json", false, "0102");
+    assertDecision(engine, "GET", "/content/site/page.html/suffix", false, "0101");
+    assertDecision(engine, "GET", "/content/site/page.html?debug=layout", false, "0018");
+    assertDecision(engine, "GET", "/etc.clientlibs/site/clientlib.css", true, "0012");
+    assertDecision(engine, "GET", "/apps/site/component.html", false, "0001");
+    assertDecision(engine, "GET", "/content/regent.html", false, "0021");
+  }
+
+  @Test
+  public void indexedMatchesSequential() {
+    String[] urls = { "*", "/content/*", "/content/site1/*", "/content/site2/*.html", "regex(/content/site[12]/.*)",
+            "/content/site1/page.html", "/libs/*", "/libs/granite/.*", "/content*", "*.json", null, null, null };
+    String[] paths = { "/content/*", "/content/site2/*", "/etc/clientlibs/*", "/content/site1/page", null, null };
+    String[] selectors = { "*", "(infinity|tidy|[0-9]+)", "sel1", null, null, null };
+    String[] extensions = { "html", "(html|json)", "js*", null, null };
+    String[] methods = { "GET", "POST", "(GET|HEAD)", null, null };
+    String[] requestUrls = { "/content/site1/page.html", "/content/site2/page.sel1.html", "/content/site1/page.1.json",
+            "/content/site2/a/b.infinity.json", "/libs/granite/csrf/token.json", "/etc/clientlibs/site/all.js",
+            "/content", "/content.html", "/content/site1/page.html/suffix.png", "/apps/site.tidy.json?q=1", "/" };
+    String[] requestMethods = { "GET", "POST", "HEAD" };
+
+    Random random = new Random(42);
+    for (int run = 0; run < 20; run++) {
+      List<FilterRule> filters = new ArrayList<>();
+      for (int index = 0; index < 60; index++) {
+        filters.add(createFilter(random.nextBoolean() ? "ALLOW" : "DENY", pick(random, urls), pick(random, paths),
+                pick(random, selectors), pick(random, extensions), pick(random, methods)));
+      }
+      FilterEngine engine = FilterEngine.compile(filters);
+
+      for (String url : requestUrls) {
+        for (String method : requestMethods) {
+          FilterRequest request = FilterRequest.parse(method, url);
+          FilterDecision expected = engine.evaluateSequentially(request);
+          FilterDecision decision = engine.evaluate(request);
+          assertEquals(request.toString(), expected.getRuleIndex(), decision.getRuleIndex());
+          assertEquals(request.toString(), expected.isAllowed(), decision.isAllowed());
+        }
+      }
+    }
+  }
+
+  private static void assertDecision(FilterEngine engine, String method, String url, boolean allowed, int ruleIndex) {
+    FilterDecision decision = engine.evaluate(FilterRequest.parse(method, url));
+    assertEquals(method + " " + url + ": " + decision, allowed, decision.isAllowed());
+    assertEquals(method + " " + url + ": " + decision, ruleIndex, decision.getRuleIndex());
+  }
+
+  private static void assertDecision(FilterEngine engine, String method, String url, boolean allowed, String label) {
+    FilterDecision decision = engine.evaluate(FilterRequest.parse(method, url));
+    assertEquals(method + " " + url + ": " + decision, allowed, decision.isAllowed());
+    assertEquals(method + " " + url + ": " + decision, label, decision.getRule().getLabel());
+    assertFalse(decision.toString().isEmpty());
+  }
+
+  private static String pick(Random random, String[] values) {
+    return values[random.nextInt(values.length)];
+  }
+
+  private static FilterRule createFilter(String type, String url, String path, String selectors, String extension,
+                                         String method) {
+    FilterRule filter = new FilterRule();
+    filter.setType(type);
+    if (url != null) {
+      filter.setURL(url);
+    }
+    if (path != null) {
+      filter.setPath(path);
+    }
+    if (selectors != null) {
+      filter.setSelectors(selectors);
+    }
+    if (extension != null) {
+      filter.setExtension(extension);
+    }
+    if (method != null) {
+      filter.setMethod(method);
+    }
+    return filter;
+  }
+}
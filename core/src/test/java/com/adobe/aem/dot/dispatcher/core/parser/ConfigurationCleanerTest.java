@@ -0,0 +1,73 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.adobe.aem.dot.dispatcher.core.parser;
+
+import com.adobe.aem.dot.common.ConfigurationLine;
+import com.adobe.aem.dot.common.analyzer.Violation;
+import com.adobe.aem.dot.common.parser.ConfigurationViolations;
+import org.junit.Rule;
+import org.junit.Test;
+import uk.org.webcompere.systemstubs.rules.EnvironmentVariablesRule;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+
+public class ConfigurationCleanerTest {
+
+  @Rule
+  public EnvironmentVariablesRule environmentVariablesRule = new EnvironmentVariablesRule();
+
+  private List<ConfigurationLine> getLines(String... contents) {
+    List<ConfigurationLine> lines = new ArrayList<>();
+    for (int i = 0; i < contents.length; i++) {
+      lines.add(new ConfigurationLine(contents[i], "test.any", i + 1));
+    }
+    return lines;
+  }
+
+  @Test
+  public void cleanConfig() {
+    environmentVariablesRule.set("DOCROOT", "/var/www/html");
+    List<ConfigurationLine> lines = getLines("  /farms {  ", "", "   # comment", "/docroot \"${DOCROOT}\" # root",
+            "/url \"/path#anchor\" # comment", "/glob '#*' ", "/missing ${NOT_SET_FOR_TEST}", "\t}\t");
+
+    List<ConfigurationLine> cleaned = ConfigurationCleaner.cleanConfig(lines, true);
+    assertEquals(Arrays.asList("/farms {", "/docroot \"/var/www/html\"", "/url \"/path#anchor\"", "/glob '#*'",
+            "/missing _ENV___NOT_SET_FOR_TEST__", "}"),
+            cleaned.stream().map(ConfigurationLine::getContents).collect(Collectors.toList()));
+    assertEquals(Arrays.asList(1, 4, 5, 6, 7, 8),
+            cleaned.stream().map(ConfigurationLine::getLineNumber).collect(Collectors.toList()));
+    assertEquals("Lines are not modified", "/docroot \"${DOCROOT}\" # root", lines.get(3).getContents());
+  }
+
+  @Test
+  public void unmatchedQuotes() {
+    ConfigurationViolations.clearViolations();
+    List<ConfigurationLine> lines = getLines("/a \"open", "/b \"escaped \\\" quote\"", "/c 'it\\'s'", "/d 'open",
+            "/e \"x\" # \"comment quote");
+
+    ConfigurationCleaner.cleanConfig(lines, true);
+    List<Violation> violations = ConfigurationViolations.getViolations();
+    assertEquals(2, violations.size());
+    assertEquals("Unmatched quote (\").  Line=\"/a \"open\"", violations.get(0).getContext());
+    assertEquals(1, violations.get(0).getConfigurationSource().getLineNumber());
+    assertEquals(4, violations.get(1).getConfigurationSource().getLineNumber());
+  }
+}
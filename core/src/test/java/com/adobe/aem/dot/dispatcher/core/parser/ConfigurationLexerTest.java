@@ -0,0 +1,109 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.adobe.aem.dot.dispatcher.core.parser;
+
+import com.adobe.aem.dot.common.ConfigurationLine;
+import com.adobe.aem.dot.dispatcher.core.model.ConfigurationValue;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ConfigurationLexerTest {
+
+  private List<ConfigurationLine> getLines(String... contents) {
+    List<ConfigurationLine> lines = new ArrayList<>();
+    for (int i = 0; i < contents.length; i++) {
+      lines.add(new ConfigurationLine(contents[i], "test.any", i + 1));
+    }
+    return lines;
+  }
+
+  @Test
+  public void tokenTypes() {
+    List<ConfigurationLine> lines = getLines("/farms {", "/glob \"*.html\" /type 'allow' }", "/x \"open");
+    ConfigurationTokens tokens = ConfigurationLexer.tokenize(lines);
+
+    assertEquals("token count", 9, tokens.size());
+    assertEquals(ConfigurationTokenType.LABEL, tokens.getType(0));
+    assertEquals("/farms", tokens.getText(0));
+    assertEquals(ConfigurationTokenType.OPEN_BRACE, tokens.getType(1));
+    assertEquals(ConfigurationTokenType.QUOTED, tokens.getType(3));
+    assertEquals("\"*.html\"", tokens.getText(3));
+    assertEquals(ConfigurationTokenType.QUOTED, tokens.getType(5));
+    assertEquals("'allow'", tokens.getText(5));
+    assertEquals(ConfigurationTokenType.CLOSE_BRACE, tokens.getType(6));
+    assertEquals(ConfigurationTokenType.UNTERMINATED_QUOTED, tokens.getType(8));
+    assertEquals("\"open", tokens.getText(8));
+  }
+
+  @Test
+  public void tokenBoundaries() {
+    ConfigurationTokens tokens = ConfigurationLexer.tokenize(getLines("a/b{c}\"d \\\" e\"  # comment \"f\""));
+
+    assertEquals("token count", 6, tokens.size());
+    assertEquals("a", tokens.getText(0));
+    assertEquals("/b", tokens.getText(1));
+    assertEquals("{", tokens.getText(2));
+    assertEquals("c", tokens.getText(3));
+    assertEquals("}", tokens.getText(4));
+    assertEquals("\"d \\\" e\"", tokens.getText(5));
+    assertTrue("a and /b are adjacent", tokens.isAdjacent(0, 1));
+  }
+
+  @Test
+  public void sourceLines() {
+    ConfigurationTokens tokens = ConfigurationLexer.tokenize(getLines("/cache", "{ /docroot \"/tmp\"", "}"));
+
+    // An open ended token at the end of a line is reported against the following line.
+    assertEquals("/cache is reported on line 2", 2, tokens.getSourceLine(0).getLineNumber());
+    assertEquals("{ is reported on its own line", 2, tokens.getSourceLine(1).getLineNumber());
+    assertEquals("quoted string is reported on its own line", 2, tokens.getSourceLine(3).getLineNumber());
+    assertEquals("last token is reported on its own line", 3, tokens.getSourceLine(4).getLineNumber());
+  }
+
+  @Test
+  public void readerNextStringSplitsTokens() {
+    ConfigurationReader reader = new ConfigurationReader(
+            getLines("/glob /en/news/'*?lang=en /type \"deny\" }"));
+
+    assertEquals("/glob", reader.next().getValue());
+    assertEquals("/en/news/'*?lang=en", reader.nextString().getValue());
+    assertEquals("/type", reader.next().getValue());
+    ConfigurationValue<String> type = reader.next();
+    assertEquals("deny", type.getValue());
+    assertTrue("closing brace is next", reader.isNextChar('}'));
+    assertTrue("deprecated overload still checks the next token", reader.isNextChar('}', true));
+    reader.next();
+    assertFalse("all tokens read", reader.hasNext());
+  }
+
+  @Test
+  public void readerWithoutLines() {
+    ConfigurationReader reader = new ConfigurationReader(new ArrayList<>());
+
+    assertFalse("no tokens", reader.hasNext());
+    assertNull("no token to read", reader.next());
+    assertNull("no line to be positioned on", reader.getCurrentConfigurationValue());
+    assertFalse("no character is next", reader.isNextChar('{'));
+  }
+}
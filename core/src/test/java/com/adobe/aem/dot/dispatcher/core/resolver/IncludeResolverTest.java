@@ -20,6 +20,8 @@ import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.core.read.ListAppender;
 import com.adobe.aem.dot.common.ConfigurationException;
+import com.adobe.aem.dot.common.ConfigurationFileLoader;
+import com.adobe.aem.dot.common.ConfigurationLine;
 import com.adobe.aem.dot.common.helpers.AssertHelper;
 import com.adobe.aem.dot.common.helpers.DispatcherConfigTestHelper;
 import com.adobe.aem.dot.dispatcher.core.DispatcherConstants;
@@ -27,9 +29,12 @@ import com.adobe.aem.dot.dispatcher.core.parser.ConfigurationSyntaxException;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 public class IncludeResolverTest {
@@ -98,4 +103,47 @@ public class IncludeResolverTest {
             logsList.get(0).getMessage());
     assertEquals("Severity should be ERROR.", Level.ERROR, logsList.get(0).getLevel());
   }
+
+  @Test
+  public void parallelIncludesKeepOrder() throws IOException, ConfigurationSyntaxException {
+    StringBuilder sb = new StringBuilder("/name \"parallel\"\n");
+    sb.append("/farms {\n");
+    sb.append("/publish {\n");
+    sb.append("/virtualhosts {\n");
+    sb.append("$include \"src/test/resources/dispatcher-includes/src/conf.dispatcher.d/vhosts/*.any\"\n");
+    sb.append("$include \"src/test/resources/dispatcher-includes/src/conf.dispatcher.d/vhosts/layer-1.any\"\n");
+    sb.append("}\n");
+    sb.append("/filter { $include \"src/test/resources/dispatcher-includes/src/conf.dispatcher.d/filters/filter.any\" }\n");
+    sb.append("}\n");
+    sb.append("}\n");
+    String basePath = System.getProperty("user.dir");
+
+    List<ConfigurationLine> sequential = new IncludeResolver(sb.toString(), basePath, basePath).resolve();
+    List<ConfigurationLine> parallel = new IncludeResolver(ConfigurationFileLoader.splitLines(sb), basePath, basePath,
+            4).resolve();
+
+    assertTrue("Expect included lines", sequential.size() > 10);
+    assertEquals("Expect the same number of lines", sequential.size(), parallel.size());
+    for (int index = 0; index < sequential.size(); index++) {
+      ConfigurationLine expected = sequential.get(index);
+      ConfigurationLine actual = parallel.get(index);
+      assertEquals("Expect same contents", expected.getContents(), actual.getContents());
+      assertEquals("Expect same file", expected.getFileName(), actual.getFileName());
+      assertEquals("Expect same line number", expected.getLineNumber(), actual.getLineNumber());
+      assertEquals("Expect same included from", expected.getIncludedFrom(), actual.getIncludedFrom());
+    }
+  }
+
+  @Test
+  public void parallelInfiniteIncludeTest() throws IOException {
+    File dispatcherAny = new File(DispatcherConfigTestHelper.getConfigFileAbsolutePath(this.getClass(),
+            DispatcherConstants.DISPATCHER_ANY));
+    List<String> lines = ConfigurationFileLoader.readLines(dispatcherAny);
+    try {
+      new IncludeResolver(lines, dispatcherAny.getParent(), dispatcherAny.getParent(), 4).resolve();
+      fail("Exception should have been thrown.");
+    } catch (ConfigurationSyntaxException csEx) {
+      assertTrue("Expect include depth error", csEx.getMessage().startsWith("Maximum number of Dispatcher includes (50)"));
+    }
+  }
 }
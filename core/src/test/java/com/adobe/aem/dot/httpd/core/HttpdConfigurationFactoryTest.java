@@ -24,6 +24,7 @@ import com.adobe.aem.dot.common.ConfigurationFileFinder;
 import com.adobe.aem.dot.common.helpers.AssertHelper;
 import com.adobe.aem.dot.common.helpers.PathEncodingHelper;
 import com.adobe.aem.dot.common.parser.ConfigurationParseResults;
+import com.adobe.aem.dot.common.parser.ParseStatistics;
 import com.adobe.aem.dot.httpd.core.model.HttpdConfiguration;
 import com.adobe.aem.dot.httpd.core.model.SectionType;
 import org.apache.commons.io.FilenameUtils;
@@ -101,6 +102,12 @@ public class HttpdConfigurationFactoryTest {
     assertTrue("Should have virtual hosts", config.getVirtualHosts().size() > 0);
     assertTrue("Should have directives", config.getDirectives().size() > 0);
     assertTrue("Should have sections", config.getSections().size() > 0);
+
+    ParseStatistics statistics = hcf.getParseStatistics();
+    assertNotNull(statistics);
+    assertTrue("Should include files", statistics.getIncludedFileCount() > 0);
+    assertTrue("Should include files from included files", statistics.getMaximumIncludeDepth() > 2);
+    assertTrue(statistics.getLineCount() > statistics.getFileCount());
   }
 
   @Test
@@ -0,0 +1,68 @@
+/*
+ *    Copyright 2021 Adobe. All rights reserved.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package com.adobe.aem.dot.httpd.core;
+
+import com.adobe.aem.dot.common.ConfigurationException;
+import com.adobe.aem.dot.common.helpers.PathEncodingHelper;
+import com.adobe.aem.dot.common.parser.ConfigurationParseResults;
+import com.adobe.aem.dot.httpd.core.model.HttpdConfiguration;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.FilenameUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class HttpdConfigurationSessionTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void updateRereadsChangedFiles() throws ConfigurationException, IOException {
+    String classPath = PathEncodingHelper.getDecodedClassPath(this.getClass());
+    File source = new File(PathEncodingHelper.getDecodedPath(classPath.substring(0, classPath.indexOf("/core/target/")) +
+            FilenameUtils.separatorsToSystem("/test-projects/test-project-all-rules-fail/dispatcher/src")));
+    File repo = folder.newFolder("repo");
+    FileUtils.copyDirectory(source, repo);
+
+    HttpdConfigurationSession session = new HttpdConfigurationSession(repo.getPath(), "conf");
+    ConfigurationParseResults<HttpdConfiguration> results = session.getResults();
+    assertNotNull(results);
+    assertEquals("Expect the original port", "80",
+            results.getConfiguration().getEffectiveDirective("Listen").getArguments().get(0));
+
+    File httpdConf = new File(repo, "conf/httpd.conf");
+    assertTrue("Expect httpd.conf to be read", session.getFiles().contains(httpdConf.getAbsolutePath()));
+
+    String contents = FileUtils.readFileToString(httpdConf, StandardCharsets.UTF_8);
+    FileUtils.writeStringToFile(httpdConf, contents.replace("Listen 80", "Listen 8080"), StandardCharsets.UTF_8);
+    assertEquals("Expect cached lines until told of the change", "80",
+            session.getResults().getConfiguration().getEffectiveDirective("Listen").getArguments().get(0));
+
+    results = session.update(Collections.singletonList(httpdConf));
+    assertEquals("Expect the changed port", "8080",
+            results.getConfiguration().getEffectiveDirective("Listen").getArguments().get(0));
+  }
+}
@@ -17,13 +17,15 @@
 package com.adobe.aem.dot.dispatcher.plugin;
 
 import com.adobe.aem.dot.common.ConfigurationException;
+import com.adobe.aem.dot.common.ConfigurationFileCache;
+import com.adobe.aem.dot.common.analyzer.CostRecorder;
 import com.adobe.aem.dot.common.analyzer.Violation;
 import com.adobe.aem.dot.common.analyzer.ViolationVerbosity;
 import com.adobe.aem.dot.common.analyzer.rules.AnalyzerRuleList;
 import com.adobe.aem.dot.common.analyzer.rules.AnalyzerRuleListFactory;
 import com.adobe.aem.dot.common.parser.ConfigurationParseResults;
-import com.adobe.aem.dot.common.reporter.CSVReporter;
-import com.adobe.aem.dot.common.reporter.HTMLReporter;
+import com.adobe.aem.dot.common.reporter.ReportFormat;
+import com.adobe.aem.dot.common.reporter.ReportPipeline;
 import com.adobe.aem.dot.dispatcher.core.DispatcherConfigurationFactory;
 import com.adobe.aem.dot.dispatcher.core.analyzer.DispatcherAnalyzer;
 import com.adobe.aem.dot.dispatcher.core.model.DispatcherConfiguration;
@@ -95,9 +97,16 @@ public class AnalyzerMojo extends AbstractMojo {
   @Parameter( property = "analyze.reportVerbosity", defaultValue = "PARTIAL")
   private String reportVerbosity;
 
+  /**
+   * Record the cost of the parse phases, rules and checks, and include them in the CSV and HTML reports.  <Optional>
+   */
+  @Parameter( property = "analyze.timing", defaultValue = "false")
+  private boolean timing;
+
   private final static String REPORT_PATH = "/dispatcher-optimizer-tool";
-  private final static String CSV_NAME = "/results.csv";
-  private final static String HTML_NAME = "/results.html";
+  private final static String REPORT_NAME = "/results.";
+  private final static ReportFormat[] REPORT_FORMATS = { ReportFormat.CSV, ReportFormat.HTML, ReportFormat.SARIF,
+          ReportFormat.JSONL };
 
   /**
    * Execute the "analyze" goal of the Dispatcher Optimizer plugin.
@@ -120,13 +129,17 @@ public class AnalyzerMojo extends AbstractMojo {
                           this.dispatcherModuleDir + File.separator + this.dispatcherConfigPath);
 
     ViolationVerbosity violationVerbosity = setViolationVerbosity(this.reportVerbosity.toUpperCase());
+    CostRecorder costRecorder = this.timing ? new CostRecorder() : CostRecorder.DISABLED;
 
     try {
       getLog().debug("[Dispatcher Optimizer] Parsing dispatcher config...");
 
+      // Both configurations are read through one cache, so the module is indexed once.
+      ConfigurationFileCache fileCache = new ConfigurationFileCache();
       DispatcherConfigurationFactory dispatcherFactory = new DispatcherConfigurationFactory();
+      dispatcherFactory.setCostRecorder(costRecorder);
       ConfigurationParseResults<DispatcherConfiguration> dispatcherResults = dispatcherFactory.parseConfiguration(
-              this.dispatcherModuleDir, this.dispatcherConfigPath);
+              this.dispatcherModuleDir, this.dispatcherConfigPath, fileCache);
       DispatcherConfiguration dispatcherConfiguration = dispatcherResults.getConfiguration();
 
       // Collect the violations from the Dispatcher parsing/reading (i.e. not from rule violations)
@@ -139,8 +152,9 @@ public class AnalyzerMojo extends AbstractMojo {
 
       HttpdConfiguration httpdConfiguration = null;
       HttpdConfigurationFactory httpdConfigurationFactory = new HttpdConfigurationFactory();
+      httpdConfigurationFactory.setCostRecorder(costRecorder);
       ConfigurationParseResults<HttpdConfiguration> httpdResults = httpdConfigurationFactory.getHttpdConfiguration(this.dispatcherModuleDir,
-              this.apacheHttpdConfigPath);
+              this.apacheHttpdConfigPath, fileCache);
       if (httpdResults != null) {
         httpdConfiguration = httpdResults.getConfiguration();
 
@@ -156,12 +170,14 @@ public class AnalyzerMojo extends AbstractMojo {
       // Analyze the dispatcher configuration against the loaded rules.
       if (dispatcherConfiguration != null) {
         DispatcherAnalyzer dispatcherAnalyzer = new DispatcherAnalyzer(list);
+        dispatcherAnalyzer.setCostRecorder(costRecorder);
         violationCollector.addAll(dispatcherAnalyzer.getViolations(dispatcherConfiguration, violationVerbosity));
       }
 
       // Analyze the Httpd configuration against the loaded rules, if it loaded.
       if (httpdConfiguration != null) {
         HttpdAnalyzer httpdAnalyzer = new HttpdAnalyzer(list);
+        httpdAnalyzer.setCostRecorder(costRecorder);
         // Collect the violations from the Httpd config parsing/reading (i.e. not from rule violations)
         violationCollector.addAll(httpdResults.getViolations(violationVerbosity));
         // Collect the Httpd rule violations
@@ -179,7 +195,7 @@ public class AnalyzerMojo extends AbstractMojo {
         getLog().info(violation.toString());
       }
 
-      writeReports(violationCollector);
+      writeReports(violationCollector, costRecorder);
     }
     catch (ConfigurationException dce) {
       // Eventually, an exception caught here should be handled by "breaking the build"
@@ -205,42 +221,54 @@ public class AnalyzerMojo extends AbstractMojo {
     return violationVerbosity;
   }
 
-  // Write all reports, based on the violation list.
-  private void writeReports(List<Violation> violations) throws IOException {
+  // Write all reports in a single pass over the violation list, each report on its own thread.
+  private void writeReports(List<Violation> violations, CostRecorder costRecorder) throws IOException {
     Model model = project.getModel();
     Build build = model.getBuild();
     File targetDir = new File(build.getDirectory());
-
-    try {
-      String csvReport = new CSVReporter().generateViolationReport(violations);
-      String csvReportPath = FilenameUtils.separatorsToSystem(targetDir + REPORT_PATH + CSV_NAME);
-      writeReport(csvReportPath, csvReport);
-    } finally {
-      String htmlReport = new HTMLReporter().generateViolationReport(violations);
-      String htmlReportPath = FilenameUtils.separatorsToSystem(targetDir + REPORT_PATH + HTML_NAME);
-      writeReport(htmlReportPath, htmlReport);
-    }
-  }
-
-  // Write a single report.
-  private void writeReport(String reportPath, String report) throws IOException {
-    getLog().info("Begin: Writing report to " + reportPath);
-
-    File reportFile = new File(reportPath);
-    File targetDir = reportFile.getParentFile();
+    File reportDir = new File(FilenameUtils.separatorsToSystem(targetDir + REPORT_PATH));
 
     // Create directories, if needed
-    if (!targetDir.exists() && !reportFile.getParentFile().mkdirs()) {
+    if (!reportDir.exists() && !reportDir.mkdirs()) {
       getLog().warn(
-              MessageFormat.format("Path creation failed for {0}.  Aborting creation of violation report.",
-                      reportPath));
-    } else {
-      // Write report
-      try (BufferedWriter writer = new BufferedWriter(new FileWriter(reportPath))) {
-        writer.write(report);
+              MessageFormat.format("Path creation failed for {0}.  Aborting creation of violation reports.",
+                      reportDir));
+      return;
+    }
+
+    // Write every report which can be opened, even if another one failed.
+    IOException failure = null;
+    // Closing the pipeline closes the reports already opened, if writing them fails unexpectedly.
+    try (ReportPipeline pipeline = new ReportPipeline()) {
+      for (ReportFormat format : REPORT_FORMATS) {
+        String reportPath = FilenameUtils.separatorsToSystem(targetDir + REPORT_PATH + REPORT_NAME +
+                format.getExtension());
+        try {
+          pipeline.addSink(reportPath, format.createReporter(costRecorder),
+                  new BufferedWriter(new FileWriter(reportPath)));
+          getLog().info("Begin: Writing report to " + reportPath);
+        } catch (IOException ex) {
+          if (failure == null) {
+            failure = ex;
+          } else {
+            failure.addSuppressed(ex);
+          }
+        }
       }
 
-      getLog().info("End: Wrote report to " + reportPath);
+      try {
+        pipeline.write(violations.iterator());
+        getLog().info("End: Wrote " + pipeline.getSinkCount() + " reports to " + reportDir);
+      } catch (IOException ex) {
+        if (failure == null) {
+          failure = ex;
+        } else {
+          failure.addSuppressed(ex);
+        }
+      }
+      if (failure != null) {
+        throw failure;
+      }
     }
   }
 }